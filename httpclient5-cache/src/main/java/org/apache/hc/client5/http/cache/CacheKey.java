@@ -0,0 +1,212 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.cache;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Normalized cache key of a request along with its 128-bit hash.
+ * <p>
+ * The hash is computed with the x64 variant of the MurmurHash3 128-bit
+ * function over UTF-8 bytes of the key.
+ * </p>
+ * <p>
+ * Cache storages are keyed by the string form of the key and never see
+ * instances of this class. Storages that need a hash of the key, such as
+ * memcached with {@link org.apache.hc.client5.http.impl.cache.memcached.Murmur3KeyHashingScheme},
+ * compute it again from the string key.
+ * </p>
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.IMMUTABLE)
+public final class CacheKey {
+
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private static final char[] DIGITS = {
+            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'a', 'b', 'c', 'd', 'e', 'f' };
+
+    public static CacheKey of(final String key) {
+        return new CacheKey(key);
+    }
+
+    private final String key;
+    private final long hashHigh;
+    private final long hashLow;
+
+    private CacheKey(final String key) {
+        this.key = Args.notNull(key, "Key");
+        final byte[] b = key.getBytes(StandardCharsets.UTF_8);
+        final int len = b.length;
+        final int nblocks = len >>> 4;
+        long h1 = 0;
+        long h2 = 0;
+        for (int i = 0; i < nblocks; i++) {
+            final int off = i << 4;
+            long k1 = getLong(b, off);
+            long k2 = getLong(b, off + 8);
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+            h1 = Long.rotateLeft(h1, 27);
+            h1 += h2;
+            h1 = h1 * 5 + 0x52dce729;
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+            h2 = Long.rotateLeft(h2, 31);
+            h2 += h1;
+            h2 = h2 * 5 + 0x38495ab5;
+        }
+        final int tail = nblocks << 4;
+        long k1 = 0;
+        long k2 = 0;
+        switch (len & 15) {
+            case 15: k2 ^= (long) (b[tail + 14] & 0xff) << 48;
+            case 14: k2 ^= (long) (b[tail + 13] & 0xff) << 40;
+            case 13: k2 ^= (long) (b[tail + 12] & 0xff) << 32;
+            case 12: k2 ^= (long) (b[tail + 11] & 0xff) << 24;
+            case 11: k2 ^= (long) (b[tail + 10] & 0xff) << 16;
+            case 10: k2 ^= (long) (b[tail + 9] & 0xff) << 8;
+            case 9:
+                k2 ^= b[tail + 8] & 0xff;
+                k2 *= C2;
+                k2 = Long.rotateLeft(k2, 33);
+                k2 *= C1;
+                h2 ^= k2;
+            case 8: k1 ^= (long) (b[tail + 7] & 0xff) << 56;
+            case 7: k1 ^= (long) (b[tail + 6] & 0xff) << 48;
+            case 6: k1 ^= (long) (b[tail + 5] & 0xff) << 40;
+            case 5: k1 ^= (long) (b[tail + 4] & 0xff) << 32;
+            case 4: k1 ^= (long) (b[tail + 3] & 0xff) << 24;
+            case 3: k1 ^= (long) (b[tail + 2] & 0xff) << 16;
+            case 2: k1 ^= (long) (b[tail + 1] & 0xff) << 8;
+            case 1:
+                k1 ^= b[tail] & 0xff;
+                k1 *= C1;
+                k1 = Long.rotateLeft(k1, 31);
+                k1 *= C2;
+                h1 ^= k1;
+            default:
+        }
+        h1 ^= len;
+        h2 ^= len;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        h1 += h2;
+        h2 += h1;
+        this.hashHigh = h1;
+        this.hashLow = h2;
+    }
+
+    private static long getLong(final byte[] b, final int off) {
+        return (b[off] & 0xffL)
+                | (b[off + 1] & 0xffL) << 8
+                | (b[off + 2] & 0xffL) << 16
+                | (b[off + 3] & 0xffL) << 24
+                | (b[off + 4] & 0xffL) << 32
+                | (b[off + 5] & 0xffL) << 40
+                | (b[off + 6] & 0xffL) << 48
+                | (b[off + 7] & 0xffL) << 56;
+    }
+
+    private static long fmix(final long k) {
+        long h = k;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /**
+     * Returns the normalized key.
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Returns the first 64 bits of the key hash.
+     */
+    public long getHashHigh() {
+        return hashHigh;
+    }
+
+    /**
+     * Returns the last 64 bits of the key hash.
+     */
+    public long getHashLow() {
+        return hashLow;
+    }
+
+    /**
+     * Returns the key hash as a 32 character hexadecimal string.
+     */
+    public String getHashString() {
+        final char[] buf = new char[32];
+        for (int i = 0; i < 16; i++) {
+            buf[i] = DIGITS[(int) (hashHigh >>> (60 - (i << 2))) & 0xf];
+            buf[i + 16] = DIGITS[(int) (hashLow >>> (60 - (i << 2))) & 0xf];
+        }
+        return new String(buf);
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof CacheKey) {
+            final CacheKey that = (CacheKey) obj;
+            return this.hashHigh == that.hashHigh && this.hashLow == that.hashLow && this.key.equals(that.key);
+        }
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) hashHigh;
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+
+}
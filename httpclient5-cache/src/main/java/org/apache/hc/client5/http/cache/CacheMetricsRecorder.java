@@ -0,0 +1,174 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.cache;
+
+/**
+ * Recorder of HTTP cache statistics. The caching protocol handlers, the cache
+ * and the cache storage backends report into an instance of this interface.
+ * <p>
+ * Implementations are called on the request execution path and must be
+ * thread safe, cheap and must not block. All methods have no-op default
+ * implementations.
+ * </p>
+ *
+ * @since 5.3
+ */
+public interface CacheMetricsRecorder {
+
+    /**
+     * Outcome of a cache entry validation with the origin server.
+     */
+    enum ValidationOutcome {
+
+        /**
+         * The origin server confirmed the cache entry is still valid.
+         */
+        NOT_MODIFIED,
+
+        /**
+         * The origin server returned a new representation.
+         */
+        MODIFIED,
+
+        /**
+         * The validation failed with an I/O error or a server error response.
+         */
+        FAILED
+
+    }
+
+    /**
+     * Cache storage backend operation.
+     */
+    enum StorageOperation {
+
+        GET,
+        PUT,
+        UPDATE,
+        REMOVE,
+        BULK_GET,
+        BULK_REMOVE
+
+    }
+
+    /**
+     * Recorder that discards all data.
+     */
+    CacheMetricsRecorder NOOP = new CacheMetricsRecorder() {
+    };
+
+    /**
+     * Records a request served from the cache without contacting the origin server,
+     * including stale responses served while the entry gets revalidated in the
+     * background. Cache entries that get revalidated before use or cannot be used
+     * are not recorded as hits.
+     */
+    default void recordHit() {
+    }
+
+    /**
+     * Records a request that could not be served from the cache.
+     */
+    default void recordMiss() {
+    }
+
+    /**
+     * Records a request that could not be served due to a cache failure.
+     */
+    default void recordFailure() {
+    }
+
+    /**
+     * Records a validation of a cache entry with the origin server.
+     */
+    default void recordValidation(final ValidationOutcome outcome) {
+    }
+
+    /**
+     * Records cache entries evicted by the cache storage to make room for new ones.
+     */
+    default void recordEvictions(final int count) {
+    }
+
+    /**
+     * Records new cache entries the cache storage declined to store, for instance
+     * because they exceed the size limits or were turned away by an admission filter.
+     */
+    default void recordRejections(final int count) {
+    }
+
+    /**
+     * Records cache entries explicitly invalidated by the cache.
+     */
+    default void recordInvalidations(final int count) {
+    }
+
+    /**
+     * Records the size of a cache entry body being stored.
+     */
+    default void recordBytesStored(final long bytes) {
+    }
+
+    /**
+     * Records the time in nanoseconds taken to serialize a cache entry.
+     */
+    default void recordSerialization(final long nanos) {
+    }
+
+    /**
+     * Records the time in nanoseconds taken to deserialize a cache entry.
+     */
+    default void recordDeserialization(final long nanos) {
+    }
+
+    /**
+     * Records the time in nanoseconds taken by a storage backend operation.
+     */
+    default void recordStorageOperation(final StorageOperation operation, final long nanos) {
+    }
+
+    /**
+     * Records a background re-validation added to the re-validation queue
+     * along with the resulting number of re-validations waiting for execution.
+     */
+    default void recordRevalidationQueued(final int queueDepth) {
+    }
+
+    /**
+     * Records a background re-validation dropped due to the re-validation queue being full.
+     */
+    default void recordRevalidationDropped() {
+    }
+
+    /**
+     * Records the execution of a background re-validation along with the time
+     * in nanoseconds it spent in the re-validation queue.
+     */
+    default void recordRevalidationExecuted(final long queueNanos) {
+    }
+
+}
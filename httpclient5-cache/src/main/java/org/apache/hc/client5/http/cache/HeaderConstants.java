@@ -76,4 +76,14 @@ public class HeaderConstants {
     public static final String PROXY_AUTHENTICATE = "Proxy-Authenticate";
     public static final String AUTHORIZATION = "Authorization";
 
+    /**
+     * @since 5.3
+     */
+    public static final String SURROGATE_KEY = "Surrogate-Key";
+
+    /**
+     * @since 5.3
+     */
+    public static final String CACHE_TAG = "Cache-Tag";
+
 }
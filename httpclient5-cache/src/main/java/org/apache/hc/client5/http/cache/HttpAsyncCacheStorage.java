@@ -26,8 +26,12 @@
  */
 package org.apache.hc.client5.http.cache;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
@@ -97,4 +101,58 @@ Cancellable updateEntry(
      */
     Cancellable getEntries(Collection<String> keys, FutureCallback<Map<String, HttpCacheEntry>> callback);
 
+    /**
+     * Removes cache entries stored under the given keys. Some implementations
+     * may use a single bulk operation to do the removal. The default implementation
+     * issues individual removals concurrently and completes once all of them
+     * have completed.
+     *
+     * @param keys cache keys
+     * @param callback result callback
+     *
+     * @since 5.3
+     */
+    default Cancellable removeEntries(final Collection<String> keys, final FutureCallback<Boolean> callback) {
+        if (keys.isEmpty()) {
+            callback.completed(Boolean.TRUE);
+            return () -> false;
+        }
+        final List<Cancellable> operations = new ArrayList<>(keys.size());
+        final AtomicInteger remaining = new AtomicInteger(keys.size());
+        final AtomicBoolean done = new AtomicBoolean();
+        for (final String key : keys) {
+            operations.add(removeEntry(key, new FutureCallback<Boolean>() {
+
+                @Override
+                public void completed(final Boolean result) {
+                    if (remaining.decrementAndGet() == 0 && done.compareAndSet(false, true)) {
+                        callback.completed(Boolean.TRUE);
+                    }
+                }
+
+                @Override
+                public void failed(final Exception ex) {
+                    if (done.compareAndSet(false, true)) {
+                        callback.failed(ex);
+                    }
+                }
+
+                @Override
+                public void cancelled() {
+                    if (done.compareAndSet(false, true)) {
+                        callback.cancelled();
+                    }
+                }
+
+            }));
+        }
+        return () -> {
+            boolean cancelled = false;
+            for (final Cancellable operation : operations) {
+                cancelled |= operation.cancel();
+            }
+            return cancelled;
+        };
+    }
+
 }
@@ -45,6 +45,16 @@ public class HttpCacheContext extends HttpClientContext {
      */
     public static final String CACHE_RESPONSE_STATUS = "http.cache.response.status";
 
+    /**
+     * This is the name under which the {@link CacheKey} of a request will be recorded
+     * once computed by the caching layer. The recorded key is used for cache lookups
+     * of the request. Storing entries after a backend exchange and invalidating
+     * entries derive their keys from the request again.
+     *
+     * @since 5.3
+     */
+    public static final String CACHE_KEY = "http.cache.key";
+
     public static HttpCacheContext adapt(final HttpContext context) {
         if (context instanceof HttpCacheContext) {
             return (HttpCacheContext) context;
@@ -69,4 +79,18 @@ public CacheResponseStatus getCacheResponseStatus() {
         return getAttribute(CACHE_RESPONSE_STATUS, CacheResponseStatus.class);
     }
 
+    /**
+     * @since 5.3
+     */
+    public CacheKey getCacheKey() {
+        return getAttribute(CACHE_KEY, CacheKey.class);
+    }
+
+    /**
+     * @since 5.3
+     */
+    public void setCacheKey(final CacheKey cacheKey) {
+        setAttribute(CACHE_KEY, cacheKey);
+    }
+
 }
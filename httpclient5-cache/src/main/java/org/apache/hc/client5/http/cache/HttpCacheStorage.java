@@ -94,4 +94,18 @@ void updateEntry(
      */
     Map<String, HttpCacheEntry> getEntries(Collection<String> keys) throws ResourceIOException;
 
+    /**
+     * Removes cache entries stored under the given keys. Some implementations
+     * may use a single bulk operation to do the removal.
+     *
+     * @param keys cache keys
+     *
+     * @since 5.3
+     */
+    default void removeEntries(final Collection<String> keys) throws ResourceIOException {
+        for (final String key : keys) {
+            removeEntry(key);
+        }
+    }
+
 }
@@ -26,6 +26,7 @@
  */
 package org.apache.hc.client5.http.impl.cache;
 
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.HttpCacheEntrySerializer;
 
 /**
@@ -35,6 +36,16 @@
  */
 public abstract class AbstractBinaryAsyncCacheStorage<CAS> extends AbstractSerializingAsyncCacheStorage<byte[], CAS> {
 
+    /**
+     * @since 5.3
+     */
+    public AbstractBinaryAsyncCacheStorage(
+            final int maxUpdateRetries,
+            final HttpCacheEntrySerializer<byte[]> serializer,
+            final CacheMetricsRecorder metricsRecorder) {
+        super(maxUpdateRetries, serializer, metricsRecorder);
+    }
+
     public AbstractBinaryAsyncCacheStorage(final int maxUpdateRetries, final HttpCacheEntrySerializer<byte[]> serializer) {
         super(maxUpdateRetries, serializer);
     }
@@ -33,6 +33,7 @@
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.HttpAsyncCacheStorage;
 import org.apache.hc.client5.http.cache.HttpCacheCASOperation;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
@@ -55,10 +56,22 @@
 
     private final int maxUpdateRetries;
     private final HttpCacheEntrySerializer<T> serializer;
-
-    public AbstractSerializingAsyncCacheStorage(final int maxUpdateRetries, final HttpCacheEntrySerializer<T> serializer) {
+    private final CacheMetricsRecorder metricsRecorder;
+
+    /**
+     * @since 5.3
+     */
+    public AbstractSerializingAsyncCacheStorage(
+            final int maxUpdateRetries,
+            final HttpCacheEntrySerializer<T> serializer,
+            final CacheMetricsRecorder metricsRecorder) {
         this.maxUpdateRetries = Args.notNegative(maxUpdateRetries, "Max retries");
         this.serializer = Args.notNull(serializer, "Cache entry serializer");
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : CacheMetricsRecorder.NOOP;
+    }
+
+    public AbstractSerializingAsyncCacheStorage(final int maxUpdateRetries, final HttpCacheEntrySerializer<T> serializer) {
+        this(maxUpdateRetries, serializer, null);
     }
 
     protected abstract String digestToStorageKey(String key);
@@ -77,6 +90,48 @@ public AbstractSerializingAsyncCacheStorage(final int maxUpdateRetries, final Ht
 
     protected abstract Cancellable bulkRestore(Collection<String> storageKeys, FutureCallback<Map<String, T>> callback);
 
+    private T serialize(final String key, final HttpCacheEntry entry) throws ResourceIOException {
+        final long start = System.nanoTime();
+        final T storageObject = serializer.serialize(new HttpCacheStorageEntry(key, entry));
+        metricsRecorder.recordSerialization(System.nanoTime() - start);
+        return storageObject;
+    }
+
+    private HttpCacheStorageEntry deserialize(final T storageObject) throws ResourceIOException {
+        final long start = System.nanoTime();
+        final HttpCacheStorageEntry entry = serializer.deserialize(storageObject);
+        metricsRecorder.recordDeserialization(System.nanoTime() - start);
+        return entry;
+    }
+
+    private <R> FutureCallback<R> timed(
+            final CacheMetricsRecorder.StorageOperation operation, final FutureCallback<R> callback) {
+        if (metricsRecorder == CacheMetricsRecorder.NOOP) {
+            return callback;
+        }
+        final long start = System.nanoTime();
+        return new FutureCallback<R>() {
+
+            @Override
+            public void completed(final R result) {
+                metricsRecorder.recordStorageOperation(operation, System.nanoTime() - start);
+                callback.completed(result);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                metricsRecorder.recordStorageOperation(operation, System.nanoTime() - start);
+                callback.failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                callback.cancelled();
+            }
+
+        };
+    }
+
     @Override
     public final Cancellable putEntry(
             final String key, final HttpCacheEntry entry, final FutureCallback<Boolean> callback) {
@@ -84,8 +139,8 @@ public final Cancellable putEntry(
         Args.notNull(callback, "Callback");
         try {
             final String storageKey = digestToStorageKey(key);
-            final T storageObject = serializer.serialize(new HttpCacheStorageEntry(key, entry));
-            return store(storageKey, storageObject, callback);
+            final T storageObject = serialize(key, entry);
+            return store(storageKey, storageObject, timed(CacheMetricsRecorder.StorageOperation.PUT, callback));
         } catch (final Exception ex) {
             callback.failed(ex);
             return Operations.nonCancellable();
@@ -98,13 +153,13 @@ public final Cancellable getEntry(final String key, final FutureCallback<HttpCac
         Args.notNull(callback, "Callback");
         try {
             final String storageKey = digestToStorageKey(key);
-            return restore(storageKey, new FutureCallback<T>() {
+            return restore(storageKey, timed(CacheMetricsRecorder.StorageOperation.GET, new FutureCallback<T>() {
 
                 @Override
                 public void completed(final T storageObject) {
                     try {
                         if (storageObject != null) {
-                            final HttpCacheStorageEntry entry = serializer.deserialize(storageObject);
+                            final HttpCacheStorageEntry entry = deserialize(storageObject);
                             if (key.equals(entry.getKey())) {
                                 callback.completed(entry.getContent());
                             } else {
@@ -128,7 +183,7 @@ public void cancelled() {
                     callback.cancelled();
                 }
 
-            });
+            }));
         } catch (final Exception ex) {
             callback.failed(ex);
             return Operations.nonCancellable();
@@ -141,7 +196,7 @@ public final Cancellable removeEntry(final String key, final FutureCallback<Bool
         Args.notNull(callback, "Callback");
         try {
             final String storageKey = digestToStorageKey(key);
-            return delete(storageKey, callback);
+            return delete(storageKey, timed(CacheMetricsRecorder.StorageOperation.REMOVE, callback));
         } catch (final Exception ex) {
             callback.failed(ex);
             return Operations.nonCancellable();
@@ -168,12 +223,12 @@ private void attemptUpdateEntry(
             final FutureCallback<Boolean> callback) {
         try {
             final String storageKey = digestToStorageKey(key);
-            complexCancellable.setDependency(getForUpdateCAS(storageKey, new FutureCallback<CAS>() {
+            complexCancellable.setDependency(getForUpdateCAS(storageKey, timed(CacheMetricsRecorder.StorageOperation.GET, new FutureCallback<CAS>() {
 
                 @Override
                 public void completed(final CAS cas) {
                     try {
-                        HttpCacheStorageEntry storageEntry = cas != null ? serializer.deserialize(getStorageObject(cas)) : null;
+                        HttpCacheStorageEntry storageEntry = cas != null ? deserialize(getStorageObject(cas)) : null;
                         if (storageEntry != null && !key.equals(storageEntry.getKey())) {
                             storageEntry = null;
                         }
@@ -182,8 +237,8 @@ public void completed(final CAS cas) {
                         if (existingEntry == null) {
                             putEntry(key, updatedEntry, callback);
                         } else {
-                            final T storageObject = serializer.serialize(new HttpCacheStorageEntry(key, updatedEntry));
-                            complexCancellable.setDependency(updateCAS(storageKey, cas, storageObject, new FutureCallback<Boolean>() {
+                            final T storageObject = serialize(key, updatedEntry);
+                            complexCancellable.setDependency(updateCAS(storageKey, cas, storageObject, timed(CacheMetricsRecorder.StorageOperation.UPDATE, new FutureCallback<Boolean>() {
 
                                 @Override
                                 public void completed(final Boolean result) {
@@ -211,7 +266,7 @@ public void cancelled() {
                                     callback.cancelled();
                                 }
 
-                            }));
+                            })));
                         }
                     } catch (final Exception ex) {
                         callback.failed(ex);
@@ -228,7 +283,7 @@ public void cancelled() {
                     callback.cancelled();
                 }
 
-            }));
+            })));
         } catch (final Exception ex) {
             callback.failed(ex);
         }
@@ -243,7 +298,7 @@ public final Cancellable getEntries(final Collection<String> keys, final FutureC
             for (final String key: keys) {
                 storageKeys.add(digestToStorageKey(key));
             }
-            return bulkRestore(storageKeys, new FutureCallback<Map<String, T>>() {
+            return bulkRestore(storageKeys, timed(CacheMetricsRecorder.StorageOperation.BULK_GET, new FutureCallback<Map<String, T>>() {
 
                 @Override
                 public void completed(final Map<String, T> storageObjectMap) {
@@ -253,7 +308,7 @@ public void completed(final Map<String, T> storageObjectMap) {
                             final String storageKey = digestToStorageKey(key);
                             final T storageObject = storageObjectMap.get(storageKey);
                             if (storageObject != null) {
-                                final HttpCacheStorageEntry entry = serializer.deserialize(storageObject);
+                                final HttpCacheStorageEntry entry = deserialize(storageObject);
                                 if (key.equals(entry.getKey())) {
                                     resultMap.put(key, entry.getContent());
                                 }
@@ -275,7 +330,7 @@ public void cancelled() {
                     callback.cancelled();
                 }
 
-            });
+            }));
         } catch (final Exception ex) {
             callback.failed(ex);
             return Operations.nonCancellable();
@@ -32,6 +32,7 @@
 import java.util.List;
 import java.util.Map;
 
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.HttpCacheCASOperation;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
 import org.apache.hc.client5.http.cache.HttpCacheEntrySerializer;
@@ -50,10 +51,22 @@
 
     private final int maxUpdateRetries;
     private final HttpCacheEntrySerializer<T> serializer;
-
-    public AbstractSerializingCacheStorage(final int maxUpdateRetries, final HttpCacheEntrySerializer<T> serializer) {
+    private final CacheMetricsRecorder metricsRecorder;
+
+    /**
+     * @since 5.3
+     */
+    public AbstractSerializingCacheStorage(
+            final int maxUpdateRetries,
+            final HttpCacheEntrySerializer<T> serializer,
+            final CacheMetricsRecorder metricsRecorder) {
         this.maxUpdateRetries = Args.notNegative(maxUpdateRetries, "Max retries");
         this.serializer = Args.notNull(serializer, "Cache entry serializer");
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : CacheMetricsRecorder.NOOP;
+    }
+
+    public AbstractSerializingCacheStorage(final int maxUpdateRetries, final HttpCacheEntrySerializer<T> serializer) {
+        this(maxUpdateRetries, serializer, null);
     }
 
     protected abstract String digestToStorageKey(String key);
@@ -72,21 +85,51 @@ public AbstractSerializingCacheStorage(final int maxUpdateRetries, final HttpCac
 
     protected abstract Map<String, T> bulkRestore(Collection<String> storageKeys) throws ResourceIOException;
 
+    /**
+     * Deletes storage objects stored under the given storage keys. The default
+     * implementation deletes objects one by one.
+     *
+     * @since 5.3
+     */
+    protected void bulkDelete(final Collection<String> storageKeys) throws ResourceIOException {
+        for (final String storageKey : storageKeys) {
+            delete(storageKey);
+        }
+    }
+
+    private T serialize(final String key, final HttpCacheEntry entry) throws ResourceIOException {
+        final long start = System.nanoTime();
+        final T storageObject = serializer.serialize(new HttpCacheStorageEntry(key, entry));
+        metricsRecorder.recordSerialization(System.nanoTime() - start);
+        return storageObject;
+    }
+
+    private HttpCacheStorageEntry deserialize(final T storageObject) throws ResourceIOException {
+        final long start = System.nanoTime();
+        final HttpCacheStorageEntry entry = serializer.deserialize(storageObject);
+        metricsRecorder.recordDeserialization(System.nanoTime() - start);
+        return entry;
+    }
+
     @Override
     public final void putEntry(final String key, final HttpCacheEntry entry) throws ResourceIOException {
         final String storageKey = digestToStorageKey(key);
-        final T storageObject = serializer.serialize(new HttpCacheStorageEntry(key, entry));
+        final T storageObject = serialize(key, entry);
+        final long start = System.nanoTime();
         store(storageKey, storageObject);
+        metricsRecorder.recordStorageOperation(CacheMetricsRecorder.StorageOperation.PUT, System.nanoTime() - start);
     }
 
     @Override
     public final HttpCacheEntry getEntry(final String key) throws ResourceIOException {
         final String storageKey = digestToStorageKey(key);
+        final long start = System.nanoTime();
         final T storageObject = restore(storageKey);
+        metricsRecorder.recordStorageOperation(CacheMetricsRecorder.StorageOperation.GET, System.nanoTime() - start);
         if (storageObject == null) {
             return null;
         }
-        final HttpCacheStorageEntry entry = serializer.deserialize(storageObject);
+        final HttpCacheStorageEntry entry = deserialize(storageObject);
         if (key.equals(entry.getKey())) {
             return entry.getContent();
         } else {
@@ -97,7 +140,21 @@ public final HttpCacheEntry getEntry(final String key) throws ResourceIOExceptio
     @Override
     public final void removeEntry(final String key) throws ResourceIOException {
         final String storageKey = digestToStorageKey(key);
+        final long start = System.nanoTime();
         delete(storageKey);
+        metricsRecorder.recordStorageOperation(CacheMetricsRecorder.StorageOperation.REMOVE, System.nanoTime() - start);
+    }
+
+    @Override
+    public final void removeEntries(final Collection<String> keys) throws ResourceIOException {
+        Args.notNull(keys, "Storage keys");
+        final List<String> storageKeys = new ArrayList<>(keys.size());
+        for (final String key : keys) {
+            storageKeys.add(digestToStorageKey(key));
+        }
+        final long start = System.nanoTime();
+        bulkDelete(storageKeys);
+        metricsRecorder.recordStorageOperation(CacheMetricsRecorder.StorageOperation.BULK_REMOVE, System.nanoTime() - start);
     }
 
     @Override
@@ -107,8 +164,10 @@ public final void updateEntry(
         int numRetries = 0;
         final String storageKey = digestToStorageKey(key);
         for (;;) {
+            final long start = System.nanoTime();
             final CAS cas = getForUpdateCAS(storageKey);
-            HttpCacheStorageEntry storageEntry = cas != null ? serializer.deserialize(getStorageObject(cas)) : null;
+            metricsRecorder.recordStorageOperation(CacheMetricsRecorder.StorageOperation.GET, System.nanoTime() - start);
+            HttpCacheStorageEntry storageEntry = cas != null ? deserialize(getStorageObject(cas)) : null;
             if (storageEntry != null && !key.equals(storageEntry.getKey())) {
                 storageEntry = null;
             }
@@ -120,8 +179,11 @@ public final void updateEntry(
                 return;
 
             }
-            final T storageObject = serializer.serialize(new HttpCacheStorageEntry(key, updatedEntry));
-            if (!updateCAS(storageKey, cas, storageObject)) {
+            final T storageObject = serialize(key, updatedEntry);
+            final long updateStart = System.nanoTime();
+            final boolean updated = updateCAS(storageKey, cas, storageObject);
+            metricsRecorder.recordStorageOperation(CacheMetricsRecorder.StorageOperation.UPDATE, System.nanoTime() - updateStart);
+            if (!updated) {
                 numRetries++;
                 if (numRetries >= maxUpdateRetries) {
                     throw new HttpCacheUpdateException("Cache update failed after " + numRetries + " retries");
@@ -139,13 +201,15 @@ public final Map<String, HttpCacheEntry> getEntries(final Collection<String> key
         for (final String key: keys) {
             storageKeys.add(digestToStorageKey(key));
         }
+        final long start = System.nanoTime();
         final Map<String, T> storageObjectMap = bulkRestore(storageKeys);
+        metricsRecorder.recordStorageOperation(CacheMetricsRecorder.StorageOperation.BULK_GET, System.nanoTime() - start);
         final Map<String, HttpCacheEntry> resultMap = new HashMap<>();
         for (final String key: keys) {
             final String storageKey = digestToStorageKey(key);
             final T storageObject = storageObjectMap.get(storageKey);
             if (storageObject != null) {
-                final HttpCacheStorageEntry entry = serializer.deserialize(storageObject);
+                final HttpCacheStorageEntry entry = deserialize(storageObject);
                 if (key.equals(entry.getKey())) {
                     resultMap.put(key, entry.getContent());
                 }
@@ -35,17 +35,20 @@
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.async.AsyncExecCallback;
 import org.apache.hc.client5.http.async.AsyncExecChain;
 import org.apache.hc.client5.http.async.AsyncExecChainHandler;
-import org.apache.hc.client5.http.async.methods.SimpleBody;
-import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.cache.CacheKey;
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.CacheResponseStatus;
 import org.apache.hc.client5.http.cache.HeaderConstants;
 import org.apache.hc.client5.http.cache.HttpAsyncCacheStorage;
+import org.apache.hc.client5.http.cache.HttpCacheContext;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.Resource;
 import org.apache.hc.client5.http.cache.ResourceFactory;
 import org.apache.hc.client5.http.cache.ResourceIOException;
 import org.apache.hc.client5.http.impl.ExecSupport;
@@ -53,10 +56,10 @@
 import org.apache.hc.client5.http.schedule.SchedulingStrategy;
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.Cancellable;
 import org.apache.hc.core5.concurrent.CancellableDependency;
 import org.apache.hc.core5.concurrent.ComplexFuture;
 import org.apache.hc.core5.concurrent.FutureCallback;
-import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.EntityDetails;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpException;
@@ -65,10 +68,11 @@
 import org.apache.hc.core5.http.HttpRequest;
 import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.HttpStatus;
-import org.apache.hc.core5.http.impl.BasicEntityDetails;
 import org.apache.hc.core5.http.nio.AsyncDataConsumer;
 import org.apache.hc.core5.http.nio.AsyncEntityProducer;
 import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
 import org.apache.hc.core5.http.protocol.HttpCoreContext;
 import org.apache.hc.core5.http.support.BasicRequestBuilder;
 import org.apache.hc.core5.net.URIAuthority;
@@ -97,7 +101,15 @@ class AsyncCachingExec extends CachingExecBase implements AsyncExecChainHandler
     private final ConditionalRequestBuilder<HttpRequest> conditionalRequestBuilder;
 
     AsyncCachingExec(final HttpAsyncCache cache, final DefaultAsyncCacheRevalidator cacheRevalidator, final CacheConfig config) {
-        super(config);
+        this(cache, cacheRevalidator, config, null);
+    }
+
+    AsyncCachingExec(
+            final HttpAsyncCache cache,
+            final DefaultAsyncCacheRevalidator cacheRevalidator,
+            final CacheConfig config,
+            final CacheMetricsRecorder metricsRecorder) {
+        super(config, metricsRecorder);
         this.responseCache = Args.notNull(cache, "Response cache");
         this.cacheRevalidator = cacheRevalidator;
         this.conditionalRequestBuilder = new ConditionalRequestBuilder<>(request ->
@@ -129,7 +141,7 @@ class AsyncCachingExec extends CachingExecBase implements AsyncExecChainHandler
             final SchedulingStrategy schedulingStrategy,
             final CacheConfig config) {
         this(cache,
-                executorService != null ? new DefaultAsyncCacheRevalidator(executorService, schedulingStrategy) : null,
+                executorService != null ? new DefaultAsyncCacheRevalidator(executorService, schedulingStrategy, config) : null,
                 config);
     }
 
@@ -142,30 +154,324 @@ class AsyncCachingExec extends CachingExecBase implements AsyncExecChainHandler
         this(new BasicHttpAsyncCache(resourceFactory, storage), executorService, schedulingStrategy, config);
     }
 
+    /**
+     * Returns the cache key generated for the request at the start of the exchange
+     * or generates one if the exchange runs with a context of its own.
+     */
+    private CacheKey getCacheKey(final HttpHost target, final HttpRequest request, final HttpContext context) {
+        final Object cacheKey = context.getAttribute(HttpCacheContext.CACHE_KEY);
+        return cacheKey instanceof CacheKey ? (CacheKey) cacheKey : responseCache.generateCacheKey(target, request);
+    }
+
     private void triggerResponse(
-            final SimpleHttpResponse cacheResponse,
+            final CachedHttpResponse cacheResponse,
             final AsyncExecChain.Scope scope,
             final AsyncExecCallback asyncExecCallback) {
         scope.clientContext.setAttribute(HttpCoreContext.HTTP_RESPONSE, cacheResponse);
         scope.execRuntime.releaseEndpoint();
 
-        final SimpleBody body = cacheResponse.getBody();
-        final byte[] content = body != null ? body.getBodyBytes() : null;
-        final ContentType contentType = body != null ? body.getContentType() : null;
+        final Resource resource = cacheResponse.getBody();
+        final AsyncEntityProducer entityProducer;
+        if (resource != null) {
+            final Header h = cacheResponse.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
+            entityProducer = new ResourceEntityProducer(
+                    resource,
+                    cacheResponse.getChannel(),
+                    cacheResponse.getContentType(),
+                    h != null ? h.getValue() : null);
+        } else {
+            entityProducer = null;
+        }
+        boolean streaming = false;
         try {
-            final AsyncDataConsumer dataConsumer = asyncExecCallback.handleResponse(
-                    cacheResponse,
-                    content != null ? new BasicEntityDetails(content.length, contentType) : null);
+            final AsyncDataConsumer dataConsumer = asyncExecCallback.handleResponse(cacheResponse, entityProducer);
+            if (dataConsumer != null && entityProducer != null) {
+                // The content streamer completes the exchange and releases the producer
+                streaming = true;
+                final ContentStreamer contentStreamer = new ContentStreamer(entityProducer, dataConsumer, asyncExecCallback);
+                scope.cancellableDependency.setDependency(contentStreamer);
+                contentStreamer.start();
+                return;
+            }
             if (dataConsumer != null) {
-                if (content != null) {
-                    dataConsumer.consume(ByteBuffer.wrap(content));
-                }
                 dataConsumer.streamEnd(null);
             }
             asyncExecCallback.completed();
         } catch (final HttpException | IOException ex) {
             asyncExecCallback.failed(ex);
+        } finally {
+            if (entityProducer != null && !streaming) {
+                entityProducer.releaseResources();
+            }
+        }
+    }
+
+    /**
+     * Streams content of a cached response from an {@link AsyncEntityProducer} to
+     * an {@link AsyncDataConsumer} within the capacity signalled by the consumer.
+     * <p>
+     * The thread that starts streaming produces no more than the initial window.
+     * Remaining content gets produced by the thread that makes more capacity available,
+     * but never by more than one thread at a time. Once the producer ends the stream
+     * the exchange gets completed and the producer resources get released.
+     * </p>
+     * <p>
+     * Cancellation of the streamer releases the producer resources right away unless
+     * content is being produced at that moment, in which case the producing thread
+     * releases them once the current chunk has been written.
+     * </p>
+     */
+    static final class ContentStreamer implements DataStreamChannel, CapacityChannel, Cancellable {
+
+        static final int INITIAL_WINDOW = 65535;
+
+        private final AsyncEntityProducer entityProducer;
+        private final AsyncDataConsumer dataConsumer;
+        private final AsyncExecCallback asyncExecCallback;
+        private final ReentrantLock lock;
+
+        private int capacity;
+        private boolean producing;
+        private boolean endOfStream;
+        private boolean completed;
+        private boolean cancelled;
+        private List<? extends Header> trailers;
+
+        ContentStreamer(
+                final AsyncEntityProducer entityProducer,
+                final AsyncDataConsumer dataConsumer,
+                final AsyncExecCallback asyncExecCallback,
+                final int initialWindow) {
+            this.entityProducer = entityProducer;
+            this.dataConsumer = dataConsumer;
+            this.asyncExecCallback = asyncExecCallback;
+            this.lock = new ReentrantLock();
+            this.capacity = initialWindow;
+        }
+
+        ContentStreamer(
+                final AsyncEntityProducer entityProducer,
+                final AsyncDataConsumer dataConsumer,
+                final AsyncExecCallback asyncExecCallback) {
+            this(entityProducer, dataConsumer, asyncExecCallback, INITIAL_WINDOW);
+        }
+
+        void start() {
+            lock.lock();
+            try {
+                // Capacity updates signalled from within #updateCapacity must not
+                // trigger content production
+                producing = true;
+            } finally {
+                lock.unlock();
+            }
+            try {
+                dataConsumer.updateCapacity(this);
+            } catch (final IOException ex) {
+                fail(ex);
+                return;
+            }
+            produceContent();
+        }
+
+        private void triggerProduction() {
+            lock.lock();
+            try {
+                if (producing || completed) {
+                    return;
+                }
+                producing = true;
+            } finally {
+                lock.unlock();
+            }
+            produceContent();
+        }
+
+        private void produceContent() {
+            try {
+                for (;;) {
+                    lock.lock();
+                    try {
+                        if (completed) {
+                            producing = false;
+                            if (cancelled) {
+                                // Cancelled while producing content
+                                entityProducer.releaseResources();
+                            }
+                            return;
+                        }
+                        if (endOfStream) {
+                            completed = true;
+                            break;
+                        }
+                        if (capacity <= 0) {
+                            producing = false;
+                            return;
+                        }
+                    } finally {
+                        lock.unlock();
+                    }
+                    entityProducer.produce(this);
+                }
+                dataConsumer.streamEnd(trailers);
+            } catch (final HttpException | IOException ex) {
+                fail(ex);
+                return;
+            }
+            entityProducer.releaseResources();
+            asyncExecCallback.completed();
+        }
+
+        private void fail(final Exception cause) {
+            final boolean wasCompleted;
+            lock.lock();
+            try {
+                wasCompleted = completed;
+                completed = true;
+                producing = false;
+            } finally {
+                lock.unlock();
+            }
+            if (!wasCompleted) {
+                entityProducer.failed(cause);
+            }
+            entityProducer.releaseResources();
+            if (!wasCompleted) {
+                asyncExecCallback.failed(cause);
+            }
+        }
+
+        @Override
+        public boolean cancel() {
+            final boolean release;
+            lock.lock();
+            try {
+                if (completed) {
+                    return false;
+                }
+                completed = true;
+                cancelled = true;
+                release = !producing;
+            } finally {
+                lock.unlock();
+            }
+            if (release) {
+                entityProducer.releaseResources();
+            }
+            return true;
+        }
+
+        @Override
+        public void update(final int increment) {
+            if (increment <= 0) {
+                return;
+            }
+            lock.lock();
+            try {
+                capacity = (int) Math.min(Integer.MAX_VALUE, (long) capacity + increment);
+            } finally {
+                lock.unlock();
+            }
+            triggerProduction();
+        }
+
+        @Override
+        public void requestOutput() {
+            triggerProduction();
         }
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            final int chunk;
+            lock.lock();
+            try {
+                if (endOfStream || completed) {
+                    return 0;
+                }
+                chunk = Math.min(capacity, src.remaining());
+                capacity -= chunk;
+            } finally {
+                lock.unlock();
+            }
+            if (chunk <= 0) {
+                return 0;
+            }
+            final ByteBuffer data = src.duplicate();
+            data.limit(src.position() + chunk);
+            dataConsumer.consume(data);
+            src.position(src.position() + chunk);
+            return chunk;
+        }
+
+        @Override
+        public void endStream() throws IOException {
+            endStream(null);
+        }
+
+        @Override
+        public void endStream(final List<? extends Header> trailers) throws IOException {
+            lock.lock();
+            try {
+                if (!endOfStream) {
+                    endOfStream = true;
+                    this.trailers = trailers;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+    }
+
+    /**
+     * Callback for background exchanges whose response content is of no interest.
+     */
+    static final class DiscardingExecCallback implements AsyncExecCallback {
+
+        static final DiscardingExecCallback INSTANCE = new DiscardingExecCallback();
+
+        @Override
+        public AsyncDataConsumer handleResponse(
+                final HttpResponse response,
+                final EntityDetails entityDetails) throws HttpException, IOException {
+            if (entityDetails == null) {
+                return null;
+            }
+            return new AsyncDataConsumer() {
+
+                @Override
+                public void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
+                    capacityChannel.update(Integer.MAX_VALUE);
+                }
+
+                @Override
+                public void consume(final ByteBuffer src) throws IOException {
+                    src.position(src.limit());
+                }
+
+                @Override
+                public void streamEnd(final List<? extends Header> trailers) throws HttpException, IOException {
+                }
+
+                @Override
+                public void releaseResources() {
+                }
+
+            };
+        }
+
+        @Override
+        public void handleInformationResponse(final HttpResponse response) throws HttpException, IOException {
+        }
+
+        @Override
+        public void completed() {
+        }
+
+        @Override
+        public void failed(final Exception cause) {
+        }
+
     }
 
     static class AsyncExecCallbackWrapper implements AsyncExecCallback {
@@ -224,14 +530,15 @@ public void execute(
 
         // default response context
         setResponseStatus(context, CacheResponseStatus.CACHE_MISS);
+        context.removeAttribute(HttpCacheContext.CACHE_KEY);
 
         if (clientRequestsOurOptions(request)) {
             setResponseStatus(context, CacheResponseStatus.CACHE_MODULE_RESPONSE);
-            triggerResponse(SimpleHttpResponse.create(HttpStatus.SC_NOT_IMPLEMENTED), scope, asyncExecCallback);
+            triggerResponse(CachedHttpResponse.create(HttpStatus.SC_NOT_IMPLEMENTED), scope, asyncExecCallback);
             return;
         }
 
-        final SimpleHttpResponse fatalErrorResponse = getFatallyNonCompliantResponse(request, context);
+        final CachedHttpResponse fatalErrorResponse = getFatallyNonCompliantResponse(request, context);
         if (fatalErrorResponse != null) {
             triggerResponse(fatalErrorResponse, scope, asyncExecCallback);
             return;
@@ -261,7 +568,9 @@ public void cancelled() {
 
             }));
         } else {
-            operation.setDependency(responseCache.getCacheEntry(target, request, new FutureCallback<HttpCacheEntry>() {
+            final CacheKey cacheKey = responseCache.generateCacheKey(target, request);
+            context.setAttribute(HttpCacheContext.CACHE_KEY, cacheKey);
+            operation.setDependency(responseCache.getCacheEntry(cacheKey, request, new FutureCallback<HttpCacheEntry>() {
 
                 @Override
                 public void completed(final HttpCacheEntry entry) {
@@ -540,7 +849,7 @@ void triggerNewCacheEntryResponse(final HttpResponse backendResponse, final Inst
                         public void completed(final HttpCacheEntry newEntry) {
                             LOG.debug("Backend response successfully cached");
                             try {
-                                final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, newEntry);
+                                final CachedHttpResponse cacheResponse = responseGenerator.generateResponse(request, newEntry);
                                 triggerResponse(cacheResponse, scope, asyncExecCallback);
                             } catch (final ResourceIOException ex) {
                                 asyncExecCallback.failed(ex);
@@ -569,14 +878,15 @@ public void completed() {
                 final HttpResponse backendResponse = cachingDataConsumer.backendResponse;
                 if (cacheConfig.isFreshnessCheckEnabled()) {
                     final CancellableDependency operation = scope.cancellableDependency;
-                    operation.setDependency(responseCache.getCacheEntry(target, request, new FutureCallback<HttpCacheEntry>() {
+                    operation.setDependency(responseCache.getCacheEntry(
+                            getCacheKey(target, request, scope.clientContext), request, new FutureCallback<HttpCacheEntry>() {
 
                         @Override
                         public void completed(final HttpCacheEntry existingEntry) {
                             if (DateSupport.isAfter(existingEntry, backendResponse, HttpHeaders.DATE)) {
                                 LOG.debug("Backend already contains fresher cache entry");
                                 try {
-                                    final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, existingEntry);
+                                    final CachedHttpResponse cacheResponse = responseGenerator.generateResponse(request, existingEntry);
                                     triggerResponse(cacheResponse, scope, asyncExecCallback);
                                 } catch (final ResourceIOException ex) {
                                     asyncExecCallback.failed(ex);
@@ -626,12 +936,14 @@ private void handleCacheHit(
         if (suitabilityChecker.canCachedResponseBeUsed(target, request, entry, now)) {
             LOG.debug("Cache hit");
             try {
-                final SimpleHttpResponse cacheResponse = generateCachedResponse(request, context, entry, now);
+                final CachedHttpResponse cacheResponse = generateCachedResponse(request, context, entry, now);
+                recordServedFromCache();
+                refreshAheadIfDue(target, request, entityProducer, scope, chain, entry, now);
                 triggerResponse(cacheResponse, scope, asyncExecCallback);
             } catch (final ResourceIOException ex) {
                 recordCacheFailure(target, request);
                 if (!mayCallBackend(request)) {
-                    final SimpleHttpResponse cacheResponse = generateGatewayTimeout(context);
+                    final CachedHttpResponse cacheResponse = generateGatewayTimeout(context);
                     triggerResponse(cacheResponse, scope, asyncExecCallback);
                 } else {
                     setResponseStatus(scope.clientContext, CacheResponseStatus.FAILURE);
@@ -644,7 +956,7 @@ private void handleCacheHit(
             }
         } else if (!mayCallBackend(request)) {
             LOG.debug("Cache entry not suitable but only-if-cached requested");
-            final SimpleHttpResponse cacheResponse = generateGatewayTimeout(context);
+            final CachedHttpResponse cacheResponse = generateGatewayTimeout(context);
             triggerResponse(cacheResponse, scope, asyncExecCallback);
         } else if (!(entry.getStatus() == HttpStatus.SC_NOT_MODIFIED && !suitabilityChecker.isConditional(request))) {
             LOG.debug("Revalidating cache entry");
@@ -653,7 +965,7 @@ private void handleCacheHit(
                     && validityPolicy.mayReturnStaleWhileRevalidating(entry, now)) {
                 LOG.debug("Serving stale with asynchronous revalidation");
                 try {
-                    final SimpleHttpResponse cacheResponse = generateCachedResponse(request, context, entry, now);
+                    final CachedHttpResponse cacheResponse = generateCachedResponse(request, context, entry, now);
                     final String exchangeId = ExecSupport.getNextExchangeId();
                     context.setExchangeId(exchangeId);
                     final AsyncExecChain.Scope fork = new AsyncExecChain.Scope(
@@ -667,11 +979,16 @@ private void handleCacheHit(
                             scope.execCount);
                     cacheRevalidator.revalidateCacheEntry(
                             responseCache.generateKey(target, request, entry),
+                            scope.route,
+                            validityPolicy.getStaleWhileRevalidateDeadline(entry, now),
                             asyncExecCallback,
                             asyncExecCallback1 -> revalidateCacheEntry(target, request, entityProducer, fork, chain, asyncExecCallback1, entry));
+                    recordServedFromCache();
                     triggerResponse(cacheResponse, scope, asyncExecCallback);
                 } catch (final ResourceIOException ex) {
-                    asyncExecCallback.failed(ex);
+                    // Stale content is no longer available; revalidate synchronously
+                    recordCacheFailure(target, request);
+                    revalidateCacheEntry(target, request, entityProducer, scope, chain, asyncExecCallback, entry);
                 }
             } else {
                 revalidateCacheEntry(target, request, entityProducer, scope, chain, asyncExecCallback, entry);
@@ -682,6 +999,38 @@ private void handleCacheHit(
         }
     }
 
+    private void refreshAheadIfDue(
+            final HttpHost target,
+            final HttpRequest request,
+            final AsyncEntityProducer entityProducer,
+            final AsyncExecChain.Scope scope,
+            final AsyncExecChain chain,
+            final HttpCacheEntry entry,
+            final Instant now) {
+        if (cacheRevalidator == null || !refreshAheadPolicy.isEnabled()) {
+            return;
+        }
+        final String cacheKey = responseCache.generateKey(target, request, entry);
+        if (refreshAheadPolicy.isRefreshDue(cacheKey, entry, now)) {
+            LOG.debug("Refreshing cache entry ahead of expiry");
+            final AsyncExecChain.Scope fork = new AsyncExecChain.Scope(
+                    ExecSupport.getNextExchangeId(),
+                    scope.route,
+                    scope.originalRequest,
+                    new ComplexFuture<>(null),
+                    HttpClientContext.create(),
+                    scope.execRuntime.fork(),
+                    scope.scheduler,
+                    scope.execCount);
+            cacheRevalidator.revalidateCacheEntry(
+                    cacheKey,
+                    scope.route,
+                    refreshAheadPolicy.getExpiry(entry, now),
+                    DiscardingExecCallback.INSTANCE,
+                    asyncExecCallback -> revalidateCacheEntry(target, request, entityProducer, fork, chain, asyncExecCallback, entry));
+        }
+    }
+
     void revalidateCacheEntry(
             final HttpHost target,
             final HttpRequest request,
@@ -714,11 +1063,11 @@ void triggerUpdatedCacheEntryResponse(final HttpResponse backendResponse, final
                             public void completed(final HttpCacheEntry updatedEntry) {
                                 if (suitabilityChecker.isConditional(request)
                                         && suitabilityChecker.allConditionalsMatch(request, updatedEntry, Instant.now())) {
-                                    final SimpleHttpResponse cacheResponse = responseGenerator.generateNotModifiedResponse(updatedEntry);
+                                    final CachedHttpResponse cacheResponse = responseGenerator.generateNotModifiedResponse(updatedEntry);
                                     triggerResponse(cacheResponse, scope, asyncExecCallback);
                                 } else {
                                     try {
-                                        final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, updatedEntry);
+                                        final CachedHttpResponse cacheResponse = responseGenerator.generateResponse(request, updatedEntry);
                                         triggerResponse(cacheResponse, scope, asyncExecCallback);
                                     } catch (final ResourceIOException ex) {
                                         asyncExecCallback.failed(ex);
@@ -741,7 +1090,7 @@ public void cancelled() {
 
             void triggerResponseStaleCacheEntry() {
                 try {
-                    final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, cacheEntry);
+                    final CachedHttpResponse cacheResponse = responseGenerator.generateResponse(request, cacheEntry);
                     cacheResponse.addHeader(HeaderConstants.WARNING, "110 localhost \"Response is stale\"");
                     triggerResponse(cacheResponse, scope, asyncExecCallback);
                 } catch (final ResourceIOException ex) {
@@ -753,6 +1102,7 @@ AsyncExecCallback evaluateResponse(final HttpResponse backendResponse, final Ins
                 backendResponse.addHeader(HeaderConstants.VIA, generateViaHeader(backendResponse));
 
                 final int statusCode = backendResponse.getCode();
+                recordValidation(statusCode);
                 if (statusCode == HttpStatus.SC_NOT_MODIFIED || statusCode == HttpStatus.SC_OK) {
                     recordCacheUpdate(scope.clientContext);
                 }
@@ -857,6 +1207,7 @@ public void failed(final Exception cause) {
                 if (callback1 != null) {
                     callback1.failed(cause);
                 } else {
+                    recordValidationFailure();
                     asyncExecCallback.failed(cause);
                 }
             }
@@ -877,7 +1228,7 @@ private void handleCacheMiss(
         if (mayCallBackend(request)) {
             final CancellableDependency operation = scope.cancellableDependency;
             operation.setDependency(responseCache.getVariantCacheEntriesWithEtags(
-                    target,
+                    getCacheKey(target, request, scope.clientContext),
                     request,
                     new FutureCallback<Map<String, Variant>>() {
 
@@ -902,7 +1253,7 @@ public void cancelled() {
 
                     }));
         } else {
-            final SimpleHttpResponse cacheResponse = SimpleHttpResponse.create(HttpStatus.SC_GATEWAY_TIMEOUT, "Gateway Timeout");
+            final CachedHttpResponse cacheResponse = CachedHttpResponse.create(HttpStatus.SC_GATEWAY_TIMEOUT, "Gateway Timeout");
             triggerResponse(cacheResponse, scope, asyncExecCallback);
         }
     }
@@ -939,11 +1290,11 @@ void updateVariantCacheEntry(final HttpResponse backendResponse, final Instant r
                             @Override
                             public void completed(final HttpCacheEntry responseEntry) {
                                 if (shouldSendNotModifiedResponse(request, responseEntry)) {
-                                    final SimpleHttpResponse cacheResponse = responseGenerator.generateNotModifiedResponse(responseEntry);
+                                    final CachedHttpResponse cacheResponse = responseGenerator.generateNotModifiedResponse(responseEntry);
                                     triggerResponse(cacheResponse, scope, asyncExecCallback);
                                 } else {
                                     try {
-                                        final SimpleHttpResponse cacheResponse = responseGenerator.generateResponse(request, responseEntry);
+                                        final CachedHttpResponse cacheResponse = responseGenerator.generateResponse(request, responseEntry);
                                         operation.setDependency(responseCache.reuseVariantEntryFor(
                                                 target,
                                                 request,
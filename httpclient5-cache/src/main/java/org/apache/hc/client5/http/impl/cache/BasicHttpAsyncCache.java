@@ -31,11 +31,15 @@
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.hc.client5.http.cache.CacheKey;
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.HeaderConstants;
 import org.apache.hc.client5.http.cache.HttpAsyncCacheInvalidator;
 import org.apache.hc.client5.http.cache.HttpAsyncCacheStorage;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.HttpCacheStorage;
 import org.apache.hc.client5.http.cache.HttpCacheUpdateException;
+import org.apache.hc.client5.http.cache.Resource;
 import org.apache.hc.client5.http.cache.ResourceFactory;
 import org.apache.hc.client5.http.cache.ResourceIOException;
 import org.apache.hc.client5.http.impl.Operations;
@@ -47,6 +51,7 @@
 import org.apache.hc.core5.http.HttpRequest;
 import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
 import org.apache.hc.core5.http.message.RequestLine;
 import org.apache.hc.core5.http.message.StatusLine;
 import org.apache.hc.core5.util.ByteArrayBuffer;
@@ -61,16 +66,51 @@ class BasicHttpAsyncCache implements HttpAsyncCache {
     private final CacheKeyGenerator cacheKeyGenerator;
     private final HttpAsyncCacheInvalidator cacheInvalidator;
     private final HttpAsyncCacheStorage storage;
+    private final CacheKeyIndex keyIndex;
+    private final CacheMetricsRecorder metricsRecorder;
 
+    /**
+     * @since 5.3
+     */
     public BasicHttpAsyncCache(
             final ResourceFactory resourceFactory,
             final HttpAsyncCacheStorage storage,
             final CacheKeyGenerator cacheKeyGenerator,
-            final HttpAsyncCacheInvalidator cacheInvalidator) {
+            final HttpAsyncCacheInvalidator cacheInvalidator,
+            final CacheConfig config,
+            final CacheMetricsRecorder metricsRecorder) {
         this.cacheUpdateHandler = new CacheUpdateHandler(resourceFactory);
         this.cacheKeyGenerator = cacheKeyGenerator;
         this.storage = storage;
         this.cacheInvalidator = cacheInvalidator;
+        final int maxIndexedKeys = (config != null ? config : CacheConfig.DEFAULT).getMaxIndexedKeys();
+        final HttpCacheStorage cacheStorage = storage instanceof ExecutorHttpAsyncCacheStorage
+                ? ((ExecutorHttpAsyncCacheStorage) storage).getCacheStorage()
+                : null;
+        this.keyIndex = cacheStorage instanceof PersistentHttpCacheStorage
+                ? new CacheKeyIndex(maxIndexedKeys, ((PersistentHttpCacheStorage) cacheStorage).getAllEntries())
+                : new CacheKeyIndex(maxIndexedKeys);
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : CacheMetricsRecorder.NOOP;
+    }
+
+    /**
+     * @since 5.3
+     */
+    public BasicHttpAsyncCache(
+            final ResourceFactory resourceFactory,
+            final HttpAsyncCacheStorage storage,
+            final CacheKeyGenerator cacheKeyGenerator,
+            final HttpAsyncCacheInvalidator cacheInvalidator,
+            final CacheMetricsRecorder metricsRecorder) {
+        this(resourceFactory, storage, cacheKeyGenerator, cacheInvalidator, null, metricsRecorder);
+    }
+
+    public BasicHttpAsyncCache(
+            final ResourceFactory resourceFactory,
+            final HttpAsyncCacheStorage storage,
+            final CacheKeyGenerator cacheKeyGenerator,
+            final HttpAsyncCacheInvalidator cacheInvalidator) {
+        this(resourceFactory, storage, cacheKeyGenerator, cacheInvalidator, null);
     }
 
     public BasicHttpAsyncCache(
@@ -93,6 +133,11 @@ public String generateKey(final HttpHost host, final HttpRequest request, final
         }
     }
 
+    @Override
+    public CacheKey generateCacheKey(final HttpHost host, final HttpRequest request) {
+        return cacheKeyGenerator.generateCacheKey(host, request);
+    }
+
     @Override
     public Cancellable flushCacheEntriesFor(
             final HttpHost host, final HttpRequest request, final FutureCallback<Boolean> callback) {
@@ -101,10 +146,12 @@ public Cancellable flushCacheEntriesFor(
         }
         if (!Method.isSafe(request.getMethod())) {
             final String cacheKey = cacheKeyGenerator.generateKey(host, request);
+            keyIndex.remove(cacheKey);
             return storage.removeEntry(cacheKey, new FutureCallback<Boolean>() {
 
                 @Override
                 public void completed(final Boolean result) {
+                    metricsRecorder.recordInvalidations(1);
                     callback.completed(result);
                 }
 
@@ -153,6 +200,86 @@ public Cancellable flushCacheEntriesInvalidatedByExchange(
         return Operations.nonCancellable();
     }
 
+    @Override
+    public Cancellable flushCacheEntriesByPrefix(
+            final HttpHost host, final String pathPrefix, final FutureCallback<Boolean> callback) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Flush cache entries by prefix: {}; {}", host, pathPrefix);
+        }
+        final String uriPrefix = cacheKeyGenerator.generateKey(host, new BasicHttpRequest(Method.GET, pathPrefix));
+        return removeEntries(keyIndex.removeByPrefix(uriPrefix), callback);
+    }
+
+    @Override
+    public Cancellable flushCacheEntriesByTag(final String tag, final FutureCallback<Boolean> callback) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Flush cache entries by tag: {}", tag);
+        }
+        return removeEntries(keyIndex.removeByTag(tag), callback);
+    }
+
+    /**
+     * Evicts entries whose keys have been dropped from the key index, so that
+     * they cannot outlive bulk invalidations they are no longer reachable by.
+     */
+    private void evictUnindexed(final Set<String> cacheKeys) {
+        if (cacheKeys.isEmpty()) {
+            return;
+        }
+        storage.removeEntries(cacheKeys, new FutureCallback<Boolean>() {
+
+            @Override
+            public void completed(final Boolean result) {
+                metricsRecorder.recordEvictions(cacheKeys.size());
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn("I/O error evicting cache entries with keys {}", cacheKeys);
+                }
+            }
+
+            @Override
+            public void cancelled() {
+            }
+
+        });
+    }
+
+    private Cancellable removeEntries(final Set<String> cacheKeys, final FutureCallback<Boolean> callback) {
+        if (cacheKeys.isEmpty()) {
+            callback.completed(Boolean.TRUE);
+            return Operations.nonCancellable();
+        }
+        return storage.removeEntries(cacheKeys, new FutureCallback<Boolean>() {
+
+            @Override
+            public void completed(final Boolean result) {
+                metricsRecorder.recordInvalidations(cacheKeys.size());
+                callback.completed(result);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                if (ex instanceof ResourceIOException) {
+                    if (LOG.isWarnEnabled()) {
+                        LOG.warn("I/O error removing cache entries with keys {}", cacheKeys);
+                    }
+                    callback.completed(Boolean.TRUE);
+                } else {
+                    callback.failed(ex);
+                }
+            }
+
+            @Override
+            public void cancelled() {
+                callback.cancelled();
+            }
+
+        });
+    }
+
     Cancellable storeInCache(
             final String cacheKey,
             final HttpHost host,
@@ -170,10 +297,15 @@ Cancellable storeEntry(
             final String cacheKey,
             final HttpCacheEntry entry,
             final FutureCallback<Boolean> callback) {
+        evictUnindexed(keyIndex.add(cacheKey, entry));
         return storage.putEntry(cacheKey, entry, new FutureCallback<Boolean>() {
 
             @Override
             public void completed(final Boolean result) {
+                final Resource resource = entry.getResource();
+                if (resource != null) {
+                    metricsRecorder.recordBytesStored(resource.length());
+                }
                 callback.completed(result);
             }
 
@@ -205,6 +337,8 @@ Cancellable storeVariantEntry(
             final FutureCallback<Boolean> callback) {
         final String variantKey = cacheKeyGenerator.generateVariantKey(req, entry);
         final String variantCacheKey = cacheKeyGenerator.generateKey(host, req, entry);
+        evictUnindexed(keyIndex.add(variantCacheKey, entry));
+        evictUnindexed(keyIndex.add(cacheKey, entry));
         return storage.putEntry(variantCacheKey, entry, new FutureCallback<Boolean>() {
 
             @Override
@@ -450,13 +584,25 @@ public Cancellable getCacheEntry(final HttpHost host, final HttpRequest request,
         if (LOG.isDebugEnabled()) {
             LOG.debug("Get cache entry: {}; {}", host, new RequestLine(request));
         }
+        return getCacheEntry(cacheKeyGenerator.generateKey(host, request), request, callback);
+    }
+
+    @Override
+    public Cancellable getCacheEntry(final CacheKey cacheKey, final HttpRequest request, final FutureCallback<HttpCacheEntry> callback) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Get cache entry: {}; {}", cacheKey, new RequestLine(request));
+        }
+        return getCacheEntry(cacheKey.getKey(), request, callback);
+    }
+
+    private Cancellable getCacheEntry(final String cacheKey, final HttpRequest request, final FutureCallback<HttpCacheEntry> callback) {
         final ComplexCancellable complexCancellable = new ComplexCancellable();
-        final String cacheKey = cacheKeyGenerator.generateKey(host, request);
         complexCancellable.setDependency(storage.getEntry(cacheKey, new FutureCallback<HttpCacheEntry>() {
 
             @Override
             public void completed(final HttpCacheEntry root) {
                 if (root != null) {
+                    evictUnindexed(keyIndex.addIfAbsent(cacheKey, root));
                     if (root.hasVariants()) {
                         final String variantKey = cacheKeyGenerator.generateVariantKey(request, root);
                         final String variantCacheKey = root.getVariantMap().get(variantKey);
@@ -467,6 +613,9 @@ public void completed(final HttpCacheEntry root) {
 
                                         @Override
                                         public void completed(final HttpCacheEntry result) {
+                                            if (result != null) {
+                                                evictUnindexed(keyIndex.addIfAbsent(variantCacheKey, result));
+                                            }
                                             callback.completed(result);
                                         }
 
@@ -522,8 +671,21 @@ public Cancellable getVariantCacheEntriesWithEtags(
         if (LOG.isDebugEnabled()) {
             LOG.debug("Get variant cache entries: {}; {}", host, new RequestLine(request));
         }
+        return getVariantCacheEntriesWithEtags(cacheKeyGenerator.generateKey(host, request), callback);
+    }
+
+    @Override
+    public Cancellable getVariantCacheEntriesWithEtags(
+            final CacheKey cacheKey, final HttpRequest request, final FutureCallback<Map<String, Variant>> callback) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Get variant cache entries: {}; {}", cacheKey, new RequestLine(request));
+        }
+        return getVariantCacheEntriesWithEtags(cacheKey.getKey(), callback);
+    }
+
+    private Cancellable getVariantCacheEntriesWithEtags(
+            final String cacheKey, final FutureCallback<Map<String, Variant>> callback) {
         final ComplexCancellable complexCancellable = new ComplexCancellable();
-        final String cacheKey = cacheKeyGenerator.generateKey(host, request);
         final Map<String, Variant> variants = new HashMap<>();
         complexCancellable.setDependency(storage.getEntry(cacheKey, new FutureCallback<HttpCacheEntry>() {
 
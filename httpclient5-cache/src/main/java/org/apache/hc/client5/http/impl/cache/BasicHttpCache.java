@@ -29,12 +29,16 @@
 import java.time.Instant;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
+import org.apache.hc.client5.http.cache.CacheKey;
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.HeaderConstants;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
 import org.apache.hc.client5.http.cache.HttpCacheInvalidator;
 import org.apache.hc.client5.http.cache.HttpCacheStorage;
 import org.apache.hc.client5.http.cache.HttpCacheUpdateException;
+import org.apache.hc.client5.http.cache.Resource;
 import org.apache.hc.client5.http.cache.ResourceFactory;
 import org.apache.hc.client5.http.cache.ResourceIOException;
 import org.apache.hc.core5.http.Header;
@@ -42,6 +46,7 @@
 import org.apache.hc.core5.http.HttpRequest;
 import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
 import org.apache.hc.core5.http.message.RequestLine;
 import org.apache.hc.core5.http.message.StatusLine;
 import org.apache.hc.core5.util.ByteArrayBuffer;
@@ -56,16 +61,48 @@ class BasicHttpCache implements HttpCache {
     private final CacheKeyGenerator cacheKeyGenerator;
     private final HttpCacheInvalidator cacheInvalidator;
     private final HttpCacheStorage storage;
+    private final CacheKeyIndex keyIndex;
+    private final CacheMetricsRecorder metricsRecorder;
 
+    /**
+     * @since 5.3
+     */
     public BasicHttpCache(
             final ResourceFactory resourceFactory,
             final HttpCacheStorage storage,
             final CacheKeyGenerator cacheKeyGenerator,
-            final HttpCacheInvalidator cacheInvalidator) {
+            final HttpCacheInvalidator cacheInvalidator,
+            final CacheConfig config,
+            final CacheMetricsRecorder metricsRecorder) {
         this.cacheUpdateHandler = new CacheUpdateHandler(resourceFactory);
         this.cacheKeyGenerator = cacheKeyGenerator;
         this.storage = storage;
         this.cacheInvalidator = cacheInvalidator;
+        final int maxIndexedKeys = (config != null ? config : CacheConfig.DEFAULT).getMaxIndexedKeys();
+        this.keyIndex = storage instanceof PersistentHttpCacheStorage
+                ? new CacheKeyIndex(maxIndexedKeys, ((PersistentHttpCacheStorage) storage).getAllEntries())
+                : new CacheKeyIndex(maxIndexedKeys);
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : CacheMetricsRecorder.NOOP;
+    }
+
+    /**
+     * @since 5.3
+     */
+    public BasicHttpCache(
+            final ResourceFactory resourceFactory,
+            final HttpCacheStorage storage,
+            final CacheKeyGenerator cacheKeyGenerator,
+            final HttpCacheInvalidator cacheInvalidator,
+            final CacheMetricsRecorder metricsRecorder) {
+        this(resourceFactory, storage, cacheKeyGenerator, cacheInvalidator, null, metricsRecorder);
+    }
+
+    public BasicHttpCache(
+            final ResourceFactory resourceFactory,
+            final HttpCacheStorage storage,
+            final CacheKeyGenerator cacheKeyGenerator,
+            final HttpCacheInvalidator cacheInvalidator) {
+        this(resourceFactory, storage, cacheKeyGenerator, cacheInvalidator, null);
     }
 
     public BasicHttpCache(
@@ -80,7 +117,8 @@ public BasicHttpCache(final ResourceFactory resourceFactory, final HttpCacheStor
     }
 
     public BasicHttpCache(final CacheConfig config) {
-        this(new HeapResourceFactory(), new BasicHttpCacheStorage(config));
+        this(new HeapResourceFactory(), new BasicHttpCacheStorage(config), new CacheKeyGenerator(),
+                new DefaultCacheInvalidator(), config, null);
     }
 
     public BasicHttpCache() {
@@ -96,6 +134,11 @@ public String generateKey(final HttpHost host, final HttpRequest request, final
         }
     }
 
+    @Override
+    public CacheKey generateCacheKey(final HttpHost host, final HttpRequest request) {
+        return cacheKeyGenerator.generateCacheKey(host, request);
+    }
+
     @Override
     public void flushCacheEntriesFor(final HttpHost host, final HttpRequest request) {
         if (LOG.isDebugEnabled()) {
@@ -103,8 +146,10 @@ public void flushCacheEntriesFor(final HttpHost host, final HttpRequest request)
         }
         if (!Method.isSafe(request.getMethod())) {
             final String cacheKey = cacheKeyGenerator.generateKey(host, request);
+            keyIndex.remove(cacheKey);
             try {
                 storage.removeEntry(cacheKey);
+                metricsRecorder.recordInvalidations(1);
             } catch (final ResourceIOException ex) {
                 if (LOG.isWarnEnabled()) {
                     LOG.warn("I/O error removing cache entry with key {}", cacheKey);
@@ -131,6 +176,55 @@ public void flushCacheEntriesInvalidatedByExchange(final HttpHost host, final Ht
         }
     }
 
+    @Override
+    public void flushCacheEntriesByPrefix(final HttpHost host, final String pathPrefix) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Flush cache entries by prefix: {}; {}", host, pathPrefix);
+        }
+        final String uriPrefix = cacheKeyGenerator.generateKey(host, new BasicHttpRequest(Method.GET, pathPrefix));
+        removeEntries(keyIndex.removeByPrefix(uriPrefix));
+    }
+
+    @Override
+    public void flushCacheEntriesByTag(final String tag) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Flush cache entries by tag: {}", tag);
+        }
+        removeEntries(keyIndex.removeByTag(tag));
+    }
+
+    /**
+     * Evicts entries whose keys have been dropped from the key index, so that
+     * they cannot outlive bulk invalidations they are no longer reachable by.
+     */
+    private void evictUnindexed(final Set<String> cacheKeys) {
+        if (cacheKeys.isEmpty()) {
+            return;
+        }
+        try {
+            storage.removeEntries(cacheKeys);
+            metricsRecorder.recordEvictions(cacheKeys.size());
+        } catch (final ResourceIOException ex) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("I/O error evicting cache entries with keys {}", cacheKeys);
+            }
+        }
+    }
+
+    private void removeEntries(final Set<String> cacheKeys) {
+        if (cacheKeys.isEmpty()) {
+            return;
+        }
+        try {
+            storage.removeEntries(cacheKeys);
+            metricsRecorder.recordInvalidations(cacheKeys.size());
+        } catch (final ResourceIOException ex) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn("I/O error removing cache entries with keys {}", cacheKeys);
+            }
+        }
+    }
+
     void storeInCache(
             final String cacheKey,
             final HttpHost host,
@@ -144,13 +238,19 @@ void storeInCache(
     }
 
     void storeEntry(final String cacheKey, final HttpCacheEntry entry) {
+        final Set<String> unindexed = keyIndex.add(cacheKey, entry);
         try {
             storage.putEntry(cacheKey, entry);
+            final Resource resource = entry.getResource();
+            if (resource != null) {
+                metricsRecorder.recordBytesStored(resource.length());
+            }
         } catch (final ResourceIOException ex) {
             if (LOG.isWarnEnabled()) {
                 LOG.warn("I/O error storing cache entry with key {}", cacheKey);
             }
         }
+        evictUnindexed(unindexed);
     }
 
     void storeVariantEntry(
@@ -161,6 +261,7 @@ void storeVariantEntry(
         final String variantKey = cacheKeyGenerator.generateVariantKey(req, entry);
         final String variantCacheKey = cacheKeyGenerator.generateKey(host, req, entry);
         storeEntry(variantCacheKey, entry);
+        evictUnindexed(keyIndex.add(cacheKey, entry));
         try {
             storage.updateEntry(cacheKey, existing -> cacheUpdateHandler.updateParentCacheEntry(req.getRequestUri(), existing, entry, variantKey, variantCacheKey));
         } catch (final HttpCacheUpdateException ex) {
@@ -291,7 +392,18 @@ public HttpCacheEntry getCacheEntry(final HttpHost host, final HttpRequest reque
         if (LOG.isDebugEnabled()) {
             LOG.debug("Get cache entry: {}; {}", host, new RequestLine(request));
         }
-        final String cacheKey = cacheKeyGenerator.generateKey(host, request);
+        return getCacheEntry(cacheKeyGenerator.generateKey(host, request), request);
+    }
+
+    @Override
+    public HttpCacheEntry getCacheEntry(final CacheKey cacheKey, final HttpRequest request) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Get cache entry: {}; {}", cacheKey, new RequestLine(request));
+        }
+        return getCacheEntry(cacheKey.getKey(), request);
+    }
+
+    private HttpCacheEntry getCacheEntry(final String cacheKey, final HttpRequest request) {
         final HttpCacheEntry root;
         try {
             root = storage.getEntry(cacheKey);
@@ -304,6 +416,7 @@ public HttpCacheEntry getCacheEntry(final HttpHost host, final HttpRequest reque
         if (root == null) {
             return null;
         }
+        evictUnindexed(keyIndex.addIfAbsent(cacheKey, root));
         if (!root.hasVariants()) {
             return root;
         }
@@ -313,7 +426,11 @@ public HttpCacheEntry getCacheEntry(final HttpHost host, final HttpRequest reque
             return null;
         }
         try {
-            return storage.getEntry(variantCacheKey);
+            final HttpCacheEntry entry = storage.getEntry(variantCacheKey);
+            if (entry != null) {
+                evictUnindexed(keyIndex.addIfAbsent(variantCacheKey, entry));
+            }
+            return entry;
         } catch (final ResourceIOException ex) {
             if (LOG.isWarnEnabled()) {
                 LOG.warn("I/O error retrieving cache entry with key {}", variantCacheKey);
@@ -327,8 +444,19 @@ public Map<String, Variant> getVariantCacheEntriesWithEtags(final HttpHost host,
         if (LOG.isDebugEnabled()) {
             LOG.debug("Get variant cache entries: {}; {}", host, new RequestLine(request));
         }
+        return getVariantCacheEntriesWithEtags(cacheKeyGenerator.generateKey(host, request));
+    }
+
+    @Override
+    public Map<String, Variant> getVariantCacheEntriesWithEtags(final CacheKey cacheKey, final HttpRequest request) {
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Get variant cache entries: {}; {}", cacheKey, new RequestLine(request));
+        }
+        return getVariantCacheEntriesWithEtags(cacheKey.getKey());
+    }
+
+    private Map<String, Variant> getVariantCacheEntriesWithEtags(final String cacheKey) {
         final Map<String,Variant> variants = new HashMap<>();
-        final String cacheKey = cacheKeyGenerator.generateKey(host, request);
         final HttpCacheEntry root;
         try {
             root = storage.getEntry(cacheKey);
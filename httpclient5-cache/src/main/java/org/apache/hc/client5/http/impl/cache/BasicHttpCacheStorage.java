@@ -29,7 +29,9 @@
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.HttpCacheCASOperation;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
 import org.apache.hc.client5.http.cache.HttpCacheStorage;
@@ -52,10 +54,19 @@
 public class BasicHttpCacheStorage implements HttpCacheStorage {
 
     private final CacheMap entries;
+    private final ReentrantLock lock;
 
-    public BasicHttpCacheStorage(final CacheConfig config) {
+    /**
+     * @since 5.3
+     */
+    public BasicHttpCacheStorage(final CacheConfig config, final CacheMetricsRecorder metricsRecorder) {
         super();
-        this.entries = new CacheMap(config.getMaxCacheEntries());
+        this.entries = new CacheMap(config, metricsRecorder);
+        this.lock = new ReentrantLock();
+    }
+
+    public BasicHttpCacheStorage(final CacheConfig config) {
+        this(config, null);
     }
 
     /**
@@ -67,9 +78,14 @@ public BasicHttpCacheStorage(final CacheConfig config) {
      *            HttpCacheEntry to place in the cache
      */
     @Override
-    public synchronized void putEntry(
+    public void putEntry(
             final String url, final HttpCacheEntry entry) throws ResourceIOException {
-        entries.put(url, entry);
+        lock.lock();
+        try {
+            entries.put(url, entry);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -80,8 +96,13 @@ public synchronized void putEntry(
      * @return HttpCacheEntry if one exists, or null for cache miss
      */
     @Override
-    public synchronized HttpCacheEntry getEntry(final String url) throws ResourceIOException {
-        return entries.get(url);
+    public HttpCacheEntry getEntry(final String url) throws ResourceIOException {
+        lock.lock();
+        try {
+            return entries.get(url);
+        } finally {
+            lock.unlock();
+        }
     }
 
     /**
@@ -91,15 +112,38 @@ public synchronized HttpCacheEntry getEntry(final String url) throws ResourceIOE
      *            Url that is the cache key
      */
     @Override
-    public synchronized void removeEntry(final String url) throws ResourceIOException {
-        entries.remove(url);
+    public void removeEntry(final String url) throws ResourceIOException {
+        lock.lock();
+        try {
+            entries.remove(url);
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
-    public synchronized void updateEntry(
+    public void removeEntries(final Collection<String> keys) throws ResourceIOException {
+        Args.notNull(keys, "Cache keys");
+        lock.lock();
+        try {
+            for (final String key : keys) {
+                entries.remove(key);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateEntry(
             final String url, final HttpCacheCASOperation casOperation) throws ResourceIOException {
-        final HttpCacheEntry existingEntry = entries.get(url);
-        entries.put(url, casOperation.execute(existingEntry));
+        lock.lock();
+        try {
+            final HttpCacheEntry existingEntry = entries.peek(url);
+            entries.put(url, casOperation.execute(existingEntry));
+        } finally {
+            lock.unlock();
+        }
     }
 
     @Override
@@ -115,4 +159,18 @@ public Map<String, HttpCacheEntry> getEntries(final Collection<String> keys) thr
         return resultMap;
     }
 
+    /**
+     * Returns the current total size of cache entries in bytes.
+     *
+     * @since 5.3
+     */
+    public long getTotalBytes() {
+        lock.lock();
+        try {
+            return entries.getTotalBytes();
+        } finally {
+            lock.unlock();
+        }
+    }
+
 }
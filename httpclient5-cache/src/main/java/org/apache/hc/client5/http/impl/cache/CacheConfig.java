@@ -47,7 +47,10 @@
  * <p><b>Cache size.</b> If the backend storage supports these limits, you
  * can specify the {@link CacheConfig#getMaxCacheEntries maximum number of
  * cache entries} as well as the {@link CacheConfig#getMaxObjectSize()}
- * maximum cacheable response body size}.</p>
+ * maximum cacheable response body size}. The total size of cache entries can be limited
+ * with {@link CacheConfig#getMaxCacheBytes()}, optionally along with a
+ * {@link CacheConfig#isAdmissionFilterEnabled() frequency based admission filter}
+ * that prevents rarely requested entries from evicting frequently requested ones.</p>
  *
  * <p><b>Public/private caching.</b> By default, the caching module considers
  * itself to be a shared (public) cache, and will not, for example, cache
@@ -108,6 +111,13 @@ public class CacheConfig implements Cloneable {
      */
     public final static int DEFAULT_MAX_CACHE_ENTRIES = 1000;
 
+    /** Default setting for the maximum total size of cache entries in bytes.
+     * A value of {@code 0} means the total size is not limited.
+     *
+     * @since 5.3
+     */
+    public final static long DEFAULT_MAX_CACHE_BYTES = 0;
+
     /** Default setting for the number of retries on a failed
      * cache processChallenge
      */
@@ -140,10 +150,67 @@ public class CacheConfig implements Cloneable {
      */
     public static final int DEFAULT_ASYNCHRONOUS_WORKERS = 1;
 
+    /** Default maximum number of background revalidations that can be
+     * waiting for execution.
+     *
+     * @since 5.3
+     */
+    public static final int DEFAULT_MAX_REVALIDATION_QUEUE_SIZE = 100;
+
+    /** Default maximum number of background revalidations to the same route
+     * a worker executes in a row.
+     *
+     * @since 5.3
+     */
+    public static final int DEFAULT_REVALIDATION_BATCH_SIZE = 4;
+
+    /** Default fraction of the freshness lifetime after which hot entries get
+     * refreshed ahead of expiry. A value of 0 disables refresh-ahead.
+     *
+     * @since 5.3
+     */
+    public static final float DEFAULT_REFRESH_AHEAD_FACTOR = 0f;
+
+    /** Default number of hits within the refresh-ahead window that make
+     * an entry eligible for refresh-ahead.
+     *
+     * @since 5.3
+     */
+    public static final int DEFAULT_REFRESH_AHEAD_MIN_HITS = 3;
+
+    /** Default refresh-ahead window.
+     *
+     * @since 5.3
+     */
+    public static final TimeValue DEFAULT_REFRESH_AHEAD_WINDOW = TimeValue.ofMinutes(1);
+
+    /** Default number of threads async caching clients use to execute
+     * operations of blocking cache storage backends.
+     *
+     * @since 5.3
+     */
+    public static final int DEFAULT_STORAGE_WORKERS = 2;
+
+    /** Default maximum number of blocking cache storage operations that can
+     * be waiting for execution.
+     *
+     * @since 5.3
+     */
+    public static final int DEFAULT_MAX_STORAGE_QUEUE_SIZE = 1000;
+
+    /** Default maximum number of cache keys indexed for bulk invalidation
+     * by URI prefix or surrogate key.
+     *
+     * @since 5.3
+     */
+    public static final int DEFAULT_MAX_INDEXED_KEYS = 10000;
+
     public static final CacheConfig DEFAULT = new Builder().build();
 
     private final long maxObjectSize;
     private final int maxCacheEntries;
+    private final long maxCacheBytes;
+    private final boolean admissionFilterEnabled;
     private final int maxUpdateRetries;
     private final boolean allow303Caching;
     private final boolean weakETagOnPutDeleteAllowed;
@@ -153,11 +220,21 @@ public class CacheConfig implements Cloneable {
     private final boolean sharedCache;
     private final boolean freshnessCheckEnabled;
     private final int asynchronousWorkers;
+    private final int maxRevalidationQueueSize;
+    private final int revalidationBatchSize;
+    private final float refreshAheadFactor;
+    private final int refreshAheadMinHits;
+    private final TimeValue refreshAheadWindow;
+    private final int storageWorkers;
+    private final int maxStorageQueueSize;
+    private final int maxIndexedKeys;
     private final boolean neverCacheHTTP10ResponsesWithQuery;
 
     CacheConfig(
             final long maxObjectSize,
             final int maxCacheEntries,
+            final long maxCacheBytes,
+            final boolean admissionFilterEnabled,
             final int maxUpdateRetries,
             final boolean allow303Caching,
             final boolean weakETagOnPutDeleteAllowed,
@@ -167,10 +244,20 @@ public class CacheConfig implements Cloneable {
             final boolean sharedCache,
             final boolean freshnessCheckEnabled,
             final int asynchronousWorkers,
+            final int maxRevalidationQueueSize,
+            final int revalidationBatchSize,
+            final float refreshAheadFactor,
+            final int refreshAheadMinHits,
+            final TimeValue refreshAheadWindow,
+            final int storageWorkers,
+            final int maxStorageQueueSize,
+            final int maxIndexedKeys,
             final boolean neverCacheHTTP10ResponsesWithQuery) {
         super();
         this.maxObjectSize = maxObjectSize;
         this.maxCacheEntries = maxCacheEntries;
+        this.maxCacheBytes = maxCacheBytes;
+        this.admissionFilterEnabled = admissionFilterEnabled;
         this.maxUpdateRetries = maxUpdateRetries;
         this.allow303Caching = allow303Caching;
         this.weakETagOnPutDeleteAllowed = weakETagOnPutDeleteAllowed;
@@ -180,6 +267,14 @@ public class CacheConfig implements Cloneable {
         this.sharedCache = sharedCache;
         this.freshnessCheckEnabled = freshnessCheckEnabled;
         this.asynchronousWorkers = asynchronousWorkers;
+        this.maxRevalidationQueueSize = maxRevalidationQueueSize;
+        this.revalidationBatchSize = revalidationBatchSize;
+        this.refreshAheadFactor = refreshAheadFactor;
+        this.refreshAheadMinHits = refreshAheadMinHits;
+        this.refreshAheadWindow = refreshAheadWindow;
+        this.storageWorkers = storageWorkers;
+        this.maxStorageQueueSize = maxStorageQueueSize;
+        this.maxIndexedKeys = maxIndexedKeys;
         this.neverCacheHTTP10ResponsesWithQuery = neverCacheHTTP10ResponsesWithQuery;
     }
 
@@ -209,6 +304,28 @@ public int getMaxCacheEntries() {
         return maxCacheEntries;
     }
 
+    /**
+     * Returns the maximum total size of cache entries in bytes the cache will retain.
+     * The size of an entry is the length of its body plus the size of its headers.
+     * A value of {@code 0} or less means the total size is not limited.
+     *
+     * @since 5.3
+     */
+    public long getMaxCacheBytes() {
+        return maxCacheBytes;
+    }
+
+    /**
+     * Returns whether a new cache entry must have been requested more frequently
+     * than the entries it would displace in order to be admitted to a cache that
+     * is full.
+     *
+     * @since 5.3
+     */
+    public boolean isAdmissionFilterEnabled() {
+        return admissionFilterEnabled;
+    }
+
     /**
      * Returns the number of times to retry a cache processChallenge on failure
      */
@@ -283,6 +400,94 @@ public int getAsynchronousWorkers() {
         return asynchronousWorkers;
     }
 
+    /**
+     * Returns the maximum number of background revalidations that can be waiting
+     * for execution. When the queue is full, revalidations of the least frequently
+     * requested entries are dropped. A value of 0 or less means the queue is unbounded.
+     *
+     * @since 5.3
+     */
+    public int getMaxRevalidationQueueSize() {
+        return maxRevalidationQueueSize;
+    }
+
+    /**
+     * Returns the maximum number of background revalidations to the same route
+     * a worker executes in a row, re-using the same persistent connection.
+     *
+     * @since 5.3
+     */
+    public int getRevalidationBatchSize() {
+        return revalidationBatchSize;
+    }
+
+    /**
+     * Returns the fraction of the freshness lifetime after which entries
+     * requested frequently enough get revalidated in the background ahead of
+     * their expiry. A value of 0 means refresh-ahead is disabled.
+     *
+     * @since 5.3
+     */
+    public float getRefreshAheadFactor() {
+        return refreshAheadFactor;
+    }
+
+    /**
+     * Returns the minimum number of hits within the refresh-ahead window
+     * that make an entry eligible for refresh-ahead.
+     *
+     * @since 5.3
+     */
+    public int getRefreshAheadMinHits() {
+        return refreshAheadMinHits;
+    }
+
+    /**
+     * Returns the time window within which entry hits are counted for refresh-ahead.
+     *
+     * @since 5.3
+     */
+    public TimeValue getRefreshAheadWindow() {
+        return refreshAheadWindow;
+    }
+
+    /**
+     * Returns the number of threads async caching clients use to execute
+     * operations of blocking cache storage backends off the I/O dispatch
+     * threads. A value of 0 means such operations get executed by the calling
+     * thread. Callbacks of storage operations get completed by the same threads.
+     * Generation and reading of cache resources are not storage operations and
+     * are not executed by these threads.
+     *
+     * @since 5.3
+     */
+    public int getStorageWorkers() {
+        return storageWorkers;
+    }
+
+    /**
+     * Returns the maximum number of blocking cache storage operations that
+     * can be waiting for execution. Operations submitted beyond that limit
+     * fail and get treated as a cache miss.
+     *
+     * @since 5.3
+     */
+    public int getMaxStorageQueueSize() {
+        return maxStorageQueueSize;
+    }
+
+    /**
+     * Returns the maximum number of cache keys indexed for bulk invalidation
+     * by URI prefix or surrogate key. Once the limit is reached, the least
+     * recently indexed entries are evicted from the cache along with their keys,
+     * so that every cached entry remains reachable by bulk invalidation.
+     *
+     * @since 5.3
+     */
+    public int getMaxIndexedKeys() {
+        return maxIndexedKeys;
+    }
+
     @Override
     protected CacheConfig clone() throws CloneNotSupportedException {
         return (CacheConfig) super.clone();
@@ -297,12 +502,22 @@ public static Builder copy(final CacheConfig config) {
         return new Builder()
             .setMaxObjectSize(config.getMaxObjectSize())
             .setMaxCacheEntries(config.getMaxCacheEntries())
+            .setMaxCacheBytes(config.getMaxCacheBytes())
+            .setAdmissionFilterEnabled(config.isAdmissionFilterEnabled())
             .setMaxUpdateRetries(config.getMaxUpdateRetries())
             .setHeuristicCachingEnabled(config.isHeuristicCachingEnabled())
             .setHeuristicCoefficient(config.getHeuristicCoefficient())
             .setHeuristicDefaultLifetime(config.getHeuristicDefaultLifetime())
             .setSharedCache(config.isSharedCache())
             .setAsynchronousWorkers(config.getAsynchronousWorkers())
+            .setMaxRevalidationQueueSize(config.getMaxRevalidationQueueSize())
+            .setRevalidationBatchSize(config.getRevalidationBatchSize())
+            .setRefreshAheadFactor(config.getRefreshAheadFactor())
+            .setRefreshAheadMinHits(config.getRefreshAheadMinHits())
+            .setRefreshAheadWindow(config.getRefreshAheadWindow())
+            .setStorageWorkers(config.getStorageWorkers())
+            .setMaxStorageQueueSize(config.getMaxStorageQueueSize())
+            .setMaxIndexedKeys(config.getMaxIndexedKeys())
             .setNeverCacheHTTP10ResponsesWithQueryString(config.isNeverCacheHTTP10ResponsesWithQuery());
     }
 
@@ -311,6 +526,8 @@ public static class Builder {
 
         private long maxObjectSize;
         private int maxCacheEntries;
+        private long maxCacheBytes;
+        private boolean admissionFilterEnabled;
         private int maxUpdateRetries;
         private boolean allow303Caching;
         private boolean weakETagOnPutDeleteAllowed;
@@ -320,11 +537,20 @@ public static class Builder {
         private boolean sharedCache;
         private boolean freshnessCheckEnabled;
         private int asynchronousWorkers;
+        private int maxRevalidationQueueSize;
+        private int revalidationBatchSize;
+        private float refreshAheadFactor;
+        private int refreshAheadMinHits;
+        private TimeValue refreshAheadWindow;
+        private int storageWorkers;
+        private int maxStorageQueueSize;
+        private int maxIndexedKeys;
         private boolean neverCacheHTTP10ResponsesWithQuery;
 
         Builder() {
             this.maxObjectSize = DEFAULT_MAX_OBJECT_SIZE_BYTES;
             this.maxCacheEntries = DEFAULT_MAX_CACHE_ENTRIES;
+            this.maxCacheBytes = DEFAULT_MAX_CACHE_BYTES;
             this.maxUpdateRetries = DEFAULT_MAX_UPDATE_RETRIES;
             this.allow303Caching = DEFAULT_303_CACHING_ENABLED;
             this.weakETagOnPutDeleteAllowed = DEFAULT_WEAK_ETAG_ON_PUTDELETE_ALLOWED;
@@ -334,6 +560,14 @@ public static class Builder {
             this.sharedCache = true;
             this.freshnessCheckEnabled = true;
             this.asynchronousWorkers = DEFAULT_ASYNCHRONOUS_WORKERS;
+            this.maxRevalidationQueueSize = DEFAULT_MAX_REVALIDATION_QUEUE_SIZE;
+            this.revalidationBatchSize = DEFAULT_REVALIDATION_BATCH_SIZE;
+            this.refreshAheadFactor = DEFAULT_REFRESH_AHEAD_FACTOR;
+            this.refreshAheadMinHits = DEFAULT_REFRESH_AHEAD_MIN_HITS;
+            this.refreshAheadWindow = DEFAULT_REFRESH_AHEAD_WINDOW;
+            this.storageWorkers = DEFAULT_STORAGE_WORKERS;
+            this.maxStorageQueueSize = DEFAULT_MAX_STORAGE_QUEUE_SIZE;
+            this.maxIndexedKeys = DEFAULT_MAX_INDEXED_KEYS;
         }
 
         /**
@@ -353,6 +587,31 @@ public Builder setMaxCacheEntries(final int maxCacheEntries) {
             return this;
         }
 
+        /**
+         * Sets the maximum total size of cache entries in bytes the cache will retain.
+         * @param maxCacheBytes size in bytes; a value of {@code 0} or less means
+         *   the total size is not limited.
+         *
+         * @since 5.3
+         */
+        public Builder setMaxCacheBytes(final long maxCacheBytes) {
+            this.maxCacheBytes = maxCacheBytes;
+            return this;
+        }
+
+        /**
+         * Enables or disables frequency based admission of new cache entries.
+         * @param admissionFilterEnabled should be {@code true} to admit new entries
+         *   to a full cache only if they have been requested more frequently than
+         *   the entries they would displace.
+         *
+         * @since 5.3
+         */
+        public Builder setAdmissionFilterEnabled(final boolean admissionFilterEnabled) {
+            this.admissionFilterEnabled = admissionFilterEnabled;
+            return this;
+        }
+
         /**
          * Sets the number of times to retry a cache processChallenge on failure
          */
@@ -441,6 +700,107 @@ public Builder setAsynchronousWorkers(final int asynchronousWorkers) {
             return this;
         }
 
+        /**
+         * Sets the maximum number of background revalidations that can be waiting
+         * for execution.
+         * @param maxRevalidationQueueSize queue size; a value of 0 or less means
+         * the queue is unbounded.
+         *
+         * @since 5.3
+         */
+        public Builder setMaxRevalidationQueueSize(final int maxRevalidationQueueSize) {
+            this.maxRevalidationQueueSize = maxRevalidationQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of background revalidations to the same route
+         * a worker executes in a row.
+         *
+         * @since 5.3
+         */
+        public Builder setRevalidationBatchSize(final int revalidationBatchSize) {
+            this.revalidationBatchSize = revalidationBatchSize;
+            return this;
+        }
+
+        /**
+         * Enables refresh-ahead of frequently requested entries. Such entries get
+         * conditionally revalidated in the background once the given fraction of
+         * their freshness lifetime has passed, so they never go stale in front of
+         * a caller. Background revalidations must be enabled with
+         * {@link #setAsynchronousWorkers(int)}.
+         * @param refreshAheadFactor fraction of the freshness lifetime between
+         * 0 and 1; a value of 0 disables refresh-ahead.
+         *
+         * @since 5.3
+         */
+        public Builder setRefreshAheadFactor(final float refreshAheadFactor) {
+            this.refreshAheadFactor = refreshAheadFactor;
+            return this;
+        }
+
+        /**
+         * Sets the minimum number of hits within the refresh-ahead window
+         * that make an entry eligible for refresh-ahead.
+         *
+         * @since 5.3
+         */
+        public Builder setRefreshAheadMinHits(final int refreshAheadMinHits) {
+            this.refreshAheadMinHits = refreshAheadMinHits;
+            return this;
+        }
+
+        /**
+         * Sets the time window within which entry hits are counted for refresh-ahead.
+         *
+         * @since 5.3
+         */
+        public Builder setRefreshAheadWindow(final TimeValue refreshAheadWindow) {
+            this.refreshAheadWindow = refreshAheadWindow;
+            return this;
+        }
+
+        /**
+         * Sets the number of threads async caching clients use to execute
+         * operations of blocking cache storage backends. Completion of such
+         * operations, including the processing that follows a cache lookup,
+         * also runs on these threads, so the number should account for
+         * the expected number of concurrent cache lookups.
+         * @param storageWorkers number of threads; a value of 0 makes blocking
+         * storage operations execute on the calling thread.
+         *
+         * @since 5.3
+         */
+        public Builder setStorageWorkers(final int storageWorkers) {
+            this.storageWorkers = storageWorkers;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of blocking cache storage operations that
+         * can be waiting for execution.
+         *
+         * @since 5.3
+         */
+        public Builder setMaxStorageQueueSize(final int maxStorageQueueSize) {
+            this.maxStorageQueueSize = maxStorageQueueSize;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of cache keys indexed for bulk invalidation
+         * by URI prefix or surrogate key. The least recently indexed entries get
+         * evicted from the cache once the limit is reached, so the limit should
+         * not be lower than the capacity of the cache storage.
+         *
+         * @since 5.3
+         */
+        public Builder setMaxIndexedKeys(final int maxIndexedKeys) {
+            this.maxIndexedKeys = maxIndexedKeys;
+            return this;
+        }
+
         /**
          * Sets whether the cache should never cache HTTP 1.0 responses with a query string or not.
          * @param neverCacheHTTP10ResponsesWithQuery true to never cache responses with a query
@@ -463,6 +823,8 @@ public CacheConfig build() {
             return new CacheConfig(
                     maxObjectSize,
                     maxCacheEntries,
+                    maxCacheBytes,
+                    admissionFilterEnabled,
                     maxUpdateRetries,
                     allow303Caching,
                     weakETagOnPutDeleteAllowed,
@@ -472,6 +834,14 @@ public CacheConfig build() {
                     sharedCache,
                     freshnessCheckEnabled,
                     asynchronousWorkers,
+                    maxRevalidationQueueSize,
+                    revalidationBatchSize,
+                    refreshAheadFactor,
+                    refreshAheadMinHits,
+                    refreshAheadWindow != null ? refreshAheadWindow : DEFAULT_REFRESH_AHEAD_WINDOW,
+                    storageWorkers,
+                    maxStorageQueueSize,
+                    maxIndexedKeys,
                     neverCacheHTTP10ResponsesWithQuery);
         }
 
@@ -482,6 +852,8 @@ public String toString() {
         final StringBuilder builder = new StringBuilder();
         builder.append("[maxObjectSize=").append(this.maxObjectSize)
                 .append(", maxCacheEntries=").append(this.maxCacheEntries)
+                .append(", maxCacheBytes=").append(this.maxCacheBytes)
+                .append(", admissionFilterEnabled=").append(this.admissionFilterEnabled)
                 .append(", maxUpdateRetries=").append(this.maxUpdateRetries)
                 .append(", 303CachingEnabled=").append(this.allow303Caching)
                 .append(", weakETagOnPutDeleteAllowed=").append(this.weakETagOnPutDeleteAllowed)
@@ -491,6 +863,14 @@ public String toString() {
                 .append(", sharedCache=").append(this.sharedCache)
                 .append(", freshnessCheckEnabled=").append(this.freshnessCheckEnabled)
                 .append(", asynchronousWorkers=").append(this.asynchronousWorkers)
+                .append(", maxRevalidationQueueSize=").append(this.maxRevalidationQueueSize)
+                .append(", revalidationBatchSize=").append(this.revalidationBatchSize)
+                .append(", refreshAheadFactor=").append(this.refreshAheadFactor)
+                .append(", refreshAheadMinHits=").append(this.refreshAheadMinHits)
+                .append(", refreshAheadWindow=").append(this.refreshAheadWindow)
+                .append(", storageWorkers=").append(this.storageWorkers)
+                .append(", maxStorageQueueSize=").append(this.maxStorageQueueSize)
+                .append(", maxIndexedKeys=").append(this.maxIndexedKeys)
                 .append(", neverCacheHTTP10ResponsesWithQuery=").append(this.neverCacheHTTP10ResponsesWithQuery)
                 .append("]");
         return builder.toString();
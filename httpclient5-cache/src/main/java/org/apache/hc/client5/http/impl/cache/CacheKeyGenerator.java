@@ -36,6 +36,7 @@
 import java.util.Iterator;
 import java.util.List;
 
+import org.apache.hc.client5.http.cache.CacheKey;
 import org.apache.hc.client5.http.cache.HeaderConstants;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
 import org.apache.hc.core5.annotation.Contract;
@@ -45,7 +46,9 @@
 import org.apache.hc.core5.http.HeaderElement;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.URIScheme;
 import org.apache.hc.core5.http.message.MessageSupport;
+import org.apache.hc.core5.net.URIAuthority;
 
 /**
  * @since 4.1
@@ -86,6 +89,10 @@ public String generateKey(final URI requestUri) {
      * @return cache key
      */
     public String generateKey(final HttpHost host, final HttpRequest request) {
+        final String key = generateSimpleKey(host, request);
+        if (key != null) {
+            return key;
+        }
         final String s = HttpCacheSupport.getRequestUri(request, host);
         try {
             return generateKey(new URI(s));
@@ -94,10 +101,170 @@ public String generateKey(final HttpHost host, final HttpRequest request) {
         }
     }
 
+    /**
+     * Computes a {@link CacheKey} for the given {@link HttpHost} and {@link HttpRequest}.
+     * The key is meant to be computed once per request execution and can be carried
+     * in the execution context.
+     *
+     * @param host The host for this request
+     * @param request the {@link HttpRequest}
+     * @return cache key
+     *
+     * @since 5.3
+     */
+    public CacheKey generateCacheKey(final HttpHost host, final HttpRequest request) {
+        return CacheKey.of(generateKey(host, request));
+    }
+
+    private static boolean isUnreserved(final char ch) {
+        return ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || ch >= '0' && ch <= '9'
+                || ch == '-' || ch == '.' || ch == '_' || ch == '~';
+    }
+
+    /**
+     * Builds the normalized key directly from request components if the request URI
+     * is already in its normal form and consists of unreserved characters only,
+     * which is the case for the vast majority of requests. Returns {@code null}
+     * if the request URI needs to be fully parsed and normalized.
+     */
+    static String generateSimpleKey(final HttpHost host, final HttpRequest request) {
+        final String scheme;
+        final String hostName;
+        int port;
+        final URIAuthority authority = request.getAuthority();
+        if (authority != null) {
+            final String s = request.getScheme();
+            scheme = s != null ? s : URIScheme.HTTP.id;
+            hostName = authority.getHostName();
+            port = authority.getPort();
+        } else {
+            scheme = host.getSchemeName();
+            hostName = host.getHostName();
+            port = host.getPort();
+        }
+        if (port < 0) {
+            if (URIScheme.HTTP.same(scheme)) {
+                port = 80;
+            } else if (URIScheme.HTTPS.same(scheme)) {
+                port = 443;
+            } else {
+                return null;
+            }
+        } else if (!URIScheme.HTTP.same(scheme) && !URIScheme.HTTPS.same(scheme)) {
+            return null;
+        }
+        if (hostName == null || hostName.isEmpty()) {
+            return null;
+        }
+        final String path = request.getPath();
+        final int pathLen = path != null ? path.length() : 0;
+        final StringBuilder buf = new StringBuilder(scheme.length() + hostName.length() + pathLen + 10);
+        for (int i = 0; i < scheme.length(); i++) {
+            buf.append(Character.toLowerCase(scheme.charAt(i)));
+        }
+        buf.append("://");
+        for (int i = 0; i < hostName.length(); i++) {
+            final char ch = hostName.charAt(i);
+            if (!isUnreserved(ch) || ch == '_' || ch == '~') {
+                return null;
+            }
+            buf.append(Character.toLowerCase(ch));
+        }
+        buf.append(':').append(port);
+        if (pathLen == 0) {
+            buf.append('/');
+            return buf.toString();
+        }
+        int i = 0;
+        if (path.charAt(0) != '/') {
+            buf.append('/');
+        }
+        // path: no empty or dot segments
+        int segmentStart = buf.length();
+        for (; i < pathLen; i++) {
+            final char ch = path.charAt(i);
+            if (ch == '?') {
+                break;
+            }
+            if (ch == '/') {
+                if (isDotSegment(buf, segmentStart) || i > 0 && path.charAt(i - 1) == '/') {
+                    return null;
+                }
+                buf.append(ch);
+                segmentStart = buf.length();
+            } else if (isUnreserved(ch)) {
+                buf.append(ch);
+            } else {
+                return null;
+            }
+        }
+        if (isDotSegment(buf, segmentStart)) {
+            return null;
+        }
+        if (i == pathLen) {
+            return buf.toString();
+        }
+        // query: non-empty parameters with non-empty names and at most one '=' each
+        i++;
+        if (i == pathLen) {
+            return null;
+        }
+        buf.append('?');
+        int paramStart = i;
+        boolean seenEquals = false;
+        for (; i < pathLen; i++) {
+            final char ch = path.charAt(i);
+            if (ch == '&') {
+                if (i == paramStart) {
+                    return null;
+                }
+                paramStart = i + 1;
+                seenEquals = false;
+            } else if (ch == '=') {
+                if (i == paramStart || seenEquals) {
+                    return null;
+                }
+                seenEquals = true;
+            } else if (!isUnreserved(ch)) {
+                return null;
+            }
+            buf.append(ch);
+        }
+        if (paramStart == pathLen) {
+            return null;
+        }
+        return buf.toString();
+    }
+
+    private static boolean isDotSegment(final CharSequence buf, final int start) {
+        final int len = buf.length() - start;
+        return len == 1 && buf.charAt(start) == '.'
+                || len == 2 && buf.charAt(start) == '.' && buf.charAt(start + 1) == '.';
+    }
+
+    /**
+     * Appends the form encoded value to the buffer, skipping {@link URLEncoder}
+     * if the value contains no characters that need encoding.
+     */
+    private static void appendEncoded(final StringBuilder buf, final String s) throws UnsupportedEncodingException {
+        for (int i = 0; i < s.length(); i++) {
+            final char ch = s.charAt(i);
+            if (!(ch >= 'a' && ch <= 'z' || ch >= 'A' && ch <= 'Z' || ch >= '0' && ch <= '9'
+                    || ch == '-' || ch == '.' || ch == '_' || ch == '*')) {
+                buf.append(URLEncoder.encode(s, StandardCharsets.UTF_8.name()));
+                return;
+            }
+        }
+        buf.append(s);
+    }
+
     private String getFullHeaderValue(final Header[] headers) {
-        if (headers == null) {
+        if (headers == null || headers.length == 0) {
             return "";
         }
+        if (headers.length == 1) {
+            return headers[0].getValue().trim();
+        }
         final StringBuilder buf = new StringBuilder();
         for (int i = 0; i < headers.length; i++) {
             final Header hdr = headers[i];
@@ -152,10 +319,9 @@ public String generateVariantKey(final HttpRequest req, final HttpCacheEntry ent
                 if (!first) {
                     buf.append("&");
                 }
-                buf.append(URLEncoder.encode(headerName, StandardCharsets.UTF_8.name()));
+                appendEncoded(buf, headerName);
                 buf.append("=");
-                buf.append(URLEncoder.encode(getFullHeaderValue(req.getHeaders(headerName)),
-                        StandardCharsets.UTF_8.name()));
+                appendEncoded(buf, getFullHeaderValue(req.getHeaders(headerName)));
                 first = false;
             }
             buf.append("}");
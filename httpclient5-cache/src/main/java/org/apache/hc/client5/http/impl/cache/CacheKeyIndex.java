@@ -0,0 +1,305 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.client5.http.cache.HeaderConstants;
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.Header;
+
+/**
+ * Secondary index of cache keys by their request URI and by surrogate keys
+ * ({@code Surrogate-Key} and {@code Cache-Tag} response headers) of their
+ * cache entries. Cache keys of variant entries are indexed by the request
+ * URI of their parent entry.
+ * <p>
+ * The index is bounded. Once the maximum number of keys is reached the least
+ * recently indexed keys get dropped and returned to the caller, which is
+ * expected to evict the corresponding entries from the cache storage, so that
+ * every cached entry remains reachable by bulk invalidation.
+ * </p>
+ * <p>
+ * The index is kept in memory. Entries already present in a persistent cache
+ * storage get indexed when the index is created; the index is then sized to
+ * hold all of them, so that none of them gets evicted at startup. Entries
+ * found in a shared cache storage need to be indexed with
+ * {@link #addIfAbsent(String, HttpCacheEntry)} when loaded. Keys already
+ * present in the index are looked up without locking.
+ * </p>
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+class CacheKeyIndex {
+
+    private final int maxKeys;
+    private final ReentrantLock lock;
+    private final Set<String> indexedKeys;
+    private final LinkedHashMap<String, Set<String>> tagsByKey;
+    private final NavigableMap<String, Set<String>> keysByUri;
+    private final Map<String, Set<String>> keysByTag;
+
+    CacheKeyIndex(final int maxKeys) {
+        this.maxKeys = maxKeys > 0 ? maxKeys : CacheConfig.DEFAULT_MAX_INDEXED_KEYS;
+        this.lock = new ReentrantLock();
+        this.indexedKeys = ConcurrentHashMap.newKeySet();
+        this.tagsByKey = new LinkedHashMap<>();
+        this.keysByUri = new TreeMap<>();
+        this.keysByTag = new HashMap<>();
+    }
+
+    /**
+     * Creates an index of the given entries already present in the cache storage.
+     * The maximum number of keys is raised to the number of entries if necessary.
+     */
+    CacheKeyIndex(final int maxKeys, final Map<String, HttpCacheEntry> storedEntries) {
+        this(Math.max(maxKeys > 0 ? maxKeys : CacheConfig.DEFAULT_MAX_INDEXED_KEYS, storedEntries.size()));
+        lock.lock();
+        try {
+            for (final Map.Entry<String, HttpCacheEntry> entry : storedEntries.entrySet()) {
+                index(entry.getKey(), getTags(entry.getValue()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    CacheKeyIndex() {
+        this(CacheConfig.DEFAULT_MAX_INDEXED_KEYS);
+    }
+
+    /**
+     * Returns the request URI part of the given cache key stripping the variant
+     * key prefix if present.
+     */
+    static String getRequestUri(final String cacheKey) {
+        if (cacheKey.startsWith("{")) {
+            final int i = cacheKey.indexOf('}');
+            if (i > 0) {
+                return cacheKey.substring(i + 1);
+            }
+        }
+        return cacheKey;
+    }
+
+    static Set<String> getTags(final HttpCacheEntry entry) {
+        Set<String> tags = null;
+        for (final Iterator<Header> it = entry.headerIterator(); it.hasNext(); ) {
+            final Header header = it.next();
+            final String[] tokens;
+            if (HeaderConstants.SURROGATE_KEY.equalsIgnoreCase(header.getName())) {
+                tokens = header.getValue().split("\\s+");
+            } else if (HeaderConstants.CACHE_TAG.equalsIgnoreCase(header.getName())) {
+                tokens = header.getValue().split(",");
+            } else {
+                continue;
+            }
+            for (final String token : tokens) {
+                final String tag = token.trim();
+                if (!tag.isEmpty()) {
+                    if (tags == null) {
+                        tags = new HashSet<>();
+                    }
+                    tags.add(tag);
+                }
+            }
+        }
+        return tags != null ? tags : Collections.emptySet();
+    }
+
+    /**
+     * Returns {@code true} if the given request URI starts with the given prefix
+     * at a path segment boundary, so that {@code /a} matches {@code /a},
+     * {@code /a/b} and {@code /a?b} but not {@code /ab}.
+     */
+    static boolean matchesPrefix(final String requestUri, final String uriPrefix) {
+        if (!requestUri.startsWith(uriPrefix)) {
+            return false;
+        }
+        if (requestUri.length() == uriPrefix.length() || uriPrefix.endsWith("/")) {
+            return true;
+        }
+        final char ch = requestUri.charAt(uriPrefix.length());
+        return ch == '/' || ch == '?' || ch == '#';
+    }
+
+    /**
+     * Indexes the given cache key by its request URI and by the surrogate keys
+     * of the cache entry.
+     *
+     * @return the least recently indexed keys dropped from the index due to its
+     * maximum size being exceeded.
+     */
+    Set<String> add(final String cacheKey, final HttpCacheEntry entry) {
+        final Set<String> tags = getTags(entry);
+        lock.lock();
+        try {
+            return index(cacheKey, tags);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Indexes the given cache key unless it is already present in the index.
+     *
+     * @return the least recently indexed keys dropped from the index due to its
+     * maximum size being exceeded.
+     */
+    Set<String> addIfAbsent(final String cacheKey, final HttpCacheEntry entry) {
+        if (indexedKeys.contains(cacheKey)) {
+            return Collections.emptySet();
+        }
+        lock.lock();
+        try {
+            if (tagsByKey.containsKey(cacheKey)) {
+                return Collections.emptySet();
+            }
+            return index(cacheKey, getTags(entry));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the given cache key from the index.
+     */
+    void remove(final String cacheKey) {
+        lock.lock();
+        try {
+            unindex(cacheKey);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all cache keys whose request URI starts with the given prefix at
+     * a path segment boundary from the index and returns them.
+     */
+    Set<String> removeByPrefix(final String uriPrefix) {
+        final Set<String> result = new HashSet<>();
+        lock.lock();
+        try {
+            for (final Map.Entry<String, Set<String>> entry : keysByUri.tailMap(uriPrefix, true).entrySet()) {
+                if (!entry.getKey().startsWith(uriPrefix)) {
+                    break;
+                }
+                if (matchesPrefix(entry.getKey(), uriPrefix)) {
+                    result.addAll(entry.getValue());
+                }
+            }
+            for (final String cacheKey : result) {
+                unindex(cacheKey);
+            }
+        } finally {
+            lock.unlock();
+        }
+        return result;
+    }
+
+    /**
+     * Removes all cache keys tagged with the given surrogate key from the index
+     * and returns them.
+     */
+    Set<String> removeByTag(final String tag) {
+        lock.lock();
+        try {
+            final Set<String> keys = keysByTag.get(tag);
+            if (keys == null) {
+                return Collections.emptySet();
+            }
+            final Set<String> result = new HashSet<>(keys);
+            for (final String cacheKey : result) {
+                unindex(cacheKey);
+            }
+            return result;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return tagsByKey.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Set<String> index(final String cacheKey, final Set<String> tags) {
+        unindex(cacheKey);
+        tagsByKey.put(cacheKey, tags);
+        indexedKeys.add(cacheKey);
+        keysByUri.computeIfAbsent(getRequestUri(cacheKey), k -> new HashSet<>()).add(cacheKey);
+        for (final String tag : tags) {
+            keysByTag.computeIfAbsent(tag, k -> new HashSet<>()).add(cacheKey);
+        }
+        Set<String> dropped = null;
+        while (tagsByKey.size() > maxKeys) {
+            final String eldest = tagsByKey.keySet().iterator().next();
+            unindex(eldest);
+            if (dropped == null) {
+                dropped = new HashSet<>();
+            }
+            dropped.add(eldest);
+        }
+        return dropped != null ? dropped : Collections.emptySet();
+    }
+
+    private void unindex(final String cacheKey) {
+        final Set<String> tags = tagsByKey.remove(cacheKey);
+        if (tags == null) {
+            return;
+        }
+        indexedKeys.remove(cacheKey);
+        final String uri = getRequestUri(cacheKey);
+        final Set<String> uriKeys = keysByUri.get(uri);
+        if (uriKeys != null && uriKeys.remove(cacheKey) && uriKeys.isEmpty()) {
+            keysByUri.remove(uri);
+        }
+        for (final String tag : tags) {
+            final Set<String> tagKeys = keysByTag.get(tag);
+            if (tagKeys != null && tagKeys.remove(cacheKey) && tagKeys.isEmpty()) {
+                keysByTag.remove(tag);
+            }
+        }
+    }
+
+}
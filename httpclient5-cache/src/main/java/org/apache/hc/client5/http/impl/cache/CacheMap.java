@@ -26,25 +26,226 @@
  */
 package org.apache.hc.client5.http.impl.cache;
 
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.core5.http.Header;
 
-final class CacheMap extends LinkedHashMap<String, HttpCacheEntry> {
-
-    private static final long serialVersionUID = -7750025207539768511L;
+/**
+ * LRU map of cache entries bounded by the number of entries and optionally by
+ * the total weight of entries in bytes. The weight of an entry is the length of
+ * its resource plus the size of its headers.
+ * <p>
+ * If a {@link FrequencySketch} is given, a new entry is admitted only if it was
+ * looked up more frequently than any of the entries that would need to be evicted
+ * to make room for it, which protects frequently used entries from being evicted
+ * by entries that are requested only once.
+ * </p>
+ * <p>
+ * Evictions and rejections of entries get reported to the given {@link CacheMetricsRecorder}.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ */
+final class CacheMap {
 
+    private final LinkedHashMap<String, Node> map;
     private final int maxEntries;
+    private final long maxBytes;
+    private final FrequencySketch sketch;
+    private final CacheMetricsRecorder metricsRecorder;
 
-    CacheMap(final int maxEntries) {
-        super(20, 0.75f, true);
+    private long totalBytes;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long rejectionCount;
+
+    /**
+     * @param maxEntries the maximum number of entries.
+     * @param maxBytes the maximum total weight of entries in bytes;
+     *                 a value of {@code 0} or less means no limit.
+     * @param admissionFilter whether or not to use frequency based admission.
+     * @param metricsRecorder recorder of evictions and rejections.
+     */
+    CacheMap(
+            final int maxEntries,
+            final long maxBytes,
+            final boolean admissionFilter,
+            final CacheMetricsRecorder metricsRecorder) {
+        this.map = new LinkedHashMap<>(20, 0.75f, true);
         this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes > 0 ? maxBytes : Long.MAX_VALUE;
+        this.sketch = admissionFilter ? new FrequencySketch(maxEntries) : null;
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : CacheMetricsRecorder.NOOP;
+    }
+
+    CacheMap(final int maxEntries, final long maxBytes, final boolean admissionFilter) {
+        this(maxEntries, maxBytes, admissionFilter, null);
+    }
+
+    CacheMap(final CacheConfig config, final CacheMetricsRecorder metricsRecorder) {
+        this(config.getMaxCacheEntries(), config.getMaxCacheBytes(), config.isAdmissionFilterEnabled(), metricsRecorder);
+    }
+
+    CacheMap(final int maxEntries) {
+        this(maxEntries, 0, false);
+    }
+
+    static long weigh(final HttpCacheEntry entry) {
+        final Resource resource = entry.getResource();
+        long weight = resource != null ? Math.max(0, resource.length()) : 0;
+        for (final Iterator<Header> it = entry.headerIterator(); it.hasNext(); ) {
+            final Header header = it.next();
+            weight += header.getName().length() + (header.getValue() != null ? header.getValue().length() : 0);
+        }
+        return weight;
+    }
+
+    /**
+     * Looks up an entry, records the access and updates hit or miss counts.
+     */
+    HttpCacheEntry get(final String key) {
+        if (sketch != null) {
+            sketch.increment(key);
+        }
+        final Node node = map.get(key);
+        if (node != null) {
+            hitCount++;
+            return node.entry;
+        }
+        missCount++;
+        return null;
+    }
+
+    /**
+     * Looks up an entry without recording the access.
+     */
+    HttpCacheEntry peek(final String key) {
+        final Node node = map.get(key);
+        return node != null ? node.entry : null;
+    }
+
+    /**
+     * Stores an entry evicting least recently used entries if necessary.
+     *
+     * @return {@code true} if the entry has been stored, {@code false} if it has
+     * been rejected.
+     */
+    boolean put(final String key, final HttpCacheEntry entry) {
+        if (entry == null) {
+            remove(key);
+            return true;
+        }
+        final long weight = weigh(entry);
+        final Node existing = map.get(key);
+        if (weight > maxBytes || (existing == null && !admit(key, weight))) {
+            rejectionCount++;
+            metricsRecorder.recordRejections(1);
+            if (existing != null) {
+                remove(key);
+            }
+            return false;
+        }
+        final Node previous = map.put(key, new Node(entry, weight));
+        if (previous != null) {
+            totalBytes -= previous.weight;
+        }
+        totalBytes += weight;
+        evictExcess();
+        return true;
+    }
+
+    private boolean admit(final String key, final long weight) {
+        if (sketch == null) {
+            return true;
+        }
+        long bytesToFree = totalBytes + weight - maxBytes;
+        int entriesToFree = map.size() + 1 - maxEntries;
+        if (bytesToFree <= 0 && entriesToFree <= 0) {
+            return true;
+        }
+        final int frequency = sketch.frequency(key);
+        for (final Iterator<Map.Entry<String, Node>> it = map.entrySet().iterator();
+             it.hasNext() && (bytesToFree > 0 || entriesToFree > 0); ) {
+            final Map.Entry<String, Node> victim = it.next();
+            if (sketch.frequency(victim.getKey()) >= frequency) {
+                return false;
+            }
+            bytesToFree -= victim.getValue().weight;
+            entriesToFree--;
+        }
+        return true;
     }
 
-    @Override
-    protected boolean removeEldestEntry(final Map.Entry<String, HttpCacheEntry> eldest) {
-        return size() > this.maxEntries;
+    private void evictExcess() {
+        int evicted = 0;
+        final Iterator<Node> it = map.values().iterator();
+        while ((totalBytes > maxBytes || map.size() > maxEntries) && it.hasNext()) {
+            final Node eldest = it.next();
+            it.remove();
+            totalBytes -= eldest.weight;
+            evicted++;
+        }
+        if (evicted > 0) {
+            evictionCount += evicted;
+            metricsRecorder.recordEvictions(evicted);
+        }
+    }
+
+    HttpCacheEntry remove(final String key) {
+        final Node node = map.remove(key);
+        if (node != null) {
+            totalBytes -= node.weight;
+            return node.entry;
+        }
+        return null;
+    }
+
+    void clear() {
+        map.clear();
+        totalBytes = 0;
+    }
+
+    int size() {
+        return map.size();
+    }
+
+    long getTotalBytes() {
+        return totalBytes;
+    }
+
+    long getHitCount() {
+        return hitCount;
+    }
+
+    long getMissCount() {
+        return missCount;
+    }
+
+    long getEvictionCount() {
+        return evictionCount;
+    }
+
+    long getRejectionCount() {
+        return rejectionCount;
+    }
+
+    static final class Node {
+
+        final HttpCacheEntry entry;
+        final long weight;
+
+        Node(final HttpCacheEntry entry, final long weight) {
+            this.entry = entry;
+            this.weight = weight;
+        }
+
     }
 
 }
@@ -28,15 +28,24 @@
 
 import java.io.Closeable;
 import java.io.IOException;
+import java.time.Instant;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.HeaderConstants;
 import org.apache.hc.client5.http.schedule.ConcurrentCountMap;
 import org.apache.hc.client5.http.schedule.SchedulingStrategy;
@@ -91,22 +100,77 @@ public void awaitTermination(final Timeout timeout) throws InterruptedException
 
     private final ScheduledExecutor scheduledExecutor;
     private final SchedulingStrategy schedulingStrategy;
-    private final Set<String> pendingRequest;
+    private final int maxQueueSize;
+    private final int batchSize;
+    private final CacheMetricsRecorder metricsRecorder;
+    private final ReentrantLock lock;
+    private final Map<String, RevalidationJob> pendingRequest;
+    private final TreeSet<RevalidationJob> queue;
     private final ConcurrentCountMap<String> failureCache;
+    private final AtomicLong sequence;
+    private final AtomicLong droppedCount;
+    private final AtomicLong executedCount;
+    private final AtomicLong totalQueueTime;
+    private final AtomicLong maxQueueTime;
 
     private static final Logger LOG = LoggerFactory.getLogger(CacheRevalidatorBase.class);
 
     /**
      * Create CacheValidator which will make ache revalidation requests
      * using the supplied {@link SchedulingStrategy} and {@link ScheduledExecutor}.
+     * Revalidations waiting for execution are kept in a queue of the given
+     * maximum size ordered by their priority. Queue statistics get reported
+     * to the given {@link CacheMetricsRecorder}.
+     *
+     * @since 5.3
      */
     public CacheRevalidatorBase(
             final ScheduledExecutor scheduledExecutor,
-            final SchedulingStrategy schedulingStrategy) {
+            final SchedulingStrategy schedulingStrategy,
+            final int maxQueueSize,
+            final int batchSize,
+            final CacheMetricsRecorder metricsRecorder) {
         this.scheduledExecutor = scheduledExecutor;
         this.schedulingStrategy = schedulingStrategy;
-        this.pendingRequest = new HashSet<>();
+        this.maxQueueSize = maxQueueSize;
+        this.batchSize = Math.max(1, batchSize);
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : CacheMetricsRecorder.NOOP;
+        this.lock = new ReentrantLock();
+        this.pendingRequest = new HashMap<>();
+        this.queue = new TreeSet<>();
         this.failureCache = new ConcurrentCountMap<>();
+        this.sequence = new AtomicLong();
+        this.droppedCount = new AtomicLong();
+        this.executedCount = new AtomicLong();
+        this.totalQueueTime = new AtomicLong();
+        this.maxQueueTime = new AtomicLong();
+    }
+
+    /**
+     * Create CacheValidator which will make ache revalidation requests
+     * using the supplied {@link SchedulingStrategy} and {@link ScheduledExecutor}.
+     * Revalidations waiting for execution are kept in a queue of the given
+     * maximum size ordered by their priority.
+     *
+     * @since 5.3
+     */
+    public CacheRevalidatorBase(
+            final ScheduledExecutor scheduledExecutor,
+            final SchedulingStrategy schedulingStrategy,
+            final int maxQueueSize,
+            final int batchSize) {
+        this(scheduledExecutor, schedulingStrategy, maxQueueSize, batchSize, null);
+    }
+
+    /**
+     * Create CacheValidator which will make ache revalidation requests
+     * using the supplied {@link SchedulingStrategy} and {@link ScheduledExecutor}.
+     */
+    public CacheRevalidatorBase(
+            final ScheduledExecutor scheduledExecutor,
+            final SchedulingStrategy schedulingStrategy) {
+        this(scheduledExecutor, schedulingStrategy,
+                CacheConfig.DEFAULT_MAX_REVALIDATION_QUEUE_SIZE, CacheConfig.DEFAULT_REVALIDATION_BATCH_SIZE);
     }
 
     /**
@@ -123,17 +187,157 @@ public CacheRevalidatorBase(
      * Schedules an asynchronous re-validation
      */
     void scheduleRevalidation(final String cacheKey, final Runnable command) {
-        synchronized (pendingRequest) {
-            if (!pendingRequest.contains(cacheKey)) {
-                final int consecutiveFailedAttempts = failureCache.getCount(cacheKey);
-                final TimeValue executionTime = schedulingStrategy.schedule(consecutiveFailedAttempts);
-                try {
-                    scheduledExecutor.schedule(command, executionTime);
-                    pendingRequest.add(cacheKey);
-                } catch (final RejectedExecutionException ex) {
-                    LOG.debug("Revalidation of cache entry with key {} could not be scheduled", cacheKey, ex);
+        scheduleRevalidation(cacheKey, null, null, command);
+    }
+
+    /**
+     * Schedules an asynchronous re-validation. Repeated requests to re-validate
+     * an entry that is still pending raise its priority. Once eligible for execution
+     * as determined by the {@link SchedulingStrategy}, re-validations of the most
+     * frequently requested entries run first, then those closest to expiry.
+     *
+     * @param cacheKey the cache key of the entry.
+     * @param route the route of the re-validation request. Re-validations to the same
+     *              route may be executed in a batch. May be {@code null}.
+     * @param deadline the point in time after which the entry can no longer be served
+     *                 stale. May be {@code null}.
+     * @param command the re-validation command.
+     *
+     * @since 5.3
+     */
+    void scheduleRevalidation(
+            final String cacheKey,
+            final HttpRoute route,
+            final Instant deadline,
+            final Runnable command) {
+        final RevalidationJob job;
+        final TimeValue executionTime;
+        lock.lock();
+        try {
+            final RevalidationJob pending = pendingRequest.get(cacheKey);
+            if (pending != null) {
+                if (queue.remove(pending)) {
+                    pending.hits++;
+                    queue.add(pending);
+                }
+                return;
+            }
+            final int consecutiveFailedAttempts = failureCache.getCount(cacheKey);
+            executionTime = schedulingStrategy.schedule(consecutiveFailedAttempts);
+            job = new RevalidationJob(
+                    cacheKey,
+                    route,
+                    deadline != null ? deadline.toEpochMilli() : Long.MAX_VALUE,
+                    System.nanoTime() + executionTime.toNanoseconds(),
+                    sequence.incrementAndGet(),
+                    command);
+            if (maxQueueSize > 0 && queue.size() >= maxQueueSize) {
+                final RevalidationJob lowest = queue.last();
+                if (job.compareTo(lowest) > 0) {
+                    droppedCount.incrementAndGet();
+                    metricsRecorder.recordRevalidationDropped();
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Revalidation queue is full; revalidation of cache entry with key {} dropped", cacheKey);
+                    }
+                    return;
+                }
+                queue.pollLast();
+                pendingRequest.remove(lowest.cacheKey);
+                cancelDispatch(lowest);
+                droppedCount.incrementAndGet();
+                metricsRecorder.recordRevalidationDropped();
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Revalidation queue is full; revalidation of cache entry with key {} dropped", lowest.cacheKey);
                 }
             }
+            pendingRequest.put(cacheKey, job);
+            queue.add(job);
+            metricsRecorder.recordRevalidationQueued(queue.size());
+        } finally {
+            lock.unlock();
+        }
+        final Future<?> dispatch;
+        try {
+            dispatch = scheduledExecutor.schedule(() -> dispatch(job), executionTime);
+        } catch (final RejectedExecutionException ex) {
+            removePending(job);
+            LOG.debug("Revalidation of cache entry with key {} could not be scheduled", cacheKey, ex);
+            return;
+        }
+        if (dispatch == null) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (!job.dispatchCancelled) {
+                job.dispatch = dispatch;
+                return;
+            }
+        } finally {
+            lock.unlock();
+        }
+        // Dropped or executed as a part of a batch in the meantime
+        dispatch.cancel(false);
+    }
+
+    /**
+     * Cancels the dispatch scheduled for the given re-validation, so that the
+     * executor does not keep dispatches with nothing left to do. Must be called
+     * with the lock held.
+     */
+    private void cancelDispatch(final RevalidationJob job) {
+        job.dispatchCancelled = true;
+        final Future<?> dispatch = job.dispatch;
+        if (dispatch != null) {
+            job.dispatch = null;
+            dispatch.cancel(false);
+        }
+    }
+
+    /**
+     * Executes the re-validation of the highest priority eligible for execution,
+     * followed by up to {@code batchSize - 1} re-validations to the same route.
+     * Every scheduled re-validation schedules one dispatch, which is always
+     * eligible to execute the re-validation it has been scheduled for, so there
+     * are as many dispatches as there are re-validations in the queue. When a
+     * re-validation leaves the queue without a dispatch of its own, that is when
+     * it gets dropped or executed as a part of a batch, its dispatch gets cancelled.
+     */
+    void dispatch(final RevalidationJob scheduled) {
+        RevalidationJob job = nextJob(scheduled, null);
+        for (int i = 0; job != null; i++) {
+            final long queueNanos = System.nanoTime() - job.enqueued;
+            final long queueTime = TimeUnit.NANOSECONDS.toMillis(queueNanos);
+            totalQueueTime.addAndGet(queueTime);
+            maxQueueTime.accumulateAndGet(queueTime, Math::max);
+            executedCount.incrementAndGet();
+            metricsRecorder.recordRevalidationExecuted(queueNanos);
+            job.command.run();
+            if (job.route == null || i + 1 >= batchSize) {
+                break;
+            }
+            job = nextJob(null, job.route);
+        }
+    }
+
+    private RevalidationJob nextJob(final RevalidationJob scheduled, final HttpRoute route) {
+        final long now = System.nanoTime();
+        lock.lock();
+        try {
+            for (final Iterator<RevalidationJob> it = queue.iterator(); it.hasNext(); ) {
+                final RevalidationJob job = it.next();
+                if ((job == scheduled || job.notBefore - now <= 0) && (route == null || route.equals(job.route))) {
+                    it.remove();
+                    if (scheduled == null) {
+                        // Executed in a batch: one dispatch fewer is needed
+                        cancelDispatch(job);
+                    }
+                    return job;
+                }
+            }
+            return null;
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -149,24 +353,143 @@ public void awaitTermination(final Timeout timeout) throws InterruptedException
 
     void jobSuccessful(final String identifier) {
         failureCache.resetCount(identifier);
-        synchronized (pendingRequest) {
-            pendingRequest.remove(identifier);
-        }
+        removePending(identifier);
     }
 
     void jobFailed(final String identifier) {
         failureCache.increaseCount(identifier);
-        synchronized (pendingRequest) {
-            pendingRequest.remove(identifier);
+        removePending(identifier);
+    }
+
+    private void removePending(final String identifier) {
+        lock.lock();
+        try {
+            final RevalidationJob job = pendingRequest.remove(identifier);
+            if (job != null) {
+                queue.remove(job);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void removePending(final RevalidationJob job) {
+        lock.lock();
+        try {
+            queue.remove(job);
+            pendingRequest.remove(job.cacheKey, job);
+        } finally {
+            lock.unlock();
         }
     }
 
     Set<String> getScheduledIdentifiers() {
-        synchronized (pendingRequest) {
-            return new HashSet<>(pendingRequest);
+        lock.lock();
+        try {
+            return new HashSet<>(pendingRequest.keySet());
+        } finally {
+            lock.unlock();
         }
     }
 
+    /**
+     * Returns the number of re-validations waiting for execution.
+     *
+     * @since 5.3
+     */
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return queue.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of re-validations dropped due to the queue being full.
+     *
+     * @since 5.3
+     */
+    public long getDroppedCount() {
+        return droppedCount.get();
+    }
+
+    /**
+     * Returns the number of re-validations executed so far.
+     *
+     * @since 5.3
+     */
+    public long getExecutedCount() {
+        return executedCount.get();
+    }
+
+    /**
+     * Returns the average time re-validations spent in the queue prior to execution.
+     *
+     * @since 5.3
+     */
+    public TimeValue getAverageQueueTime() {
+        final long executed = executedCount.get();
+        return TimeValue.ofMilliseconds(executed > 0 ? totalQueueTime.get() / executed : 0);
+    }
+
+    /**
+     * Returns the maximum time a re-validation spent in the queue prior to execution.
+     *
+     * @since 5.3
+     */
+    public TimeValue getMaxQueueTime() {
+        return TimeValue.ofMilliseconds(maxQueueTime.get());
+    }
+
+    static final class RevalidationJob implements Comparable<RevalidationJob> {
+
+        final String cacheKey;
+        final HttpRoute route;
+        final long deadline;
+        final long notBefore;
+        final long seqNo;
+        final long enqueued;
+        final Runnable command;
+        int hits;
+        Future<?> dispatch;
+        boolean dispatchCancelled;
+
+        RevalidationJob(
+                final String cacheKey,
+                final HttpRoute route,
+                final long deadline,
+                final long notBefore,
+                final long seqNo,
+                final Runnable command) {
+            this.cacheKey = cacheKey;
+            this.route = route;
+            this.deadline = deadline;
+            this.notBefore = notBefore;
+            this.seqNo = seqNo;
+            this.enqueued = System.nanoTime();
+            this.command = command;
+            this.hits = 1;
+        }
+
+        /**
+         * Orders jobs by descending hit count, then by ascending deadline and then
+         * in the order of submission.
+         */
+        @Override
+        public int compareTo(final RevalidationJob other) {
+            if (hits != other.hits) {
+                return hits > other.hits ? -1 : 1;
+            }
+            if (deadline != other.deadline) {
+                return deadline < other.deadline ? -1 : 1;
+            }
+            return Long.compare(seqNo, other.seqNo);
+        }
+
+    }
+
     /**
      * Determines if the given response is generated from a stale cache entry.
      * @param httpResponse the response to be checked
@@ -147,6 +147,32 @@ public boolean mayReturnStaleWhileRevalidating(final HttpCacheEntry entry, final
         return false;
     }
 
+    /**
+     * Returns the point in time after which the entry can no longer be served stale
+     * while being revalidated or {@code null} if the entry has no valid
+     * {@code stale-while-revalidate} directive.
+     *
+     * @since 5.3
+     */
+    public Instant getStaleWhileRevalidateDeadline(final HttpCacheEntry entry, final Instant now) {
+        long allowedStalenessLifetime = -1;
+        final Iterator<HeaderElement> it = MessageSupport.iterate(entry, HeaderConstants.CACHE_CONTROL);
+        while (it.hasNext()) {
+            final HeaderElement elt = it.next();
+            if (HeaderConstants.STALE_WHILE_REVALIDATE.equalsIgnoreCase(elt.getName())) {
+                try {
+                    allowedStalenessLifetime = Math.max(allowedStalenessLifetime, Integer.parseInt(elt.getValue()));
+                } catch (final NumberFormatException nfe) {
+                    // skip malformed directive
+                }
+            }
+        }
+        if (allowedStalenessLifetime < 0) {
+            return null;
+        }
+        return now.plusSeconds(allowedStalenessLifetime).minusMillis(getStaleness(entry, now).toMilliseconds());
+    }
+
     public boolean mayReturnStaleIfError(final HttpRequest request, final HttpCacheEntry entry, final Instant now) {
         final TimeValue staleness = getStaleness(entry, now);
         return mayReturnStaleIfError(request, HeaderConstants.CACHE_CONTROL, staleness)
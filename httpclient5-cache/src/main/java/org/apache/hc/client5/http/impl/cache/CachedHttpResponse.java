@@ -0,0 +1,112 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+
+/**
+ * HTTP response generated by the caching layer. Unlike
+ * {@link org.apache.hc.client5.http.async.methods.SimpleHttpResponse} the response
+ * content is represented by a cache {@link Resource}, which enables the content
+ * of file backed cache entries to be streamed to the consumer instead of being
+ * read into memory on every cache hit.
+ *
+ * @since 5.3
+ */
+final class CachedHttpResponse extends BasicHttpResponse {
+
+    private static final long serialVersionUID = 1L;
+
+    private Resource resource;
+    private FileChannel channel;
+    private ContentType contentType;
+
+    CachedHttpResponse(final int code) {
+        super(code);
+    }
+
+    CachedHttpResponse(final int code, final String reasonPhrase) {
+        super(code, reasonPhrase);
+    }
+
+    static CachedHttpResponse create(final int code) {
+        return new CachedHttpResponse(code);
+    }
+
+    static CachedHttpResponse create(final int code, final String content, final ContentType contentType) {
+        final CachedHttpResponse response = new CachedHttpResponse(code);
+        if (content != null) {
+            final Charset charset = (contentType != null ? contentType : ContentType.DEFAULT_TEXT).getCharset();
+            response.setBody(
+                    new HeapResource(content.getBytes(charset != null ? charset : StandardCharsets.US_ASCII)),
+                    contentType);
+        }
+        return response;
+    }
+
+    static CachedHttpResponse create(final int code, final String content) {
+        return create(code, content, ContentType.TEXT_PLAIN);
+    }
+
+    void setBody(final Resource resource, final ContentType contentType) {
+        setBody(resource, null, contentType);
+    }
+
+    void setBody(final Resource resource, final FileChannel channel, final ContentType contentType) {
+        this.resource = resource;
+        this.channel = channel;
+        this.contentType = contentType;
+    }
+
+    /**
+     * Returns the resource representing the response content or {@code null}
+     * if the response has no content.
+     */
+    Resource getBody() {
+        return resource;
+    }
+
+    /**
+     * Returns the channel opened for reading of the file resource content at the time
+     * the response was generated or {@code null} if the content is not file backed.
+     * Ownership of the channel passes to the entity the content gets streamed with.
+     */
+    FileChannel getChannel() {
+        return channel;
+    }
+
+    ContentType getContentType() {
+        return contentType;
+    }
+
+}
@@ -26,9 +26,12 @@
  */
 package org.apache.hc.client5.http.impl.cache;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.time.Instant;
 
-import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
 import org.apache.hc.client5.http.cache.HeaderConstants;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
 import org.apache.hc.client5.http.cache.Resource;
@@ -58,14 +61,16 @@ class CachedHttpResponseGenerator {
 
     /**
      * If it is legal to use cached content in response response to the {@link HttpRequest} then
-     * generate an {@link HttpResponse} based on {@link HttpCacheEntry}.
+     * generate an {@link HttpResponse} based on {@link HttpCacheEntry}. The content of a file
+     * resource is opened for reading right away but not read until the response gets consumed.
+     * @throws ResourceIOException if the resource content is no longer available.
      * @param request {@link HttpRequest} to generate the response for
      * @param entry {@link HttpCacheEntry} to transform into an {@link HttpResponse}
-     * @return {@link SimpleHttpResponse} constructed response
+     * @return {@link CachedHttpResponse} constructed response
      */
-    SimpleHttpResponse generateResponse(final HttpRequest request, final HttpCacheEntry entry) throws ResourceIOException {
+    CachedHttpResponse generateResponse(final HttpRequest request, final HttpCacheEntry entry) throws ResourceIOException {
         final Instant now =Instant.now();
-        final SimpleHttpResponse response = new SimpleHttpResponse(entry.getStatus());
+        final CachedHttpResponse response = new CachedHttpResponse(entry.getStatus());
         response.setVersion(HttpVersion.DEFAULT);
 
         response.setHeaders(entry.getHeaders());
@@ -74,9 +79,9 @@ SimpleHttpResponse generateResponse(final HttpRequest request, final HttpCacheEn
             final Resource resource = entry.getResource();
             final Header h = entry.getFirstHeader(HttpHeaders.CONTENT_TYPE);
             final ContentType contentType = h != null ? ContentType.parse(h.getValue()) : null;
-            final byte[] content = resource.get();
-            addMissingContentLengthHeader(response, content);
-            response.setBody(content, contentType);
+            final FileChannel channel = openContent(resource);
+            addMissingContentLengthHeader(response, resource);
+            response.setBody(resource, channel, contentType);
         }
 
         final TimeValue age = this.validityStrategy.getCurrentAge(entry, now);
@@ -95,9 +100,9 @@ SimpleHttpResponse generateResponse(final HttpRequest request, final HttpCacheEn
      * Generate a 304 - Not Modified response from the {@link HttpCacheEntry}. This should be
      * used to respond to conditional requests, when the entry exists or has been re-validated.
      */
-    SimpleHttpResponse generateNotModifiedResponse(final HttpCacheEntry entry) {
+    CachedHttpResponse generateNotModifiedResponse(final HttpCacheEntry entry) {
 
-        final SimpleHttpResponse response = new SimpleHttpResponse(HttpStatus.SC_NOT_MODIFIED, "Not Modified");
+        final CachedHttpResponse response = new CachedHttpResponse(HttpStatus.SC_NOT_MODIFIED, "Not Modified");
 
         // The response MUST include the following headers
         //  (http://www.w3.org/Protocols/rfc2616/rfc2616-sec10.html)
@@ -142,13 +147,51 @@ SimpleHttpResponse generateNotModifiedResponse(final HttpCacheEntry entry) {
         return response;
     }
 
-    private void addMissingContentLengthHeader(final HttpResponse response, final byte[] body) {
+    /**
+     * Makes sure the content of the resource can still be read without reading it
+     * into memory, as the content gets streamed only once the response is consumed.
+     */
+    private FileChannel openContent(final Resource resource) throws ResourceIOException {
+        if (resource instanceof FileResource) {
+            final File file = ((FileResource) resource).getFile();
+            if (file == null) {
+                throw new ResourceIOException("Resource already disposed");
+            }
+            // Open the file now rather than on first read, so that an entry whose
+            // content has gone missing can still be served by the backend
+            FileChannel channel = null;
+            try {
+                channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                if (channel.size() < resource.length()) {
+                    throw new ResourceIOException("Resource content truncated");
+                }
+                return channel;
+            } catch (final IOException ex) {
+                if (channel != null) {
+                    try {
+                        channel.close();
+                    } catch (final IOException ignore) {
+                    }
+                }
+                if (ex instanceof ResourceIOException) {
+                    throw (ResourceIOException) ex;
+                }
+                throw new ResourceIOException("Resource content is no longer available", ex);
+            }
+        }
+        if (resource.length() < 0) {
+            throw new ResourceIOException("Resource already disposed");
+        }
+        return null;
+    }
+
+    private void addMissingContentLengthHeader(final HttpResponse response, final Resource resource) {
         if (transferEncodingIsPresent(response)) {
             return;
         }
         // Some well known proxies respond with Content-Length=0, when returning 304. For robustness, always
         // use the cached entity's content length, as modern browsers do.
-        response.setHeader(HttpHeaders.CONTENT_LENGTH, Integer.toString(body.length));
+        response.setHeader(HttpHeaders.CONTENT_LENGTH, Long.toString(resource.length()));
     }
 
     private boolean transferEncodingIsPresent(final HttpResponse response) {
@@ -167,21 +210,21 @@ private boolean responseShouldContainEntity(final HttpRequest request, final Htt
      * @param errorCheck What type of error should I get
      * @return The {@link HttpResponse} that is the error generated
      */
-    public SimpleHttpResponse getErrorForRequest(final RequestProtocolError errorCheck) {
+    public CachedHttpResponse getErrorForRequest(final RequestProtocolError errorCheck) {
         switch (errorCheck) {
             case BODY_BUT_NO_LENGTH_ERROR:
-                return SimpleHttpResponse.create(HttpStatus.SC_LENGTH_REQUIRED);
+                return CachedHttpResponse.create(HttpStatus.SC_LENGTH_REQUIRED);
 
             case WEAK_ETAG_AND_RANGE_ERROR:
-                return SimpleHttpResponse.create(HttpStatus.SC_BAD_REQUEST,
+                return CachedHttpResponse.create(HttpStatus.SC_BAD_REQUEST,
                         "Weak eTag not compatible with byte range", ContentType.DEFAULT_TEXT);
 
             case WEAK_ETAG_ON_PUTDELETE_METHOD_ERROR:
-                return SimpleHttpResponse.create(HttpStatus.SC_BAD_REQUEST,
+                return CachedHttpResponse.create(HttpStatus.SC_BAD_REQUEST,
                         "Weak eTag not compatible with PUT or DELETE requests");
 
             case NO_CACHE_DIRECTIVE_WITH_FIELD_NAME:
-                return SimpleHttpResponse.create(HttpStatus.SC_BAD_REQUEST,
+                return CachedHttpResponse.create(HttpStatus.SC_BAD_REQUEST,
                         "No-Cache directive MUST NOT include a field name");
 
             default:
@@ -34,12 +34,14 @@
 import java.util.concurrent.ScheduledExecutorService;
 
 import org.apache.hc.client5.http.HttpRoute;
-import org.apache.hc.client5.http.async.methods.SimpleBody;
-import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.CacheResponseStatus;
 import org.apache.hc.client5.http.cache.HeaderConstants;
+import org.apache.hc.client5.http.cache.CacheKey;
+import org.apache.hc.client5.http.cache.HttpCacheContext;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
 import org.apache.hc.client5.http.cache.HttpCacheStorage;
+import org.apache.hc.client5.http.cache.Resource;
 import org.apache.hc.client5.http.cache.ResourceFactory;
 import org.apache.hc.client5.http.cache.ResourceIOException;
 import org.apache.hc.client5.http.classic.ExecChain;
@@ -49,7 +51,6 @@
 import org.apache.hc.client5.http.schedule.SchedulingStrategy;
 import org.apache.hc.core5.http.ClassicHttpRequest;
 import org.apache.hc.core5.http.ClassicHttpResponse;
-import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.HttpException;
@@ -58,11 +59,10 @@
 import org.apache.hc.core5.http.HttpRequest;
 import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.HttpVersion;
-import org.apache.hc.core5.http.io.entity.ByteArrayEntity;
 import org.apache.hc.core5.http.io.entity.EntityUtils;
-import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
 import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
 import org.apache.hc.core5.http.protocol.HttpCoreContext;
 import org.apache.hc.core5.net.URIAuthority;
 import org.apache.hc.core5.util.Args;
@@ -107,7 +107,15 @@ class CachingExec extends CachingExecBase implements ExecChainHandler {
     private static final Logger LOG = LoggerFactory.getLogger(CachingExec.class);
 
     CachingExec(final HttpCache cache, final DefaultCacheRevalidator cacheRevalidator, final CacheConfig config) {
-        super(config);
+        this(cache, cacheRevalidator, config, null);
+    }
+
+    CachingExec(
+            final HttpCache cache,
+            final DefaultCacheRevalidator cacheRevalidator,
+            final CacheConfig config,
+            final CacheMetricsRecorder metricsRecorder) {
+        super(config, metricsRecorder);
         this.responseCache = Args.notNull(cache, "Response cache");
         this.cacheRevalidator = cacheRevalidator;
         this.conditionalRequestBuilder = new ConditionalRequestBuilder<>(classicHttpRequest ->
@@ -139,7 +147,7 @@ class CachingExec extends CachingExecBase implements ExecChainHandler {
             final SchedulingStrategy schedulingStrategy,
             final CacheConfig config) {
         this(cache,
-                executorService != null ? new DefaultCacheRevalidator(executorService, schedulingStrategy) : null,
+                executorService != null ? new DefaultCacheRevalidator(executorService, schedulingStrategy, config) : null,
                 config);
     }
 
@@ -172,13 +180,14 @@ public ClassicHttpResponse execute(
 
         // default response context
         setResponseStatus(context, CacheResponseStatus.CACHE_MISS);
+        context.removeAttribute(HttpCacheContext.CACHE_KEY);
 
         if (clientRequestsOurOptions(request)) {
             setResponseStatus(context, CacheResponseStatus.CACHE_MODULE_RESPONSE);
             return new BasicClassicHttpResponse(HttpStatus.SC_NOT_IMPLEMENTED);
         }
 
-        final SimpleHttpResponse fatalErrorResponse = getFatallyNonCompliantResponse(request, context);
+        final CachedHttpResponse fatalErrorResponse = getFatallyNonCompliantResponse(request, context);
         if (fatalErrorResponse != null) {
             return convert(fatalErrorResponse, scope);
         }
@@ -192,7 +201,9 @@ public ClassicHttpResponse execute(
             return callBackend(target, request, scope, chain);
         }
 
-        final HttpCacheEntry entry = responseCache.getCacheEntry(target, request);
+        final CacheKey cacheKey = responseCache.generateCacheKey(target, request);
+        context.setAttribute(HttpCacheContext.CACHE_KEY, cacheKey);
+        final HttpCacheEntry entry = responseCache.getCacheEntry(cacheKey, request);
         if (entry == null) {
             LOG.debug("Cache miss");
             return handleCacheMiss(target, request, scope, chain);
@@ -201,7 +212,16 @@ public ClassicHttpResponse execute(
         }
     }
 
-    private static ClassicHttpResponse convert(final SimpleHttpResponse cacheResponse, final ExecChain.Scope scope) {
+    /**
+     * Returns the cache key generated for the request at the start of the exchange
+     * or generates one if the exchange runs with a context of its own.
+     */
+    private CacheKey getCacheKey(final HttpHost target, final HttpRequest request, final HttpContext context) {
+        final Object cacheKey = context.getAttribute(HttpCacheContext.CACHE_KEY);
+        return cacheKey instanceof CacheKey ? (CacheKey) cacheKey : responseCache.generateCacheKey(target, request);
+    }
+
+    private static ClassicHttpResponse convert(final CachedHttpResponse cacheResponse, final ExecChain.Scope scope) {
         if (cacheResponse == null) {
             return null;
         }
@@ -210,16 +230,12 @@ private static ClassicHttpResponse convert(final SimpleHttpResponse cacheRespons
             response.addHeader(it.next());
         }
         response.setVersion(cacheResponse.getVersion() != null ? cacheResponse.getVersion() : HttpVersion.DEFAULT);
-        final SimpleBody body = cacheResponse.getBody();
-        if (body != null) {
-            final ContentType contentType = body.getContentType();
+        final Resource resource = cacheResponse.getBody();
+        if (resource != null) {
             final Header h = response.getFirstHeader(HttpHeaders.CONTENT_ENCODING);
             final String contentEncoding = h != null ? h.getValue() : null;
-            if (body.isText()) {
-                response.setEntity(new StringEntity(body.getBodyText(), contentType, contentEncoding, false));
-            } else {
-                response.setEntity(new ByteArrayEntity(body.getBodyBytes(), contentType, contentEncoding, false));
-            }
+            response.setEntity(new ResourceEntity(
+                    resource, cacheResponse.getChannel(), cacheResponse.getContentType(), contentEncoding));
         }
         scope.clientContext.setAttribute(HttpCoreContext.HTTP_RESPONSE, response);
         return response;
@@ -257,7 +273,10 @@ private ClassicHttpResponse handleCacheHit(
         if (suitabilityChecker.canCachedResponseBeUsed(target, request, entry, now)) {
             LOG.debug("Cache hit");
             try {
-                return convert(generateCachedResponse(request, context, entry, now), scope);
+                final CachedHttpResponse cacheResponse = generateCachedResponse(request, context, entry, now);
+                recordServedFromCache();
+                refreshAheadIfDue(target, request, scope, chain, entry, now);
+                return convert(cacheResponse, scope);
             } catch (final ResourceIOException ex) {
                 recordCacheFailure(target, request);
                 if (!mayCallBackend(request)) {
@@ -284,9 +303,19 @@ private ClassicHttpResponse handleCacheHit(
                             scope.originalRequest,
                             scope.execRuntime.fork(null),
                             HttpClientContext.create());
-                    final SimpleHttpResponse response = generateCachedResponse(request, context, entry, now);
+                    final CachedHttpResponse response;
+                    try {
+                        response = generateCachedResponse(request, context, entry, now);
+                    } catch (final ResourceIOException ex) {
+                        // Stale content is no longer available; revalidate synchronously
+                        recordCacheFailure(target, request);
+                        return revalidateCacheEntry(target, request, scope, chain, entry);
+                    }
+                    recordServedFromCache();
                     cacheRevalidator.revalidateCacheEntry(
                             responseCache.generateKey(target, request, entry),
+                            scope.route,
+                            validityPolicy.getStaleWhileRevalidateDeadline(entry, now),
                             () -> revalidateCacheEntry(target, request, fork, chain, entry));
                     return convert(response, scope);
                 }
@@ -300,6 +329,33 @@ private ClassicHttpResponse handleCacheHit(
         }
     }
 
+    private void refreshAheadIfDue(
+            final HttpHost target,
+            final ClassicHttpRequest request,
+            final ExecChain.Scope scope,
+            final ExecChain chain,
+            final HttpCacheEntry entry,
+            final Instant now) {
+        if (cacheRevalidator == null || !refreshAheadPolicy.isEnabled()) {
+            return;
+        }
+        final String cacheKey = responseCache.generateKey(target, request, entry);
+        if (refreshAheadPolicy.isRefreshDue(cacheKey, entry, now)) {
+            LOG.debug("Refreshing cache entry ahead of expiry");
+            final ExecChain.Scope fork = new ExecChain.Scope(
+                    ExecSupport.getNextExchangeId(),
+                    scope.route,
+                    scope.originalRequest,
+                    scope.execRuntime.fork(null),
+                    HttpClientContext.create());
+            cacheRevalidator.revalidateCacheEntry(
+                    cacheKey,
+                    scope.route,
+                    refreshAheadPolicy.getExpiry(entry, now),
+                    () -> revalidateCacheEntry(target, request, fork, chain, entry));
+        }
+    }
+
     ClassicHttpResponse revalidateCacheEntry(
             final HttpHost target,
             final ClassicHttpRequest request,
@@ -310,7 +366,13 @@ ClassicHttpResponse revalidateCacheEntry(
         final ClassicHttpRequest conditionalRequest = conditionalRequestBuilder.buildConditionalRequest(
                 scope.originalRequest, cacheEntry);
 
-        ClassicHttpResponse backendResponse = chain.proceed(conditionalRequest, scope);
+        ClassicHttpResponse backendResponse;
+        try {
+            backendResponse = chain.proceed(conditionalRequest, scope);
+        } catch (final IOException ex) {
+            recordValidationFailure();
+            throw ex;
+        }
         try {
             Instant responseDate = getCurrentDate();
 
@@ -326,6 +388,7 @@ ClassicHttpResponse revalidateCacheEntry(
             backendResponse.addHeader(HeaderConstants.VIA, generateViaHeader(backendResponse));
 
             final int statusCode = backendResponse.getCode();
+            recordValidation(statusCode);
             if (statusCode == HttpStatus.SC_NOT_MODIFIED || statusCode == HttpStatus.SC_OK) {
                 recordCacheUpdate(scope.clientContext);
             }
@@ -344,7 +407,7 @@ ClassicHttpResponse revalidateCacheEntry(
                     && !staleResponseNotAllowed(request, cacheEntry, getCurrentDate())
                     && validityPolicy.mayReturnStaleIfError(request, cacheEntry, responseDate)) {
                 try {
-                    final SimpleHttpResponse cachedResponse = responseGenerator.generateResponse(request, cacheEntry);
+                    final CachedHttpResponse cachedResponse = responseGenerator.generateResponse(request, cacheEntry);
                     cachedResponse.addHeader(HeaderConstants.WARNING, "110 localhost \"Response is stale\"");
                     return convert(cachedResponse, scope);
                 } finally {
@@ -411,7 +474,8 @@ ClassicHttpResponse cacheAndReturnResponse(
 
         final HttpCacheEntry cacheEntry;
         if (cacheConfig.isFreshnessCheckEnabled()) {
-            final HttpCacheEntry existingEntry = responseCache.getCacheEntry(target, request);
+            final HttpCacheEntry existingEntry = responseCache.getCacheEntry(
+                    getCacheKey(target, request, scope.clientContext), request);
             if (DateSupport.isAfter(existingEntry, backendResponse, HttpHeaders.DATE)) {
                 LOG.debug("Backend already contains fresher cache entry");
                 cacheEntry = existingEntry;
@@ -437,7 +501,8 @@ private ClassicHttpResponse handleCacheMiss(
             return new BasicClassicHttpResponse(HttpStatus.SC_GATEWAY_TIMEOUT, "Gateway Timeout");
         }
 
-        final Map<String, Variant> variants = responseCache.getVariantCacheEntriesWithEtags(target, request);
+        final Map<String, Variant> variants = responseCache.getVariantCacheEntriesWithEtags(
+                getCacheKey(target, request, scope.clientContext), request);
         if (variants != null && !variants.isEmpty()) {
             return negotiateResponseFromVariants(target, request, scope, chain, variants);
         }
@@ -497,7 +562,7 @@ ClassicHttpResponse negotiateResponseFromVariants(
             if (shouldSendNotModifiedResponse(request, responseEntry)) {
                 return convert(responseGenerator.generateNotModifiedResponse(responseEntry), scope);
             }
-            final SimpleHttpResponse response = responseGenerator.generateResponse(request, responseEntry);
+            final CachedHttpResponse response = responseGenerator.generateResponse(request, responseEntry);
             responseCache.reuseVariantEntryFor(target, request, matchingVariant);
             return convert(response, scope);
         } catch (final IOException | RuntimeException ex) {
@@ -34,7 +34,7 @@
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 
-import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.CacheResponseStatus;
 import org.apache.hc.client5.http.cache.HeaderConstants;
 import org.apache.hc.client5.http.cache.HttpCacheContext;
@@ -76,6 +76,8 @@ public class CachingExecBase {
     final ResponseProtocolCompliance responseCompliance;
     final RequestProtocolCompliance requestCompliance;
     final CacheConfig cacheConfig;
+    final RefreshAheadPolicy refreshAheadPolicy;
+    final CacheMetricsRecorder metricsRecorder;
 
     private static final Logger LOG = LoggerFactory.getLogger(CachingExecBase.class);
 
@@ -96,9 +98,15 @@ public class CachingExecBase {
         this.requestCompliance = requestCompliance;
         this.responseCompliance = responseCompliance;
         this.cacheConfig = config != null ? config : CacheConfig.DEFAULT;
+        this.refreshAheadPolicy = new RefreshAheadPolicy(this.validityPolicy, this.cacheConfig);
+        this.metricsRecorder = CacheMetricsRecorder.NOOP;
     }
 
     CachingExecBase(final CacheConfig config) {
+        this(config, null);
+    }
+
+    CachingExecBase(final CacheConfig config, final CacheMetricsRecorder metricsRecorder) {
         super();
         this.cacheConfig = config != null ? config : CacheConfig.DEFAULT;
         this.validityPolicy = new CacheValidityPolicy();
@@ -110,6 +118,8 @@ public class CachingExecBase {
         this.responseCachingPolicy = new ResponseCachingPolicy(
                 this.cacheConfig.getMaxObjectSize(), this.cacheConfig.isSharedCache(),
                 this.cacheConfig.isNeverCacheHTTP10ResponsesWithQuery(), this.cacheConfig.is303CachingEnabled());
+        this.refreshAheadPolicy = new RefreshAheadPolicy(this.validityPolicy, this.cacheConfig);
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : CacheMetricsRecorder.NOOP;
     }
 
     /**
@@ -142,7 +152,7 @@ public long getCacheUpdates() {
     /**
      * @since 5.2
      */
-    SimpleHttpResponse getFatallyNonCompliantResponse(
+    CachedHttpResponse getFatallyNonCompliantResponse(
             final HttpRequest request,
             final HttpContext context) {
         final List<RequestProtocolError> fatalError = requestCompliance.requestIsFatallyNonCompliant(request);
@@ -155,6 +165,7 @@ SimpleHttpResponse getFatallyNonCompliantResponse(
 
     void recordCacheMiss(final HttpHost target, final HttpRequest request) {
         cacheMisses.getAndIncrement();
+        metricsRecorder.recordMiss();
         if (LOG.isDebugEnabled()) {
             LOG.debug("Cache miss [host: {}; uri: {}]", target, request.getRequestUri());
         }
@@ -167,8 +178,17 @@ void recordCacheHit(final HttpHost target, final HttpRequest request) {
         }
     }
 
+    /**
+     * Records a response generated from a cache entry without contacting the origin
+     * server. Cache hits that get revalidated or bypassed are not recorded.
+     */
+    void recordServedFromCache() {
+        metricsRecorder.recordHit();
+    }
+
     void recordCacheFailure(final HttpHost target, final HttpRequest request) {
         cacheMisses.getAndIncrement();
+        metricsRecorder.recordFailure();
         if (LOG.isDebugEnabled()) {
             LOG.debug("Cache failure [host: {}; uri: {}]", target, request.getRequestUri());
         }
@@ -179,12 +199,28 @@ void recordCacheUpdate(final HttpContext context) {
         setResponseStatus(context, CacheResponseStatus.VALIDATED);
     }
 
-    SimpleHttpResponse generateCachedResponse(
+    void recordValidation(final int statusCode) {
+        final CacheMetricsRecorder.ValidationOutcome outcome;
+        if (statusCode == HttpStatus.SC_NOT_MODIFIED) {
+            outcome = CacheMetricsRecorder.ValidationOutcome.NOT_MODIFIED;
+        } else if (statusCode >= HttpStatus.SC_SERVER_ERROR) {
+            outcome = CacheMetricsRecorder.ValidationOutcome.FAILED;
+        } else {
+            outcome = CacheMetricsRecorder.ValidationOutcome.MODIFIED;
+        }
+        metricsRecorder.recordValidation(outcome);
+    }
+
+    void recordValidationFailure() {
+        metricsRecorder.recordValidation(CacheMetricsRecorder.ValidationOutcome.FAILED);
+    }
+
+    CachedHttpResponse generateCachedResponse(
             final HttpRequest request,
             final HttpContext context,
             final HttpCacheEntry entry,
             final Instant now) throws ResourceIOException {
-        final SimpleHttpResponse cachedResponse;
+        final CachedHttpResponse cachedResponse;
         if (request.containsHeader(HeaderConstants.IF_NONE_MATCH)
                 || request.containsHeader(HeaderConstants.IF_MODIFIED_SINCE)) {
             cachedResponse = responseGenerator.generateNotModifiedResponse(entry);
@@ -198,7 +234,7 @@ SimpleHttpResponse generateCachedResponse(
         return cachedResponse;
     }
 
-    SimpleHttpResponse handleRevalidationFailure(
+    CachedHttpResponse handleRevalidationFailure(
             final HttpRequest request,
             final HttpContext context,
             final HttpCacheEntry entry,
@@ -210,17 +246,17 @@ SimpleHttpResponse handleRevalidationFailure(
         }
     }
 
-    SimpleHttpResponse generateGatewayTimeout(
+    CachedHttpResponse generateGatewayTimeout(
             final HttpContext context) {
         setResponseStatus(context, CacheResponseStatus.CACHE_MODULE_RESPONSE);
-        return SimpleHttpResponse.create(HttpStatus.SC_GATEWAY_TIMEOUT, "Gateway Timeout");
+        return CachedHttpResponse.create(HttpStatus.SC_GATEWAY_TIMEOUT, "Gateway Timeout");
     }
 
-    SimpleHttpResponse unvalidatedCacheHit(
+    CachedHttpResponse unvalidatedCacheHit(
             final HttpRequest request,
             final HttpContext context,
             final HttpCacheEntry entry) throws IOException {
-        final SimpleHttpResponse cachedResponse = responseGenerator.generateResponse(request, entry);
+        final CachedHttpResponse cachedResponse = responseGenerator.generateResponse(request, entry);
         setResponseStatus(context, CacheResponseStatus.CACHE_HIT);
         cachedResponse.addHeader(HeaderConstants.WARNING, "111 localhost \"Revalidation failed\"");
         return cachedResponse;
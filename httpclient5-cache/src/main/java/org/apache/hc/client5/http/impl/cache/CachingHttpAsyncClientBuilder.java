@@ -27,10 +27,13 @@
 package org.apache.hc.client5.http.impl.cache;
 
 import java.io.File;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.HttpAsyncCacheInvalidator;
 import org.apache.hc.client5.http.cache.HttpAsyncCacheStorage;
 import org.apache.hc.client5.http.cache.HttpAsyncCacheStorageAdaptor;
@@ -41,11 +44,17 @@
 import org.apache.hc.client5.http.impl.schedule.ImmediateSchedulingStrategy;
 import org.apache.hc.client5.http.schedule.SchedulingStrategy;
 import org.apache.hc.core5.annotation.Experimental;
+import org.apache.hc.core5.concurrent.DefaultThreadFactory;
 import org.apache.hc.core5.http.config.NamedElementChain;
 
 /**
  * Builder for {@link org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient}
  * instances capable of client-side caching.
+ * <p>
+ * Fresh cache hits are answered by the caching element of the execution chain
+ * without leasing a connection. Route planning and context setup of the client
+ * still take place for every request, including those served from the cache.
+ * </p>
  *
  * @since 5.0
  */
@@ -54,11 +63,13 @@ public class CachingHttpAsyncClientBuilder extends HttpAsyncClientBuilder {
 
     private ResourceFactory resourceFactory;
     private HttpAsyncCacheStorage storage;
+    private HttpCacheStorage blockingStorage;
     private File cacheDir;
     private SchedulingStrategy schedulingStrategy;
     private CacheConfig cacheConfig;
     private HttpAsyncCacheInvalidator httpCacheInvalidator;
     private boolean deleteCache;
+    private CacheMetricsRecorder metricsRecorder;
 
     public static CachingHttpAsyncClientBuilder create() {
         return new CachingHttpAsyncClientBuilder();
@@ -74,16 +85,28 @@ public final CachingHttpAsyncClientBuilder setResourceFactory(final ResourceFact
         return this;
     }
 
+    /**
+     * Sets a blocking cache storage backend. Unless disabled with
+     * {@link CacheConfig#getStorageWorkers()} its operations get executed by
+     * a dedicated bounded thread pool rather than by the I/O dispatch threads.
+     * Cache resources still get generated and read by the I/O dispatch threads.
+     */
     public final CachingHttpAsyncClientBuilder setHttpCacheStorage(final HttpCacheStorage storage) {
-        this.storage = storage != null ? new HttpAsyncCacheStorageAdaptor(storage) : null;
+        this.blockingStorage = storage;
+        this.storage = null;
         return this;
     }
 
     public final CachingHttpAsyncClientBuilder setHttpCacheStorage(final HttpAsyncCacheStorage storage) {
         this.storage = storage;
+        this.blockingStorage = null;
         return this;
     }
 
+    /**
+     * Sets the directory cached response content gets stored in. Resource files
+     * get written and read by the I/O dispatch threads.
+     */
     public final CachingHttpAsyncClientBuilder setCacheDir(final File cacheDir) {
         this.cacheDir = cacheDir;
         return this;
@@ -109,6 +132,39 @@ public CachingHttpAsyncClientBuilder setDeleteCache(final boolean deleteCache) {
         return this;
     }
 
+    /**
+     * Sets the recorder of cache statistics.
+     *
+     * @since 5.3
+     */
+    public final CachingHttpAsyncClientBuilder setCacheMetricsRecorder(final CacheMetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+        return this;
+    }
+
+    private HttpAsyncCacheStorage adapt(
+            final HttpCacheStorage blockingStorage,
+            final ResourceFactory resourceFactory,
+            final CacheConfig config) {
+        // In-memory storage of heap resources never blocks; handing its operations
+        // off to a worker thread would only add latency to every cache hit.
+        // In-memory storage of file resources deletes files on eviction.
+        if (config.getStorageWorkers() <= 0
+                || (resourceFactory instanceof HeapResourceFactory
+                    && (blockingStorage instanceof BasicHttpCacheStorage
+                        || blockingStorage instanceof ManagedHttpCacheStorage))) {
+            return new HttpAsyncCacheStorageAdaptor(blockingStorage);
+        }
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                config.getStorageWorkers(),
+                config.getStorageWorkers(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, config.getMaxStorageQueueSize())),
+                new DefaultThreadFactory("httpclient-cache-storage", true));
+        addCloseable(executor::shutdown);
+        return new ExecutorHttpAsyncCacheStorage(blockingStorage, executor);
+    }
+
     @Override
     protected void customizeExecChain(final NamedElementChain<AsyncExecChainHandler> execChainDefinition) {
         final CacheConfig config = this.cacheConfig != null ? this.cacheConfig : CacheConfig.DEFAULT;
@@ -123,37 +179,46 @@ protected void customizeExecChain(final NamedElementChain<AsyncExecChainHandler>
         }
         HttpAsyncCacheStorage storageCopy = this.storage;
         if (storageCopy == null) {
-            if (this.cacheDir == null) {
-                storageCopy = new HttpAsyncCacheStorageAdaptor(new BasicHttpCacheStorage(config));
+            if (this.blockingStorage != null) {
+                storageCopy = adapt(this.blockingStorage, resourceFactoryCopy, config);
+            } else if (this.cacheDir == null) {
+                storageCopy = new HttpAsyncCacheStorageAdaptor(new BasicHttpCacheStorage(config, this.metricsRecorder));
             } else {
-                final ManagedHttpCacheStorage managedStorage = new ManagedHttpCacheStorage(config);
+                final ManagedHttpCacheStorage managedStorage = new ManagedHttpCacheStorage(config, this.metricsRecorder);
                 if (this.deleteCache) {
                     addCloseable(managedStorage::shutdown);
                 } else {
                     addCloseable(managedStorage);
                 }
-                storageCopy = new HttpAsyncCacheStorageAdaptor(managedStorage);
+                storageCopy = adapt(managedStorage, resourceFactoryCopy, config);
             }
         }
         final HttpAsyncCache httpCache = new BasicHttpAsyncCache(
                 resourceFactoryCopy,
                 storageCopy,
                 CacheKeyGenerator.INSTANCE,
-                this.httpCacheInvalidator != null ? this.httpCacheInvalidator : new DefaultAsyncCacheInvalidator());
+                this.httpCacheInvalidator != null ? this.httpCacheInvalidator : new DefaultAsyncCacheInvalidator(),
+                config,
+                this.metricsRecorder);
 
         DefaultAsyncCacheRevalidator cacheRevalidator = null;
         if (config.getAsynchronousWorkers() > 0) {
-            final ScheduledExecutorService executorService = new ScheduledThreadPoolExecutor(config.getAsynchronousWorkers());
+            final ScheduledThreadPoolExecutor executorService = new ScheduledThreadPoolExecutor(config.getAsynchronousWorkers());
+            // Dispatches of dropped revalidations get cancelled; do not let them pile up
+            executorService.setRemoveOnCancelPolicy(true);
             addCloseable(executorService::shutdownNow);
             cacheRevalidator = new DefaultAsyncCacheRevalidator(
                     executorService,
-                    this.schedulingStrategy != null ? this.schedulingStrategy : ImmediateSchedulingStrategy.INSTANCE);
+                    this.schedulingStrategy != null ? this.schedulingStrategy : ImmediateSchedulingStrategy.INSTANCE,
+                    config,
+                    this.metricsRecorder);
         }
 
         final AsyncCachingExec cachingExec = new AsyncCachingExec(
                 httpCache,
                 cacheRevalidator,
-                config);
+                config,
+                this.metricsRecorder);
         execChainDefinition.addBefore(ChainElement.PROTOCOL.name(), cachingExec, ChainElement.CACHING.name());
     }
 
@@ -27,9 +27,9 @@
 package org.apache.hc.client5.http.impl.cache;
 
 import java.io.File;
-import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.HttpCacheInvalidator;
 import org.apache.hc.client5.http.cache.HttpCacheStorage;
 import org.apache.hc.client5.http.cache.ResourceFactory;
@@ -55,6 +55,7 @@ public class CachingHttpClientBuilder extends HttpClientBuilder {
     private CacheConfig cacheConfig;
     private HttpCacheInvalidator httpCacheInvalidator;
     private boolean deleteCache;
+    private CacheMetricsRecorder metricsRecorder;
 
     public static CachingHttpClientBuilder create() {
         return new CachingHttpClientBuilder();
@@ -101,6 +102,16 @@ public final CachingHttpClientBuilder setDeleteCache(final boolean deleteCache)
         return this;
     }
 
+    /**
+     * Sets the recorder of cache statistics.
+     *
+     * @since 5.3
+     */
+    public final CachingHttpClientBuilder setCacheMetricsRecorder(final CacheMetricsRecorder metricsRecorder) {
+        this.metricsRecorder = metricsRecorder;
+        return this;
+    }
+
     @Override
     protected void customizeExecChain(final NamedElementChain<ExecChainHandler> execChainDefinition) {
         final CacheConfig config = this.cacheConfig != null ? this.cacheConfig : CacheConfig.DEFAULT;
@@ -116,9 +127,9 @@ protected void customizeExecChain(final NamedElementChain<ExecChainHandler> exec
         HttpCacheStorage storageCopy = this.storage;
         if (storageCopy == null) {
             if (this.cacheDir == null) {
-                storageCopy = new BasicHttpCacheStorage(config);
+                storageCopy = new BasicHttpCacheStorage(config, this.metricsRecorder);
             } else {
-                final ManagedHttpCacheStorage managedStorage = new ManagedHttpCacheStorage(config);
+                final ManagedHttpCacheStorage managedStorage = new ManagedHttpCacheStorage(config, this.metricsRecorder);
                 if (this.deleteCache) {
                     addCloseable(managedStorage::shutdown);
                 } else {
@@ -131,20 +142,27 @@ protected void customizeExecChain(final NamedElementChain<ExecChainHandler> exec
                 resourceFactoryCopy,
                 storageCopy,
                 CacheKeyGenerator.INSTANCE,
-                this.httpCacheInvalidator != null ? this.httpCacheInvalidator : new DefaultCacheInvalidator());
+                this.httpCacheInvalidator != null ? this.httpCacheInvalidator : new DefaultCacheInvalidator(),
+                config,
+                this.metricsRecorder);
 
         DefaultCacheRevalidator cacheRevalidator = null;
         if (config.getAsynchronousWorkers() > 0) {
-            final ScheduledExecutorService executorService = new ScheduledThreadPoolExecutor(config.getAsynchronousWorkers());
+            final ScheduledThreadPoolExecutor executorService = new ScheduledThreadPoolExecutor(config.getAsynchronousWorkers());
+            // Dispatches of dropped revalidations get cancelled; do not let them pile up
+            executorService.setRemoveOnCancelPolicy(true);
             addCloseable(executorService::shutdownNow);
             cacheRevalidator = new DefaultCacheRevalidator(
                     executorService,
-                    this.schedulingStrategy != null ? this.schedulingStrategy : ImmediateSchedulingStrategy.INSTANCE);
+                    this.schedulingStrategy != null ? this.schedulingStrategy : ImmediateSchedulingStrategy.INSTANCE,
+                    config,
+                    this.metricsRecorder);
         }
         final CachingExec cachingExec = new CachingExec(
                 httpCache,
                 cacheRevalidator,
-                config);
+                config,
+                this.metricsRecorder);
         execChainDefinition.addBefore(ChainElement.PROTOCOL.name(), cachingExec, ChainElement.CACHING.name());
     }
 
@@ -27,12 +27,15 @@
 package org.apache.hc.client5.http.impl.cache;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.impl.Operations;
 import org.apache.hc.client5.http.schedule.SchedulingStrategy;
 import org.apache.hc.core5.http.EntityDetails;
@@ -107,6 +110,38 @@ public DefaultAsyncCacheRevalidator(
         this(wrap(executorService), schedulingStrategy);
     }
 
+    /**
+     * Create CacheValidator which will make ache revalidation requests
+     * using the supplied {@link SchedulingStrategy} and {@link ScheduledExecutorService}
+     * with the revalidation queue size and batch size taken from {@link CacheConfig}.
+     *
+     * @since 5.3
+     */
+    public DefaultAsyncCacheRevalidator(
+            final ScheduledExecutorService executorService,
+            final SchedulingStrategy schedulingStrategy,
+            final CacheConfig config) {
+        this(executorService, schedulingStrategy, config, null);
+    }
+
+    /**
+     * Create CacheValidator which will make ache revalidation requests
+     * using the supplied {@link SchedulingStrategy} and {@link ScheduledExecutorService}
+     * with the revalidation queue size and batch size taken from {@link CacheConfig}.
+     * Re-validation queue statistics get reported to the given {@link CacheMetricsRecorder}.
+     *
+     * @since 5.3
+     */
+    public DefaultAsyncCacheRevalidator(
+            final ScheduledExecutorService executorService,
+            final SchedulingStrategy schedulingStrategy,
+            final CacheConfig config,
+            final CacheMetricsRecorder metricsRecorder) {
+        super(new InternalScheduledExecutor(wrap(executorService)), schedulingStrategy,
+                config.getMaxRevalidationQueueSize(), config.getRevalidationBatchSize(),
+                metricsRecorder);
+    }
+
     /**
      * Schedules an asynchronous re-validation
      */
@@ -114,7 +149,21 @@ public void revalidateCacheEntry(
             final String cacheKey ,
             final AsyncExecCallback asyncExecCallback,
             final RevalidationCall call) {
-        scheduleRevalidation(cacheKey, () -> call.execute(new AsyncExecCallback() {
+        revalidateCacheEntry(cacheKey, null, null, asyncExecCallback, call);
+    }
+
+    /**
+     * Schedules an asynchronous re-validation
+     *
+     * @since 5.3
+     */
+    public void revalidateCacheEntry(
+            final String cacheKey,
+            final HttpRoute route,
+            final Instant deadline,
+            final AsyncExecCallback asyncExecCallback,
+            final RevalidationCall call) {
+        scheduleRevalidation(cacheKey, route, deadline, () -> call.execute(new AsyncExecCallback() {
 
             private final AtomicReference<HttpResponse> responseRef = new AtomicReference<>();
 
@@ -0,0 +1,214 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
+import org.apache.hc.client5.http.impl.LatencyHistogram;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Default {@link CacheMetricsRecorder} implementation that aggregates counts
+ * in {@link LongAdder}s and timings in {@link LatencyHistogram}s. Recording
+ * is lock-free.
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class DefaultCacheMetricsRecorder implements CacheMetricsRecorder {
+
+    private final LongAdder hits;
+    private final LongAdder misses;
+    private final LongAdder failures;
+    private final Map<ValidationOutcome, LongAdder> validations;
+    private final LongAdder evictions;
+    private final LongAdder rejections;
+    private final LongAdder invalidations;
+    private final LongAdder bytesStored;
+    private final LatencyHistogram serialization;
+    private final LatencyHistogram deserialization;
+    private final Map<StorageOperation, LatencyHistogram> storageOperations;
+
+    public DefaultCacheMetricsRecorder() {
+        this.hits = new LongAdder();
+        this.misses = new LongAdder();
+        this.failures = new LongAdder();
+        this.validations = new EnumMap<>(ValidationOutcome.class);
+        for (final ValidationOutcome outcome : ValidationOutcome.values()) {
+            this.validations.put(outcome, new LongAdder());
+        }
+        this.evictions = new LongAdder();
+        this.rejections = new LongAdder();
+        this.invalidations = new LongAdder();
+        this.bytesStored = new LongAdder();
+        this.serialization = new LatencyHistogram();
+        this.deserialization = new LatencyHistogram();
+        this.storageOperations = new EnumMap<>(StorageOperation.class);
+        for (final StorageOperation operation : StorageOperation.values()) {
+            this.storageOperations.put(operation, new LatencyHistogram());
+        }
+    }
+
+    @Override
+    public void recordHit() {
+        hits.increment();
+    }
+
+    @Override
+    public void recordMiss() {
+        misses.increment();
+    }
+
+    @Override
+    public void recordFailure() {
+        failures.increment();
+    }
+
+    @Override
+    public void recordValidation(final ValidationOutcome outcome) {
+        if (outcome != null) {
+            validations.get(outcome).increment();
+        }
+    }
+
+    @Override
+    public void recordEvictions(final int count) {
+        evictions.add(count);
+    }
+
+    @Override
+    public void recordRejections(final int count) {
+        rejections.add(count);
+    }
+
+    @Override
+    public void recordInvalidations(final int count) {
+        invalidations.add(count);
+    }
+
+    @Override
+    public void recordBytesStored(final long bytes) {
+        bytesStored.add(bytes);
+    }
+
+    @Override
+    public void recordSerialization(final long nanos) {
+        serialization.record(nanos);
+    }
+
+    @Override
+    public void recordDeserialization(final long nanos) {
+        deserialization.record(nanos);
+    }
+
+    @Override
+    public void recordStorageOperation(final StorageOperation operation, final long nanos) {
+        if (operation != null) {
+            storageOperations.get(operation).record(nanos);
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public long getFailureCount() {
+        return failures.sum();
+    }
+
+    /**
+     * Returns the ratio of requests served from the cache or {@code 0} if
+     * there have been no requests yet.
+     */
+    public double getHitRatio() {
+        final long h = hits.sum();
+        final long total = h + misses.sum() + failures.sum();
+        return total > 0 ? (double) h / total : 0;
+    }
+
+    public long getValidationCount(final ValidationOutcome outcome) {
+        Args.notNull(outcome, "Validation outcome");
+        return validations.get(outcome).sum();
+    }
+
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public long getRejectionCount() {
+        return rejections.sum();
+    }
+
+    public long getInvalidationCount() {
+        return invalidations.sum();
+    }
+
+    public long getBytesStored() {
+        return bytesStored.sum();
+    }
+
+    public LatencyHistogram getSerializationTimes() {
+        return serialization;
+    }
+
+    public LatencyHistogram getDeserializationTimes() {
+        return deserialization;
+    }
+
+    public LatencyHistogram getStorageOperationTimes(final StorageOperation operation) {
+        Args.notNull(operation, "Storage operation");
+        return storageOperations.get(operation);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder buf = new StringBuilder();
+        buf.append("[hits=").append(getHitCount())
+                .append(", misses=").append(getMissCount())
+                .append(", failures=").append(getFailureCount())
+                .append(", validations=").append(validations)
+                .append(", evictions=").append(getEvictionCount())
+                .append(", rejections=").append(getRejectionCount())
+                .append(", invalidations=").append(getInvalidationCount())
+                .append(", bytesStored=").append(getBytesStored())
+                .append(", serialization=").append(serialization)
+                .append(", deserialization=").append(deserialization)
+                .append(", storage=").append(storageOperations)
+                .append("]");
+        return buf.toString();
+    }
+
+}
@@ -27,8 +27,11 @@
 package org.apache.hc.client5.http.impl.cache;
 
 import java.io.IOException;
+import java.time.Instant;
 import java.util.concurrent.ScheduledExecutorService;
 
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.schedule.SchedulingStrategy;
 import org.apache.hc.core5.http.ClassicHttpResponse;
 import org.apache.hc.core5.http.HttpException;
@@ -69,13 +72,58 @@ public DefaultCacheRevalidator(
         this(wrap(scheduledThreadPoolExecutor), schedulingStrategy);
     }
 
+    /**
+     * Create CacheValidator which will make ache revalidation requests
+     * using the supplied {@link SchedulingStrategy} and {@link ScheduledExecutorService}
+     * with the revalidation queue size and batch size taken from {@link CacheConfig}.
+     *
+     * @since 5.3
+     */
+    public DefaultCacheRevalidator(
+            final ScheduledExecutorService scheduledThreadPoolExecutor,
+            final SchedulingStrategy schedulingStrategy,
+            final CacheConfig config) {
+        this(scheduledThreadPoolExecutor, schedulingStrategy, config, null);
+    }
+
+    /**
+     * Create CacheValidator which will make ache revalidation requests
+     * using the supplied {@link SchedulingStrategy} and {@link ScheduledExecutorService}
+     * with the revalidation queue size and batch size taken from {@link CacheConfig}.
+     * Re-validation queue statistics get reported to the given {@link CacheMetricsRecorder}.
+     *
+     * @since 5.3
+     */
+    public DefaultCacheRevalidator(
+            final ScheduledExecutorService scheduledThreadPoolExecutor,
+            final SchedulingStrategy schedulingStrategy,
+            final CacheConfig config,
+            final CacheMetricsRecorder metricsRecorder) {
+        super(wrap(scheduledThreadPoolExecutor), schedulingStrategy,
+                config.getMaxRevalidationQueueSize(), config.getRevalidationBatchSize(),
+                metricsRecorder);
+    }
+
+    /**
+     * Schedules an asynchronous re-validation
+     */
+    public void revalidateCacheEntry(
+            final String cacheKey,
+            final RevalidationCall call) {
+        revalidateCacheEntry(cacheKey, null, null, call);
+    }
+
     /**
      * Schedules an asynchronous re-validation
+     *
+     * @since 5.3
      */
     public void revalidateCacheEntry(
             final String cacheKey,
+            final HttpRoute route,
+            final Instant deadline,
             final RevalidationCall call) {
-        scheduleRevalidation(cacheKey, () -> {
+        scheduleRevalidation(cacheKey, route, deadline, () -> {
             try (ClassicHttpResponse httpResponse = call.execute()) {
                 if (httpResponse.getCode() < HttpStatus.SC_SERVER_ERROR && !isStale(httpResponse)) {
                     jobSuccessful(cacheKey);
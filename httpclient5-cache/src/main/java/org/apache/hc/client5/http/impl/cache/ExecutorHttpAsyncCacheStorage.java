@@ -0,0 +1,253 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.cache.HttpAsyncCacheStorage;
+import org.apache.hc.client5.http.cache.HttpCacheCASOperation;
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.HttpCacheStorage;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link HttpAsyncCacheStorage} implementation that executes operations of
+ * a blocking {@link HttpCacheStorage} such as a disk or an Ehcache backed one
+ * using the given {@link Executor}, so that storage latency does not stall
+ * the I/O dispatch threads.
+ * <p>
+ * Callbacks get completed by the given callback executor if one is given,
+ * or otherwise by the storage executor thread that executed the operation.
+ * In the latter case whatever the callback does next, such as continuing
+ * the execution of the request or streaming cached content, also runs on
+ * the storage thread and keeps it from executing other storage operations.
+ * The number of storage threads used by the caching client builders can be
+ * set with {@link CacheConfig.Builder#setStorageWorkers(int)}. Clients that
+ * need completion handed over to threads of their own can pass an instance
+ * created with their own executors to the builder.
+ * </p>
+ * <p>
+ * Only the operations of the storage itself get executed by the executor.
+ * Cache resources still get generated by the {@link org.apache.hc.client5.http.cache.ResourceFactory}
+ * and read while streaming cached content by the thread that handles the
+ * exchange, usually an I/O dispatch thread. With a file based resource factory
+ * such as {@link FileResourceFactory} response content therefore still gets
+ * written to and read from disk by the I/O dispatch threads.
+ * </p>
+ * <p>
+ * Operations can be cancelled for as long as their execution has not started.
+ * If the executor rejects an operation (for instance because its work queue
+ * is full) the operation fails with a {@link ResourceIOException}, which
+ * the cache treats as a cache miss.
+ * </p>
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE_CONDITIONAL)
+public final class ExecutorHttpAsyncCacheStorage implements HttpAsyncCacheStorage {
+
+    @FunctionalInterface
+    interface StorageOperation<T> {
+
+        T execute() throws Exception;
+
+    }
+
+    static final class Operation<T> implements Runnable, Cancellable {
+
+        private static final int PENDING = 0;
+        private static final int RUNNING = 1;
+        private static final int CANCELLED = 2;
+
+        private final StorageOperation<T> storageOperation;
+        private final FutureCallback<T> callback;
+        private final Executor callbackExecutor;
+        private final AtomicInteger state;
+
+        Operation(
+                final StorageOperation<T> storageOperation,
+                final FutureCallback<T> callback,
+                final Executor callbackExecutor) {
+            this.storageOperation = storageOperation;
+            this.callback = callback;
+            this.callbackExecutor = callbackExecutor;
+            this.state = new AtomicInteger(PENDING);
+        }
+
+        Operation(final StorageOperation<T> storageOperation, final FutureCallback<T> callback) {
+            this(storageOperation, callback, null);
+        }
+
+        @Override
+        public void run() {
+            if (!state.compareAndSet(PENDING, RUNNING)) {
+                return;
+            }
+            final T result;
+            try {
+                result = storageOperation.execute();
+            } catch (final Exception ex) {
+                complete(() -> callback.failed(ex));
+                return;
+            }
+            complete(() -> callback.completed(result));
+        }
+
+        private void complete(final Runnable completion) {
+            if (callbackExecutor != null) {
+                try {
+                    callbackExecutor.execute(completion);
+                    return;
+                } catch (final RejectedExecutionException ignore) {
+                    // complete on the current thread
+                }
+            }
+            completion.run();
+        }
+
+        @Override
+        public boolean cancel() {
+            if (state.compareAndSet(PENDING, CANCELLED)) {
+                callback.cancelled();
+                return true;
+            }
+            return false;
+        }
+
+        void reject(final RejectedExecutionException ex) {
+            if (state.compareAndSet(PENDING, CANCELLED)) {
+                callback.failed(new ResourceIOException("Cache storage operation rejected", ex));
+            }
+        }
+
+    }
+
+    private final HttpCacheStorage cacheStorage;
+    private final Executor executor;
+    private final Executor callbackExecutor;
+
+    /**
+     * @param cacheStorage the blocking cache storage.
+     * @param executor the executor of storage operations.
+     * @param callbackExecutor the executor completing callbacks of storage operations.
+     *                         If {@code null} callbacks get completed by the thread
+     *                         that executed the operation.
+     */
+    public ExecutorHttpAsyncCacheStorage(
+            final HttpCacheStorage cacheStorage,
+            final Executor executor,
+            final Executor callbackExecutor) {
+        this.cacheStorage = Args.notNull(cacheStorage, "Cache storage");
+        this.executor = Args.notNull(executor, "Executor");
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    public ExecutorHttpAsyncCacheStorage(final HttpCacheStorage cacheStorage, final Executor executor) {
+        this(cacheStorage, executor, null);
+    }
+
+    HttpCacheStorage getCacheStorage() {
+        return cacheStorage;
+    }
+
+    private <T> Cancellable submit(final StorageOperation<T> storageOperation, final FutureCallback<T> callback) {
+        final Operation<T> operation = new Operation<>(storageOperation, callback, callbackExecutor);
+        try {
+            executor.execute(operation);
+        } catch (final RejectedExecutionException ex) {
+            operation.reject(ex);
+        }
+        return operation;
+    }
+
+    @Override
+    public Cancellable putEntry(final String key, final HttpCacheEntry entry, final FutureCallback<Boolean> callback) {
+        Args.notEmpty(key, "Key");
+        Args.notNull(entry, "Cache entry");
+        Args.notNull(callback, "Callback");
+        return submit(() -> {
+            cacheStorage.putEntry(key, entry);
+            return Boolean.TRUE;
+        }, callback);
+    }
+
+    @Override
+    public Cancellable getEntry(final String key, final FutureCallback<HttpCacheEntry> callback) {
+        Args.notEmpty(key, "Key");
+        Args.notNull(callback, "Callback");
+        return submit(() -> cacheStorage.getEntry(key), callback);
+    }
+
+    @Override
+    public Cancellable removeEntry(final String key, final FutureCallback<Boolean> callback) {
+        Args.notEmpty(key, "Key");
+        Args.notNull(callback, "Callback");
+        return submit(() -> {
+            cacheStorage.removeEntry(key);
+            return Boolean.TRUE;
+        }, callback);
+    }
+
+    @Override
+    public Cancellable removeEntries(final Collection<String> keys, final FutureCallback<Boolean> callback) {
+        Args.notNull(keys, "Keys");
+        Args.notNull(callback, "Callback");
+        return submit(() -> {
+            cacheStorage.removeEntries(keys);
+            return Boolean.TRUE;
+        }, callback);
+    }
+
+    @Override
+    public Cancellable updateEntry(
+            final String key, final HttpCacheCASOperation casOperation, final FutureCallback<Boolean> callback) {
+        Args.notEmpty(key, "Key");
+        Args.notNull(casOperation, "CAS operation");
+        Args.notNull(callback, "Callback");
+        return submit(() -> {
+            cacheStorage.updateEntry(key, casOperation);
+            return Boolean.TRUE;
+        }, callback);
+    }
+
+    @Override
+    public Cancellable getEntries(final Collection<String> keys, final FutureCallback<Map<String, HttpCacheEntry>> callback) {
+        Args.notNull(keys, "Keys");
+        Args.notNull(callback, "Callback");
+        return submit(() -> cacheStorage.getEntries(keys), callback);
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+/**
+ * Approximate access frequency counter based on a count-min sketch with four rows
+ * of saturating 4-bit counters. All counters are halved once the number of recorded
+ * accesses reaches the sample size, so that the frequency of keys that are no longer
+ * accessed decays over time.
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ *
+ * @since 5.3
+ */
+final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = { 0x97cb3127, 0xb6e2d3a5, 0x4b2c1d9f, 0xc2b2ae35 };
+
+    private final byte[] table;
+    private final int width;
+    private final int sampleSize;
+
+    private int additions;
+
+    FrequencySketch(final int maxEntries) {
+        final int capacity = Math.max(16, Math.min(maxEntries, 1 << 24));
+        this.width = Integer.highestOneBit(capacity - 1) << 1;
+        this.table = new byte[DEPTH * width];
+        this.sampleSize = 10 * capacity;
+    }
+
+    private int index(final int hash, final int row) {
+        int h = hash * SEEDS[row];
+        h ^= h >>> 16;
+        return row * width + (h & (width - 1));
+    }
+
+    private static int spread(final Object key) {
+        int h = key.hashCode();
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    /**
+     * Records an access to the given key.
+     */
+    void increment(final Object key) {
+        final int hash = spread(key);
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            final int i = index(hash, row);
+            if (table[i] < MAX_COUNT) {
+                table[i]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    /**
+     * Returns the estimated number of recent accesses to the given key.
+     */
+    int frequency(final Object key) {
+        final int hash = spread(key);
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, table[index(hash, row)]);
+        }
+        return frequency;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (byte) (table[i] >>> 1);
+        }
+        additions /= 2;
+    }
+
+}
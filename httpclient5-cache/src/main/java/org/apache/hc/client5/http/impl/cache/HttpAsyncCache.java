@@ -29,6 +29,7 @@
 import java.time.Instant;
 import java.util.Map;
 
+import org.apache.hc.client5.http.cache.CacheKey;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
 import org.apache.hc.core5.concurrent.Cancellable;
 import org.apache.hc.core5.concurrent.FutureCallback;
@@ -41,6 +42,14 @@ interface HttpAsyncCache {
 
     String generateKey (HttpHost host, HttpRequest request, HttpCacheEntry cacheEntry);
 
+    /**
+     * Generates the root {@link CacheKey} of the given request, which can be passed
+     * to subsequent cache operations for the same request.
+     *
+     * @since 5.3
+     */
+    CacheKey generateCacheKey(HttpHost host, HttpRequest request);
+
     /**
      * Clear all matching {@link HttpCacheEntry}s.
      */
@@ -59,18 +68,52 @@ Cancellable flushCacheEntriesInvalidatedByRequest(
     Cancellable flushCacheEntriesInvalidatedByExchange(
             HttpHost host, HttpRequest request, HttpResponse response, FutureCallback<Boolean> callback);
 
+    /**
+     * Flush all {@link HttpCacheEntry}s of the given host whose request URI
+     * starts with the given path prefix.
+     *
+     * @since 5.3
+     */
+    Cancellable flushCacheEntriesByPrefix(
+            HttpHost host, String pathPrefix, FutureCallback<Boolean> callback);
+
+    /**
+     * Flush all {@link HttpCacheEntry}s tagged with the given surrogate key.
+     *
+     * @since 5.3
+     */
+    Cancellable flushCacheEntriesByTag(String tag, FutureCallback<Boolean> callback);
+
     /**
      * Retrieve matching {@link HttpCacheEntry} from the cache if it exists
      */
     Cancellable getCacheEntry(
             HttpHost host, HttpRequest request, FutureCallback<HttpCacheEntry> callback);
 
+    /**
+     * Retrieve matching {@link HttpCacheEntry} from the cache if it exists
+     * using a previously generated root cache key
+     *
+     * @since 5.3
+     */
+    Cancellable getCacheEntry(
+            CacheKey cacheKey, HttpRequest request, FutureCallback<HttpCacheEntry> callback);
+
     /**
      * Retrieve all variants from the cache, if there are no variants then an empty
      */
     Cancellable getVariantCacheEntriesWithEtags(
             HttpHost host, HttpRequest request, FutureCallback<Map<String,Variant>> callback);
 
+    /**
+     * Retrieve all variants from the cache using a previously generated root cache key,
+     * if there are no variants then an empty
+     *
+     * @since 5.3
+     */
+    Cancellable getVariantCacheEntriesWithEtags(
+            CacheKey cacheKey, HttpRequest request, FutureCallback<Map<String,Variant>> callback);
+
     /**
      * Store a {@link HttpResponse} in the cache if possible, and return
      */
@@ -60,6 +60,7 @@
 import org.apache.hc.core5.http.message.BasicHttpRequest;
 import org.apache.hc.core5.http.message.BasicLineFormatter;
 import org.apache.hc.core5.http.message.StatusLine;
+import org.apache.hc.core5.io.Closer;
 import org.apache.hc.core5.util.CharArrayBuffer;
 import org.apache.hc.core5.util.TimeValue;
 
@@ -103,7 +104,17 @@ public byte[] serialize(final HttpCacheStorageEntry httpCacheEntry) throws Resou
         final CacheValidityPolicy cacheValidityPolicy = new NoAgeCacheValidityPolicy();
         final CachedHttpResponseGenerator cachedHttpResponseGenerator = new CachedHttpResponseGenerator(cacheValidityPolicy);
 
-        final SimpleHttpResponse httpResponse = cachedHttpResponseGenerator.generateResponse(httpRequest, httpCacheEntry.getContent());
+        final CachedHttpResponse cachedResponse = cachedHttpResponseGenerator.generateResponse(httpRequest, httpCacheEntry.getContent());
+        final SimpleHttpResponse httpResponse = SimpleHttpResponse.copy(cachedResponse);
+        // The content is copied from the resource, the channel opened for file resources is not used
+        try {
+            final Resource resource = cachedResponse.getBody();
+            if (resource != null) {
+                httpResponse.setBody(resource.get(), cachedResponse.getContentType());
+            }
+        } finally {
+            Closer.closeQuietly(cachedResponse.getChannel());
+        }
 
         try(final ByteArrayOutputStream out = new ByteArrayOutputStream()) {
             escapeHeaders(httpResponse);
@@ -29,6 +29,7 @@
 import java.time.Instant;
 import java.util.Map;
 
+import org.apache.hc.client5.http.cache.CacheKey;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.HttpRequest;
@@ -39,6 +40,14 @@ interface HttpCache {
 
     String generateKey (HttpHost host, HttpRequest request, HttpCacheEntry cacheEntry);
 
+    /**
+     * Generates the root {@link CacheKey} of the given request, which can be passed
+     * to subsequent cache operations for the same request.
+     *
+     * @since 5.3
+     */
+    CacheKey generateCacheKey(HttpHost host, HttpRequest request);
+
     /**
      * Clear all matching {@link HttpCacheEntry}s.
      */
@@ -54,17 +63,48 @@ interface HttpCache {
      */
     void flushCacheEntriesInvalidatedByExchange(HttpHost host, HttpRequest request, HttpResponse response);
 
+    /**
+     * Flush all {@link HttpCacheEntry}s of the given host whose request URI
+     * starts with the given path prefix.
+     *
+     * @since 5.3
+     */
+    void flushCacheEntriesByPrefix(HttpHost host, String pathPrefix);
+
+    /**
+     * Flush all {@link HttpCacheEntry}s tagged with the given surrogate key.
+     *
+     * @since 5.3
+     */
+    void flushCacheEntriesByTag(String tag);
+
     /**
      * Retrieve matching {@link HttpCacheEntry} from the cache if it exists.
      */
     HttpCacheEntry getCacheEntry(HttpHost host, HttpRequest request);
 
+    /**
+     * Retrieve matching {@link HttpCacheEntry} from the cache if it exists
+     * using a previously generated root cache key.
+     *
+     * @since 5.3
+     */
+    HttpCacheEntry getCacheEntry(CacheKey cacheKey, HttpRequest request);
+
     /**
      * Retrieve all variants from the cache, if there are no variants then an empty
      * {@link Map} is returned
      */
     Map<String,Variant> getVariantCacheEntriesWithEtags(HttpHost host, HttpRequest request);
 
+    /**
+     * Retrieve all variants from the cache using a previously generated root cache key,
+     * if there are no variants then an empty {@link Map} is returned
+     *
+     * @since 5.3
+     */
+    Map<String,Variant> getVariantCacheEntriesWithEtags(CacheKey cacheKey, HttpRequest request);
+
     /**
      * Store a {@link HttpResponse} in the cache if possible, and return
      */
@@ -34,7 +34,9 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.HttpCacheCASOperation;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
 import org.apache.hc.client5.http.cache.HttpCacheStorage;
@@ -81,13 +83,22 @@ public class ManagedHttpCacheStorage implements HttpCacheStorage, Closeable {
     private final ReferenceQueue<HttpCacheEntry> morque;
     private final Set<ResourceReference> resources;
     private final AtomicBoolean active;
+    private final ReentrantLock lock;
 
-    public ManagedHttpCacheStorage(final CacheConfig config) {
+    /**
+     * @since 5.3
+     */
+    public ManagedHttpCacheStorage(final CacheConfig config, final CacheMetricsRecorder metricsRecorder) {
         super();
-        this.entries = new CacheMap(config.getMaxCacheEntries());
+        this.entries = new CacheMap(config, metricsRecorder);
         this.morque = new ReferenceQueue<>();
         this.resources = new HashSet<>();
         this.active = new AtomicBoolean(true);
+        this.lock = new ReentrantLock();
+    }
+
+    public ManagedHttpCacheStorage(final CacheConfig config) {
+        this(config, null);
     }
 
     private void ensureValidState() {
@@ -110,9 +121,12 @@ public void putEntry(final String url, final HttpCacheEntry entry) throws Resour
         Args.notNull(url, "URL");
         Args.notNull(entry, "Cache entry");
         ensureValidState();
-        synchronized (this) {
-            this.entries.put(url, entry);
+        lock.lock();
+        try {
+            entries.put(url, entry);
             keepResourceReference(entry);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -120,8 +134,11 @@ public void putEntry(final String url, final HttpCacheEntry entry) throws Resour
     public HttpCacheEntry getEntry(final String url) throws ResourceIOException {
         Args.notNull(url, "URL");
         ensureValidState();
-        synchronized (this) {
+        lock.lock();
+        try {
             return this.entries.get(url);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -129,10 +146,13 @@ public HttpCacheEntry getEntry(final String url) throws ResourceIOException {
     public void removeEntry(final String url) throws ResourceIOException {
         Args.notNull(url, "URL");
         ensureValidState();
-        synchronized (this) {
+        lock.lock();
+        try {
             // Cannot deallocate the associated resources immediately as the
             // cache entry may still be in use
             this.entries.remove(url);
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -143,13 +163,16 @@ public void updateEntry(
         Args.notNull(url, "URL");
         Args.notNull(casOperation, "CAS operation");
         ensureValidState();
-        synchronized (this) {
-            final HttpCacheEntry existing = this.entries.get(url);
+        lock.lock();
+        try {
+            final HttpCacheEntry existing = this.entries.peek(url);
             final HttpCacheEntry updated = casOperation.execute(existing);
-            this.entries.put(url, updated);
+            entries.put(url, updated);
             if (existing != updated) {
                 keepResourceReference(updated);
             }
+        } finally {
+            lock.unlock();
         }
     }
 
@@ -170,8 +193,11 @@ public void cleanResources() {
         if (isActive()) {
             ResourceReference ref;
             while ((ref = (ResourceReference) this.morque.poll()) != null) {
-                synchronized (this) {
+                lock.lock();
+                try {
                     this.resources.remove(ref);
+                } finally {
+                    lock.unlock();
                 }
                 ref.getResource().dispose();
             }
@@ -180,7 +206,8 @@ public void cleanResources() {
 
     public void shutdown() {
         if (compareAndSet()) {
-            synchronized (this) {
+            lock.lock();
+            try {
                 this.entries.clear();
                 for (final ResourceReference ref: this.resources) {
                     ref.getResource().dispose();
@@ -188,6 +215,8 @@ public void shutdown() {
                 this.resources.clear();
                 while (this.morque.poll() != null) {
                 }
+            } finally {
+                lock.unlock();
             }
         }
     }
@@ -195,12 +224,15 @@ public void shutdown() {
     @Override
     public void close() {
         if (compareAndSet()) {
-            synchronized (this) {
+            lock.lock();
+            try {
                 ResourceReference ref;
                 while ((ref = (ResourceReference) this.morque.poll()) != null) {
                     this.resources.remove(ref);
                     ref.getResource().dispose();
                 }
+            } finally {
+                lock.unlock();
             }
         }
     }
@@ -215,6 +247,20 @@ public boolean isActive() {
         return active.get();
     }
 
+    /**
+     * Returns the current total size of cache entries in bytes.
+     *
+     * @since 5.3
+     */
+    public long getTotalBytes() {
+        lock.lock();
+        try {
+            return entries.getTotalBytes();
+        } finally {
+            lock.unlock();
+        }
+    }
+
     private boolean compareAndSet(){
         return this.active.compareAndSet(true, false);
     }
@@ -0,0 +1,858 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+import org.apache.hc.client5.http.cache.HttpCacheCASOperation;
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.HttpCacheStorage;
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.client5.http.cache.ResourceFactory;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.DefaultThreadFactory;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.util.Args;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link HttpCacheStorage} implementation that keeps response bodies in files and cache
+ * entry metadata in an append-only index file in the same directory, which enables
+ * the cache content to survive restarts.
+ * <p>
+ * On startup the index file is replayed to rebuild the in-memory view of the cache.
+ * A partially written or corrupt record at the end of the index, for instance due to
+ * a crash, is discarded along with everything that follows it. Entries whose body file
+ * is missing are dropped and files in the cache directory not referenced by any entry
+ * are deleted. The cache directory therefore must be used by this storage exclusively.
+ * </p>
+ * <p>
+ * Every update is appended to the index as a single record. Once obsolete records
+ * significantly outnumber live entries the index gets compacted in the background.
+ * </p>
+ * <p>
+ * The cache is bounded by the {@link CacheConfig#getMaxCacheEntries() maximum number
+ * of entries} and by the total size of entries in bytes. Least recently used entries
+ * get evicted first.
+ * </p>
+ * <p>
+ * Content of entries not backed by a file in the cache directory gets copied into
+ * the cache directory. Use the {@link #getResourceFactory() resource factory} of this
+ * storage to avoid copying. Resources of entries returned by this storage are owned
+ * by the storage and must not be disposed of by the caller.
+ * </p>
+ * <p>
+ * The file of an entry that gets removed, replaced or evicted is deleted right away,
+ * so that disk usage stays within the total size limit. Cached responses open the file before they are handed out and
+ * keep streaming the content of a deleted file on platforms that permit it. Where a file
+ * cannot be deleted while open for reading, it is deleted once the resource of that entry
+ * is no longer referenced, by subsequent cache updates or by {@link #cleanResources()},
+ * and by the next instance on startup otherwise.
+ * </p>
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class PersistentHttpCacheStorage implements HttpCacheStorage, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PersistentHttpCacheStorage.class);
+
+    static final String INDEX_FILE_NAME = "cache.idx";
+    static final String INDEX_TEMP_FILE_NAME = "cache.idx.tmp";
+
+    private static final int INDEX_MAGIC = 0x48434931;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private static final int MAX_RECORD_SIZE = 64 * 1024 * 1024;
+    private static final byte RECORD_PUT = 1;
+    private static final byte RECORD_REMOVE = 2;
+    private static final int MIN_COMPACTION_RECORDS = 1024;
+
+    private final File cacheDir;
+    private final File indexFile;
+    private final File indexTempFile;
+    private final int maxCacheEntries;
+    private final long maxCacheBytes;
+    private final FileResourceFactory resourceFactory;
+    private final LinkedHashMap<String, IndexEntry> entries;
+    private final Map<File, Integer> fileRefs;
+    private final ReferenceQueue<Resource> morque;
+    private final Set<ContentReference> pendingContent;
+    private final ReentrantLock lock;
+    private final ExecutorService compactionExecutor;
+    private final AtomicBoolean active;
+
+    private FileChannel indexChannel;
+    private long totalBytes;
+    private long indexRecords;
+    private List<ByteBuffer> compactionBacklog;
+    private boolean compactionScheduled;
+
+    /**
+     * Creates storage in the given directory and recovers cache entries persisted
+     * by a previous instance.
+     *
+     * @param cacheDir the cache directory.
+     * @param config the cache configuration.
+     * @param maxCacheBytes the maximum total size of cache entries in bytes.
+     * @throws ResourceIOException in case of an I/O error while opening the index file.
+     */
+    public PersistentHttpCacheStorage(
+            final File cacheDir,
+            final CacheConfig config,
+            final long maxCacheBytes) throws ResourceIOException {
+        super();
+        Args.notNull(cacheDir, "Cache directory");
+        Args.notNull(config, "Cache config");
+        this.cacheDir = cacheDir.getAbsoluteFile();
+        this.indexFile = new File(this.cacheDir, INDEX_FILE_NAME);
+        this.indexTempFile = new File(this.cacheDir, INDEX_TEMP_FILE_NAME);
+        this.maxCacheEntries = config.getMaxCacheEntries();
+        this.maxCacheBytes = Args.positive(maxCacheBytes, "Max cache bytes");
+        this.resourceFactory = new FileResourceFactory(this.cacheDir);
+        this.entries = new LinkedHashMap<>(64, 0.75f, true);
+        this.fileRefs = new HashMap<>();
+        this.morque = new ReferenceQueue<>();
+        this.pendingContent = new HashSet<>();
+        this.lock = new ReentrantLock();
+        this.compactionExecutor = Executors.newSingleThreadExecutor(
+                new DefaultThreadFactory("httpclient-cache-compaction", true));
+        this.active = new AtomicBoolean(true);
+        if (!this.cacheDir.isDirectory() && !this.cacheDir.mkdirs()) {
+            throw new ResourceIOException("Unable to create cache directory " + this.cacheDir);
+        }
+        try {
+            recover();
+        } catch (final IOException ex) {
+            this.compactionExecutor.shutdownNow();
+            throw new ResourceIOException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Creates storage in the given directory and recovers cache entries persisted
+     * by a previous instance. The total size of cache entries is limited to
+     * {@link CacheConfig#getMaxCacheBytes()} if set or to {@link CacheConfig#getMaxCacheEntries()}
+     * times {@link CacheConfig#getMaxObjectSize()} otherwise.
+     *
+     * @param cacheDir the cache directory.
+     * @param config the cache configuration.
+     * @throws ResourceIOException in case of an I/O error while opening the index file.
+     */
+    public PersistentHttpCacheStorage(final File cacheDir, final CacheConfig config) throws ResourceIOException {
+        this(cacheDir, config, config.getMaxCacheBytes() > 0
+                ? config.getMaxCacheBytes()
+                : Math.max(1, config.getMaxCacheEntries() * config.getMaxObjectSize()));
+    }
+
+    /**
+     * Returns a {@link ResourceFactory} that writes content directly into the cache
+     * directory of this storage.
+     */
+    public ResourceFactory getResourceFactory() {
+        return resourceFactory;
+    }
+
+    /**
+     * Returns the current number of cache entries.
+     */
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the current total size of cache entries in bytes.
+     */
+    public long getTotalBytes() {
+        lock.lock();
+        try {
+            return totalBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void ensureValidState() {
+        if (!active.get()) {
+            throw new IllegalStateException("Cache has been shut down");
+        }
+    }
+
+    @Override
+    public void putEntry(final String key, final HttpCacheEntry entry) throws ResourceIOException {
+        Args.notNull(key, "Key");
+        Args.notNull(entry, "Cache entry");
+        ensureValidState();
+        final IndexEntry indexEntry = toIndexEntry(key, entry);
+        lock.lock();
+        try {
+            purgeUnreachableContent();
+            store(key, indexEntry);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public HttpCacheEntry getEntry(final String key) throws ResourceIOException {
+        Args.notNull(key, "Key");
+        ensureValidState();
+        lock.lock();
+        try {
+            final IndexEntry indexEntry = entries.get(key);
+            return indexEntry != null ? indexEntry.cacheEntry : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void removeEntry(final String key) throws ResourceIOException {
+        Args.notNull(key, "Key");
+        ensureValidState();
+        lock.lock();
+        try {
+            purgeUnreachableContent();
+            final IndexEntry indexEntry = entries.remove(key);
+            if (indexEntry != null) {
+                appendRecord(encodeRemove(key));
+                release(indexEntry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void updateEntry(
+            final String key,
+            final HttpCacheCASOperation casOperation) throws ResourceIOException {
+        Args.notNull(key, "Key");
+        Args.notNull(casOperation, "CAS operation");
+        ensureValidState();
+        lock.lock();
+        try {
+            purgeUnreachableContent();
+            final IndexEntry existing = entries.get(key);
+            final HttpCacheEntry updated = casOperation.execute(existing != null ? existing.cacheEntry : null);
+            if (updated == null) {
+                if (existing != null) {
+                    entries.remove(key);
+                    appendRecord(encodeRemove(key));
+                    release(existing);
+                }
+            } else if (existing == null || updated != existing.cacheEntry) {
+                store(key, toIndexEntry(key, updated));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public Map<String, HttpCacheEntry> getEntries(final Collection<String> keys) throws ResourceIOException {
+        Args.notNull(keys, "Key");
+        final Map<String, HttpCacheEntry> resultMap = new HashMap<>(keys.size());
+        for (final String key: keys) {
+            final HttpCacheEntry entry = getEntry(key);
+            if (entry != null) {
+                resultMap.put(key, entry);
+            }
+        }
+        return resultMap;
+    }
+
+    /**
+     * Returns a snapshot of all entries currently stored.
+     */
+    Map<String, HttpCacheEntry> getAllEntries() {
+        ensureValidState();
+        lock.lock();
+        try {
+            final Map<String, HttpCacheEntry> resultMap = new LinkedHashMap<>(entries.size());
+            for (final Map.Entry<String, IndexEntry> entry : entries.entrySet()) {
+                resultMap.put(entry.getKey(), entry.getValue().cacheEntry);
+            }
+            return resultMap;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Deletes files of removed entries whose resources are no longer referenced.
+     */
+    public void cleanResources() {
+        lock.lock();
+        try {
+            if (active.get()) {
+                purgeUnreachableContent();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Rewrites the index file so that it contains live entries only.
+     *
+     * @throws ResourceIOException in case of an I/O error.
+     */
+    public void compact() throws ResourceIOException {
+        final List<ByteBuffer> snapshot;
+        lock.lock();
+        try {
+            if (!active.get() || compactionBacklog != null) {
+                return;
+            }
+            snapshot = new ArrayList<>(entries.size());
+            for (final Map.Entry<String, IndexEntry> entry : entries.entrySet()) {
+                snapshot.add(encodePut(entry.getKey(), entry.getValue()));
+            }
+            compactionBacklog = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        try (final FileChannel tempChannel = FileChannel.open(indexTempFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(tempChannel, encodeFileHeader());
+            for (final ByteBuffer record : snapshot) {
+                writeFully(tempChannel, record);
+            }
+            lock.lock();
+            try {
+                // Records appended while the snapshot was being written
+                for (final ByteBuffer record : compactionBacklog) {
+                    writeFully(tempChannel, record);
+                }
+                tempChannel.force(false);
+                if (!active.get()) {
+                    indexTempFile.delete();
+                    return;
+                }
+                indexChannel.close();
+                moveIndexFile();
+                indexChannel = openIndexChannel();
+                indexRecords = snapshot.size() + compactionBacklog.size();
+            } finally {
+                compactionBacklog = null;
+                lock.unlock();
+            }
+        } catch (final IOException ex) {
+            lock.lock();
+            try {
+                compactionBacklog = null;
+            } finally {
+                lock.unlock();
+            }
+            indexTempFile.delete();
+            throw new ResourceIOException(ex.getMessage(), ex);
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Cache index compacted: {} records", snapshot.size());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (active.compareAndSet(true, false)) {
+            compactionExecutor.shutdown();
+            lock.lock();
+            try {
+                if (indexChannel != null) {
+                    indexChannel.force(false);
+                    indexChannel.close();
+                    indexChannel = null;
+                }
+                entries.clear();
+                fileRefs.clear();
+                pendingContent.clear();
+                while (morque.poll() != null) {
+                }
+                totalBytes = 0;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private IndexEntry toIndexEntry(final String key, final HttpCacheEntry entry) throws ResourceIOException {
+        final Resource resource = entry.getResource();
+        if (resource == null) {
+            return new IndexEntry(entry, null);
+        }
+        if (resource.length() > maxCacheBytes) {
+            // Too large to be stored; no point copying the content
+            return new IndexEntry(entry, null);
+        }
+        if (resource instanceof FileResource) {
+            final File file = ((FileResource) resource).getFile();
+            if (file != null && cacheDir.equals(file.getAbsoluteFile().getParentFile())) {
+                return new IndexEntry(entry, file.getAbsoluteFile());
+            }
+        }
+        final FileResource copy = (FileResource) resourceFactory.copy(key, resource);
+        return new IndexEntry(new HttpCacheEntry(
+                entry.getRequestInstant(),
+                entry.getResponseInstant(),
+                entry.getStatus(),
+                entry.getHeaders(),
+                copy,
+                entry.getVariantMap()), copy.getFile());
+    }
+
+    private void store(final String key, final IndexEntry indexEntry) throws ResourceIOException {
+        if (indexEntry.weight > maxCacheBytes) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Cache entry too large to be stored: {}", key);
+            }
+            final IndexEntry previous = entries.remove(key);
+            if (previous != null) {
+                appendRecord(encodeRemove(key));
+                release(previous);
+            }
+            return;
+        }
+        appendRecord(encodePut(key, indexEntry));
+        retain(indexEntry);
+        final IndexEntry previous = entries.put(key, indexEntry);
+        if (previous != null) {
+            release(previous);
+        }
+        evictExcess();
+    }
+
+    private void retain(final IndexEntry indexEntry) {
+        totalBytes += indexEntry.weight;
+        if (indexEntry.file != null) {
+            fileRefs.merge(indexEntry.file, 1, Integer::sum);
+        }
+    }
+
+    private void release(final IndexEntry indexEntry) {
+        totalBytes -= indexEntry.weight;
+        final File file = indexEntry.file;
+        if (file == null) {
+            return;
+        }
+        final Integer refs = fileRefs.get(file);
+        if (refs != null && refs > 1) {
+            fileRefs.put(file, refs - 1);
+            return;
+        }
+        fileRefs.remove(file);
+        if (!file.delete() && file.exists()) {
+            final Resource resource = indexEntry.cacheEntry.getResource();
+            if (resource != null) {
+                // The file is still open for reading on a platform that does not permit
+                // deletion of open files. Retry once the resource becomes unreachable.
+                pendingContent.add(new ContentReference(resource, file, morque));
+            }
+        }
+    }
+
+    private void purgeUnreachableContent() {
+        ContentReference ref;
+        while ((ref = (ContentReference) morque.poll()) != null) {
+            if (pendingContent.remove(ref) && !fileRefs.containsKey(ref.file)) {
+                ref.file.delete();
+            }
+        }
+    }
+
+    private void evictExcess() throws ResourceIOException {
+        final Iterator<Map.Entry<String, IndexEntry>> it = entries.entrySet().iterator();
+        while ((totalBytes > maxCacheBytes || entries.size() > maxCacheEntries) && it.hasNext()) {
+            final Map.Entry<String, IndexEntry> eldest = it.next();
+            it.remove();
+            appendRecord(encodeRemove(eldest.getKey()));
+            release(eldest.getValue());
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Cache entry evicted: {}", eldest.getKey());
+            }
+        }
+    }
+
+    private void appendRecord(final ByteBuffer record) throws ResourceIOException {
+        if (indexChannel == null) {
+            throw new IllegalStateException("Cache has been shut down");
+        }
+        try {
+            writeFully(indexChannel, record.duplicate());
+        } catch (final IOException ex) {
+            throw new ResourceIOException(ex.getMessage(), ex);
+        }
+        indexRecords++;
+        if (compactionBacklog != null) {
+            compactionBacklog.add(record);
+        } else if (!compactionScheduled
+                && indexRecords > MIN_COMPACTION_RECORDS
+                && indexRecords > 2L * entries.size()) {
+            compactionScheduled = true;
+            compactionExecutor.execute(() -> {
+                try {
+                    compact();
+                } catch (final ResourceIOException ex) {
+                    LOG.warn("Cache index compaction failed", ex);
+                } finally {
+                    lock.lock();
+                    try {
+                        compactionScheduled = false;
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            });
+        }
+    }
+
+    private void recover() throws IOException {
+        long validLength = 0;
+        boolean rewrite = false;
+        if (indexFile.exists()) {
+            try (final DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+                final int magic = readHeader(in);
+                if (magic == INDEX_MAGIC) {
+                    validLength = 4;
+                    final CRC32 crc32 = new CRC32();
+                    for (;;) {
+                        final byte[] payload = readRecord(in, crc32);
+                        if (payload == null) {
+                            break;
+                        }
+                        replay(payload);
+                        validLength += RECORD_HEADER_SIZE + payload.length;
+                        indexRecords++;
+                    }
+                }
+            }
+            rewrite = validLength != indexFile.length();
+        } else {
+            rewrite = true;
+        }
+
+        // Drop entries whose content is gone
+        for (final Iterator<Map.Entry<String, IndexEntry>> it = entries.entrySet().iterator(); it.hasNext(); ) {
+            final IndexEntry indexEntry = it.next().getValue();
+            if (indexEntry.file != null && !indexEntry.file.isFile()) {
+                it.remove();
+                rewrite = true;
+            }
+        }
+        for (final IndexEntry indexEntry : entries.values()) {
+            retain(indexEntry);
+        }
+        deleteOrphans();
+
+        if (rewrite || indexRecords > 2L * entries.size() + MIN_COMPACTION_RECORDS) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("Rewriting cache index: {} valid bytes of {}", validLength, indexFile.length());
+            }
+            try (final FileChannel tempChannel = FileChannel.open(indexTempFile.toPath(),
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                writeFully(tempChannel, encodeFileHeader());
+                for (final Map.Entry<String, IndexEntry> entry : entries.entrySet()) {
+                    writeFully(tempChannel, encodePut(entry.getKey(), entry.getValue()));
+                }
+                tempChannel.force(false);
+            }
+            moveIndexFile();
+            indexRecords = entries.size();
+        }
+        indexChannel = openIndexChannel();
+        evictExcess();
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Cache recovered: {} entries; {} bytes", entries.size(), totalBytes);
+        }
+    }
+
+    private static int readHeader(final DataInputStream in) throws IOException {
+        try {
+            return in.readInt();
+        } catch (final EOFException ex) {
+            return 0;
+        }
+    }
+
+    private static byte[] readRecord(final DataInputStream in, final CRC32 crc32) throws IOException {
+        final int len;
+        final int checksum;
+        try {
+            len = in.readInt();
+            checksum = in.readInt();
+        } catch (final EOFException ex) {
+            return null;
+        }
+        if (len <= 0 || len > MAX_RECORD_SIZE) {
+            return null;
+        }
+        final byte[] payload = new byte[len];
+        try {
+            in.readFully(payload);
+        } catch (final EOFException ex) {
+            return null;
+        }
+        crc32.reset();
+        crc32.update(payload, 0, payload.length);
+        if ((int) crc32.getValue() != checksum) {
+            return null;
+        }
+        return payload;
+    }
+
+    private void replay(final byte[] payload) throws IOException {
+        try (final DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            final byte type = in.readByte();
+            final String key = readString(in);
+            if (type == RECORD_PUT) {
+                entries.put(key, decodeEntry(in));
+            } else if (type == RECORD_REMOVE) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    private void deleteOrphans() {
+        final File[] files = cacheDir.listFiles();
+        if (files == null) {
+            return;
+        }
+        for (final File file : files) {
+            final String name = file.getName();
+            if (file.isFile()
+                    && !name.equals(INDEX_FILE_NAME)
+                    && !name.equals(INDEX_TEMP_FILE_NAME)
+                    && !fileRefs.containsKey(file)) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Deleting orphaned cache file {}", file);
+                }
+                file.delete();
+            }
+        }
+    }
+
+    private void moveIndexFile() throws IOException {
+        try {
+            Files.move(indexTempFile.toPath(), indexFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException ex) {
+            Files.move(indexTempFile.toPath(), indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private FileChannel openIndexChannel() throws IOException {
+        return FileChannel.open(indexFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer src) throws IOException {
+        while (src.hasRemaining()) {
+            channel.write(src);
+        }
+    }
+
+    private static ByteBuffer encodeFileHeader() {
+        final ByteBuffer header = ByteBuffer.allocate(4);
+        header.putInt(INDEX_MAGIC);
+        header.flip();
+        return header;
+    }
+
+    private static ByteBuffer encodeRecord(final ByteArrayOutputStream buf) {
+        final byte[] payload = buf.toByteArray();
+        final CRC32 crc32 = new CRC32();
+        crc32.update(payload, 0, payload.length);
+        final ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+        record.putInt(payload.length);
+        record.putInt((int) crc32.getValue());
+        record.put(payload);
+        record.flip();
+        return record;
+    }
+
+    private static ByteBuffer encodeRemove(final String key) throws ResourceIOException {
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream(key.length() + 8);
+        try (final DataOutputStream out = new DataOutputStream(buf)) {
+            out.writeByte(RECORD_REMOVE);
+            writeString(out, key);
+        } catch (final IOException ex) {
+            throw new ResourceIOException(ex.getMessage(), ex);
+        }
+        return encodeRecord(buf);
+    }
+
+    private static ByteBuffer encodePut(final String key, final IndexEntry indexEntry) throws ResourceIOException {
+        final HttpCacheEntry entry = indexEntry.cacheEntry;
+        final ByteArrayOutputStream buf = new ByteArrayOutputStream(512);
+        try (final DataOutputStream out = new DataOutputStream(buf)) {
+            out.writeByte(RECORD_PUT);
+            writeString(out, key);
+            writeInstant(out, entry.getRequestInstant());
+            writeInstant(out, entry.getResponseInstant());
+            out.writeInt(entry.getStatus());
+            final Header[] headers = entry.getHeaders();
+            out.writeInt(headers.length);
+            for (final Header header : headers) {
+                writeString(out, header.getName());
+                writeString(out, header.getValue());
+            }
+            final Map<String, String> variantMap = entry.getVariantMap();
+            out.writeInt(variantMap.size());
+            for (final Map.Entry<String, String> variant : variantMap.entrySet()) {
+                writeString(out, variant.getKey());
+                writeString(out, variant.getValue());
+            }
+            writeString(out, indexEntry.file != null ? indexEntry.file.getName() : null);
+        } catch (final IOException ex) {
+            throw new ResourceIOException(ex.getMessage(), ex);
+        }
+        return encodeRecord(buf);
+    }
+
+    private IndexEntry decodeEntry(final DataInputStream in) throws IOException {
+        final Instant requestDate = readInstant(in);
+        final Instant responseDate = readInstant(in);
+        final int status = in.readInt();
+        final int headerCount = in.readInt();
+        final Header[] headers = new Header[headerCount];
+        for (int i = 0; i < headerCount; i++) {
+            headers[i] = new BasicHeader(readString(in), readString(in));
+        }
+        final int variantCount = in.readInt();
+        final Map<String, String> variantMap = new HashMap<>(variantCount);
+        for (int i = 0; i < variantCount; i++) {
+            variantMap.put(readString(in), readString(in));
+        }
+        final String fileName = readString(in);
+        final File file = fileName != null ? new File(cacheDir, fileName) : null;
+        final HttpCacheEntry entry = new HttpCacheEntry(
+                requestDate,
+                responseDate,
+                status,
+                headers,
+                file != null ? new FileResource(file) : null,
+                variantMap);
+        return new IndexEntry(entry, file);
+    }
+
+    private static void writeInstant(final DataOutputStream out, final Instant instant) throws IOException {
+        out.writeLong(instant.getEpochSecond());
+        out.writeInt(instant.getNano());
+    }
+
+    private static Instant readInstant(final DataInputStream in) throws IOException {
+        final long seconds = in.readLong();
+        final int nanos = in.readInt();
+        return Instant.ofEpochSecond(seconds, nanos);
+    }
+
+    private static void writeString(final DataOutputStream out, final String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+        } else {
+            final byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(b.length);
+            out.write(b);
+        }
+    }
+
+    private static String readString(final DataInputStream in) throws IOException {
+        final int len = in.readInt();
+        if (len < 0) {
+            return null;
+        }
+        final byte[] b = new byte[len];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    static final class ContentReference extends PhantomReference<Resource> {
+
+        final File file;
+
+        ContentReference(final Resource resource, final File file, final ReferenceQueue<Resource> queue) {
+            super(resource, queue);
+            this.file = file;
+        }
+
+    }
+
+    static final class IndexEntry {
+
+        final HttpCacheEntry cacheEntry;
+        final File file;
+        final long weight;
+
+        IndexEntry(final HttpCacheEntry cacheEntry, final File file) {
+            this.cacheEntry = cacheEntry;
+            this.file = file;
+            this.weight = CacheMap.weigh(cacheEntry);
+        }
+
+    }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Determines whether a fresh cache entry has been requested frequently enough
+ * to get refreshed ahead of its expiry.
+ */
+class RefreshAheadPolicy {
+
+    private final CacheValidityPolicy validityPolicy;
+    private final float factor;
+    private final int minHits;
+    private final long windowMillis;
+    private final int maxTracked;
+    private final ConcurrentMap<String, HitCounter> counters;
+
+    RefreshAheadPolicy(
+            final CacheValidityPolicy validityPolicy,
+            final float factor,
+            final int minHits,
+            final TimeValue window,
+            final int maxTracked) {
+        this.validityPolicy = validityPolicy;
+        this.factor = factor;
+        this.minHits = minHits;
+        this.windowMillis = window.toMilliseconds();
+        this.maxTracked = Math.max(1, maxTracked);
+        this.counters = new ConcurrentHashMap<>();
+    }
+
+    RefreshAheadPolicy(final CacheValidityPolicy validityPolicy, final CacheConfig config) {
+        this(validityPolicy,
+                config.getRefreshAheadFactor(),
+                config.getRefreshAheadMinHits(),
+                config.getRefreshAheadWindow(),
+                config.getMaxCacheEntries());
+    }
+
+    boolean isEnabled() {
+        return factor > 0 && factor < 1;
+    }
+
+    /**
+     * Records a hit of the given fresh cache entry and determines whether
+     * it is due to be refreshed ahead of expiry.
+     *
+     * @param cacheKey the cache key of the entry.
+     * @param entry the cache entry.
+     * @param now the current time.
+     * @return {@code true} if the entry has been requested at least the minimum
+     *  number of times within the window and the configured fraction of its
+     *  freshness lifetime has passed.
+     */
+    boolean isRefreshDue(final String cacheKey, final HttpCacheEntry entry, final Instant now) {
+        if (!isEnabled()) {
+            return false;
+        }
+        final long nowMillis = now.toEpochMilli();
+        if (counters.size() >= maxTracked && !counters.containsKey(cacheKey)) {
+            counters.values().removeIf(counter -> nowMillis - counter.windowStart > windowMillis);
+            if (counters.size() >= maxTracked) {
+                evictColdest();
+            }
+        }
+        final HitCounter hitCounter = counters.compute(cacheKey, (k, counter) -> {
+            if (counter == null || nowMillis - counter.windowStart > windowMillis) {
+                return new HitCounter(nowMillis);
+            }
+            counter.hits++;
+            return counter;
+        });
+        final long freshnessLifetime = validityPolicy.getFreshnessLifetime(entry).toMilliseconds();
+        if (freshnessLifetime <= 0) {
+            return false;
+        }
+        final long age = validityPolicy.getCurrentAge(entry, now).toMilliseconds();
+        if (age >= freshnessLifetime || age < (long) (freshnessLifetime * (double) factor)) {
+            return false;
+        }
+        if (hitCounter.hits < minHits) {
+            return false;
+        }
+        counters.remove(cacheKey, hitCounter);
+        return true;
+    }
+
+    /**
+     * Drops the counter with the fewest hits, the oldest one of those if there are
+     * several, so that the hit history of frequently requested entries is retained.
+     */
+    private void evictColdest() {
+        Map.Entry<String, HitCounter> coldest = null;
+        for (final Map.Entry<String, HitCounter> entry : counters.entrySet()) {
+            final HitCounter counter = entry.getValue();
+            if (coldest == null
+                    || counter.hits < coldest.getValue().hits
+                    || counter.hits == coldest.getValue().hits && counter.windowStart < coldest.getValue().windowStart) {
+                coldest = entry;
+            }
+        }
+        if (coldest != null) {
+            counters.remove(coldest.getKey(), coldest.getValue());
+        }
+    }
+
+    /**
+     * Returns the point in time the entry expires.
+     */
+    Instant getExpiry(final HttpCacheEntry entry, final Instant now) {
+        final TimeValue freshnessLifetime = validityPolicy.getFreshnessLifetime(entry);
+        final TimeValue age = validityPolicy.getCurrentAge(entry, now);
+        return now.plusMillis(freshnessLifetime.toMilliseconds() - age.toMilliseconds());
+    }
+
+    static final class HitCounter {
+
+        final long windowStart;
+        volatile int hits;
+
+        HitCounter(final long windowStart) {
+            this.windowStart = windowStart;
+            this.hits = 1;
+        }
+
+    }
+
+}
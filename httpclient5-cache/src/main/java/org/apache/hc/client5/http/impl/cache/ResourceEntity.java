@@ -0,0 +1,99 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.io.entity.AbstractHttpEntity;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Repeatable {@link org.apache.hc.core5.http.HttpEntity} whose content is read
+ * from a cache {@link Resource} on demand. Content of a file resource is first read
+ * from the channel opened when the response was generated.
+ *
+ * @since 5.3
+ */
+class ResourceEntity extends AbstractHttpEntity {
+
+    private final Resource resource;
+    private FileChannel channel;
+
+    ResourceEntity(
+            final Resource resource,
+            final FileChannel channel,
+            final ContentType contentType,
+            final String contentEncoding) {
+        super(contentType, contentEncoding);
+        this.resource = Args.notNull(resource, "Resource");
+        this.channel = channel;
+    }
+
+    ResourceEntity(final Resource resource, final ContentType contentType, final String contentEncoding) {
+        this(resource, null, contentType, contentEncoding);
+    }
+
+    @Override
+    public final boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public final long getContentLength() {
+        return resource.length();
+    }
+
+    @Override
+    public final InputStream getContent() throws IOException {
+        final FileChannel openChannel = channel;
+        if (openChannel != null) {
+            channel = null;
+            return Channels.newInputStream(openChannel);
+        }
+        return resource.getInputStream();
+    }
+
+    @Override
+    public final boolean isStreaming() {
+        return false;
+    }
+
+    @Override
+    public final void close() throws IOException {
+        final FileChannel openChannel = channel;
+        if (openChannel != null) {
+            channel = null;
+            openChannel.close();
+        }
+    }
+
+}
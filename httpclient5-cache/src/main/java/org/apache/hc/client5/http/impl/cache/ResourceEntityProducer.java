@@ -0,0 +1,248 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link AsyncEntityProducer} that streams the content of a cache {@link Resource}.
+ * <p>
+ * Content of a {@link FileResource} is read with positional {@link FileChannel} reads
+ * into a buffer that gets reused for the entire content. Content of other resources
+ * is produced from the byte array returned by {@link Resource#get()} without copying.
+ * </p>
+ * <p>
+ * Exactly {@link Resource#length()} bytes get produced, which is the content length
+ * advertised to the consumer. If the content turns out to be shorter, production fails
+ * with a {@link ResourceIOException} instead of ending the stream prematurely.
+ * </p>
+ *
+ * @since 5.3
+ */
+class ResourceEntityProducer implements AsyncEntityProducer {
+
+    static final int BUFFER_SIZE = 8192;
+
+    private final Resource resource;
+    private final ContentType contentType;
+    private final String contentEncoding;
+    private final int bufferSize;
+
+    private FileChannel openChannel;
+    private ByteBuffer buffer;
+    private FileChannel fileChannel;
+    private long position;
+    private boolean endStream;
+
+    /**
+     * @param resource the cache resource.
+     * @param channel channel already opened for reading of the {@link FileResource} content
+     *                or {@code null}. The producer takes over the channel and closes it
+     *                once resources get released.
+     * @param contentType the content type.
+     * @param contentEncoding the content encoding.
+     * @param bufferSize the size of the buffer used to read file content.
+     */
+    ResourceEntityProducer(
+            final Resource resource,
+            final FileChannel channel,
+            final ContentType contentType,
+            final String contentEncoding,
+            final int bufferSize) {
+        this.resource = Args.notNull(resource, "Resource");
+        this.openChannel = channel;
+        this.contentType = contentType;
+        this.contentEncoding = contentEncoding;
+        this.bufferSize = Args.positive(bufferSize, "Buffer size");
+    }
+
+    ResourceEntityProducer(
+            final Resource resource,
+            final FileChannel channel,
+            final ContentType contentType,
+            final String contentEncoding) {
+        this(resource, channel, contentType, contentEncoding, BUFFER_SIZE);
+    }
+
+    ResourceEntityProducer(
+            final Resource resource,
+            final ContentType contentType,
+            final String contentEncoding,
+            final int bufferSize) {
+        this(resource, null, contentType, contentEncoding, bufferSize);
+    }
+
+    ResourceEntityProducer(final Resource resource, final ContentType contentType, final String contentEncoding) {
+        this(resource, null, contentType, contentEncoding, BUFFER_SIZE);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return true;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType != null ? contentType.toString() : null;
+    }
+
+    @Override
+    public long getContentLength() {
+        return resource.length();
+    }
+
+    @Override
+    public int available() {
+        if (endStream) {
+            return 0;
+        }
+        final long remaining;
+        if (buffer == null) {
+            remaining = resource.length();
+        } else if (fileChannel != null) {
+            remaining = resource.length() - position + buffer.remaining();
+        } else {
+            remaining = buffer.remaining();
+        }
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0, remaining));
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return false;
+    }
+
+    @Override
+    public Set<String> getTrailerNames() {
+        return null;
+    }
+
+    @Override
+    public void produce(final DataStreamChannel channel) throws IOException {
+        if (endStream) {
+            return;
+        }
+        final long length = resource.length();
+        if (buffer == null) {
+            if (resource instanceof FileResource) {
+                if (openChannel != null) {
+                    fileChannel = openChannel;
+                    openChannel = null;
+                } else {
+                    final File file = ((FileResource) resource).getFile();
+                    if (file == null) {
+                        throw new ResourceIOException("Resource already disposed");
+                    }
+                    fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                }
+                buffer = ByteBuffer.allocate((int) Math.max(1, Math.min(bufferSize, length)));
+                buffer.flip();
+            } else {
+                final byte[] content = resource.get();
+                if (content.length < length) {
+                    throw new ResourceIOException("Resource content truncated");
+                }
+                buffer = ByteBuffer.wrap(content, 0, (int) length);
+            }
+        }
+        if (fileChannel != null) {
+            for (;;) {
+                if (!buffer.hasRemaining()) {
+                    if (position >= length) {
+                        break;
+                    }
+                    buffer.clear();
+                    buffer.limit((int) Math.min(buffer.capacity(), length - position));
+                    final int bytesRead = fileChannel.read(buffer, position);
+                    buffer.flip();
+                    if (bytesRead == -1) {
+                        throw new ResourceIOException("Resource content truncated");
+                    }
+                    position += bytesRead;
+                }
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    // The channel cannot accept any more data at the moment
+                    return;
+                }
+            }
+        } else {
+            if (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            if (buffer.hasRemaining()) {
+                return;
+            }
+        }
+        endStream = true;
+        channel.endStream();
+    }
+
+    @Override
+    public void failed(final Exception cause) {
+        releaseResources();
+    }
+
+    @Override
+    public void releaseResources() {
+        if (openChannel != null) {
+            try {
+                openChannel.close();
+            } catch (final IOException ignore) {
+            }
+            openChannel = null;
+        }
+        if (fileChannel != null) {
+            try {
+                fileChannel.close();
+            } catch (final IOException ignore) {
+            }
+            fileChannel = null;
+        }
+        buffer = null;
+        position = 0;
+        endStream = false;
+    }
+
+}
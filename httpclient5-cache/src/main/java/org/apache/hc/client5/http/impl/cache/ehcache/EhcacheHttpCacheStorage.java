@@ -28,8 +28,10 @@
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.HttpCacheEntrySerializer;
 import org.apache.hc.client5.http.cache.HttpCacheStorageEntry;
 import org.apache.hc.client5.http.cache.ResourceIOException;
@@ -95,7 +97,25 @@ public EhcacheHttpCacheStorage(
             final Cache<String, T> cache,
             final CacheConfig config,
             final HttpCacheEntrySerializer<T> serializer) {
-        super((config != null ? config : CacheConfig.DEFAULT).getMaxUpdateRetries(), serializer);
+        this(cache, config, serializer, null);
+    }
+
+    /**
+     * Constructs a storage backend using the provided Ehcache
+     * with the given configuration options, serialization strategy
+     * and recorder of cache statistics.
+     * @param cache where to store cached origin responses
+     * @param config cache storage configuration options
+     * @param serializer alternative serialization mechanism
+     * @param metricsRecorder recorder of serialization and storage timings
+     * @since 5.3
+     */
+    public EhcacheHttpCacheStorage(
+            final Cache<String, T> cache,
+            final CacheConfig config,
+            final HttpCacheEntrySerializer<T> serializer,
+            final CacheMetricsRecorder metricsRecorder) {
+        super((config != null ? config : CacheConfig.DEFAULT).getMaxUpdateRetries(), serializer, metricsRecorder);
         this.cache = Args.notNull(cache, "Ehcache");
     }
 
@@ -135,6 +155,16 @@ protected void delete(final String storageKey) throws ResourceIOException {
         cache.remove(storageKey);
     }
 
+    /**
+     * Deletes storage objects with a single {@link Cache#removeAll(java.util.Set)} call.
+     *
+     * @since 5.3
+     */
+    @Override
+    protected void bulkDelete(final Collection<String> storageKeys) throws ResourceIOException {
+        cache.removeAll(new HashSet<>(storageKeys));
+    }
+
     @Override
     protected Map<String, T> bulkRestore(final Collection<String> storageKeys) throws ResourceIOException {
         final Map<String, T> resultMap = new HashMap<>();
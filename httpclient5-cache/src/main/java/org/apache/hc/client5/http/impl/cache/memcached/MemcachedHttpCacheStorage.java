@@ -32,6 +32,7 @@
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.HttpCacheEntrySerializer;
 import org.apache.hc.client5.http.cache.ResourceIOException;
 import org.apache.hc.client5.http.impl.cache.AbstractBinaryCacheStorage;
@@ -72,6 +73,11 @@
  * for use with memcached. Please see {@link KeyHashingScheme} if you would
  * like to use something other than the provided {@link SHA256KeyHashingScheme}.
  * </p>
+ * <p>
+ * The memcached protocol has no multi-key delete. Bulk removal of entries
+ * issues one delete per key; the deletes are queued on the client connection
+ * without waiting for one another to complete.
+ * </p>
  *
  * <p>
  * Please refer to the <a href="http://code.google.com/p/memcached/wiki/NewStart">
@@ -156,8 +162,32 @@ public MemcachedHttpCacheStorage(
             final CacheConfig config,
             final HttpCacheEntrySerializer<byte[]> serializer,
             final KeyHashingScheme keyHashingScheme) {
+        this(client, config, serializer, keyHashingScheme, null);
+    }
+
+    /**
+     * Create a storage backend using the given <i>memcached</i> client and
+     * applying the given cache configuration, serialization, and hashing
+     * mechanisms, and reporting serialization and storage timings to
+     * the given recorder.
+     *
+     * @param client           how to talk to <i>memcached</i>
+     * @param config           apply HTTP cache-related options
+     * @param serializer       alternative serialization mechanism
+     * @param keyHashingScheme how to map higher-level logical "storage keys"
+     *                         onto "cache keys" suitable for use with memcached
+     * @param metricsRecorder  recorder of cache statistics
+     * @since 5.3
+     */
+    public MemcachedHttpCacheStorage(
+            final MemcachedClientIF client,
+            final CacheConfig config,
+            final HttpCacheEntrySerializer<byte[]> serializer,
+            final KeyHashingScheme keyHashingScheme,
+            final CacheMetricsRecorder metricsRecorder) {
         super((config != null ? config : CacheConfig.DEFAULT).getMaxUpdateRetries(),
-                serializer != null ? serializer : ByteArrayCacheEntrySerializer.INSTANCE);
+                serializer != null ? serializer : ByteArrayCacheEntrySerializer.INSTANCE,
+                metricsRecorder);
         this.client = Args.notNull(client, "Memcached client");
         this.keyHashingScheme = keyHashingScheme;
     }
@@ -0,0 +1,55 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache.memcached;
+
+import org.apache.hc.client5.http.cache.CacheKey;
+
+/**
+ * This is a {@link KeyHashingScheme} based on the 128-bit
+ * <a href="https://en.wikipedia.org/wiki/MurmurHash">MurmurHash3</a>
+ * function used by {@link CacheKey}. The hashes produced are
+ * always 32-character hexadecimal strings. Unlike
+ * {@link SHA256KeyHashingScheme} this scheme is not cryptographically
+ * secure but is considerably cheaper to compute.
+ * <p>
+ * The hash is computed from the storage key on every storage operation.
+ * The {@link CacheKey} the caching layer computes for a request is not
+ * passed down to cache storages and is not reused here.
+ * </p>
+ *
+ * @since 5.3
+ */
+public final class Murmur3KeyHashingScheme implements KeyHashingScheme {
+
+    public static final Murmur3KeyHashingScheme INSTANCE = new Murmur3KeyHashingScheme();
+
+    @Override
+    public String hash(final String key) {
+        return CacheKey.of(key).getHashString();
+    }
+
+}
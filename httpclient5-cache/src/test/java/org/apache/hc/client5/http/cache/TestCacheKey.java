@@ -0,0 +1,60 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestCacheKey {
+
+    @Test
+    public void testHashMatchesReferenceValues() {
+        final CacheKey key1 = CacheKey.of("hello");
+        Assertions.assertEquals(0xcbd8a7b341bd9b02L, key1.getHashHigh());
+        Assertions.assertEquals(0x5b1e906a48ae1d19L, key1.getHashLow());
+        Assertions.assertEquals("cbd8a7b341bd9b025b1e906a48ae1d19", key1.getHashString());
+        final CacheKey key2 = CacheKey.of("The quick brown fox jumps over the lazy dog");
+        Assertions.assertEquals(0xe34bbc7bbc071b6cL, key2.getHashHigh());
+        Assertions.assertEquals(0x7a433ca9c49a9347L, key2.getHashLow());
+        final CacheKey key3 = CacheKey.of("");
+        Assertions.assertEquals(0L, key3.getHashHigh());
+        Assertions.assertEquals(0L, key3.getHashLow());
+    }
+
+    @Test
+    public void testEquality() {
+        final CacheKey key1 = CacheKey.of("http://example.com:80/");
+        final CacheKey key2 = CacheKey.of("http://example.com:80/");
+        final CacheKey key3 = CacheKey.of("http://example.com:80/stuff");
+        Assertions.assertEquals(key1, key2);
+        Assertions.assertEquals(key1.hashCode(), key2.hashCode());
+        Assertions.assertNotEquals(key1, key3);
+        Assertions.assertEquals("http://example.com:80/", key1.getKey());
+        Assertions.assertEquals(32, key3.getHashString().length());
+    }
+
+}
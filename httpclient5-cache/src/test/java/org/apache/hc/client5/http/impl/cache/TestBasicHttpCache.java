@@ -180,6 +180,88 @@ public void testCanFlushCacheEntriesAtUri() throws Exception {
         assertNull(backing.map.get(key));
     }
 
+    @Test
+    public void testCanFlushCacheEntriesByPrefix() throws Exception {
+        final HttpHost host = new HttpHost("foo.example.com");
+        final HttpRequest req1 = new HttpGet("/api/1");
+        final HttpRequest req2 = new HttpGet("/static/1");
+        final String key1 = CacheKeyGenerator.INSTANCE.generateKey(host, req1);
+        final String key2 = CacheKeyGenerator.INSTANCE.generateKey(host, req2);
+        impl.storeInCache(key1, host, req1, HttpTestUtils.makeCacheEntry());
+        impl.storeInCache(key2, host, req2, HttpTestUtils.makeCacheEntry());
+
+        impl.flushCacheEntriesByPrefix(host, "/api/");
+
+        assertNull(backing.map.get(key1));
+        assertNotNull(backing.map.get(key2));
+    }
+
+    @Test
+    public void testCanFlushCacheEntriesByTag() throws Exception {
+        final HttpHost host = new HttpHost("foo.example.com");
+        final HttpRequest req1 = new HttpGet("/1");
+        final HttpRequest req2 = new HttpGet("/2");
+        final String key1 = CacheKeyGenerator.INSTANCE.generateKey(host, req1);
+        final String key2 = CacheKeyGenerator.INSTANCE.generateKey(host, req2);
+        impl.storeInCache(key1, host, req1, HttpTestUtils.makeCacheEntry(
+                new BasicHeader(HeaderConstants.SURROGATE_KEY, "product-1 products")));
+        impl.storeInCache(key2, host, req2, HttpTestUtils.makeCacheEntry(
+                new BasicHeader(HeaderConstants.CACHE_TAG, "product-2,products")));
+
+        impl.flushCacheEntriesByTag("product-1");
+        assertNull(backing.map.get(key1));
+        assertNotNull(backing.map.get(key2));
+
+        impl.flushCacheEntriesByTag("products");
+        assertNull(backing.map.get(key2));
+    }
+
+    @Test
+    public void testFlushCacheEntriesByPrefixMatchesPathSegments() throws Exception {
+        final HttpHost host = new HttpHost("foo.example.com");
+        final HttpRequest req1 = new HttpGet("/api/1");
+        final HttpRequest req2 = new HttpGet("/api-docs");
+        final String key1 = CacheKeyGenerator.INSTANCE.generateKey(host, req1);
+        final String key2 = CacheKeyGenerator.INSTANCE.generateKey(host, req2);
+        impl.storeInCache(key1, host, req1, HttpTestUtils.makeCacheEntry());
+        impl.storeInCache(key2, host, req2, HttpTestUtils.makeCacheEntry());
+
+        impl.flushCacheEntriesByPrefix(host, "/api");
+
+        assertNull(backing.map.get(key1));
+        assertNotNull(backing.map.get(key2));
+    }
+
+    @Test
+    public void testEntriesDroppedFromKeyIndexAreEvicted() throws Exception {
+        final CacheConfig config = CacheConfig.custom().setMaxIndexedKeys(1).build();
+        impl = new BasicHttpCache(new HeapResourceFactory(), backing, CacheKeyGenerator.INSTANCE,
+                new DefaultCacheInvalidator(), config, null);
+        final HttpHost host = new HttpHost("foo.example.com");
+        final HttpRequest req1 = new HttpGet("/1");
+        final HttpRequest req2 = new HttpGet("/2");
+        final String key1 = CacheKeyGenerator.INSTANCE.generateKey(host, req1);
+        final String key2 = CacheKeyGenerator.INSTANCE.generateKey(host, req2);
+        impl.storeInCache(key1, host, req1, HttpTestUtils.makeCacheEntry());
+        impl.storeInCache(key2, host, req2, HttpTestUtils.makeCacheEntry());
+
+        assertNull(backing.map.get(key1));
+        assertNotNull(backing.map.get(key2));
+    }
+
+    @Test
+    public void testEntriesRetrievedFromStorageAreIndexed() throws Exception {
+        final HttpHost host = new HttpHost("foo.example.com");
+        final HttpRequest req = new HttpGet("/1");
+        final String key = CacheKeyGenerator.INSTANCE.generateKey(host, req);
+        backing.putEntry(key, HttpTestUtils.makeCacheEntry(new BasicHeader(HeaderConstants.SURROGATE_KEY, "product-1")));
+
+        assertNotNull(impl.getCacheEntry(host, req));
+        impl.flushCacheEntriesByTag("product-1");
+
+        assertNull(backing.map.get(key));
+    }
+
     @Test
     public void testStoreInCachePutsNonVariantEntryInPlace() throws Exception {
         final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
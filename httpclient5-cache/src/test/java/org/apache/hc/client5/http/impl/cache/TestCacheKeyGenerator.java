@@ -30,6 +30,8 @@
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.net.URI;
+
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.core5.http.Header;
@@ -417,4 +419,39 @@ public void testEquivalentExtraPathEncodingsWithPercentAreEquivalent() {
         final HttpRequest req2 = new BasicHttpRequest("GET", "/%7Esmith/home%20folder.html");
         Assertions.assertEquals(extractor.generateKey(host, req1), extractor.generateKey(host, req2));
     }
+
+    @Test
+    public void testSimpleKeyMatchesFullNormalization() throws Exception {
+        final HttpHost[] hosts = {
+                new HttpHost("http", "Example.COM", -1),
+                new HttpHost("https", "example.com", 443),
+                new HttpHost("HTTP", "example.com", 8080),
+                new HttpHost("http", "127.0.0.1", -1) };
+        final String[] paths = {
+                "", "/", "a", "?x", "/a/b", "/a/b/", "/a//b", "//a", "/a/./b", "/a/../b", "/.", "/..", "/a/.",
+                "/a.b/..c/", "/a~b", "/A%7eb", "/a%20b", "/a+b", "/a;p", "/a:b", "/a?x=1&y=2", "/a?x", "/a?x=",
+                "/a?x=1&&y", "/a?x=a+b", "/a?x=%41", "/a?b=1&a=2", "/a?x=1#f", "/a?", "/a?=b", "/a?x==",
+                "/a?x=1&", "/a?&x=1", "/a?x=a.b-c_d~e", "/a?x=A*B", "/a?x=1?2", "/a/b?c/d", "*" };
+        for (final HttpHost host : hosts) {
+            for (final String path : paths) {
+                final HttpRequest request = new BasicHttpRequest("GET", path);
+                final String simpleKey = CacheKeyGenerator.generateSimpleKey(host, request);
+                if (simpleKey != null) {
+                    final URI uri = new URI(HttpCacheSupport.getRequestUri(request, host));
+                    Assertions.assertEquals(extractor.generateKey(uri), simpleKey, host + " " + path);
+                }
+            }
+        }
+        Assertions.assertEquals("http://example.com:80/a/b?x=1&y",
+                CacheKeyGenerator.generateSimpleKey(hosts[0], new BasicHttpRequest("GET", "/a/b?x=1&y")));
+        Assertions.assertNull(CacheKeyGenerator.generateSimpleKey(hosts[0], new BasicHttpRequest("GET", "/a/../b")));
+    }
+
+    @Test
+    public void testCacheKeyMatchesStringKey() {
+        final HttpRequest request = new BasicHttpRequest("GET", "/a/../b?x=1");
+        Assertions.assertEquals(extractor.generateKey(defaultHost, request),
+                extractor.generateCacheKey(defaultHost, request).getKey());
+    }
+
 }
@@ -0,0 +1,160 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.junit.jupiter.api.Test;
+
+public class TestCacheKeyIndex {
+
+    private static HttpCacheEntry entry(final String surrogateKey, final String cacheTag) {
+        return HttpTestUtils.makeCacheEntry(
+                new BasicHeader("Surrogate-Key", surrogateKey),
+                new BasicHeader("Cache-Tag", cacheTag));
+    }
+
+    @Test
+    public void testGetRequestUriStripsVariantPrefix() {
+        assertEquals("http://foo:80/bar", CacheKeyIndex.getRequestUri("http://foo:80/bar"));
+        assertEquals("http://foo:80/bar", CacheKeyIndex.getRequestUri("{Accept-Encoding=gzip}http://foo:80/bar"));
+    }
+
+    @Test
+    public void testGetTagsFromSurrogateKeyAndCacheTag() {
+        final Set<String> tags = CacheKeyIndex.getTags(entry("a  b", "c, d,,"));
+        assertEquals(new HashSet<>(Arrays.asList("a", "b", "c", "d")), tags);
+        assertTrue(CacheKeyIndex.getTags(HttpTestUtils.makeCacheEntry()).isEmpty());
+    }
+
+    @Test
+    public void testRemoveByPrefix() {
+        final CacheKeyIndex index = new CacheKeyIndex();
+        index.add("http://foo:80/api/1", HttpTestUtils.makeCacheEntry());
+        index.add("{Accept=json}http://foo:80/api/2", HttpTestUtils.makeCacheEntry());
+        index.add("http://foo:80/static/1", HttpTestUtils.makeCacheEntry());
+        index.add("http://bar:80/api/1", HttpTestUtils.makeCacheEntry());
+
+        final Set<String> removed = index.removeByPrefix("http://foo:80/api/");
+        assertEquals(new HashSet<>(Arrays.asList("http://foo:80/api/1", "{Accept=json}http://foo:80/api/2")), removed);
+        assertEquals(2, index.size());
+        assertTrue(index.removeByPrefix("http://foo:80/api/").isEmpty());
+    }
+
+    @Test
+    public void testRemoveByPrefixMatchesPathSegments() {
+        final CacheKeyIndex index = new CacheKeyIndex();
+        index.add("http://foo:80/a", HttpTestUtils.makeCacheEntry());
+        index.add("http://foo:80/a/b", HttpTestUtils.makeCacheEntry());
+        index.add("http://foo:80/a?b=c", HttpTestUtils.makeCacheEntry());
+        index.add("http://foo:80/ab", HttpTestUtils.makeCacheEntry());
+        index.add("http://foo:80/a-b", HttpTestUtils.makeCacheEntry());
+
+        assertEquals(new HashSet<>(Arrays.asList("http://foo:80/a", "http://foo:80/a/b", "http://foo:80/a?b=c")),
+                index.removeByPrefix("http://foo:80/a"));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    public void testAddIfAbsent() {
+        final CacheKeyIndex index = new CacheKeyIndex();
+        index.add("http://foo:80/1", entry("a", "b"));
+        index.addIfAbsent("http://foo:80/1", entry("c", "d"));
+        index.addIfAbsent("http://foo:80/2", entry("c", "d"));
+
+        assertEquals(new HashSet<>(Arrays.asList("http://foo:80/1")), index.removeByTag("a"));
+        assertEquals(new HashSet<>(Arrays.asList("http://foo:80/2")), index.removeByTag("c"));
+    }
+
+    @Test
+    public void testAddIfAbsentAfterRemoval() {
+        final CacheKeyIndex index = new CacheKeyIndex(1);
+        index.add("http://foo:80/1", entry("a", "b"));
+        index.add("http://foo:80/2", entry("a", "b"));
+        assertEquals(new HashSet<>(Arrays.asList("http://foo:80/2")), index.addIfAbsent("http://foo:80/1", entry("c", "d")));
+        index.removeByTag("c");
+        assertTrue(index.addIfAbsent("http://foo:80/1", entry("e", "f")).isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("http://foo:80/1")), index.removeByTag("e"));
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testRemoveByTag() {
+        final CacheKeyIndex index = new CacheKeyIndex();
+        index.add("http://foo:80/1", entry("product-1 all", "x"));
+        index.add("http://foo:80/2", entry("product-2 all", "x"));
+        index.add("http://foo:80/3", HttpTestUtils.makeCacheEntry());
+
+        assertEquals(new HashSet<>(Arrays.asList("http://foo:80/1")), index.removeByTag("product-1"));
+        assertEquals(new HashSet<>(Arrays.asList("http://foo:80/2")), index.removeByTag("all"));
+        assertTrue(index.removeByTag("x").isEmpty());
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    public void testRemoveUnindexesKey() {
+        final CacheKeyIndex index = new CacheKeyIndex();
+        index.add("http://foo:80/1", entry("a", "b"));
+        index.remove("http://foo:80/1");
+        assertEquals(0, index.size());
+        assertTrue(index.removeByTag("a").isEmpty());
+        assertTrue(index.removeByPrefix("http://foo:80/").isEmpty());
+    }
+
+    @Test
+    public void testIndexIsBounded() {
+        final CacheKeyIndex index = new CacheKeyIndex(2);
+        assertTrue(index.add("http://foo:80/1", entry("a", "b")).isEmpty());
+        assertTrue(index.add("http://foo:80/2", entry("a", "b")).isEmpty());
+        assertEquals(new HashSet<>(Arrays.asList("http://foo:80/1")), index.add("http://foo:80/3", entry("a", "b")));
+        assertEquals(2, index.size());
+        assertEquals(new HashSet<>(Arrays.asList("http://foo:80/2", "http://foo:80/3")), index.removeByTag("a"));
+    }
+
+    @Test
+    public void testIndexOfStoredEntriesSizedToHoldAll() {
+        final Map<String, HttpCacheEntry> storedEntries = new LinkedHashMap<>();
+        storedEntries.put("http://foo:80/1", entry("a", "b"));
+        storedEntries.put("http://foo:80/2", entry("a", "b"));
+        storedEntries.put("http://foo:80/3", entry("a", "b"));
+        final CacheKeyIndex index = new CacheKeyIndex(1, storedEntries);
+        assertEquals(3, index.size());
+        assertEquals(new HashSet<>(Arrays.asList("http://foo:80/1")), index.add("http://foo:80/4", entry("a", "b")));
+        assertEquals(new HashSet<>(Arrays.asList("http://foo:80/2", "http://foo:80/3", "http://foo:80/4")),
+                index.removeByTag("a"));
+    }
+
+}
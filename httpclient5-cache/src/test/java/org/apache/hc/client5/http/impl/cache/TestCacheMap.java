@@ -0,0 +1,153 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.time.Instant;
+
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.core5.http.Header;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestCacheMap {
+
+    private static HttpCacheEntry makeEntry(final int len) {
+        final Instant now = Instant.now();
+        return new HttpCacheEntry(now, now, 200, new Header[0], new HeapResource(new byte[len]));
+    }
+
+    @Test
+    public void testEvictionByEntryCount() {
+        final CacheMap cacheMap = new CacheMap(2);
+        cacheMap.put("a", makeEntry(10));
+        cacheMap.put("b", makeEntry(10));
+        cacheMap.get("a");
+        cacheMap.put("c", makeEntry(10));
+        Assertions.assertNotNull(cacheMap.peek("a"));
+        Assertions.assertNull(cacheMap.peek("b"));
+        Assertions.assertNotNull(cacheMap.peek("c"));
+        Assertions.assertEquals(1, cacheMap.getEvictionCount());
+    }
+
+    @Test
+    public void testEvictionByTotalBytes() {
+        final CacheMap cacheMap = new CacheMap(1000, 1000, false);
+        for (int i = 0; i < 10; i++) {
+            cacheMap.put("small" + i, makeEntry(10));
+        }
+        Assertions.assertEquals(100, cacheMap.getTotalBytes());
+        cacheMap.put("large", makeEntry(950));
+        Assertions.assertNotNull(cacheMap.peek("large"));
+        Assertions.assertNull(cacheMap.peek("small4"));
+        Assertions.assertNotNull(cacheMap.peek("small5"));
+        Assertions.assertEquals(6, cacheMap.size());
+        Assertions.assertEquals(5, cacheMap.getEvictionCount());
+        Assertions.assertEquals(1000, cacheMap.getTotalBytes());
+
+        cacheMap.put("large", makeEntry(500));
+        Assertions.assertEquals(550, cacheMap.getTotalBytes());
+        cacheMap.remove("large");
+        Assertions.assertEquals(50, cacheMap.getTotalBytes());
+    }
+
+    @Test
+    public void testEntryLargerThanBudgetRejected() {
+        final CacheMap cacheMap = new CacheMap(1000, 1000, false);
+        cacheMap.put("a", makeEntry(10));
+        Assertions.assertFalse(cacheMap.put("b", makeEntry(2000)));
+        Assertions.assertNull(cacheMap.peek("b"));
+        Assertions.assertNotNull(cacheMap.peek("a"));
+        Assertions.assertEquals(1, cacheMap.getRejectionCount());
+        Assertions.assertEquals(0, cacheMap.getEvictionCount());
+    }
+
+    @Test
+    public void testAdmissionFilterProtectsFrequentEntries() {
+        final CacheMap cacheMap = new CacheMap(100, 100, true);
+        for (int i = 0; i < 10; i++) {
+            final String key = "hot" + i;
+            cacheMap.get(key);
+            cacheMap.put(key, makeEntry(10));
+            for (int n = 0; n < 5; n++) {
+                cacheMap.get(key);
+            }
+        }
+        cacheMap.get("once");
+        Assertions.assertFalse(cacheMap.put("once", makeEntry(50)));
+        Assertions.assertEquals(10, cacheMap.size());
+        Assertions.assertEquals(1, cacheMap.getRejectionCount());
+
+        for (int n = 0; n < 10; n++) {
+            cacheMap.get("popular");
+        }
+        Assertions.assertTrue(cacheMap.put("popular", makeEntry(50)));
+        Assertions.assertNotNull(cacheMap.peek("popular"));
+        Assertions.assertEquals(5, cacheMap.getEvictionCount());
+    }
+
+    @Test
+    public void testAdmissionFilterAdmitsWhenNotFull() {
+        final CacheMap cacheMap = new CacheMap(100, 1000, true);
+        cacheMap.get("a");
+        cacheMap.put("a", makeEntry(100));
+        for (int n = 0; n < 10; n++) {
+            cacheMap.get("a");
+        }
+        Assertions.assertTrue(cacheMap.put("b", makeEntry(100)));
+        Assertions.assertTrue(cacheMap.put("a", makeEntry(200)));
+    }
+
+    @Test
+    public void testHitAndMissCounts() {
+        final CacheMap cacheMap = new CacheMap(10);
+        cacheMap.put("a", makeEntry(10));
+        cacheMap.get("a");
+        cacheMap.get("a");
+        cacheMap.get("b");
+        cacheMap.peek("b");
+        Assertions.assertEquals(2, cacheMap.getHitCount());
+        Assertions.assertEquals(1, cacheMap.getMissCount());
+    }
+
+    @Test
+    public void testFrequencySketchDecay() {
+        final FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 10; i++) {
+            sketch.increment("key");
+        }
+        Assertions.assertEquals(10, sketch.frequency("key"));
+        for (int i = 0; i < 20; i++) {
+            sketch.increment("key");
+        }
+        Assertions.assertEquals(15, sketch.frequency("key"));
+        for (int i = 0; i < 200; i++) {
+            sketch.increment("other" + i);
+        }
+        Assertions.assertTrue(sketch.frequency("key") < 15);
+    }
+
+}
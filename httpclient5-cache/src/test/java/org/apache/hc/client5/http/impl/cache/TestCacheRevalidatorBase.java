@@ -31,10 +31,22 @@
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
 import org.apache.hc.client5.http.cache.HeaderConstants;
 import org.apache.hc.client5.http.schedule.SchedulingStrategy;
+import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.message.BasicHttpResponse;
@@ -74,9 +86,10 @@ public void testRevalidateCacheEntrySchedulesExecutionAndPopulatesIdentifier() {
         impl.scheduleRevalidation(cacheKey, mockOperation);
 
         verify(mockSchedulingStrategy).schedule(0);
-        verify(mockScheduledExecutor).schedule(ArgumentMatchers.same(mockOperation), ArgumentMatchers.eq(TimeValue.ofSeconds(1)));
+        verify(mockScheduledExecutor).schedule(ArgumentMatchers.any(), ArgumentMatchers.eq(TimeValue.ofSeconds(1)));
 
         Assertions.assertEquals(1, impl.getScheduledIdentifiers().size());
+        Assertions.assertEquals(1, impl.getQueueDepth());
     }
 
     @Test
@@ -124,6 +137,169 @@ public void testRevalidateCacheEntryProperlyCollapsesRequest() {
         Assertions.assertEquals(1, impl.getScheduledIdentifiers().size());
     }
 
+    static class ManualScheduledExecutor implements CacheRevalidatorBase.ScheduledExecutor {
+
+        final List<FutureTask<?>> commands = new ArrayList<>();
+
+        @Override
+        public Future<?> schedule(final Runnable command, final TimeValue timeValue) {
+            final FutureTask<?> task = new FutureTask<>(command, null);
+            commands.add(task);
+            return task;
+        }
+
+        void runAll() {
+            final List<Runnable> copy = new ArrayList<>(commands);
+            commands.clear();
+            copy.forEach(Runnable::run);
+        }
+
+        @Override
+        public void shutdown() {
+        }
+
+        @Override
+        public void awaitTermination(final Timeout timeout) {
+        }
+
+    }
+
+    @Test
+    public void testRevalidationsOrderedByHitsAndDeadline() {
+        final ManualScheduledExecutor executor = new ManualScheduledExecutor();
+        final CacheRevalidatorBase revalidator = new CacheRevalidatorBase(executor, failures -> TimeValue.ZERO_MILLISECONDS, 0, 1);
+        final List<String> executed = new ArrayList<>();
+        final Instant now = Instant.now();
+        revalidator.scheduleRevalidation("cold", null, now.plusSeconds(1), () -> executed.add("cold"));
+        revalidator.scheduleRevalidation("late", null, now.plusSeconds(60), () -> executed.add("late"));
+        revalidator.scheduleRevalidation("early", null, now.plusSeconds(5), () -> executed.add("early"));
+        revalidator.scheduleRevalidation("late", null, now.plusSeconds(60), () -> executed.add("late"));
+        revalidator.scheduleRevalidation("early", null, now.plusSeconds(5), () -> executed.add("early"));
+        Assertions.assertEquals(3, executor.commands.size());
+        Assertions.assertEquals(3, revalidator.getQueueDepth());
+
+        executor.runAll();
+
+        Assertions.assertEquals(Arrays.asList("early", "late", "cold"), executed);
+        Assertions.assertEquals(0, revalidator.getQueueDepth());
+        Assertions.assertEquals(3, revalidator.getExecutedCount());
+    }
+
+    @Test
+    public void testQueueBoundDropsLowestPriority() {
+        final ManualScheduledExecutor executor = new ManualScheduledExecutor();
+        final CacheRevalidatorBase revalidator = new CacheRevalidatorBase(executor, failures -> TimeValue.ZERO_MILLISECONDS, 2, 1);
+        final List<String> executed = new ArrayList<>();
+        revalidator.scheduleRevalidation("hot", () -> executed.add("hot"));
+        revalidator.scheduleRevalidation("hot", () -> executed.add("hot"));
+        revalidator.scheduleRevalidation("cold1", () -> executed.add("cold1"));
+        revalidator.scheduleRevalidation("cold2", () -> executed.add("cold2"));
+
+        Assertions.assertEquals(2, revalidator.getQueueDepth());
+        Assertions.assertEquals(1, revalidator.getDroppedCount());
+        Assertions.assertEquals(new HashSet<>(Arrays.asList("hot", "cold1")), revalidator.getScheduledIdentifiers());
+
+        executor.runAll();
+
+        Assertions.assertEquals(Arrays.asList("hot", "cold1"), executed);
+    }
+
+    @Test
+    public void testDispatchOfDroppedRevalidationCancelled() {
+        final ManualScheduledExecutor executor = new ManualScheduledExecutor();
+        final CacheRevalidatorBase revalidator = new CacheRevalidatorBase(executor, failures -> TimeValue.ZERO_MILLISECONDS, 1, 1);
+        revalidator.scheduleRevalidation("cold", () -> {});
+        revalidator.scheduleRevalidation("hot", null, Instant.now(), () -> {});
+
+        Assertions.assertEquals(2, executor.commands.size());
+        Assertions.assertTrue(executor.commands.get(0).isCancelled());
+        Assertions.assertFalse(executor.commands.get(1).isCancelled());
+        Assertions.assertEquals(Collections.singleton("hot"), revalidator.getScheduledIdentifiers());
+    }
+
+    @Test
+    public void testQueueStatisticsReportedToMetricsRecorder() {
+        final ManualScheduledExecutor executor = new ManualScheduledExecutor();
+        final List<Integer> depths = new ArrayList<>();
+        final AtomicInteger dropped = new AtomicInteger();
+        final AtomicInteger executedCount = new AtomicInteger();
+        final CacheMetricsRecorder recorder = new CacheMetricsRecorder() {
+
+            @Override
+            public void recordRevalidationQueued(final int queueDepth) {
+                depths.add(queueDepth);
+            }
+
+            @Override
+            public void recordRevalidationDropped() {
+                dropped.incrementAndGet();
+            }
+
+            @Override
+            public void recordRevalidationExecuted(final long queueNanos) {
+                Assertions.assertTrue(queueNanos >= 0);
+                executedCount.incrementAndGet();
+            }
+
+        };
+        final CacheRevalidatorBase revalidator = new CacheRevalidatorBase(
+                executor, failures -> TimeValue.ZERO_MILLISECONDS, 2, 1, recorder);
+        revalidator.scheduleRevalidation("hot", () -> {});
+        revalidator.scheduleRevalidation("hot", () -> {});
+        revalidator.scheduleRevalidation("cold1", () -> {});
+        revalidator.scheduleRevalidation("cold2", () -> {});
+
+        Assertions.assertEquals(Arrays.asList(1, 2), depths);
+        Assertions.assertEquals(1, dropped.get());
+
+        executor.runAll();
+
+        Assertions.assertEquals(2, executedCount.get());
+        Assertions.assertEquals(revalidator.getExecutedCount(), executedCount.get());
+        Assertions.assertEquals(revalidator.getDroppedCount(), dropped.get());
+    }
+
+    @Test
+    public void testRevalidationsToSameRouteBatched() {
+        final ManualScheduledExecutor executor = new ManualScheduledExecutor();
+        final CacheRevalidatorBase revalidator = new CacheRevalidatorBase(executor, failures -> TimeValue.ZERO_MILLISECONDS, 0, 2);
+        final List<String> executed = new ArrayList<>();
+        final HttpRoute routeA = new HttpRoute(new HttpHost("a", 80));
+        final HttpRoute routeB = new HttpRoute(new HttpHost("b", 80));
+        revalidator.scheduleRevalidation("a1", routeA, null, () -> executed.add("a1"));
+        revalidator.scheduleRevalidation("b1", routeB, null, () -> executed.add("b1"));
+        revalidator.scheduleRevalidation("a2", routeA, null, () -> executed.add("a2"));
+        revalidator.scheduleRevalidation("a3", routeA, null, () -> executed.add("a3"));
+
+        executor.commands.get(0).run();
+
+        Assertions.assertEquals(Arrays.asList("a1", "a2"), executed);
+        Assertions.assertEquals(2, revalidator.getQueueDepth());
+        Assertions.assertTrue(executor.commands.get(2).isCancelled());
+        Assertions.assertFalse(executor.commands.get(3).isCancelled());
+    }
+
+    @Test
+    public void testRevalidationNotRunBeforeScheduledTime() {
+        final ManualScheduledExecutor executor = new ManualScheduledExecutor();
+        final CacheRevalidatorBase revalidator = new CacheRevalidatorBase(executor,
+                failures -> failures > 0 ? TimeValue.ofMinutes(1) : TimeValue.ZERO_MILLISECONDS, 0, 1);
+        final List<String> executed = new ArrayList<>();
+        revalidator.scheduleRevalidation("failed", () -> executed.add("failed"));
+        executor.runAll();
+        revalidator.jobFailed("failed");
+        executed.clear();
+
+        revalidator.scheduleRevalidation("failed", () -> executed.add("failed"));
+        revalidator.scheduleRevalidation("fresh", () -> executed.add("fresh"));
+        revalidator.scheduleRevalidation("failed", () -> executed.add("failed"));
+        executor.commands.get(1).run();
+
+        Assertions.assertEquals(Collections.singletonList("fresh"), executed);
+        executor.commands.get(0).run();
+        Assertions.assertEquals(Arrays.asList("fresh", "failed"), executed);
+    }
+
     @Test
     public void testStaleResponse() {
         final HttpResponse response1 = new BasicHttpResponse(HttpStatus.SC_OK);
@@ -32,11 +32,14 @@
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.util.HashMap;
 
-import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.ResourceIOException;
 import org.apache.hc.core5.http.ClassicHttpRequest;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.message.BasicHeader;
@@ -44,6 +47,7 @@
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 @SuppressWarnings({"boxing","static-access"}) // test code
 public class TestCachedHttpResponseGenerator {
@@ -53,6 +57,9 @@ public class TestCachedHttpResponseGenerator {
     private CacheValidityPolicy mockValidityPolicy;
     private CachedHttpResponseGenerator impl;
 
+    @TempDir
+    Path tempDir;
+
     @BeforeEach
     public void setUp() {
         entry = HttpTestUtils.makeCacheEntry(new HashMap<>());
@@ -66,7 +73,7 @@ public void testResponseHasContentLength() throws Exception {
         final byte[] buf = new byte[] { 1, 2, 3, 4, 5 };
         final HttpCacheEntry entry1 = HttpTestUtils.makeCacheEntry(buf);
 
-        final SimpleHttpResponse response = impl.generateResponse(request, entry1);
+        final CachedHttpResponse response = impl.generateResponse(request, entry1);
 
         final Header length = response.getFirstHeader("Content-Length");
         Assertions.assertNotNull(length, "Content-Length Header is missing");
@@ -81,7 +88,7 @@ public void testContentLengthIsNotAddedWhenTransferEncodingIsPresent() throws Ex
         final byte[] buf = new byte[] { 1, 2, 3, 4, 5 };
         final HttpCacheEntry entry1 = HttpTestUtils.makeCacheEntry(hdrs, buf);
 
-        final SimpleHttpResponse response = impl.generateResponse(request, entry1);
+        final CachedHttpResponse response = impl.generateResponse(request, entry1);
 
         final Header length = response.getFirstHeader("Content-Length");
 
@@ -90,7 +97,7 @@ public void testContentLengthIsNotAddedWhenTransferEncodingIsPresent() throws Ex
 
     @Test
     public void testResponseMatchesCacheEntry() throws Exception {
-        final SimpleHttpResponse response = impl.generateResponse(request, entry);
+        final CachedHttpResponse response = impl.generateResponse(request, entry);
 
         Assertions.assertTrue(response.containsHeader("Content-Length"));
 
@@ -101,7 +108,7 @@ public void testResponseMatchesCacheEntry() throws Exception {
 
     @Test
     public void testResponseStatusCodeMatchesCacheEntry() throws Exception {
-        final SimpleHttpResponse response = impl.generateResponse(request, entry);
+        final CachedHttpResponse response = impl.generateResponse(request, entry);
 
         Assertions.assertEquals(entry.getStatus(), response.getCode());
     }
@@ -110,7 +117,7 @@ public void testResponseStatusCodeMatchesCacheEntry() throws Exception {
     public void testAgeHeaderIsPopulatedWithCurrentAgeOfCacheEntryIfNonZero() throws Exception {
         currentAge(TimeValue.ofSeconds(10L));
 
-        final SimpleHttpResponse response = impl.generateResponse(request, entry);
+        final CachedHttpResponse response = impl.generateResponse(request, entry);
 
         verify(mockValidityPolicy).getCurrentAge(same(entry), isA(Instant.class));
 
@@ -123,7 +130,7 @@ public void testAgeHeaderIsPopulatedWithCurrentAgeOfCacheEntryIfNonZero() throws
     public void testAgeHeaderIsNotPopulatedIfCurrentAgeOfCacheEntryIsZero() throws Exception {
         currentAge(TimeValue.ofSeconds(0L));
 
-        final SimpleHttpResponse response = impl.generateResponse(request, entry);
+        final CachedHttpResponse response = impl.generateResponse(request, entry);
 
         verify(mockValidityPolicy).getCurrentAge(same(entry), isA(Instant.class));
 
@@ -135,7 +142,7 @@ public void testAgeHeaderIsNotPopulatedIfCurrentAgeOfCacheEntryIsZero() throws E
     public void testAgeHeaderIsPopulatedWithMaxAgeIfCurrentAgeTooBig() throws Exception {
         currentAge(TimeValue.ofSeconds(CacheValidityPolicy.MAX_AGE.toSeconds() + 1L));
 
-        final SimpleHttpResponse response = impl.generateResponse(request, entry);
+        final CachedHttpResponse response = impl.generateResponse(request, entry);
 
         verify(mockValidityPolicy).getCurrentAge(same(entry), isA(Instant.class));
 
@@ -152,7 +159,7 @@ private void currentAge(final TimeValue age) {
 
     @Test
     public void testResponseContainsEntityToServeGETRequestIfEntryContainsResource() throws Exception {
-        final SimpleHttpResponse response = impl.generateResponse(request, entry);
+        final CachedHttpResponse response = impl.generateResponse(request, entry);
 
         Assertions.assertNotNull(response.getBody());
     }
@@ -160,9 +167,45 @@ public void testResponseContainsEntityToServeGETRequestIfEntryContainsResource()
     @Test
     public void testResponseDoesNotContainEntityToServeHEADRequestIfEntryContainsResource() throws Exception {
         final ClassicHttpRequest headRequest = HttpTestUtils.makeDefaultHEADRequest();
-        final SimpleHttpResponse response = impl.generateResponse(headRequest, entry);
+        final CachedHttpResponse response = impl.generateResponse(headRequest, entry);
 
         Assertions.assertNull(response.getBody());
     }
 
+    private HttpCacheEntry makeFileCacheEntry(final File file) {
+        final Instant now = Instant.now();
+        return new HttpCacheEntry(now, now, 200, entry.getHeaders(), new FileResource(file), null);
+    }
+
+    @Test
+    public void testFileResourceContentOpenedUpFront() throws Exception {
+        final File file = tempDir.resolve("content").toFile();
+        Files.write(file.toPath(), HttpTestUtils.getRandomBytes(128));
+        final CachedHttpResponse response = impl.generateResponse(request, makeFileCacheEntry(file));
+
+        Assertions.assertNotNull(response.getChannel());
+        Assertions.assertTrue(response.getChannel().isOpen());
+        response.getChannel().close();
+    }
+
+    @Test
+    public void testMissingFileResourceContent() throws Exception {
+        final File file = tempDir.resolve("content").toFile();
+        Files.write(file.toPath(), HttpTestUtils.getRandomBytes(128));
+        final HttpCacheEntry fileEntry = makeFileCacheEntry(file);
+        Assertions.assertTrue(file.delete());
+
+        Assertions.assertThrows(ResourceIOException.class, () -> impl.generateResponse(request, fileEntry));
+    }
+
+    @Test
+    public void testTruncatedFileResourceContent() throws Exception {
+        final File file = tempDir.resolve("content").toFile();
+        Files.write(file.toPath(), HttpTestUtils.getRandomBytes(128));
+        final HttpCacheEntry fileEntry = makeFileCacheEntry(file);
+        Files.write(file.toPath(), HttpTestUtils.getRandomBytes(64));
+
+        Assertions.assertThrows(ResourceIOException.class, () -> impl.generateResponse(request, fileEntry));
+    }
+
 }
@@ -35,10 +35,14 @@
 import java.net.SocketTimeoutException;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
 import org.apache.hc.client5.http.auth.StandardAuthScheme;
+import org.apache.hc.client5.http.cache.CacheKey;
 import org.apache.hc.client5.http.cache.CacheResponseStatus;
 import org.apache.hc.client5.http.cache.HttpCacheContext;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
@@ -47,6 +51,7 @@
 import org.apache.hc.client5.http.classic.ExecRuntime;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
 import org.apache.hc.client5.http.classic.methods.HttpOptions;
+import org.apache.hc.client5.http.impl.schedule.ImmediateSchedulingStrategy;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.client5.http.utils.DateUtils;
 import org.apache.hc.core5.http.ClassicHttpRequest;
@@ -308,6 +313,55 @@ public void testSetsCacheHitContextIfRequestServedFromCache() throws Exception {
         Assertions.assertEquals(CacheResponseStatus.CACHE_HIT, context.getCacheResponseStatus());
     }
 
+    @Test
+    public void testRecordsHitIfRequestServedFromCache() throws Exception {
+        final DefaultCacheMetricsRecorder metricsRecorder = new DefaultCacheMetricsRecorder();
+        impl = new CachingExec(cache, null, CacheConfig.DEFAULT, metricsRecorder);
+        final ClassicHttpRequest req1 = new HttpGet("http://foo.example.com/");
+        final ClassicHttpRequest req2 = new HttpGet("http://foo.example.com/");
+        final ClassicHttpResponse resp1 = new BasicClassicHttpResponse(HttpStatus.SC_OK, "OK");
+        resp1.setEntity(HttpTestUtils.makeBody(128));
+        resp1.setHeader("Content-Length", "128");
+        resp1.setHeader("ETag", "\"etag\"");
+        resp1.setHeader("Date", DateUtils.formatStandardDate(Instant.now()));
+        resp1.setHeader("Cache-Control", "public, max-age=3600");
+
+        Mockito.when(mockExecChain.proceed(Mockito.any(), Mockito.any())).thenReturn(resp1);
+
+        execute(req1);
+        execute(req2);
+        Assertions.assertEquals(1, metricsRecorder.getHitCount());
+    }
+
+    @Test
+    public void testDoesNotRecordHitIfCacheEntryRevalidated() throws Exception {
+        final DefaultCacheMetricsRecorder metricsRecorder = new DefaultCacheMetricsRecorder();
+        impl = new CachingExec(cache, null, CacheConfig.DEFAULT, metricsRecorder);
+        final Instant now = Instant.now();
+        final Instant tenSecondsAgo = now.minusSeconds(10);
+        final ClassicHttpRequest req1 = new HttpGet("http://foo.example.com/");
+        final ClassicHttpRequest req2 = new HttpGet("http://foo.example.com/");
+        final ClassicHttpResponse resp1 = new BasicClassicHttpResponse(HttpStatus.SC_OK, "OK");
+        resp1.setEntity(HttpTestUtils.makeBody(128));
+        resp1.setHeader("Content-Length", "128");
+        resp1.setHeader("ETag", "\"etag\"");
+        resp1.setHeader("Date", DateUtils.formatStandardDate(tenSecondsAgo));
+        resp1.setHeader("Cache-Control", "public, max-age=5");
+        final ClassicHttpResponse resp2 = HttpTestUtils.make304Response();
+        resp2.setHeader("ETag", "\"etag\"");
+        resp2.setHeader("Date", DateUtils.formatStandardDate(now));
+        resp2.setHeader("Cache-Control", "public, max-age=5");
+
+        Mockito.when(mockExecChain.proceed(Mockito.any(), Mockito.any())).thenReturn(resp1);
+        execute(req1);
+        Mockito.when(mockExecChain.proceed(Mockito.any(), Mockito.any())).thenReturn(resp2);
+        final ClassicHttpResponse result = execute(req2);
+
+        Assertions.assertEquals(HttpStatus.SC_OK, result.getCode());
+        Assertions.assertEquals(CacheResponseStatus.VALIDATED, context.getCacheResponseStatus());
+        Assertions.assertEquals(0, metricsRecorder.getHitCount());
+    }
+
     @Test
     public void testSetsViaHeaderOnResponseIfRequestServedFromCache() throws Exception {
         final ClassicHttpRequest req1 = new HttpGet("http://foo.example.com/");
@@ -1057,6 +1111,28 @@ public void testSmallEnoughResponsesAreCached() throws Exception {
                 Mockito.any());
     }
 
+    @Test
+    public void testCacheKeyGeneratedOnceAndReusedForLookups() throws Exception {
+        final HttpCache mockCache = Mockito.mock(HttpCache.class);
+        impl = new CachingExec(mockCache, null, CacheConfig.DEFAULT);
+        final CacheKey cacheKey = CacheKey.of("http://foo.example.com:80/stuff");
+        Mockito.when(mockCache.generateCacheKey(Mockito.any(), Mockito.any())).thenReturn(cacheKey);
+        Mockito.when(mockCache.getVariantCacheEntriesWithEtags(Mockito.<CacheKey>any(), Mockito.any()))
+                .thenReturn(new HashMap<>());
+        final ClassicHttpResponse response = HttpTestUtils.make200Response();
+        response.setHeader("Cache-Control", "no-store");
+        Mockito.when(mockExecChain.proceed(Mockito.any(), Mockito.any())).thenReturn(response);
+
+        execute(request);
+
+        Mockito.verify(mockCache).generateCacheKey(Mockito.any(), Mockito.any());
+        Mockito.verify(mockCache).getCacheEntry(Mockito.eq(cacheKey), Mockito.any());
+        Mockito.verify(mockCache).getVariantCacheEntriesWithEtags(Mockito.eq(cacheKey), Mockito.any());
+        Mockito.verify(mockCache, Mockito.never()).getCacheEntry(Mockito.<HttpHost>any(), Mockito.any());
+        Mockito.verify(mockCache, Mockito.never()).getVariantCacheEntriesWithEtags(Mockito.<HttpHost>any(), Mockito.any());
+        Assertions.assertSame(cacheKey, context.getCacheKey());
+    }
+
     @Test
     public void testIfOnlyIfCachedAndNoCacheEntryBackendNotCalled() throws Exception {
         request.addHeader("Cache-Control", "only-if-cached");
@@ -1264,6 +1340,43 @@ public void testDoesNotSend304ForNonConditionalRequest() throws Exception {
         Assertions.assertNotNull(result2.getEntity());
     }
 
+    @Test
+    public void testFreshHitPastRefreshAheadFactorTriggersSingleBackgroundRevalidation() throws Exception {
+        final CacheConfig refreshAheadConfig = CacheConfig.custom()
+                .setRefreshAheadFactor(0.5f)
+                .setRefreshAheadMinHits(2)
+                .build();
+        final ScheduledThreadPoolExecutor executorService = new ScheduledThreadPoolExecutor(1);
+        impl = new CachingExec(cache, executorService, ImmediateSchedulingStrategy.INSTANCE, refreshAheadConfig);
+        Mockito.when(mockExecRuntime.fork(null)).thenReturn(mockExecRuntime);
+
+        final Instant now = Instant.now();
+        final ClassicHttpResponse resp1 = HttpTestUtils.make200Response();
+        resp1.setHeader("Date", DateUtils.formatStandardDate(now.minusSeconds(60)));
+        resp1.setHeader("Cache-Control", "max-age=100");
+        resp1.setHeader("ETag", "\"etag\"");
+        final ClassicHttpResponse resp2 = HttpTestUtils.make304Response();
+        resp2.setHeader("Date", DateUtils.formatStandardDate(now));
+        resp2.setHeader("Cache-Control", "max-age=100");
+        resp2.setHeader("ETag", "\"etag\"");
+
+        Mockito.when(mockExecChain.proceed(Mockito.any(), Mockito.any())).thenReturn(resp1, resp2);
+
+        execute(HttpTestUtils.makeDefaultRequest());
+        for (int i = 0; i < 3; i++) {
+            final ClassicHttpResponse result = execute(HttpTestUtils.makeDefaultRequest());
+            Assertions.assertEquals(HttpStatus.SC_OK, result.getCode());
+            Assertions.assertEquals(CacheResponseStatus.CACHE_HIT, context.getCacheResponseStatus());
+        }
+        executorService.shutdown();
+        Assertions.assertTrue(executorService.awaitTermination(5, TimeUnit.SECONDS));
+
+        final ArgumentCaptor<ClassicHttpRequest> requestCaptor = ArgumentCaptor.forClass(ClassicHttpRequest.class);
+        Mockito.verify(mockExecChain, Mockito.times(2)).proceed(requestCaptor.capture(), Mockito.any());
+        Assertions.assertFalse(requestCaptor.getAllValues().get(0).containsHeader("If-None-Match"));
+        Assertions.assertEquals("\"etag\"", requestCaptor.getAllValues().get(1).getFirstHeader("If-None-Match").getValue());
+    }
+
     @Test
     public void testUsesVirtualHostForCacheKey() throws Exception {
         final ClassicHttpResponse response = HttpTestUtils.make200Response();
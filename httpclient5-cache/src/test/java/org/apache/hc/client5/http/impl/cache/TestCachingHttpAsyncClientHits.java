@@ -0,0 +1,80 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Instant;
+import java.util.concurrent.Future;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.cache.CacheResponseStatus;
+import org.apache.hc.client5.http.cache.HttpCacheContext;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.nio.AsyncClientConnectionManager;
+import org.apache.hc.client5.http.utils.DateUtils;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class TestCachingHttpAsyncClientHits {
+
+    @Test
+    public void testFreshHitDoesNotLeaseConnection() throws Exception {
+        final HttpHost target = new HttpHost("somehost", 80);
+        final SimpleHttpRequest request = SimpleRequestBuilder.get().setHttpHost(target).setPath("/stuff").build();
+        final BasicHttpCacheStorage storage = new BasicHttpCacheStorage(CacheConfig.DEFAULT);
+        final Instant now = Instant.now();
+        storage.putEntry(CacheKeyGenerator.INSTANCE.generateKey(target, request), HttpTestUtils.makeCacheEntry(now, now,
+                new BasicHeader("Date", DateUtils.formatStandardDate(now)),
+                new BasicHeader("Cache-Control", "max-age=3600"),
+                new BasicHeader("Content-Length", "128")));
+
+        final AsyncClientConnectionManager connManager = Mockito.mock(AsyncClientConnectionManager.class);
+        try (final CloseableHttpAsyncClient client = CachingHttpAsyncClients.custom()
+                .setHttpCacheStorage(storage)
+                .setConnectionManager(connManager)
+                .build()) {
+            client.start();
+            for (int i = 0; i < 10; i++) {
+                final HttpCacheContext context = HttpCacheContext.create();
+                final Future<SimpleHttpResponse> future = client.execute(request, context, null);
+                final SimpleHttpResponse response = future.get();
+                assertEquals(200, response.getCode());
+                assertEquals(128, response.getBodyBytes().length);
+                assertEquals(CacheResponseStatus.CACHE_HIT, context.getCacheResponseStatus());
+            }
+        }
+        Mockito.verify(connManager, Mockito.never()).lease(
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.apache.hc.client5.http.cache.CacheMetricsRecorder;
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.classic.methods.HttpDelete;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.junit.jupiter.api.Test;
+
+public class TestDefaultCacheMetricsRecorder {
+
+    @Test
+    public void testCounters() {
+        final DefaultCacheMetricsRecorder recorder = new DefaultCacheMetricsRecorder();
+        assertEquals(0.0, recorder.getHitRatio());
+
+        recorder.recordHit();
+        recorder.recordHit();
+        recorder.recordHit();
+        recorder.recordMiss();
+        recorder.recordValidation(CacheMetricsRecorder.ValidationOutcome.NOT_MODIFIED);
+        recorder.recordValidation(CacheMetricsRecorder.ValidationOutcome.NOT_MODIFIED);
+        recorder.recordValidation(CacheMetricsRecorder.ValidationOutcome.FAILED);
+        recorder.recordStorageOperation(CacheMetricsRecorder.StorageOperation.GET, 100);
+
+        assertEquals(3, recorder.getHitCount());
+        assertEquals(1, recorder.getMissCount());
+        assertEquals(0.75, recorder.getHitRatio(), 0.0001);
+        assertEquals(2, recorder.getValidationCount(CacheMetricsRecorder.ValidationOutcome.NOT_MODIFIED));
+        assertEquals(0, recorder.getValidationCount(CacheMetricsRecorder.ValidationOutcome.MODIFIED));
+        assertEquals(1, recorder.getValidationCount(CacheMetricsRecorder.ValidationOutcome.FAILED));
+        assertEquals(1, recorder.getStorageOperationTimes(CacheMetricsRecorder.StorageOperation.GET).getCount());
+        assertEquals(0, recorder.getStorageOperationTimes(CacheMetricsRecorder.StorageOperation.PUT).getCount());
+    }
+
+    @Test
+    public void testCacheAndStorageReportEvictionsBytesAndInvalidations() throws Exception {
+        final DefaultCacheMetricsRecorder recorder = new DefaultCacheMetricsRecorder();
+        final CacheConfig config = CacheConfig.custom().setMaxCacheEntries(2).build();
+        final BasicHttpCache cache = new BasicHttpCache(
+                new HeapResourceFactory(),
+                new BasicHttpCacheStorage(config, recorder),
+                CacheKeyGenerator.INSTANCE,
+                new DefaultCacheInvalidator(),
+                recorder);
+        final HttpHost host = new HttpHost("foo.example.com");
+        long bytes = 0;
+        for (int i = 0; i < 3; i++) {
+            final HttpRequest request = new HttpGet("/" + i);
+            final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+            bytes += entry.getResource().length();
+            cache.storeInCache(CacheKeyGenerator.INSTANCE.generateKey(host, request), host, request, entry);
+        }
+        assertEquals(bytes, recorder.getBytesStored());
+        assertEquals(1, recorder.getEvictionCount());
+
+        cache.flushCacheEntriesFor(host, new HttpDelete("/2"));
+        assertEquals(1, recorder.getInvalidationCount());
+    }
+
+    @Test
+    public void testStorageReportsRejections() throws Exception {
+        final DefaultCacheMetricsRecorder recorder = new DefaultCacheMetricsRecorder();
+        final CacheConfig config = CacheConfig.custom().setMaxCacheBytes(1000).build();
+        final ManagedHttpCacheStorage storage = new ManagedHttpCacheStorage(config, recorder);
+        storage.putEntry("small", HttpTestUtils.makeCacheEntry(new byte[100]));
+        storage.putEntry("large", HttpTestUtils.makeCacheEntry(new byte[2000]));
+        assertEquals(1, recorder.getRejectionCount());
+        assertEquals(0, recorder.getEvictionCount());
+        storage.shutdown();
+    }
+
+}
@@ -0,0 +1,195 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestExecutorHttpAsyncCacheStorage {
+
+    static class ManualExecutor implements Executor {
+
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(final Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            for (Runnable task = tasks.poll(); task != null; task = tasks.poll()) {
+                task.run();
+            }
+        }
+
+    }
+
+    static class Result<T> extends CompletableFuture<T> implements FutureCallback<T> {
+
+        @Override
+        public void completed(final T result) {
+            complete(result);
+        }
+
+        @Override
+        public void failed(final Exception ex) {
+            completeExceptionally(ex);
+        }
+
+        @Override
+        public void cancelled() {
+            cancel(false);
+        }
+
+    }
+
+    private SimpleHttpCacheStorage backing;
+    private ManualExecutor executor;
+    private ExecutorHttpAsyncCacheStorage impl;
+
+    @BeforeEach
+    public void setUp() {
+        backing = new SimpleHttpCacheStorage();
+        executor = new ManualExecutor();
+        impl = new ExecutorHttpAsyncCacheStorage(backing, executor);
+    }
+
+    @Test
+    public void testOperationsExecuteOnExecutor() throws Exception {
+        final HttpCacheEntry entry = HttpTestUtils.makeCacheEntry();
+        final Result<Boolean> putFuture = new Result<>();
+        impl.putEntry("foo", entry, putFuture);
+        assertFalse(putFuture.isDone());
+        assertTrue(backing.map.isEmpty());
+
+        executor.runAll();
+        assertTrue(putFuture.get());
+        assertSame(entry, backing.map.get("foo"));
+
+        final Result<HttpCacheEntry> getFuture = new Result<>();
+        impl.getEntry("foo", getFuture);
+        executor.runAll();
+        assertSame(entry, getFuture.get());
+    }
+
+    @Test
+    public void testCallbacksCompletedByCallbackExecutor() throws Exception {
+        final ManualExecutor callbackExecutor = new ManualExecutor();
+        impl = new ExecutorHttpAsyncCacheStorage(backing, executor, callbackExecutor);
+        final Result<Boolean> putFuture = new Result<>();
+        impl.putEntry("foo", HttpTestUtils.makeCacheEntry(), putFuture);
+
+        executor.runAll();
+        assertFalse(putFuture.isDone());
+        assertEquals(1, backing.map.size());
+
+        callbackExecutor.runAll();
+        assertTrue(putFuture.get());
+
+        final Result<Boolean> updateFuture = new Result<>();
+        impl.updateEntry("foo", existing -> {
+            throw new ResourceIOException("Oops");
+        }, updateFuture);
+        executor.runAll();
+        assertFalse(updateFuture.isDone());
+        callbackExecutor.runAll();
+        final Exception ex = assertThrows(Exception.class, updateFuture::get);
+        assertEquals(ResourceIOException.class, ex.getCause().getClass());
+    }
+
+    @Test
+    public void testCallbacksCompletedByStorageThreadIfCallbackExecutorRejects() throws Exception {
+        impl = new ExecutorHttpAsyncCacheStorage(backing, executor, command -> {
+            throw new RejectedExecutionException();
+        });
+        final Result<Boolean> future = new Result<>();
+        impl.removeEntry("foo", future);
+        executor.runAll();
+        assertTrue(future.get());
+    }
+
+    @Test
+    public void testCancelPendingOperation() throws Exception {
+        final Result<Boolean> future = new Result<>();
+        final Cancellable cancellable = impl.putEntry("foo", HttpTestUtils.makeCacheEntry(), future);
+        assertTrue(cancellable.cancel());
+        assertTrue(future.isCancelled());
+
+        executor.runAll();
+        assertNull(backing.map.get("foo"));
+    }
+
+    @Test
+    public void testCannotCancelCompletedOperation() throws Exception {
+        final Result<Boolean> future = new Result<>();
+        final Cancellable cancellable = impl.removeEntry("foo", future);
+        executor.runAll();
+        assertFalse(cancellable.cancel());
+        assertTrue(future.get());
+    }
+
+    @Test
+    public void testRejectedOperationFails() throws Exception {
+        impl = new ExecutorHttpAsyncCacheStorage(backing, command -> {
+            throw new RejectedExecutionException();
+        });
+        final Result<HttpCacheEntry> future = new Result<>();
+        impl.getEntry("foo", future);
+        assertTrue(future.isDone());
+        final Exception ex = assertThrows(Exception.class, future::get);
+        assertEquals(ResourceIOException.class, ex.getCause().getClass());
+    }
+
+    @Test
+    public void testStorageFailurePropagated() throws Exception {
+        final Result<Boolean> future = new Result<>();
+        impl.updateEntry("foo", existing -> {
+            throw new ResourceIOException("Oops");
+        }, future);
+        executor.runAll();
+        final Exception ex = assertThrows(Exception.class, future::get);
+        assertEquals(ResourceIOException.class, ex.getCause().getClass());
+    }
+
+}
@@ -34,6 +34,7 @@
 import static org.apache.hc.client5.http.impl.cache.HttpByteArrayCacheEntrySerializerTestUtils.testWithCache;
 import static org.apache.hc.client5.http.impl.cache.HttpByteArrayCacheEntrySerializerTestUtils.verifyHttpCacheEntryFromTestFile;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -53,6 +54,7 @@
 import org.apache.hc.core5.http.io.SessionOutputBuffer;
 import org.apache.hc.core5.http.message.BasicHeader;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
@@ -201,6 +203,27 @@ public void fileObjectTest() throws Exception {
         testWithCache(serializer, testEntry);
     }
 
+    /**
+     * Serializing a file backed entry must not leave its content open.
+     *
+     * @throws Exception if anything goes wrong
+     */
+    @Test
+    public void fileObjectSerializationClosesContent() throws Exception {
+        final File fdDir = new File("/proc/self/fd");
+        Assumptions.assumeTrue(fdDir.isDirectory(), "Open file descriptors cannot be listed");
+        final HttpCacheStorageEntryTestTemplate cacheObjectValues = HttpCacheStorageEntryTestTemplate.makeDefault();
+        cacheObjectValues.resource = new FileResource(makeTestFileObject(TEST_CONTENT_FILE_NAME));
+        final HttpCacheStorageEntry testEntry = cacheObjectValues.toEntry();
+
+        serializer.serialize(testEntry);
+        final int openBefore = fdDir.list().length;
+        for (int i = 0; i < 100; i++) {
+            serializer.serialize(testEntry);
+        }
+        Assertions.assertTrue(fdDir.list().length - openBefore < 10);
+    }
+
     /**
      * Serialize and deserialize a cache entry with no headers.
      *
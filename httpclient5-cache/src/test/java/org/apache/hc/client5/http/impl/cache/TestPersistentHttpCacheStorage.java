@@ -0,0 +1,360 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.hc.client5.http.cache.HeaderConstants;
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestPersistentHttpCacheStorage {
+
+    @TempDir
+    File cacheDir;
+
+    private static HttpCacheEntry makeEntry(final byte[] content) {
+        final Instant now = Instant.now();
+        return new HttpCacheEntry(now.minusSeconds(1), now, 200,
+                HttpTestUtils.getStockHeaders(now), new HeapResource(content));
+    }
+
+    private static void assertEntriesEqual(final HttpCacheEntry expected, final HttpCacheEntry actual) throws Exception {
+        Assertions.assertNotNull(actual);
+        Assertions.assertEquals(expected.getRequestInstant(), actual.getRequestInstant());
+        Assertions.assertEquals(expected.getResponseInstant(), actual.getResponseInstant());
+        Assertions.assertEquals(expected.getStatus(), actual.getStatus());
+        final Header[] expectedHeaders = expected.getHeaders();
+        final Header[] actualHeaders = actual.getHeaders();
+        Assertions.assertEquals(expectedHeaders.length, actualHeaders.length);
+        for (int i = 0; i < expectedHeaders.length; i++) {
+            Assertions.assertEquals(expectedHeaders[i].getName(), actualHeaders[i].getName());
+            Assertions.assertEquals(expectedHeaders[i].getValue(), actualHeaders[i].getValue());
+        }
+        Assertions.assertEquals(expected.getVariantMap(), actual.getVariantMap());
+        final Resource expectedResource = expected.getResource();
+        if (expectedResource != null) {
+            Assertions.assertArrayEquals(expectedResource.get(), actual.getResource().get());
+        } else {
+            Assertions.assertNull(actual.getResource());
+        }
+    }
+
+    private int countBodyFiles() {
+        int count = 0;
+        for (final File file : cacheDir.listFiles()) {
+            if (!file.getName().startsWith(PersistentHttpCacheStorage.INDEX_FILE_NAME)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void awaitBodyFiles(final PersistentHttpCacheStorage storage, final int expected) throws Exception {
+        // Files of removed entries get deleted once their resources have been garbage collected
+        for (int i = 0; i < 100 && countBodyFiles() != expected; i++) {
+            System.gc();
+            Thread.sleep(10);
+            storage.cleanResources();
+        }
+        Assertions.assertEquals(expected, countBodyFiles());
+    }
+
+    private static void assertStoredInFile(final HttpCacheEntry expected, final HttpCacheEntry stored) throws Exception {
+        assertEntriesEqual(expected, stored);
+        Assertions.assertTrue(stored.getResource() instanceof FileResource);
+    }
+
+    @Test
+    public void testPutGetRemove() throws Exception {
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            final HttpCacheEntry entry = makeEntry("stuff".getBytes(StandardCharsets.US_ASCII));
+            storage.putEntry("key", entry);
+            assertStoredInFile(entry, storage.getEntry("key"));
+            Assertions.assertEquals(1, countBodyFiles());
+
+            storage.removeEntry("key");
+            Assertions.assertNull(storage.getEntry("key"));
+            Assertions.assertEquals(0, storage.size());
+            Assertions.assertEquals(0, storage.getTotalBytes());
+            awaitBodyFiles(storage, 0);
+        }
+    }
+
+    @Test
+    public void testContentDeletedOnRemovalWhileResourceReferenced() throws Exception {
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            storage.putEntry("key", makeEntry(new byte[1000]));
+            final Resource resource = storage.getEntry("key").getResource();
+
+            storage.removeEntry("key");
+            Assertions.assertEquals(0, storage.getTotalBytes());
+            Assertions.assertEquals(0, countBodyFiles());
+            Assertions.assertThrows(ResourceIOException.class, resource::get);
+        }
+    }
+
+    @Test
+    public void testStoredEntriesIndexedForBulkInvalidation() throws Exception {
+        final Instant now = Instant.now();
+        final HttpCacheEntry entry = new HttpCacheEntry(now.minusSeconds(1), now, 200,
+                new Header[] { new BasicHeader(HeaderConstants.SURROGATE_KEY, "product-1") },
+                new HeapResource(new byte[] {1, 2, 3}));
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            storage.putEntry("http://foo:80/1", entry);
+            storage.putEntry("http://foo:80/2", makeEntry(new byte[] {4, 5, 6}));
+        }
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            final BasicHttpCache cache = new BasicHttpCache(storage.getResourceFactory(), storage);
+            cache.flushCacheEntriesByTag("product-1");
+            Assertions.assertNull(storage.getEntry("http://foo:80/1"));
+            Assertions.assertNotNull(storage.getEntry("http://foo:80/2"));
+        }
+    }
+
+    @Test
+    public void testStoredEntriesBeyondMaxIndexedKeysNotEvicted() throws Exception {
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            for (int i = 0; i < 3; i++) {
+                storage.putEntry("http://foo:80/" + i, makeEntry(new byte[] {1, 2, 3}));
+            }
+        }
+        final CacheConfig config = CacheConfig.custom().setMaxIndexedKeys(1).build();
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, config)) {
+            new BasicHttpCache(storage.getResourceFactory(), storage, CacheKeyGenerator.INSTANCE,
+                    new DefaultCacheInvalidator(), config, null);
+            for (int i = 0; i < 3; i++) {
+                Assertions.assertNotNull(storage.getEntry("http://foo:80/" + i));
+            }
+        }
+    }
+
+    @Test
+    public void testResourceFromOwnFactoryNotCopied() throws Exception {
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            final Resource resource = storage.getResourceFactory().generate("/stuff", new byte[] {1, 2, 3});
+            final Instant now = Instant.now();
+            final HttpCacheEntry entry = new HttpCacheEntry(now, now, 200, HttpTestUtils.getStockHeaders(now), resource);
+            storage.putEntry("key", entry);
+            Assertions.assertSame(entry, storage.getEntry("key"));
+            Assertions.assertEquals(1, countBodyFiles());
+        }
+    }
+
+    @Test
+    public void testEntriesSurviveRestart() throws Exception {
+        final HttpCacheEntry entry1 = makeEntry("content 1".getBytes(StandardCharsets.US_ASCII));
+        final Map<String, String> variantMap = new HashMap<>();
+        variantMap.put("{accept-encoding=gzip}", "{accept-encoding=gzip}key2");
+        final Instant now = Instant.now();
+        final HttpCacheEntry entry2 = new HttpCacheEntry(now, now, 200,
+                new Header[] { new BasicHeader("Vary", "Accept-Encoding"), new BasicHeader("X-Stuff", "é") },
+                null, variantMap);
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            storage.putEntry("key1", entry1);
+            storage.putEntry("key2", entry2);
+            storage.putEntry("key3", makeEntry(new byte[] {1}));
+            storage.removeEntry("key3");
+        }
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            Assertions.assertEquals(2, storage.size());
+            assertEntriesEqual(entry1, storage.getEntry("key1"));
+            assertEntriesEqual(entry2, storage.getEntry("key2"));
+            Assertions.assertNull(storage.getEntry("key3"));
+            Assertions.assertEquals(1, countBodyFiles());
+        }
+    }
+
+    @Test
+    public void testOrphanedFilesDeletedOnStartup() throws Exception {
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            storage.putEntry("key", makeEntry(new byte[] {1, 2, 3}));
+            storage.getResourceFactory().generate("/orphan", new byte[] {4, 5, 6});
+            Assertions.assertEquals(2, countBodyFiles());
+        }
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            Assertions.assertEquals(1, storage.size());
+            Assertions.assertEquals(1, countBodyFiles());
+        }
+    }
+
+    @Test
+    public void testEntriesWithMissingContentDropped() throws Exception {
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            storage.putEntry("key1", makeEntry(new byte[] {1, 2, 3}));
+            storage.putEntry("key2", makeEntry(new byte[] {4, 5, 6}));
+            final FileResource resource = (FileResource) storage.getEntry("key1").getResource();
+            Files.delete(resource.getFile().toPath());
+        }
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            Assertions.assertNull(storage.getEntry("key1"));
+            Assertions.assertNotNull(storage.getEntry("key2"));
+        }
+    }
+
+    @Test
+    public void testTornIndexTailDiscarded() throws Exception {
+        final HttpCacheEntry entry = makeEntry(new byte[] {1, 2, 3});
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            storage.putEntry("key", entry);
+        }
+        final File indexFile = new File(cacheDir, PersistentHttpCacheStorage.INDEX_FILE_NAME);
+        final long length = indexFile.length();
+        try (final FileOutputStream out = new FileOutputStream(indexFile, true)) {
+            out.write(new byte[] {0, 0, 1, 0, 1, 2, 3, 4, 5, 6, 7});
+        }
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            assertEntriesEqual(entry, storage.getEntry("key"));
+            Assertions.assertEquals(length, indexFile.length());
+            storage.putEntry("key2", makeEntry(new byte[] {4}));
+        }
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            Assertions.assertEquals(2, storage.size());
+        }
+    }
+
+    @Test
+    public void testEvictionByTotalBytes() throws Exception {
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT, 3000)) {
+            storage.putEntry("key1", makeEntry(new byte[1000]));
+            storage.putEntry("key2", makeEntry(new byte[1000]));
+            Assertions.assertNotNull(storage.getEntry("key1"));
+            storage.putEntry("key3", makeEntry(new byte[1000]));
+            Assertions.assertNotNull(storage.getEntry("key1"));
+            Assertions.assertNull(storage.getEntry("key2"));
+            Assertions.assertNotNull(storage.getEntry("key3"));
+            Assertions.assertTrue(storage.getTotalBytes() <= 3000);
+            awaitBodyFiles(storage, 2);
+
+            storage.putEntry("key4", makeEntry(new byte[5000]));
+            Assertions.assertNull(storage.getEntry("key4"));
+            Assertions.assertEquals(2, storage.size());
+        }
+    }
+
+    @Test
+    public void testEvictionByMaxEntries() throws Exception {
+        final CacheConfig config = CacheConfig.custom().setMaxCacheEntries(2).build();
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, config)) {
+            storage.putEntry("key1", makeEntry(new byte[] {1}));
+            storage.putEntry("key2", makeEntry(new byte[] {2}));
+            storage.putEntry("key3", makeEntry(new byte[] {3}));
+            Assertions.assertNull(storage.getEntry("key1"));
+            Assertions.assertEquals(2, storage.size());
+        }
+    }
+
+    @Test
+    public void testCompaction() throws Exception {
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            for (int i = 0; i < 100; i++) {
+                storage.putEntry("key1", makeEntry(new byte[] {(byte) i}));
+                storage.putEntry("key2", makeEntry(new byte[] {(byte) i}));
+            }
+            final File indexFile = new File(cacheDir, PersistentHttpCacheStorage.INDEX_FILE_NAME);
+            final long length = indexFile.length();
+            storage.compact();
+            Assertions.assertTrue(indexFile.length() < length / 10);
+            storage.putEntry("key3", makeEntry(new byte[] {3}));
+            awaitBodyFiles(storage, 3);
+        }
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            Assertions.assertEquals(3, storage.size());
+            Assertions.assertArrayEquals(new byte[] {99}, storage.getEntry("key1").getResource().get());
+        }
+    }
+
+    @Test
+    public void testUpdateEntry() throws Exception {
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            final HttpCacheEntry entry = makeEntry(new byte[] {1});
+            storage.updateEntry("key", existing -> {
+                Assertions.assertNull(existing);
+                return entry;
+            });
+            assertEntriesEqual(entry, storage.getEntry("key"));
+            storage.updateEntry("key", existing -> null);
+            Assertions.assertNull(storage.getEntry("key"));
+            awaitBodyFiles(storage, 0);
+        }
+    }
+
+    private static byte[] streamContent(final Resource resource, final Runnable midStream) throws Exception {
+        // Cached responses open the content before they are handed out
+        final FileChannel fileChannel = FileChannel.open(((FileResource) resource).getFile().toPath(), StandardOpenOption.READ);
+        final ResourceEntityProducer producer = new ResourceEntityProducer(resource, fileChannel, null, null, 1024);
+        try {
+            final TestResourceEntityProducer.ThrottlingChannel channel = new TestResourceEntityProducer.ThrottlingChannel(1000);
+            midStream.run();
+            while (!channel.endStream) {
+                producer.produce(channel);
+            }
+            return channel.content.toByteArray();
+        } finally {
+            producer.releaseResources();
+        }
+    }
+
+    @Test
+    public void testEntryReplacedWhileContentStreamed() throws Exception {
+        final byte[] content1 = new byte[20000];
+        Arrays.fill(content1, (byte) 'a');
+        final byte[] content2 = new byte[20000];
+        Arrays.fill(content2, (byte) 'b');
+        try (final PersistentHttpCacheStorage storage = new PersistentHttpCacheStorage(cacheDir, CacheConfig.DEFAULT)) {
+            storage.putEntry("key", makeEntry(content1));
+            final byte[] streamed = streamContent(storage.getEntry("key").getResource(), () -> {
+                try {
+                    storage.putEntry("key", makeEntry(content2));
+                } catch (final Exception ex) {
+                    throw new IllegalStateException(ex);
+                }
+                System.gc();
+                storage.cleanResources();
+            });
+            Assertions.assertArrayEquals(content1, streamed);
+            Assertions.assertArrayEquals(content2, storage.getEntry("key").getResource().get());
+            awaitBodyFiles(storage, 1);
+        }
+    }
+
+}
@@ -41,6 +41,7 @@
 import org.apache.hc.client5.http.ClientProtocolException;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.auth.StandardAuthScheme;
+import org.apache.hc.client5.http.cache.CacheKey;
 import org.apache.hc.client5.http.cache.HttpCacheEntry;
 import org.apache.hc.client5.http.classic.ExecChain;
 import org.apache.hc.client5.http.classic.ExecRuntime;
@@ -1846,7 +1847,8 @@ public void testMustReturnACacheEntryIfItCanRevalidateIt() throws Exception {
         notModified.setHeader("Date", DateUtils.formatStandardDate(now));
         notModified.setHeader("ETag", "\"etag\"");
 
-        Mockito.when(mockCache.getCacheEntry(Mockito.eq(host), RequestEquivalent.eq(request))).thenReturn(entry);
+        Mockito.when(mockCache.generateCacheKey(Mockito.eq(host), RequestEquivalent.eq(request))).thenReturn(CacheKey.of("key"));
+        Mockito.when(mockCache.getCacheEntry(Mockito.eq(CacheKey.of("key")), RequestEquivalent.eq(request))).thenReturn(entry);
         Mockito.when(mockExecChain.proceed(RequestEquivalent.eq(validate), Mockito.any())).thenReturn(notModified);
         Mockito.when(mockCache.updateCacheEntry(
                 Mockito.eq(host),
@@ -1890,7 +1892,8 @@ public void testMustReturnAFreshEnoughCacheEntryIfItHasIt() throws Exception {
         impl = new CachingExec(mockCache, null, config);
         request = new BasicClassicHttpRequest("GET", "/thing");
 
-        Mockito.when(mockCache.getCacheEntry(Mockito.eq(host), RequestEquivalent.eq(request))).thenReturn(entry);
+        Mockito.when(mockCache.generateCacheKey(Mockito.eq(host), RequestEquivalent.eq(request))).thenReturn(CacheKey.of("key"));
+        Mockito.when(mockCache.getCacheEntry(Mockito.eq(CacheKey.of("key")), RequestEquivalent.eq(request))).thenReturn(entry);
 
         final ClassicHttpResponse result = execute(request);
 
@@ -1934,7 +1937,8 @@ public void testMustServeAppropriateErrorOrWarningIfNoOriginCommunicationPossibl
         impl = new CachingExec(mockCache, null, config);
         request = new BasicClassicHttpRequest("GET", "/thing");
 
-        Mockito.when(mockCache.getCacheEntry(Mockito.eq(host), RequestEquivalent.eq(request))).thenReturn(entry);
+        Mockito.when(mockCache.generateCacheKey(Mockito.eq(host), RequestEquivalent.eq(request))).thenReturn(CacheKey.of("key"));
+        Mockito.when(mockCache.getCacheEntry(Mockito.eq(CacheKey.of("key")), RequestEquivalent.eq(request))).thenReturn(entry);
         Mockito.when(mockExecChain.proceed(Mockito.any(), Mockito.any())).thenThrow(
                 new IOException("can't talk to origin!"));
 
@@ -2118,7 +2122,8 @@ public void testAgeHeaderPopulatedFromCacheEntryCurrentAge() throws Exception {
         impl = new CachingExec(mockCache, null, config);
         request = new BasicClassicHttpRequest("GET", "/thing");
 
-        Mockito.when(mockCache.getCacheEntry(Mockito.eq(host), RequestEquivalent.eq(request))).thenReturn(entry);
+        Mockito.when(mockCache.generateCacheKey(Mockito.eq(host), RequestEquivalent.eq(request))).thenReturn(CacheKey.of("key"));
+        Mockito.when(mockCache.getCacheEntry(Mockito.eq(CacheKey.of("key")), RequestEquivalent.eq(request))).thenReturn(entry);
 
         final ClassicHttpResponse result = execute(request);
 
@@ -2175,7 +2180,8 @@ public void testHeuristicCacheOlderThan24HoursHasWarningAttached() throws Except
 
         final HttpCacheEntry cacheEntry = HttpTestUtils.makeCacheEntry();
 
-        Mockito.when(mockCache.getCacheEntry(Mockito.eq(host), RequestEquivalent.eq(request))).thenReturn(entry);
+        Mockito.when(mockCache.generateCacheKey(Mockito.eq(host), RequestEquivalent.eq(request))).thenReturn(CacheKey.of("key"));
+        Mockito.when(mockCache.getCacheEntry(Mockito.eq(CacheKey.of("key")), RequestEquivalent.eq(request))).thenReturn(entry);
         Mockito.when(mockExecChain.proceed(Mockito.any(), Mockito.any())).thenReturn(validated);
         Mockito.when(mockCache.createCacheEntry(
                 Mockito.any(),
@@ -0,0 +1,122 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import org.apache.hc.client5.http.cache.HttpCacheEntry;
+import org.apache.hc.client5.http.utils.DateUtils;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestRefreshAheadPolicy {
+
+    private Instant now;
+    private CacheValidityPolicy validityPolicy;
+
+    @BeforeEach
+    public void setUp() {
+        now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        validityPolicy = new CacheValidityPolicy();
+    }
+
+    private HttpCacheEntry makeEntry(final long ageSecs, final long maxAgeSecs) {
+        final Instant date = now.minusSeconds(ageSecs);
+        return HttpTestUtils.makeCacheEntry(date, date, new Header[] {
+                new BasicHeader("Date", DateUtils.formatStandardDate(date)),
+                new BasicHeader("Cache-Control", "max-age=" + maxAgeSecs) });
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        final RefreshAheadPolicy policy = new RefreshAheadPolicy(validityPolicy, CacheConfig.DEFAULT);
+        Assertions.assertFalse(policy.isEnabled());
+        final HttpCacheEntry entry = makeEntry(90, 100);
+        for (int i = 0; i < 10; i++) {
+            Assertions.assertFalse(policy.isRefreshDue("key", entry, now));
+        }
+    }
+
+    @Test
+    public void testHotEntryRefreshedOncePastFactor() {
+        final RefreshAheadPolicy policy = new RefreshAheadPolicy(validityPolicy, 0.8f, 3, TimeValue.ofMinutes(1), 100);
+        final HttpCacheEntry entry = makeEntry(90, 100);
+        Assertions.assertFalse(policy.isRefreshDue("key", entry, now));
+        Assertions.assertFalse(policy.isRefreshDue("key", entry, now));
+        Assertions.assertTrue(policy.isRefreshDue("key", entry, now));
+        // hits are counted anew after a refresh is triggered
+        Assertions.assertFalse(policy.isRefreshDue("key", entry, now));
+    }
+
+    @Test
+    public void testEntryNotRefreshedBeforeFactor() {
+        final RefreshAheadPolicy policy = new RefreshAheadPolicy(validityPolicy, 0.8f, 1, TimeValue.ofMinutes(1), 100);
+        final HttpCacheEntry entry = makeEntry(50, 100);
+        Assertions.assertFalse(policy.isRefreshDue("key", entry, now));
+        Assertions.assertTrue(policy.isRefreshDue("key", makeEntry(85, 100), now));
+    }
+
+    @Test
+    public void testStaleEntryNotRefreshedAhead() {
+        final RefreshAheadPolicy policy = new RefreshAheadPolicy(validityPolicy, 0.8f, 1, TimeValue.ofMinutes(1), 100);
+        Assertions.assertFalse(policy.isRefreshDue("key", makeEntry(120, 100), now));
+    }
+
+    @Test
+    public void testHitsOutsideWindowNotCounted() {
+        final RefreshAheadPolicy policy = new RefreshAheadPolicy(validityPolicy, 0.8f, 2, TimeValue.ofSeconds(10), 100);
+        final HttpCacheEntry entry = makeEntry(90, 100);
+        Assertions.assertFalse(policy.isRefreshDue("key", entry, now.minusSeconds(30)));
+        Assertions.assertFalse(policy.isRefreshDue("key", entry, now));
+        Assertions.assertTrue(policy.isRefreshDue("key", entry, now));
+    }
+
+    @Test
+    public void testColdestCounterEvictedWhenTrackerFull() {
+        final RefreshAheadPolicy policy = new RefreshAheadPolicy(validityPolicy, 0.8f, 3, TimeValue.ofMinutes(1), 2);
+        final HttpCacheEntry entry = makeEntry(90, 100);
+        Assertions.assertFalse(policy.isRefreshDue("hot", entry, now));
+        Assertions.assertFalse(policy.isRefreshDue("hot", entry, now));
+        Assertions.assertFalse(policy.isRefreshDue("cold1", entry, now));
+        Assertions.assertFalse(policy.isRefreshDue("cold2", entry, now));
+        Assertions.assertFalse(policy.isRefreshDue("cold3", entry, now));
+        // hits of the hot entry survive new entries being tracked
+        Assertions.assertTrue(policy.isRefreshDue("hot", entry, now));
+    }
+
+    @Test
+    public void testExpiry() {
+        final RefreshAheadPolicy policy = new RefreshAheadPolicy(validityPolicy, 0.8f, 1, TimeValue.ofMinutes(1), 100);
+        Assertions.assertEquals(now.plusSeconds(10), policy.getExpiry(makeEntry(90, 100), now));
+    }
+
+}
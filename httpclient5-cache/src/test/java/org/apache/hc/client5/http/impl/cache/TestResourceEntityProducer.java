@@ -0,0 +1,380 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.cache.Resource;
+import org.apache.hc.client5.http.cache.ResourceIOException;
+import org.apache.hc.core5.concurrent.ComplexFuture;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.io.entity.EntityUtils;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestResourceEntityProducer {
+
+    @TempDir
+    Path tempDir;
+
+    static class ThrottlingChannel implements DataStreamChannel {
+
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final int maxChunk;
+        boolean endStream;
+
+        ThrottlingChannel(final int maxChunk) {
+            this.maxChunk = maxChunk;
+        }
+
+        @Override
+        public void requestOutput() {
+        }
+
+        @Override
+        public int write(final ByteBuffer src) {
+            final int len = Math.min(maxChunk, src.remaining());
+            for (int i = 0; i < len; i++) {
+                content.write(src.get());
+            }
+            return len;
+        }
+
+        @Override
+        public void endStream() {
+            endStream = true;
+        }
+
+        @Override
+        public void endStream(final List<? extends Header> trailers) {
+            endStream = true;
+        }
+
+    }
+
+    private static byte[] makeContent(final int len) {
+        final byte[] content = new byte[len];
+        for (int i = 0; i < len; i++) {
+            content[i] = (byte) ('a' + i % 26);
+        }
+        return content;
+    }
+
+    private Resource makeFileResource(final byte[] content) throws IOException {
+        final File file = tempDir.resolve("resource").toFile();
+        Files.write(file.toPath(), content);
+        return new FileResource(file);
+    }
+
+    private static byte[] produceAll(
+            final ResourceEntityProducer producer, final ThrottlingChannel channel) throws IOException {
+        int rounds = 0;
+        while (!channel.endStream) {
+            producer.produce(channel);
+            Assertions.assertTrue(++rounds < 1000);
+        }
+        return channel.content.toByteArray();
+    }
+
+    @Test
+    public void testFileResourceStreamedInChunks() throws Exception {
+        final byte[] content = makeContent(10000);
+        final ResourceEntityProducer producer = new ResourceEntityProducer(
+                makeFileResource(content), ContentType.TEXT_PLAIN, null, 1024);
+        Assertions.assertEquals(10000, producer.getContentLength());
+        Assertions.assertEquals(10000, producer.available());
+        Assertions.assertEquals(ContentType.TEXT_PLAIN.toString(), producer.getContentType());
+
+        final ThrottlingChannel channel = new ThrottlingChannel(700);
+        producer.produce(channel);
+        Assertions.assertFalse(channel.endStream);
+        Assertions.assertEquals(10000 - 700, producer.available());
+        Assertions.assertArrayEquals(content, produceAll(producer, channel));
+        Assertions.assertEquals(0, producer.available());
+        producer.releaseResources();
+    }
+
+    @Test
+    public void testFileResourceRepeatable() throws Exception {
+        final byte[] content = makeContent(3000);
+        final ResourceEntityProducer producer = new ResourceEntityProducer(
+                makeFileResource(content), null, null, 512);
+        Assertions.assertArrayEquals(content, produceAll(producer, new ThrottlingChannel(Integer.MAX_VALUE)));
+        producer.releaseResources();
+        Assertions.assertArrayEquals(content, produceAll(producer, new ThrottlingChannel(100)));
+        producer.releaseResources();
+    }
+
+    @Test
+    public void testEmptyFileResource() throws Exception {
+        final ResourceEntityProducer producer = new ResourceEntityProducer(
+                makeFileResource(new byte[0]), null, null);
+        final ThrottlingChannel channel = new ThrottlingChannel(100);
+        producer.produce(channel);
+        Assertions.assertTrue(channel.endStream);
+        Assertions.assertEquals(0, channel.content.size());
+        producer.releaseResources();
+    }
+
+    @Test
+    public void testDisposedFileResource() throws Exception {
+        final Resource resource = makeFileResource(makeContent(10));
+        resource.dispose();
+        final ResourceEntityProducer producer = new ResourceEntityProducer(resource, null, null);
+        Assertions.assertThrows(ResourceIOException.class, () -> producer.produce(new ThrottlingChannel(100)));
+    }
+
+    @Test
+    public void testHeapResource() throws Exception {
+        final byte[] content = makeContent(5000);
+        final ResourceEntityProducer producer = new ResourceEntityProducer(
+                new HeapResource(content), null, null);
+        final ThrottlingChannel channel = new ThrottlingChannel(1000);
+        producer.produce(channel);
+        Assertions.assertEquals(4000, producer.available());
+        Assertions.assertArrayEquals(content, produceAll(producer, channel));
+        producer.releaseResources();
+    }
+
+    @Test
+    public void testResourceEntity() throws Exception {
+        final byte[] content = makeContent(5000);
+        final ResourceEntity entity = new ResourceEntity(makeFileResource(content), ContentType.TEXT_PLAIN, "gzip");
+        Assertions.assertTrue(entity.isRepeatable());
+        Assertions.assertEquals(5000, entity.getContentLength());
+        Assertions.assertEquals("gzip", entity.getContentEncoding());
+        Assertions.assertArrayEquals(content, EntityUtils.toByteArray(entity));
+        Assertions.assertArrayEquals(content, EntityUtils.toByteArray(entity));
+    }
+
+    @Test
+    public void testTruncatedFileResource() throws Exception {
+        final byte[] content = makeContent(3000);
+        final Resource resource = makeFileResource(content);
+        Files.write(tempDir.resolve("resource"), makeContent(2000));
+        final ResourceEntityProducer producer = new ResourceEntityProducer(resource, null, null, 512);
+        Assertions.assertEquals(3000, producer.getContentLength());
+        Assertions.assertThrows(ResourceIOException.class,
+                () -> produceAll(producer, new ThrottlingChannel(Integer.MAX_VALUE)));
+        producer.releaseResources();
+    }
+
+    @Test
+    public void testContentBeyondResourceLengthIgnored() throws Exception {
+        final byte[] content = makeContent(3000);
+        final Resource resource = makeFileResource(content);
+        Files.write(tempDir.resolve("resource"), makeContent(4000));
+        final ResourceEntityProducer producer = new ResourceEntityProducer(resource, null, null, 512);
+        Assertions.assertArrayEquals(content, produceAll(producer, new ThrottlingChannel(Integer.MAX_VALUE)));
+        producer.releaseResources();
+    }
+
+    @Test
+    public void testFileResourceReadFromOpenChannel() throws Exception {
+        final byte[] content = makeContent(3000);
+        final Resource resource = makeFileResource(content);
+        final FileChannel channel = FileChannel.open(tempDir.resolve("resource"), StandardOpenOption.READ);
+        final ResourceEntityProducer producer = new ResourceEntityProducer(resource, channel, null, null, 512);
+        Assertions.assertArrayEquals(content, produceAll(producer, new ThrottlingChannel(100)));
+        producer.releaseResources();
+        Assertions.assertFalse(channel.isOpen());
+    }
+
+    static class CapacityLimitedConsumer implements AsyncDataConsumer {
+
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        CapacityChannel capacityChannel;
+        int received;
+        boolean streamEnd;
+
+        @Override
+        public void updateCapacity(final CapacityChannel capacityChannel) {
+            this.capacityChannel = capacityChannel;
+        }
+
+        @Override
+        public void consume(final ByteBuffer src) {
+            received += src.remaining();
+            while (src.hasRemaining()) {
+                content.write(src.get());
+            }
+        }
+
+        @Override
+        public void streamEnd(final List<? extends Header> trailers) {
+            streamEnd = true;
+        }
+
+        @Override
+        public void releaseResources() {
+        }
+
+    }
+
+    static class RecordingExecCallback implements AsyncExecCallback {
+
+        final AtomicReference<Exception> failure = new AtomicReference<>();
+        boolean completed;
+
+        @Override
+        public AsyncDataConsumer handleResponse(final HttpResponse response, final EntityDetails entityDetails) {
+            return null;
+        }
+
+        @Override
+        public void handleInformationResponse(final HttpResponse response) {
+        }
+
+        @Override
+        public void completed() {
+            completed = true;
+        }
+
+        @Override
+        public void failed(final Exception cause) {
+            failure.set(cause);
+        }
+
+    }
+
+    @Test
+    public void testContentStreamerHonorsConsumerCapacity() throws Exception {
+        final byte[] content = makeContent(10000);
+        final ResourceEntityProducer producer = new ResourceEntityProducer(
+                makeFileResource(content), null, null, 1024);
+        final CapacityLimitedConsumer consumer = new CapacityLimitedConsumer();
+        final RecordingExecCallback callback = new RecordingExecCallback();
+        final AsyncCachingExec.ContentStreamer streamer = new AsyncCachingExec.ContentStreamer(
+                producer, consumer, callback, 3000);
+        streamer.start();
+
+        Assertions.assertEquals(3000, consumer.received);
+        Assertions.assertFalse(consumer.streamEnd);
+        Assertions.assertFalse(callback.completed);
+
+        consumer.capacityChannel.update(5000);
+        Assertions.assertEquals(8000, consumer.received);
+        Assertions.assertFalse(callback.completed);
+
+        consumer.capacityChannel.update(Integer.MAX_VALUE);
+        Assertions.assertTrue(consumer.streamEnd);
+        Assertions.assertTrue(callback.completed);
+        Assertions.assertNull(callback.failure.get());
+        Assertions.assertArrayEquals(content, consumer.content.toByteArray());
+    }
+
+    @Test
+    public void testContentStreamerFailure() throws Exception {
+        final Resource resource = makeFileResource(makeContent(10000));
+        Files.write(tempDir.resolve("resource"), makeContent(5000));
+        final ResourceEntityProducer producer = new ResourceEntityProducer(resource, null, null, 1024);
+        final CapacityLimitedConsumer consumer = new CapacityLimitedConsumer();
+        final RecordingExecCallback callback = new RecordingExecCallback();
+        new AsyncCachingExec.ContentStreamer(producer, consumer, callback, Integer.MAX_VALUE).start();
+
+        Assertions.assertFalse(consumer.streamEnd);
+        Assertions.assertFalse(callback.completed);
+        Assertions.assertTrue(callback.failure.get() instanceof ResourceIOException);
+    }
+
+    @Test
+    public void testContentStreamerReleasesContentOnCancellation() throws Exception {
+        final byte[] content = makeContent(10000);
+        final Resource resource = makeFileResource(content);
+        final FileChannel channel = FileChannel.open(tempDir.resolve("resource"), StandardOpenOption.READ);
+        final ResourceEntityProducer producer = new ResourceEntityProducer(resource, channel, null, null, 1024);
+        final CapacityLimitedConsumer consumer = new CapacityLimitedConsumer();
+        final RecordingExecCallback callback = new RecordingExecCallback();
+        final AsyncCachingExec.ContentStreamer streamer = new AsyncCachingExec.ContentStreamer(
+                producer, consumer, callback, 3000);
+        final ComplexFuture<Void> operation = new ComplexFuture<>(null);
+        operation.setDependency(streamer);
+        streamer.start();
+        Assertions.assertEquals(3000, consumer.received);
+        Assertions.assertTrue(channel.isOpen());
+
+        // The consumer never signals capacity again and the exchange gets cancelled
+        operation.cancel();
+        Assertions.assertFalse(channel.isOpen());
+
+        consumer.capacityChannel.update(Integer.MAX_VALUE);
+        Assertions.assertEquals(3000, consumer.received);
+        Assertions.assertFalse(consumer.streamEnd);
+        Assertions.assertFalse(callback.completed);
+        Assertions.assertNull(callback.failure.get());
+    }
+
+    @Test
+    public void testContentStreamerCancelledWhileProducing() throws Exception {
+        final byte[] content = makeContent(10000);
+        final Resource resource = makeFileResource(content);
+        final FileChannel channel = FileChannel.open(tempDir.resolve("resource"), StandardOpenOption.READ);
+        final ResourceEntityProducer producer = new ResourceEntityProducer(resource, channel, null, null, 1024);
+        final AtomicReference<AsyncCachingExec.ContentStreamer> streamerRef = new AtomicReference<>();
+        final CapacityLimitedConsumer consumer = new CapacityLimitedConsumer() {
+
+            @Override
+            public void consume(final ByteBuffer src) {
+                super.consume(src);
+                Assertions.assertTrue(streamerRef.get().cancel());
+                // Resources must stay in place while the producer is in use
+                Assertions.assertTrue(channel.isOpen());
+            }
+
+        };
+        final RecordingExecCallback callback = new RecordingExecCallback();
+        final AsyncCachingExec.ContentStreamer streamer = new AsyncCachingExec.ContentStreamer(
+                producer, consumer, callback, Integer.MAX_VALUE);
+        streamerRef.set(streamer);
+        streamer.start();
+
+        Assertions.assertFalse(channel.isOpen());
+        Assertions.assertEquals(1024, consumer.received);
+        Assertions.assertFalse(consumer.streamEnd);
+        Assertions.assertFalse(callback.completed);
+        Assertions.assertNull(callback.failure.get());
+        Assertions.assertFalse(streamer.cancel());
+    }
+
+}
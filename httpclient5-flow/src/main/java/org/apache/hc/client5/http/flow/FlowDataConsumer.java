@@ -0,0 +1,265 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.flow;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpStreamResetException;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+
+/**
+ * {@link AsyncDataConsumer} that publishes incoming data to a single {@link Flow.Subscriber}.
+ * <p>
+ * Input capacity is granted back to the underlying channel only once data has been delivered
+ * to the subscriber, so the amount of buffered data is bounded by the flow control window
+ * of the transport regardless of how fast the subscriber consumes it.
+ * </p>
+ * <p>
+ * Cancelling the subscription before the end of the stream aborts the exchange. If a handle
+ * on the exchange has been provided the exchange gets cancelled right away, otherwise
+ * capacity is granted to the channel so that the exchange gets reset on the next callback.
+ * </p>
+ *
+ * @since 5.3
+ */
+final class FlowDataConsumer implements AsyncDataConsumer, Flow.Publisher<ByteBuffer> {
+
+    private final AtomicLong requests;
+    private final Queue<ByteBuffer> buffers;
+    private final AtomicInteger windowIncrement;
+    private final AtomicInteger flushRequests;
+
+    private volatile boolean cancelled;
+    private volatile boolean completed;
+    private volatile boolean terminated;
+    private volatile Exception exception;
+    private volatile CapacityChannel capacityChannel;
+    private volatile Cancellable exchange;
+    private volatile Flow.Subscriber<? super ByteBuffer> subscriber;
+
+    FlowDataConsumer() {
+        this.requests = new AtomicLong();
+        this.buffers = new ConcurrentLinkedQueue<>();
+        this.windowIncrement = new AtomicInteger();
+        this.flushRequests = new AtomicInteger();
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super ByteBuffer> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("Subscriber is null");
+        }
+        synchronized (this) {
+            if (this.subscriber != null) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+
+                    @Override
+                    public void request(final long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+
+                });
+                subscriber.onError(new IllegalStateException("Response body may only be subscribed to once"));
+                return;
+            }
+            this.subscriber = subscriber;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+
+            @Override
+            public void request(final long n) {
+                if (n <= 0) {
+                    cancelled = true;
+                    failed(new IllegalArgumentException("Request for " + n + " items is not positive"));
+                    abortExchange();
+                    return;
+                }
+                requests.accumulateAndGet(n, (current, increment) -> {
+                    final long total = current + increment;
+                    return total < 0 ? Long.MAX_VALUE : total;
+                });
+                flush();
+            }
+
+            @Override
+            public void cancel() {
+                cancelled = true;
+                buffers.clear();
+                abortExchange();
+            }
+
+        });
+        flush();
+    }
+
+    /**
+     * Sets the handle used to abort the exchange once the subscription gets cancelled.
+     */
+    void setExchange(final Cancellable exchange) {
+        this.exchange = exchange;
+        if (cancelled) {
+            abortExchange();
+        }
+    }
+
+    @Override
+    public void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
+        throwIfCancelled();
+        this.capacityChannel = capacityChannel;
+        signalCapacity(capacityChannel);
+    }
+
+    @Override
+    public void consume(final ByteBuffer src) throws IOException {
+        throwIfCancelled();
+        final ByteBuffer copy = ByteBuffer.allocate(src.remaining());
+        copy.put(src);
+        copy.flip();
+        buffers.add(copy);
+        flush();
+    }
+
+    @Override
+    public void streamEnd(final List<? extends Header> trailers) {
+        completed = true;
+        flush();
+    }
+
+    public void failed(final Exception cause) {
+        if (!completed) {
+            exception = cause;
+            flush();
+        }
+    }
+
+    @Override
+    public void releaseResources() {
+        capacityChannel = null;
+    }
+
+    private void throwIfCancelled() throws IOException {
+        if (cancelled) {
+            throw new HttpStreamResetException("Response body subscriber cancelled");
+        }
+    }
+
+    private void abortExchange() {
+        if (completed) {
+            return;
+        }
+        final Cancellable cancellable = exchange;
+        if (cancellable != null) {
+            cancellable.cancel();
+            return;
+        }
+        // No more data gets delivered once the window has been exhausted, so make sure
+        // the reactor calls back in order for the cancelled exchange to get reset
+        final CapacityChannel channel = capacityChannel;
+        if (channel != null) {
+            try {
+                channel.update(1);
+            } catch (final IOException ignore) {
+            }
+        }
+    }
+
+    private void signalCapacity(final CapacityChannel channel) throws IOException {
+        final int increment = windowIncrement.getAndSet(0);
+        if (increment > 0) {
+            channel.update(increment);
+        }
+    }
+
+    private void flush() {
+        if (flushRequests.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            drain();
+            missed = flushRequests.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drain() {
+        final Flow.Subscriber<? super ByteBuffer> s = subscriber;
+        if (s == null || terminated) {
+            return;
+        }
+        final Exception cause = exception;
+        if (cause != null) {
+            terminated = true;
+            buffers.clear();
+            s.onError(cause);
+            return;
+        }
+        if (cancelled) {
+            terminated = true;
+            buffers.clear();
+            return;
+        }
+        while (requests.get() > 0) {
+            final ByteBuffer buffer = buffers.poll();
+            if (buffer == null) {
+                break;
+            }
+            if (requests.get() != Long.MAX_VALUE) {
+                requests.decrementAndGet();
+            }
+            windowIncrement.addAndGet(buffer.remaining());
+            s.onNext(buffer);
+        }
+        if (completed && buffers.isEmpty()) {
+            terminated = true;
+            s.onComplete();
+            return;
+        }
+        final CapacityChannel channel = capacityChannel;
+        if (channel != null) {
+            try {
+                signalCapacity(channel);
+            } catch (final IOException ex) {
+                exception = ex;
+                flushRequests.incrementAndGet();
+            }
+        }
+    }
+
+}
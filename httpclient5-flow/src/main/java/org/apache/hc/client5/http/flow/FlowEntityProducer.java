@@ -0,0 +1,232 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.flow;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Set;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpStreamResetException;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link AsyncEntityProducer} that streams content published by a {@link Flow.Publisher}.
+ * <p>
+ * The publisher is subscribed to once the request head has been sent. Items are requested
+ * from the publisher only as previously received items have been written out to the
+ * underlying channel, so no more than a small fixed number of items is ever buffered
+ * regardless of how fast the publisher can produce them.
+ * </p>
+ * <p>
+ * The producer is not repeatable: requests enclosing it cannot be automatically
+ * re-executed or redirected.
+ * </p>
+ *
+ * @since 5.3
+ */
+public final class FlowEntityProducer implements AsyncEntityProducer {
+
+    private static final int BUFFER_WINDOW_SIZE = 5;
+
+    private final Flow.Publisher<ByteBuffer> publisher;
+    private final long contentLength;
+    private final ContentType contentType;
+    private final String contentEncoding;
+    private final ArrayDeque<ByteBuffer> buffers;
+    private final AtomicReference<DataStreamChannel> channelRef;
+    private final AtomicReference<Flow.Subscription> subscriptionRef;
+    private final AtomicReference<Throwable> exception;
+    private final AtomicBoolean complete;
+
+    /**
+     * @param publisher the publisher of the content.
+     * @param contentLength the content length or {@code -1} if unknown, in which case
+     *                      the content is sent chunk coded.
+     * @param contentType the content type or {@code null}.
+     * @param contentEncoding the content encoding or {@code null}.
+     */
+    public FlowEntityProducer(
+            final Flow.Publisher<ByteBuffer> publisher,
+            final long contentLength,
+            final ContentType contentType,
+            final String contentEncoding) {
+        this.publisher = Args.notNull(publisher, "Publisher");
+        this.contentLength = contentLength;
+        this.contentType = contentType;
+        this.contentEncoding = contentEncoding;
+        this.buffers = new ArrayDeque<>();
+        this.channelRef = new AtomicReference<>();
+        this.subscriptionRef = new AtomicReference<>();
+        this.exception = new AtomicReference<>();
+        this.complete = new AtomicBoolean();
+    }
+
+    public FlowEntityProducer(final Flow.Publisher<ByteBuffer> publisher, final ContentType contentType) {
+        this(publisher, -1, contentType, null);
+    }
+
+    @Override
+    public boolean isRepeatable() {
+        return false;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType != null ? contentType.toString() : null;
+    }
+
+    @Override
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @Override
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    @Override
+    public boolean isChunked() {
+        return contentLength < 0;
+    }
+
+    @Override
+    public Set<String> getTrailerNames() {
+        return null;
+    }
+
+    @Override
+    public int available() {
+        if (exception.get() != null || complete.get()) {
+            return 1;
+        }
+        synchronized (buffers) {
+            int total = 0;
+            for (final ByteBuffer buffer : buffers) {
+                total += buffer.remaining();
+            }
+            return total;
+        }
+    }
+
+    @Override
+    public void produce(final DataStreamChannel channel) throws IOException {
+        if (channelRef.compareAndSet(null, channel)) {
+            publisher.subscribe(new Flow.Subscriber<ByteBuffer>() {
+
+                @Override
+                public void onSubscribe(final Flow.Subscription subscription) {
+                    if (subscriptionRef.compareAndSet(null, subscription)) {
+                        subscription.request(BUFFER_WINDOW_SIZE);
+                    } else {
+                        subscription.cancel();
+                    }
+                }
+
+                @Override
+                public void onNext(final ByteBuffer buffer) {
+                    synchronized (buffers) {
+                        buffers.add(buffer);
+                    }
+                    signalReadiness();
+                }
+
+                @Override
+                public void onError(final Throwable throwable) {
+                    exception.compareAndSet(null, throwable);
+                    signalReadiness();
+                }
+
+                @Override
+                public void onComplete() {
+                    complete.set(true);
+                    signalReadiness();
+                }
+
+            });
+        }
+        final Throwable cause = exception.get();
+        if (cause != null) {
+            throw new HttpStreamResetException(cause.getMessage(), cause);
+        }
+        int written = 0;
+        synchronized (buffers) {
+            while (!buffers.isEmpty()) {
+                final ByteBuffer buffer = buffers.peek();
+                channel.write(buffer);
+                if (buffer.hasRemaining()) {
+                    break;
+                }
+                buffers.remove();
+                written++;
+            }
+            if (complete.get() && buffers.isEmpty()) {
+                channel.endStream();
+            }
+        }
+        final Flow.Subscription subscription = subscriptionRef.get();
+        if (subscription != null && written > 0) {
+            subscription.request(written);
+        }
+    }
+
+    private void signalReadiness() {
+        final DataStreamChannel channel = channelRef.get();
+        if (channel != null) {
+            channel.requestOutput();
+        }
+    }
+
+    @Override
+    public void failed(final Exception cause) {
+        final Flow.Subscription subscription = subscriptionRef.get();
+        if (subscription != null && !complete.get()) {
+            subscription.cancel();
+        }
+    }
+
+    @Override
+    public void releaseResources() {
+        if (!complete.get()) {
+            final Flow.Subscription subscription = subscriptionRef.get();
+            if (subscription != null) {
+                subscription.cancel();
+            }
+        }
+        synchronized (buffers) {
+            buffers.clear();
+        }
+    }
+
+}
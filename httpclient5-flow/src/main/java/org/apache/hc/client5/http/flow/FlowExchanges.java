@@ -0,0 +1,248 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.flow;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Executes requests with {@link CloseableHttpAsyncClient} streaming the request body
+ * from a {@link Flow.Publisher} and exposing the response body as a {@link Flow.Publisher}.
+ * <p>
+ * The returned future completes as soon as the response head has been received.
+ * Both bodies are streamed with demand-driven flow control: items are requested from
+ * the request body publisher only as they can be written out and data is read from
+ * the connection only as the response body subscriber requests it, so memory use does
+ * not depend on the size of the bodies. The response body must be consumed or its
+ * subscription cancelled in order for the connection to be released. Cancelling the
+ * subscription before the end of the response body aborts the exchange right away.
+ * </p>
+ *
+ * @see FlowEntityProducer
+ * @see FlowResponseConsumer
+ * @since 5.3
+ */
+public final class FlowExchanges {
+
+    private FlowExchanges() {
+    }
+
+    /**
+     * Executes the request streaming the request and response bodies.
+     *
+     * @param client the client to execute the request with.
+     * @param request the request head.
+     * @param requestBody the publisher of the request body or {@code null} if the request
+     *                    does not enclose a body.
+     * @param contentType the content type of the request body or {@code null}.
+     * @param context the execution context or {@code null}.
+     * @param callback the callback of the response or {@code null}.
+     * @return the future of the response head and body publisher.
+     */
+    public static Future<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> execute(
+            final CloseableHttpAsyncClient client,
+            final HttpRequest request,
+            final Flow.Publisher<ByteBuffer> requestBody,
+            final ContentType contentType,
+            final HttpContext context,
+            final FutureCallback<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> callback) {
+        Args.notNull(client, "HTTP client");
+        Args.notNull(request, "Request");
+        final FlowResponseConsumer responseConsumer = FlowResponseConsumer.create();
+        final AtomicReference<Future<?>> exchangeRef = new AtomicReference<>();
+        final BasicFuture<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> future =
+                new BasicFuture<Message<HttpResponse, Flow.Publisher<ByteBuffer>>>(callback) {
+
+            @Override
+            public boolean cancel(final boolean mayInterruptIfRunning) {
+                final boolean cancelled = super.cancel(mayInterruptIfRunning);
+                final Future<?> exchange = exchangeRef.get();
+                if (cancelled && exchange != null) {
+                    exchange.cancel(true);
+                }
+                return cancelled;
+            }
+
+        };
+        final Future<?> exchange = client.execute(
+                new BasicRequestProducer(request, requestBody != null ? new FlowEntityProducer(requestBody, contentType) : null),
+                new ResponseHeadConsumer(responseConsumer, future),
+                context != null ? context : HttpClientContext.create(),
+                new FutureCallback<Message<HttpResponse, Flow.Publisher<ByteBuffer>>>() {
+
+                    @Override
+                    public void completed(final Message<HttpResponse, Flow.Publisher<ByteBuffer>> result) {
+                    }
+
+                    @Override
+                    public void failed(final Exception ex) {
+                        future.failed(ex);
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        future.cancel();
+                    }
+
+                });
+        exchangeRef.set(exchange);
+        if (future.isCancelled()) {
+            exchange.cancel(true);
+        }
+        // The exchange completes only once the response body has been received,
+        // so it can still be aborted when the subscription gets cancelled
+        responseConsumer.setExchange(() -> exchange.cancel(true));
+        return future;
+    }
+
+    /**
+     * Executes the request with a new {@link HttpClientContext} streaming the request
+     * and response bodies.
+     *
+     * @see #execute(CloseableHttpAsyncClient, HttpRequest, Flow.Publisher, ContentType, HttpContext, FutureCallback)
+     */
+    public static Future<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> execute(
+            final CloseableHttpAsyncClient client,
+            final HttpRequest request,
+            final Flow.Publisher<ByteBuffer> requestBody,
+            final ContentType contentType,
+            final FutureCallback<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> callback) {
+        return execute(client, request, requestBody, contentType, null, callback);
+    }
+
+    /**
+     * Hands out the response head as soon as it has been received while holding back
+     * the completion of the exchange until the end of the response body.
+     */
+    private static final class ResponseHeadConsumer implements AsyncResponseConsumer<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> {
+
+        private final FlowResponseConsumer responseConsumer;
+        private final BasicFuture<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> headFuture;
+
+        private volatile Message<HttpResponse, Flow.Publisher<ByteBuffer>> message;
+        private volatile FutureCallback<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> resultCallback;
+
+        ResponseHeadConsumer(
+                final FlowResponseConsumer responseConsumer,
+                final BasicFuture<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> headFuture) {
+            this.responseConsumer = responseConsumer;
+            this.headFuture = headFuture;
+        }
+
+        @Override
+        public void consumeResponse(
+                final HttpResponse response,
+                final EntityDetails entityDetails,
+                final HttpContext context,
+                final FutureCallback<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> resultCallback) throws HttpException, IOException {
+            this.resultCallback = resultCallback;
+            responseConsumer.consumeResponse(response, entityDetails, context, new FutureCallback<Message<HttpResponse, Flow.Publisher<ByteBuffer>>>() {
+
+                @Override
+                public void completed(final Message<HttpResponse, Flow.Publisher<ByteBuffer>> result) {
+                    message = result;
+                    headFuture.completed(result);
+                    if (entityDetails == null && resultCallback != null) {
+                        resultCallback.completed(result);
+                    }
+                }
+
+                @Override
+                public void failed(final Exception ex) {
+                    if (resultCallback != null) {
+                        resultCallback.failed(ex);
+                    }
+                }
+
+                @Override
+                public void cancelled() {
+                    if (resultCallback != null) {
+                        resultCallback.cancelled();
+                    }
+                }
+
+            });
+        }
+
+        @Override
+        public void informationResponse(final HttpResponse response, final HttpContext context) throws HttpException, IOException {
+            responseConsumer.informationResponse(response, context);
+        }
+
+        @Override
+        public void failed(final Exception cause) {
+            responseConsumer.failed(cause);
+        }
+
+        @Override
+        public void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
+            responseConsumer.updateCapacity(capacityChannel);
+        }
+
+        @Override
+        public void consume(final ByteBuffer src) throws IOException {
+            responseConsumer.consume(src);
+        }
+
+        @Override
+        public void streamEnd(final List<? extends Header> trailers) throws HttpException, IOException {
+            responseConsumer.streamEnd(trailers);
+            final FutureCallback<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> callback = resultCallback;
+            if (callback != null) {
+                callback.completed(message);
+            }
+        }
+
+        @Override
+        public void releaseResources() {
+            responseConsumer.releaseResources();
+        }
+
+    }
+
+}
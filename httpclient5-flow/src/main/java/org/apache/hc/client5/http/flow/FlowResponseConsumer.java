@@ -0,0 +1,122 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.flow;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+/**
+ * HTTP response consumer that exposes the response body as a {@link Flow.Publisher}.
+ * <p>
+ * The result is produced as soon as the response head has been received; the response
+ * body is then delivered to the subscriber of the publisher as it arrives. Data is read
+ * from the underlying connection only as fast as the subscriber signals demand for it.
+ * The publisher supports a single subscriber and the response body must be consumed
+ * or the subscription cancelled in order for the connection to be released. A cancelled
+ * subscription aborts the exchange; unless the consumer is used through {@link FlowExchanges},
+ * which aborts the exchange right away, this happens on the next callback of the exchange.
+ * </p>
+ *
+ * @since 5.3
+ */
+public final class FlowResponseConsumer implements AsyncResponseConsumer<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> {
+
+    private final FlowDataConsumer dataConsumer;
+
+    public FlowResponseConsumer() {
+        this.dataConsumer = new FlowDataConsumer();
+    }
+
+    public static FlowResponseConsumer create() {
+        return new FlowResponseConsumer();
+    }
+
+    /**
+     * Sets the handle used to abort the exchange once the subscription to the response
+     * body gets cancelled.
+     */
+    void setExchange(final Cancellable exchange) {
+        dataConsumer.setExchange(exchange);
+    }
+
+    @Override
+    public void consumeResponse(
+            final HttpResponse response,
+            final EntityDetails entityDetails,
+            final HttpContext context,
+            final FutureCallback<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> resultCallback) throws HttpException, IOException {
+        if (entityDetails == null) {
+            dataConsumer.streamEnd(null);
+        }
+        if (resultCallback != null) {
+            resultCallback.completed(new Message<>(response, dataConsumer));
+        }
+    }
+
+    @Override
+    public void informationResponse(final HttpResponse response, final HttpContext context) throws HttpException, IOException {
+    }
+
+    @Override
+    public void failed(final Exception cause) {
+        dataConsumer.failed(cause);
+    }
+
+    @Override
+    public void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
+        dataConsumer.updateCapacity(capacityChannel);
+    }
+
+    @Override
+    public void consume(final ByteBuffer src) throws IOException {
+        dataConsumer.consume(src);
+    }
+
+    @Override
+    public void streamEnd(final List<? extends Header> trailers) throws HttpException, IOException {
+        dataConsumer.streamEnd(trailers);
+    }
+
+    @Override
+    public void releaseResources() {
+        dataConsumer.releaseResources();
+    }
+
+}
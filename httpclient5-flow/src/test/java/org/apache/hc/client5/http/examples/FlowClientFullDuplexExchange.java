@@ -0,0 +1,118 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.examples;
+
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.flow.FlowExchanges;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.io.CloseMode;
+
+/**
+ * This example demonstrates a full-duplex HTTP/1.1 message exchange streaming
+ * request and response bodies with {@link java.util.concurrent.Flow} publishers.
+ */
+public class FlowClientFullDuplexExchange {
+
+    public static void main(final String[] args) throws Exception {
+
+        final CloseableHttpAsyncClient client = HttpAsyncClients.createDefault();
+
+        client.start();
+
+        final SubmissionPublisher<ByteBuffer> requestBody = new SubmissionPublisher<>();
+        final Future<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> future = FlowExchanges.execute(
+                client,
+                new BasicHttpRequest(Method.POST, new URI("http://httpbin.org/post")),
+                requestBody,
+                ContentType.TEXT_PLAIN,
+                null);
+
+        for (int i = 0; i < 5; i++) {
+            // submit blocks once the request body can no longer keep up
+            requestBody.submit(ByteBuffer.wrap(("stuff " + i + "\n").getBytes(StandardCharsets.UTF_8)));
+        }
+        requestBody.close();
+
+        final Message<HttpResponse, Flow.Publisher<ByteBuffer>> streamingResponse = future.get(1, TimeUnit.MINUTES);
+
+        System.out.println(streamingResponse.getHead());
+        for (final Header header : streamingResponse.getHead().getHeaders()) {
+            System.out.println(header);
+        }
+        System.out.println();
+
+        final CountDownLatch latch = new CountDownLatch(1);
+        streamingResponse.getBody().subscribe(new Flow.Subscriber<ByteBuffer>() {
+
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(final ByteBuffer item) {
+                System.out.print(StandardCharsets.UTF_8.decode(item));
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                System.out.println("-> " + throwable);
+                latch.countDown();
+            }
+
+            @Override
+            public void onComplete() {
+                System.out.println();
+                latch.countDown();
+            }
+
+        });
+        latch.await(1, TimeUnit.MINUTES);
+
+        System.out.println("Shutting down");
+        client.close(CloseMode.GRACEFUL);
+    }
+}
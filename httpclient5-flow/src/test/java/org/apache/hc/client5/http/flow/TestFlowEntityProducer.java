@@ -0,0 +1,183 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.flow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestFlowEntityProducer {
+
+    static class TestPublisher implements Flow.Publisher<ByteBuffer> {
+
+        Flow.Subscriber<? super ByteBuffer> subscriber;
+        long requested;
+        boolean cancelled;
+
+        @Override
+        public void subscribe(final Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(new Flow.Subscription() {
+
+                @Override
+                public void request(final long n) {
+                    requested += n;
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled = true;
+                }
+
+            });
+        }
+
+        void publish(final String s) {
+            subscriber.onNext(ByteBuffer.wrap(s.getBytes(StandardCharsets.US_ASCII)));
+        }
+
+    }
+
+    static class TestChannel implements DataStreamChannel {
+
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        int capacity = Integer.MAX_VALUE;
+        int outputRequests;
+        boolean ended;
+
+        @Override
+        public void requestOutput() {
+            outputRequests++;
+        }
+
+        @Override
+        public int write(final ByteBuffer src) throws IOException {
+            final int n = Math.min(capacity, src.remaining());
+            for (int i = 0; i < n; i++) {
+                content.write(src.get());
+            }
+            capacity -= n;
+            return n;
+        }
+
+        @Override
+        public void endStream(final List<? extends Header> trailers) throws IOException {
+            ended = true;
+        }
+
+        @Override
+        public void endStream() throws IOException {
+            ended = true;
+        }
+
+    }
+
+    @Test
+    public void testEntityDetails() throws Exception {
+        final FlowEntityProducer producer = new FlowEntityProducer(new TestPublisher(), 10, ContentType.TEXT_PLAIN, "gzip");
+        Assertions.assertEquals(10, producer.getContentLength());
+        Assertions.assertFalse(producer.isChunked());
+        Assertions.assertFalse(producer.isRepeatable());
+        Assertions.assertEquals(ContentType.TEXT_PLAIN.toString(), producer.getContentType());
+        Assertions.assertEquals("gzip", producer.getContentEncoding());
+        Assertions.assertTrue(new FlowEntityProducer(new TestPublisher(), null).isChunked());
+    }
+
+    @Test
+    public void testDemandFollowsOutput() throws Exception {
+        final TestPublisher publisher = new TestPublisher();
+        final FlowEntityProducer producer = new FlowEntityProducer(publisher, ContentType.TEXT_PLAIN);
+        final TestChannel channel = new TestChannel();
+
+        Assertions.assertNull(publisher.subscriber);
+        channel.capacity = 0;
+        producer.produce(channel);
+        Assertions.assertNotNull(publisher.subscriber);
+        final long initialDemand = publisher.requested;
+        Assertions.assertTrue(initialDemand > 0);
+
+        for (int i = 0; i < initialDemand; i++) {
+            publisher.publish("0123456789");
+        }
+        Assertions.assertEquals(initialDemand, channel.outputRequests);
+        Assertions.assertEquals(initialDemand * 10, producer.available());
+
+        producer.produce(channel);
+        Assertions.assertEquals(initialDemand, publisher.requested);
+
+        channel.capacity = 15;
+        producer.produce(channel);
+        Assertions.assertEquals(initialDemand + 1, publisher.requested);
+        Assertions.assertEquals(15, channel.content.size());
+
+        channel.capacity = Integer.MAX_VALUE;
+        producer.produce(channel);
+        Assertions.assertEquals(initialDemand * 2, publisher.requested);
+        Assertions.assertFalse(channel.ended);
+
+        publisher.subscriber.onComplete();
+        Assertions.assertTrue(producer.available() > 0);
+        producer.produce(channel);
+        Assertions.assertTrue(channel.ended);
+        Assertions.assertEquals(initialDemand * 10, channel.content.size());
+        producer.releaseResources();
+        Assertions.assertFalse(publisher.cancelled);
+    }
+
+    @Test
+    public void testPublisherFailure() throws Exception {
+        final TestPublisher publisher = new TestPublisher();
+        final FlowEntityProducer producer = new FlowEntityProducer(publisher, ContentType.TEXT_PLAIN);
+        final TestChannel channel = new TestChannel();
+        producer.produce(channel);
+        publisher.subscriber.onError(new IllegalStateException("Boom"));
+        final IOException ex = Assertions.assertThrows(IOException.class, () -> producer.produce(channel));
+        Assertions.assertTrue(ex.getCause() instanceof IllegalStateException);
+        Assertions.assertFalse(channel.ended);
+    }
+
+    @Test
+    public void testReleaseCancelsSubscription() throws Exception {
+        final TestPublisher publisher = new TestPublisher();
+        final FlowEntityProducer producer = new FlowEntityProducer(publisher, ContentType.TEXT_PLAIN);
+        producer.produce(new TestChannel());
+        publisher.publish("0123456789");
+        producer.releaseResources();
+        Assertions.assertTrue(publisher.cancelled);
+        Assertions.assertEquals(0, producer.available());
+    }
+
+}
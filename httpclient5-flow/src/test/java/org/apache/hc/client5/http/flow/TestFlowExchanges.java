@@ -0,0 +1,288 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.flow;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.testing.async.AsyncEchoHandler;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.config.Http1Config;
+import org.apache.hc.core5.http.impl.BasicEntityDetails;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncServerExchangeHandler;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.DataStreamChannel;
+import org.apache.hc.core5.http.nio.ResponseChannel;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.testing.nio.H2TestServer;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class TestFlowExchanges {
+
+    private static final Timeout TIMEOUT = Timeout.ofMinutes(1);
+
+    /**
+     * Sends part of the response body and stalls without ending the stream.
+     */
+    static class StallingBodyHandler implements AsyncServerExchangeHandler {
+
+        private volatile boolean sent;
+
+        @Override
+        public void handleRequest(
+                final HttpRequest request,
+                final EntityDetails entityDetails,
+                final ResponseChannel responseChannel,
+                final HttpContext context) throws HttpException, IOException {
+            responseChannel.sendResponse(
+                    new BasicHttpResponse(HttpStatus.SC_OK),
+                    new BasicEntityDetails(-1, ContentType.APPLICATION_OCTET_STREAM),
+                    context);
+        }
+
+        @Override
+        public void updateCapacity(final CapacityChannel capacityChannel) throws IOException {
+            capacityChannel.update(Integer.MAX_VALUE);
+        }
+
+        @Override
+        public void consume(final ByteBuffer src) throws IOException {
+        }
+
+        @Override
+        public void streamEnd(final List<? extends Header> trailers) throws HttpException, IOException {
+        }
+
+        @Override
+        public int available() {
+            return sent ? 0 : 1024;
+        }
+
+        @Override
+        public void produce(final DataStreamChannel channel) throws IOException {
+            if (!sent) {
+                channel.write(ByteBuffer.wrap(new byte[1024]));
+                sent = true;
+            }
+        }
+
+        @Override
+        public void failed(final Exception cause) {
+        }
+
+        @Override
+        public void releaseResources() {
+        }
+
+    }
+
+    private H2TestServer server;
+    private PoolingAsyncClientConnectionManager connManager;
+    private CloseableHttpAsyncClient client;
+    private HttpHost target;
+
+    private void start(final HttpVersionPolicy versionPolicy) throws Exception {
+        server = new H2TestServer();
+        server.register("/echo/*", AsyncEchoHandler::new);
+        server.register("/stall", StallingBodyHandler::new);
+        final InetSocketAddress address = versionPolicy == HttpVersionPolicy.FORCE_HTTP_2
+                ? server.start(H2Config.DEFAULT)
+                : server.start(Http1Config.DEFAULT);
+        target = new HttpHost("localhost", address.getPort());
+        connManager = PoolingAsyncClientConnectionManagerBuilder.create()
+                .setDefaultTlsConfig(TlsConfig.custom()
+                        .setVersionPolicy(versionPolicy)
+                        .build())
+                .build();
+        client = HttpAsyncClients.custom()
+                .setConnectionManager(connManager)
+                .build();
+        client.start();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (client != null) {
+            client.close(CloseMode.IMMEDIATE);
+        }
+        if (server != null) {
+            server.shutdown(TimeValue.ofSeconds(5));
+        }
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = HttpVersionPolicy.class, names = {"FORCE_HTTP_1", "FORCE_HTTP_2"})
+    public void testStreamingPostRequest(final HttpVersionPolicy versionPolicy) throws Exception {
+        start(versionPolicy);
+        final byte[] b1 = new byte[1024 * 1024];
+        final Random rnd = new Random(System.currentTimeMillis());
+        rnd.nextBytes(b1);
+        final Flow.Publisher<ByteBuffer> requestBody = subscriber -> subscriber.onSubscribe(new Flow.Subscription() {
+
+            private int offset;
+
+            @Override
+            public void request(final long n) {
+                for (long i = 0; i < n && offset < b1.length; i++) {
+                    final int len = Math.min(8192, b1.length - offset);
+                    subscriber.onNext(ByteBuffer.wrap(b1, offset, len));
+                    offset += len;
+                }
+                if (offset >= b1.length) {
+                    subscriber.onComplete();
+                }
+            }
+
+            @Override
+            public void cancel() {
+            }
+
+        });
+        final Future<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> future = FlowExchanges.execute(
+                client,
+                new BasicHttpRequest(Method.POST, target, "/echo/"),
+                requestBody,
+                ContentType.APPLICATION_OCTET_STREAM,
+                null);
+        final Message<HttpResponse, Flow.Publisher<ByteBuffer>> responseMessage = future.get();
+        Assertions.assertEquals(200, responseMessage.getHead().getCode());
+        final ByteArrayOutputStream content = new ByteArrayOutputStream();
+        final CompletableFuture<byte[]> bodyFuture = new CompletableFuture<>();
+        responseMessage.getBody().subscribe(new Flow.Subscriber<ByteBuffer>() {
+
+            private Flow.Subscription subscription;
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(final ByteBuffer item) {
+                while (item.hasRemaining()) {
+                    content.write(item.get());
+                }
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                bodyFuture.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                bodyFuture.complete(content.toByteArray());
+            }
+
+        });
+        Assertions.assertArrayEquals(b1, bodyFuture.get());
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = HttpVersionPolicy.class, names = {"FORCE_HTTP_1", "FORCE_HTTP_2"})
+    public void testCancelledResponseBodyReleasesConnection(final HttpVersionPolicy versionPolicy) throws Exception {
+        start(versionPolicy);
+        final Future<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> future = FlowExchanges.execute(
+                client,
+                new BasicHttpRequest(Method.GET, target, "/stall"),
+                null,
+                null,
+                null);
+        final Message<HttpResponse, Flow.Publisher<ByteBuffer>> responseMessage = future.get(
+                TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+        Assertions.assertEquals(200, responseMessage.getHead().getCode());
+        final CountDownLatch received = new CountDownLatch(1);
+        final AtomicReference<Flow.Subscription> subscriptionRef = new AtomicReference<>();
+        responseMessage.getBody().subscribe(new Flow.Subscriber<ByteBuffer>() {
+
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+                subscriptionRef.set(subscription);
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(final ByteBuffer item) {
+                // Stop requesting, no more data is going to arrive
+                received.countDown();
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+            }
+
+            @Override
+            public void onComplete() {
+            }
+
+        });
+        Assertions.assertTrue(received.await(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+        subscriptionRef.get().cancel();
+
+        final long deadline = System.currentTimeMillis() + TIMEOUT.toMilliseconds();
+        while (connManager.getTotalStats().getLeased() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        Assertions.assertEquals(0, connManager.getTotalStats().getLeased());
+    }
+
+}
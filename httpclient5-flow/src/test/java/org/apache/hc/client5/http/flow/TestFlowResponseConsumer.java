@@ -0,0 +1,240 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.flow;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
+import org.apache.hc.core5.http.protocol.HttpCoreContext;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestFlowResponseConsumer {
+
+    static class TestSubscriber implements Flow.Subscriber<ByteBuffer> {
+
+        final List<String> items = new ArrayList<>();
+        Flow.Subscription subscription;
+        Throwable error;
+        boolean complete;
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(final ByteBuffer item) {
+            items.add(StandardCharsets.US_ASCII.decode(item).toString());
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            complete = true;
+        }
+
+    }
+
+    static ByteBuffer wrap(final String s) {
+        return ByteBuffer.wrap(s.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static Flow.Publisher<ByteBuffer> start(final FlowResponseConsumer consumer, final boolean withEntity) throws Exception {
+        final AtomicReference<Message<HttpResponse, Flow.Publisher<ByteBuffer>>> result = new AtomicReference<>();
+        consumer.consumeResponse(
+                new BasicHttpResponse(200),
+                withEntity ? new BasicAsyncEntityProducer("stuff", ContentType.TEXT_PLAIN) : null,
+                HttpCoreContext.create(),
+                new FutureCallback<Message<HttpResponse, Flow.Publisher<ByteBuffer>>>() {
+
+                    @Override
+                    public void completed(final Message<HttpResponse, Flow.Publisher<ByteBuffer>> message) {
+                        result.set(message);
+                    }
+
+                    @Override
+                    public void failed(final Exception ex) {
+                    }
+
+                    @Override
+                    public void cancelled() {
+                    }
+
+                });
+        final Message<HttpResponse, Flow.Publisher<ByteBuffer>> message = result.get();
+        Assertions.assertNotNull(message);
+        Assertions.assertEquals(200, message.getHead().getCode());
+        return message.getBody();
+    }
+
+    @Test
+    public void testCapacityFollowsDemand() throws Exception {
+        final FlowResponseConsumer consumer = FlowResponseConsumer.create();
+        final Flow.Publisher<ByteBuffer> publisher = start(consumer, true);
+        final AtomicInteger capacity = new AtomicInteger();
+        consumer.updateCapacity(capacity::addAndGet);
+        consumer.consume(wrap("0123456789"));
+        consumer.consume(wrap("abcde"));
+        Assertions.assertEquals(0, capacity.get());
+
+        final TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        Assertions.assertTrue(subscriber.items.isEmpty());
+        subscriber.subscription.request(1);
+        Assertions.assertEquals(1, subscriber.items.size());
+        Assertions.assertEquals("0123456789", subscriber.items.get(0));
+        Assertions.assertEquals(10, capacity.get());
+
+        consumer.streamEnd(null);
+        Assertions.assertFalse(subscriber.complete);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        Assertions.assertEquals(2, subscriber.items.size());
+        Assertions.assertEquals("abcde", subscriber.items.get(1));
+        Assertions.assertTrue(subscriber.complete);
+        Assertions.assertEquals(10, capacity.get());
+    }
+
+    @Test
+    public void testNoEntity() throws Exception {
+        final FlowResponseConsumer consumer = FlowResponseConsumer.create();
+        final Flow.Publisher<ByteBuffer> publisher = start(consumer, false);
+        final TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        Assertions.assertTrue(subscriber.complete);
+        Assertions.assertTrue(subscriber.items.isEmpty());
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        final FlowResponseConsumer consumer = FlowResponseConsumer.create();
+        final Flow.Publisher<ByteBuffer> publisher = start(consumer, true);
+        final TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        consumer.consume(wrap("0123456789"));
+        final Exception cause = new IOException("Connection reset");
+        consumer.failed(cause);
+        Assertions.assertSame(cause, subscriber.error);
+        Assertions.assertTrue(subscriber.items.isEmpty());
+    }
+
+    @Test
+    public void testCancellationAbortsExchange() throws Exception {
+        final FlowResponseConsumer consumer = FlowResponseConsumer.create();
+        final Flow.Publisher<ByteBuffer> publisher = start(consumer, true);
+        final TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.cancel();
+        Assertions.assertThrows(IOException.class, () -> consumer.consume(wrap("0123456789")));
+    }
+
+    @Test
+    public void testCancellationAfterWindowExhaustedCancelsExchange() throws Exception {
+        final FlowResponseConsumer consumer = FlowResponseConsumer.create();
+        final AtomicInteger exchangeCancellations = new AtomicInteger();
+        consumer.setExchange(() -> {
+            exchangeCancellations.incrementAndGet();
+            return true;
+        });
+        final Flow.Publisher<ByteBuffer> publisher = start(consumer, true);
+        final AtomicInteger capacity = new AtomicInteger();
+        consumer.updateCapacity(capacity::addAndGet);
+        consumer.consume(wrap("0123456789"));
+        consumer.consume(wrap("abcde"));
+        final TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(1);
+        Assertions.assertEquals(1, subscriber.items.size());
+        Assertions.assertEquals(0, exchangeCancellations.get());
+
+        subscriber.subscription.cancel();
+        Assertions.assertEquals(1, exchangeCancellations.get());
+        Assertions.assertNull(subscriber.error);
+        Assertions.assertFalse(subscriber.complete);
+    }
+
+    @Test
+    public void testCancellationAfterWindowExhaustedWithoutExchangeSignalsCapacity() throws Exception {
+        final FlowResponseConsumer consumer = FlowResponseConsumer.create();
+        final Flow.Publisher<ByteBuffer> publisher = start(consumer, true);
+        final AtomicInteger capacity = new AtomicInteger();
+        consumer.updateCapacity(capacity::addAndGet);
+        consumer.consume(wrap("0123456789"));
+        final TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        Assertions.assertEquals(0, capacity.get());
+
+        subscriber.subscription.cancel();
+        Assertions.assertTrue(capacity.get() > 0);
+        Assertions.assertThrows(IOException.class, () -> consumer.consume(wrap("abcde")));
+    }
+
+    @Test
+    public void testCancellationAfterStreamEndKeepsExchange() throws Exception {
+        final FlowResponseConsumer consumer = FlowResponseConsumer.create();
+        final AtomicInteger exchangeCancellations = new AtomicInteger();
+        consumer.setExchange(() -> {
+            exchangeCancellations.incrementAndGet();
+            return true;
+        });
+        final Flow.Publisher<ByteBuffer> publisher = start(consumer, true);
+        consumer.consume(wrap("0123456789"));
+        consumer.streamEnd(null);
+        final TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.cancel();
+        Assertions.assertEquals(0, exchangeCancellations.get());
+    }
+
+    @Test
+    public void testSingleSubscriber() throws Exception {
+        final FlowResponseConsumer consumer = FlowResponseConsumer.create();
+        final Flow.Publisher<ByteBuffer> publisher = start(consumer, true);
+        publisher.subscribe(new TestSubscriber());
+        final TestSubscriber subscriber = new TestSubscriber();
+        publisher.subscribe(subscriber);
+        Assertions.assertNotNull(subscriber.subscription);
+        Assertions.assertTrue(subscriber.error instanceof IllegalStateException);
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.impl.observation;
+
+import java.io.IOException;
+
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.client5.http.observation.HttpMetricsRecorder;
+import org.apache.hc.client5.http.observation.HttpSpan;
+import org.apache.hc.client5.http.observation.HttpTracer;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Request execution handler in the asynchronous request execution chain that
+ * records a span and RED metrics for each request sent to the opposite endpoint
+ * and propagates the W3C trace context with the request.
+ * <p>
+ * The duration covers the entire exchange including the response body.
+ * </p>
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.STATELESS)
+public final class AsyncObservationExec implements AsyncExecChainHandler {
+
+    private final HttpTracer tracer;
+    private final HttpMetricsRecorder metricsRecorder;
+
+    public AsyncObservationExec(final HttpTracer tracer, final HttpMetricsRecorder metricsRecorder) {
+        this.tracer = tracer != null ? tracer : HttpTracer.NOOP;
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : HttpMetricsRecorder.NOOP;
+    }
+
+    @Override
+    public void execute(
+            final HttpRequest request,
+            final AsyncEntityProducer entityProducer,
+            final AsyncExecChain.Scope scope,
+            final AsyncExecChain chain,
+            final AsyncExecCallback asyncExecCallback) throws HttpException, IOException {
+        Args.notNull(request, "HTTP request");
+        Args.notNull(scope, "Scope");
+
+        final String method = request.getMethod();
+        final HttpSpan span = ObservationSupport.startSpan(tracer, request, scope.route, scope.clientContext);
+        final long startNanos = System.nanoTime();
+        try {
+            chain.proceed(request, entityProducer, scope, new AsyncExecCallback() {
+
+                private int statusCode;
+
+                @Override
+                public AsyncDataConsumer handleResponse(
+                        final HttpResponse response,
+                        final EntityDetails entityDetails) throws HttpException, IOException {
+                    statusCode = response.getCode();
+                    return asyncExecCallback.handleResponse(response, entityDetails);
+                }
+
+                @Override
+                public void handleInformationResponse(final HttpResponse response) throws HttpException, IOException {
+                    asyncExecCallback.handleInformationResponse(response);
+                }
+
+                @Override
+                public void completed() {
+                    ObservationSupport.completed(span, metricsRecorder, scope.route, method, statusCode, scope.clientContext, startNanos);
+                    asyncExecCallback.completed();
+                }
+
+                @Override
+                public void failed(final Exception cause) {
+                    ObservationSupport.failed(span, metricsRecorder, scope.route, method, cause, scope.clientContext, startNanos);
+                    asyncExecCallback.failed(cause);
+                }
+
+            });
+        } catch (final IOException | HttpException | RuntimeException ex) {
+            ObservationSupport.failed(span, metricsRecorder, scope.route, method, ex, scope.clientContext, startNanos);
+            throw ex;
+        }
+    }
+
+}
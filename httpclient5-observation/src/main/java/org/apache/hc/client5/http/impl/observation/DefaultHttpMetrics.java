@@ -0,0 +1,213 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.impl.observation;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.LatencyHistogram;
+import org.apache.hc.client5.http.observation.HttpMetricsRecorder;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.HttpStatus;
+
+/**
+ * Default {@link HttpMetricsRecorder} that accumulates request rate, error and duration
+ * metrics per route and in total. Counters are kept in {@link LongAdder}s and durations
+ * in {@link LatencyHistogram}s, so recording never blocks or allocates once a route
+ * has been seen.
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class DefaultHttpMetrics implements HttpMetricsRecorder {
+
+    /**
+     * Request metrics of a route or of all routes.
+     */
+    public static final class Metrics {
+
+        private final LongAdder requests;
+        private final LongAdder failures;
+        private final LongAdder serverErrors;
+        private final Map<String, LongAdder> cacheStatuses;
+        private final LatencyHistogram duration;
+
+        Metrics() {
+            this.requests = new LongAdder();
+            this.failures = new LongAdder();
+            this.serverErrors = new LongAdder();
+            this.cacheStatuses = new ConcurrentHashMap<>();
+            this.duration = new LatencyHistogram();
+        }
+
+        void record(final boolean failed, final int statusCode, final String cacheStatus, final long durationNanos) {
+            requests.increment();
+            if (failed) {
+                failures.increment();
+            } else if (statusCode >= HttpStatus.SC_SERVER_ERROR) {
+                serverErrors.increment();
+            }
+            if (cacheStatus != null) {
+                cacheStatusCounter(cacheStatus).increment();
+            }
+            duration.record(durationNanos);
+        }
+
+        private LongAdder cacheStatusCounter(final String cacheStatus) {
+            final LongAdder counter = cacheStatuses.get(cacheStatus);
+            return counter != null ? counter : cacheStatuses.computeIfAbsent(cacheStatus, s -> new LongAdder());
+        }
+
+        /**
+         * Returns the number of executed requests including failed ones.
+         */
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        /**
+         * Returns the number of requests that failed with an exception.
+         */
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * Returns the number of requests that received a {@code 5xx} response.
+         */
+        public long getServerErrors() {
+            return serverErrors.sum();
+        }
+
+        /**
+         * Returns the number of failures and {@code 5xx} responses.
+         */
+        public long getErrors() {
+            return getFailures() + getServerErrors();
+        }
+
+        /**
+         * Returns the number of responses with the given cache status.
+         *
+         * @param cacheStatus the name of the {@code CacheResponseStatus}.
+         */
+        public long getCacheStatusCount(final String cacheStatus) {
+            final LongAdder counter = cacheStatuses.get(cacheStatus);
+            return counter != null ? counter.sum() : 0;
+        }
+
+        /**
+         * Returns the histogram of request durations (nanoseconds).
+         */
+        public LatencyHistogram getDuration() {
+            return duration;
+        }
+
+        @Override
+        public String toString() {
+            final StringBuilder buf = new StringBuilder();
+            buf.append("[requests: ").append(getRequests())
+                    .append("; failures: ").append(getFailures())
+                    .append("; server errors: ").append(getServerErrors());
+            for (final Map.Entry<String, LongAdder> entry : cacheStatuses.entrySet()) {
+                buf.append("; ").append(entry.getKey()).append(": ").append(entry.getValue().sum());
+            }
+            buf.append("; duration: ").append(duration).append("]");
+            return buf.toString();
+        }
+
+    }
+
+    private final Metrics totals;
+    private final Map<HttpRoute, Metrics> routeMetrics;
+
+    public DefaultHttpMetrics() {
+        this.totals = new Metrics();
+        this.routeMetrics = new ConcurrentHashMap<>();
+    }
+
+    private Metrics metrics(final HttpRoute route) {
+        final Metrics metrics = routeMetrics.get(route);
+        return metrics != null ? metrics : routeMetrics.computeIfAbsent(route, r -> new Metrics());
+    }
+
+    @Override
+    public void onExchangeCompleted(
+            final HttpRoute route,
+            final String method,
+            final int statusCode,
+            final String cacheStatus,
+            final long durationNanos) {
+        totals.record(false, statusCode, cacheStatus, durationNanos);
+        metrics(route).record(false, statusCode, cacheStatus, durationNanos);
+    }
+
+    @Override
+    public void onExchangeFailed(
+            final HttpRoute route,
+            final String method,
+            final String cacheStatus,
+            final long durationNanos,
+            final Exception cause) {
+        totals.record(true, 0, cacheStatus, durationNanos);
+        metrics(route).record(true, 0, cacheStatus, durationNanos);
+    }
+
+    /**
+     * Returns metrics of all routes combined.
+     */
+    public Metrics getTotals() {
+        return totals;
+    }
+
+    /**
+     * Returns metrics of the given route or {@code null} if no request has been executed
+     * over that route.
+     */
+    public Metrics getMetrics(final HttpRoute route) {
+        return routeMetrics.get(route);
+    }
+
+    /**
+     * Returns routes with recorded metrics.
+     */
+    public Set<HttpRoute> getRoutes() {
+        return Collections.unmodifiableSet(routeMetrics.keySet());
+    }
+
+    @Override
+    public String toString() {
+        return "[totals: " + totals + "; routes: " + routeMetrics + "]";
+    }
+
+}
@@ -0,0 +1,136 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.impl.observation;
+
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.async.H2AsyncClientBuilder;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.observation.HttpMetricsRecorder;
+import org.apache.hc.client5.http.observation.HttpTracer;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Installs tracing and metrics interceptors into client builders, including the caching
+ * client builders.
+ * <p>
+ * The interceptor is placed immediately in front of the protocol handler, that is after
+ * the redirect and retry handlers and before the cache handler, if any. Thus each request
+ * sent upstream or served from the cache is recorded as a separate span, including
+ * redirects and retries, and the trace context is propagated with every one of them.
+ * </p>
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.IMMUTABLE)
+public final class HttpObservation {
+
+    /**
+     * Name of the observation element in the request execution chain.
+     */
+    public static final String OBSERVATION = "OBSERVATION";
+
+    public static Builder custom() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private HttpTracer tracer;
+        private HttpMetricsRecorder metricsRecorder;
+
+        Builder() {
+        }
+
+        public Builder setTracer(final HttpTracer tracer) {
+            this.tracer = tracer;
+            return this;
+        }
+
+        public Builder setMetricsRecorder(final HttpMetricsRecorder metricsRecorder) {
+            this.metricsRecorder = metricsRecorder;
+            return this;
+        }
+
+        public HttpObservation build() {
+            return new HttpObservation(
+                    tracer != null ? tracer : HttpTracer.NOOP,
+                    metricsRecorder != null ? metricsRecorder : HttpMetricsRecorder.NOOP);
+        }
+
+    }
+
+    private final HttpTracer tracer;
+    private final HttpMetricsRecorder metricsRecorder;
+
+    HttpObservation(final HttpTracer tracer, final HttpMetricsRecorder metricsRecorder) {
+        this.tracer = tracer;
+        this.metricsRecorder = metricsRecorder;
+    }
+
+    public HttpTracer getTracer() {
+        return tracer;
+    }
+
+    public HttpMetricsRecorder getMetricsRecorder() {
+        return metricsRecorder;
+    }
+
+    /**
+     * Adds the observation interceptor to the given classic client builder.
+     */
+    public <T extends HttpClientBuilder> T apply(final T builder) {
+        Args.notNull(builder, "Client builder");
+        builder.addExecInterceptorBefore(ChainElement.PROTOCOL.name(), OBSERVATION,
+                new ObservationExec(tracer, metricsRecorder));
+        return builder;
+    }
+
+    /**
+     * Adds the observation interceptor to the given async client builder.
+     */
+    public <T extends HttpAsyncClientBuilder> T apply(final T builder) {
+        Args.notNull(builder, "Client builder");
+        builder.addExecInterceptorBefore(ChainElement.PROTOCOL.name(), OBSERVATION,
+                new AsyncObservationExec(tracer, metricsRecorder));
+        return builder;
+    }
+
+    /**
+     * Adds the observation interceptor to the given HTTP/2 async client builder.
+     */
+    public <T extends H2AsyncClientBuilder> T apply(final T builder) {
+        Args.notNull(builder, "Client builder");
+        builder.addExecInterceptorBefore(ChainElement.PROTOCOL.name(), OBSERVATION,
+                new AsyncObservationExec(tracer, metricsRecorder));
+        return builder;
+    }
+
+}
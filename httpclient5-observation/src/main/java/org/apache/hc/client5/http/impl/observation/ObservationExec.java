@@ -0,0 +1,87 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.impl.observation;
+
+import java.io.IOException;
+
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.observation.HttpMetricsRecorder;
+import org.apache.hc.client5.http.observation.HttpSpan;
+import org.apache.hc.client5.http.observation.HttpTracer;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * Request execution handler in the classic request execution chain that records
+ * a span and RED metrics for each request sent to the opposite endpoint and
+ * propagates the W3C trace context with the request.
+ * <p>
+ * The duration covers the exchange up to the receipt of the response head.
+ * </p>
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.STATELESS)
+public final class ObservationExec implements ExecChainHandler {
+
+    private final HttpTracer tracer;
+    private final HttpMetricsRecorder metricsRecorder;
+
+    public ObservationExec(final HttpTracer tracer, final HttpMetricsRecorder metricsRecorder) {
+        this.tracer = tracer != null ? tracer : HttpTracer.NOOP;
+        this.metricsRecorder = metricsRecorder != null ? metricsRecorder : HttpMetricsRecorder.NOOP;
+    }
+
+    @Override
+    public ClassicHttpResponse execute(
+            final ClassicHttpRequest request,
+            final ExecChain.Scope scope,
+            final ExecChain chain) throws IOException, HttpException {
+        Args.notNull(request, "HTTP request");
+        Args.notNull(scope, "Scope");
+
+        final String method = request.getMethod();
+        final HttpSpan span = ObservationSupport.startSpan(tracer, request, scope.route, scope.clientContext);
+        final long startNanos = System.nanoTime();
+        final ClassicHttpResponse response;
+        try {
+            response = chain.proceed(request, scope);
+        } catch (final IOException | HttpException | RuntimeException ex) {
+            ObservationSupport.failed(span, metricsRecorder, scope.route, method, ex, scope.clientContext, startNanos);
+            throw ex;
+        }
+        ObservationSupport.completed(span, metricsRecorder, scope.route, method, response.getCode(), scope.clientContext, startNanos);
+        return response;
+    }
+
+}
@@ -0,0 +1,128 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.impl.observation;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.observation.HttpMetricsRecorder;
+import org.apache.hc.client5.http.observation.HttpSpan;
+import org.apache.hc.client5.http.observation.HttpTracer;
+import org.apache.hc.client5.http.observation.TraceContext;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+/**
+ * Span and metrics bookkeeping shared by the classic and async interceptors.
+ */
+final class ObservationSupport {
+
+    /**
+     * Same as {@code HttpCacheContext.CACHE_RESPONSE_STATUS}. The cache module is an optional
+     * dependency, so the cache status gets read without referring to any of its classes.
+     */
+    static final String CACHE_RESPONSE_STATUS = "http.cache.response.status";
+
+    private ObservationSupport() {
+    }
+
+    static HttpSpan startSpan(
+            final HttpTracer tracer,
+            final HttpRequest request,
+            final HttpRoute route,
+            final HttpContext context) {
+        final TraceContext parent = TraceContext.get(context);
+        final String method = request.getMethod();
+        final HttpSpan span = tracer.startSpan(method, parent, context);
+        if (span.isRecording()) {
+            final HttpHost target = route.getTargetHost();
+            span.setAttribute(HttpSpan.HTTP_REQUEST_METHOD, method);
+            span.setAttribute(HttpSpan.SERVER_ADDRESS, target.getHostName());
+            span.setAttribute(HttpSpan.SERVER_PORT, target.getPort());
+        }
+        // Propagate the parent context even if the tracer does not create spans of its own
+        final TraceContext traceContext = span.getTraceContext() != null ? span.getTraceContext() : parent;
+        if (traceContext != null) {
+            request.setHeader(TraceContext.TRACEPARENT, traceContext.getTraceParent());
+            if (traceContext.getTraceState() != null) {
+                request.setHeader(TraceContext.TRACESTATE, traceContext.getTraceState());
+            } else {
+                request.removeHeaders(TraceContext.TRACESTATE);
+            }
+        }
+        // Discard the status of a previous exchange executed with the same context
+        context.removeAttribute(CACHE_RESPONSE_STATUS);
+        return span;
+    }
+
+    static String getCacheStatus(final HttpContext context) {
+        final Object obj = context.getAttribute(CACHE_RESPONSE_STATUS);
+        return obj instanceof Enum ? ((Enum<?>) obj).name() : null;
+    }
+
+    static void completed(
+            final HttpSpan span,
+            final HttpMetricsRecorder metricsRecorder,
+            final HttpRoute route,
+            final String method,
+            final int statusCode,
+            final HttpContext context,
+            final long startNanos) {
+        final long durationNanos = System.nanoTime() - startNanos;
+        final String cacheStatus = getCacheStatus(context);
+        metricsRecorder.onExchangeCompleted(route, method, statusCode, cacheStatus, durationNanos);
+        if (span.isRecording()) {
+            span.setAttribute(HttpSpan.HTTP_RESPONSE_STATUS_CODE, statusCode);
+            if (cacheStatus != null) {
+                span.setAttribute(HttpSpan.HTTP_CACHE_STATUS, cacheStatus);
+            }
+        }
+        span.end();
+    }
+
+    static void failed(
+            final HttpSpan span,
+            final HttpMetricsRecorder metricsRecorder,
+            final HttpRoute route,
+            final String method,
+            final Exception cause,
+            final HttpContext context,
+            final long startNanos) {
+        final long durationNanos = System.nanoTime() - startNanos;
+        final String cacheStatus = getCacheStatus(context);
+        metricsRecorder.onExchangeFailed(route, method, cacheStatus, durationNanos, cause);
+        if (span.isRecording()) {
+            span.setAttribute(HttpSpan.ERROR_TYPE, cause.getClass().getName());
+            if (cacheStatus != null) {
+                span.setAttribute(HttpSpan.HTTP_CACHE_STATUS, cacheStatus);
+            }
+            span.recordException(cause);
+        }
+        span.end();
+    }
+
+}
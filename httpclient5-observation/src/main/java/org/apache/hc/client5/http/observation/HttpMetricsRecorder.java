@@ -0,0 +1,94 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.observation;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * Recorder of request rate, error and duration (RED) metrics.
+ * <p>
+ * Methods are invoked on the request execution path and must not block.
+ * </p>
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public interface HttpMetricsRecorder {
+
+    /**
+     * Recorder that discards all measurements.
+     */
+    HttpMetricsRecorder NOOP = new HttpMetricsRecorder() {
+
+        @Override
+        public void onExchangeCompleted(
+                final HttpRoute route,
+                final String method,
+                final int statusCode,
+                final String cacheStatus,
+                final long durationNanos) {
+        }
+
+        @Override
+        public void onExchangeFailed(
+                final HttpRoute route,
+                final String method,
+                final String cacheStatus,
+                final long durationNanos,
+                final Exception cause) {
+        }
+
+    };
+
+    /**
+     * Triggered when a response has been received.
+     *
+     * @param route the route of the exchange.
+     * @param method the request method.
+     * @param statusCode the response status code.
+     * @param cacheStatus the name of the {@code CacheResponseStatus} of the exchange or {@code null}
+     *                    if the response cache is not in use.
+     * @param durationNanos time elapsed until the response head has been received.
+     */
+    void onExchangeCompleted(HttpRoute route, String method, int statusCode, String cacheStatus, long durationNanos);
+
+    /**
+     * Triggered when the exchange has failed with an exception.
+     *
+     * @param route the route of the exchange.
+     * @param method the request method.
+     * @param cacheStatus the name of the {@code CacheResponseStatus} of the exchange or {@code null}
+     *                    if the response cache is not in use.
+     * @param durationNanos time elapsed until the failure.
+     * @param cause the failure.
+     */
+    void onExchangeFailed(HttpRoute route, String method, String cacheStatus, long durationNanos, Exception cause);
+
+}
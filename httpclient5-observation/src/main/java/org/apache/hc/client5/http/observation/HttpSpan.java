@@ -0,0 +1,100 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.observation;
+
+/**
+ * Span representing a single request / response exchange with the opposite endpoint.
+ * <p>
+ * Spans are used by one thread at a time; implementations need not be thread-safe.
+ * </p>
+ *
+ * @since 5.3
+ */
+public interface HttpSpan {
+
+    String HTTP_REQUEST_METHOD = "http.request.method";
+    String HTTP_RESPONSE_STATUS_CODE = "http.response.status_code";
+    String HTTP_CACHE_STATUS = "http.cache.status";
+    String SERVER_ADDRESS = "server.address";
+    String SERVER_PORT = "server.port";
+    String ERROR_TYPE = "error.type";
+
+    /**
+     * Span that records nothing.
+     */
+    HttpSpan NOOP = new HttpSpan() {
+
+        @Override
+        public boolean isRecording() {
+            return false;
+        }
+
+        @Override
+        public TraceContext getTraceContext() {
+            return null;
+        }
+
+        @Override
+        public void setAttribute(final String key, final String value) {
+        }
+
+        @Override
+        public void setAttribute(final String key, final long value) {
+        }
+
+        @Override
+        public void recordException(final Exception cause) {
+        }
+
+        @Override
+        public void end() {
+        }
+
+    };
+
+    /**
+     * Returns {@code true} if the span records attributes. Callers skip attribute
+     * collection for spans that are not recording.
+     */
+    boolean isRecording();
+
+    /**
+     * Returns the trace context of this span to be propagated with the request
+     * or {@code null} if the span does not participate in trace propagation.
+     */
+    TraceContext getTraceContext();
+
+    void setAttribute(String key, String value);
+
+    void setAttribute(String key, long value);
+
+    void recordException(Exception cause);
+
+    void end();
+
+}
@@ -0,0 +1,225 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.observation;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * W3C Trace Context (<a href="https://www.w3.org/TR/trace-context/">Trace Context</a>)
+ * of a span: trace id, span id, sampling flag and the optional vendor specific trace state.
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.IMMUTABLE)
+public final class TraceContext {
+
+    public static final String TRACEPARENT = "traceparent";
+    public static final String TRACESTATE = "tracestate";
+
+    /**
+     * Attribute name of the parent {@link TraceContext} of requests executed
+     * with the given context.
+     */
+    public static final String CONTEXT_ATTRIBUTE = "http.observation.trace-context";
+
+    private static final int TRACE_ID_LEN = 32;
+    private static final int SPAN_ID_LEN = 16;
+    private static final int TRACEPARENT_LEN = 55;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final String traceId;
+    private final String spanId;
+    private final boolean sampled;
+    private final String traceState;
+
+    // lazily rendered; a benign race may render it more than once
+    private String traceParent;
+
+    public TraceContext(final String traceId, final String spanId, final boolean sampled, final String traceState) {
+        Args.check(isValidId(traceId, TRACE_ID_LEN), "Invalid trace id: %s", traceId);
+        Args.check(isValidId(spanId, SPAN_ID_LEN), "Invalid span id: %s", spanId);
+        this.traceId = traceId;
+        this.spanId = spanId;
+        this.sampled = sampled;
+        this.traceState = traceState;
+    }
+
+    /**
+     * Creates a new root trace context with random trace and span ids.
+     */
+    public static TraceContext newRoot(final boolean sampled) {
+        final ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new TraceContext(
+                randomId(random, TRACE_ID_LEN),
+                randomId(random, SPAN_ID_LEN),
+                sampled,
+                null);
+    }
+
+    /**
+     * Creates a trace context for a child span of this context. The child shares
+     * the trace id, sampling flag and trace state and gets a random span id.
+     */
+    public TraceContext newChild() {
+        return new TraceContext(traceId, randomId(ThreadLocalRandom.current(), SPAN_ID_LEN), sampled, traceState);
+    }
+
+    /**
+     * Parses the {@code traceparent} and {@code tracestate} header values.
+     *
+     * @return the trace context or {@code null} if {@code traceParent} is absent or malformed.
+     */
+    public static TraceContext parse(final String traceParent, final String traceState) {
+        if (traceParent == null || traceParent.length() < TRACEPARENT_LEN) {
+            return null;
+        }
+        final String version = traceParent.substring(0, 2);
+        if (!isHex(version) || version.equals("ff")) {
+            return null;
+        }
+        if (version.equals("00") && traceParent.length() != TRACEPARENT_LEN) {
+            return null;
+        }
+        if (traceParent.length() > TRACEPARENT_LEN && traceParent.charAt(TRACEPARENT_LEN) != '-') {
+            return null;
+        }
+        if (traceParent.charAt(2) != '-' || traceParent.charAt(35) != '-' || traceParent.charAt(52) != '-') {
+            return null;
+        }
+        final String traceId = traceParent.substring(3, 35);
+        final String spanId = traceParent.substring(36, 52);
+        final String flags = traceParent.substring(53, 55);
+        if (!isValidId(traceId, TRACE_ID_LEN) || !isValidId(spanId, SPAN_ID_LEN) || !isHex(flags)) {
+            return null;
+        }
+        final boolean sampled = (Integer.parseInt(flags, 16) & 0x01) != 0;
+        return new TraceContext(traceId, spanId, sampled, traceState != null && !traceState.isEmpty() ? traceState : null);
+    }
+
+    /**
+     * Returns the parent trace context stored in the given execution context.
+     */
+    public static TraceContext get(final HttpContext context) {
+        final Object obj = context != null ? context.getAttribute(CONTEXT_ATTRIBUTE) : null;
+        return obj instanceof TraceContext ? (TraceContext) obj : null;
+    }
+
+    /**
+     * Stores the parent trace context of subsequent requests in the given execution context.
+     */
+    public static void set(final HttpContext context, final TraceContext traceContext) {
+        Args.notNull(context, "HTTP context");
+        context.setAttribute(CONTEXT_ATTRIBUTE, traceContext);
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getSpanId() {
+        return spanId;
+    }
+
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    /**
+     * Returns the vendor specific trace state or {@code null}.
+     */
+    public String getTraceState() {
+        return traceState;
+    }
+
+    /**
+     * Returns the {@code traceparent} header value.
+     */
+    public String getTraceParent() {
+        String s = traceParent;
+        if (s == null) {
+            final StringBuilder buf = new StringBuilder(TRACEPARENT_LEN);
+            buf.append("00-").append(traceId).append('-').append(spanId).append(sampled ? "-01" : "-00");
+            s = buf.toString();
+            traceParent = s;
+        }
+        return s;
+    }
+
+    private static String randomId(final ThreadLocalRandom random, final int len) {
+        final char[] chars = new char[len];
+        for (;;) {
+            boolean zero = true;
+            for (int i = 0; i < len; i += 16) {
+                long n = random.nextLong();
+                if (n != 0) {
+                    zero = false;
+                }
+                for (int j = i + 15; j >= i; j--) {
+                    chars[j] = HEX[(int) (n & 0x0f)];
+                    n >>>= 4;
+                }
+            }
+            if (!zero) {
+                return new String(chars);
+            }
+        }
+    }
+
+    private static boolean isHex(final String s) {
+        for (int i = 0; i < s.length(); i++) {
+            final char ch = s.charAt(i);
+            if (!(ch >= '0' && ch <= '9' || ch >= 'a' && ch <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isValidId(final String id, final int len) {
+        if (id == null || id.length() != len || !isHex(id)) {
+            return false;
+        }
+        for (int i = 0; i < len; i++) {
+            if (id.charAt(i) != '0') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return getTraceParent();
+    }
+
+}
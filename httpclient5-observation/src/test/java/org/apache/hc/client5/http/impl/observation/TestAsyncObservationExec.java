@@ -0,0 +1,132 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.impl.observation;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecRuntime;
+import org.apache.hc.client5.http.observation.HttpSpan;
+import org.apache.hc.client5.http.observation.HttpTracer;
+import org.apache.hc.client5.http.observation.TraceContext;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.CancellableDependency;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+public class TestAsyncObservationExec {
+
+    @Mock
+    private AsyncExecRuntime execRuntime;
+    @Mock
+    private CancellableDependency cancellableDependency;
+    @Mock
+    private AsyncExecChain execChain;
+    @Mock
+    private AsyncExecCallback callback;
+    @Mock
+    private HttpTracer tracer;
+    @Mock
+    private HttpSpan span;
+
+    private HttpHost host;
+    private HttpRoute route;
+    private HttpClientContext context;
+    private DefaultHttpMetrics metrics;
+    private AsyncObservationExec impl;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        host = new HttpHost("somehost", 80);
+        route = new HttpRoute(host);
+        context = HttpClientContext.create();
+        metrics = new DefaultHttpMetrics();
+        impl = new AsyncObservationExec(tracer, metrics);
+        Mockito.when(span.isRecording()).thenReturn(true);
+        Mockito.when(tracer.startSpan(ArgumentMatchers.eq("GET"), ArgumentMatchers.any(), ArgumentMatchers.same(context)))
+                .thenReturn(span);
+    }
+
+    private AsyncExecCallback execute(final HttpRequest request) throws Exception {
+        final AsyncExecChain.Scope scope = new AsyncExecChain.Scope("test", route, request, cancellableDependency,
+                context, execRuntime, null, null);
+        impl.execute(request, null, scope, execChain, callback);
+        final ArgumentCaptor<AsyncExecCallback> callbackCaptor = ArgumentCaptor.forClass(AsyncExecCallback.class);
+        Mockito.verify(execChain).proceed(ArgumentMatchers.same(request), ArgumentMatchers.isNull(),
+                ArgumentMatchers.same(scope), callbackCaptor.capture());
+        return callbackCaptor.getValue();
+    }
+
+    @Test
+    public void testCompleted() throws Exception {
+        final TraceContext traceContext = TraceContext.newRoot(true);
+        Mockito.when(span.getTraceContext()).thenReturn(traceContext);
+
+        final HttpRequest request = new BasicHttpRequest(Method.GET, host, "/");
+        final AsyncExecCallback wrapped = execute(request);
+        Assertions.assertEquals(traceContext.getTraceParent(), request.getFirstHeader(TraceContext.TRACEPARENT).getValue());
+
+        final BasicHttpResponse response = new BasicHttpResponse(200);
+        wrapped.handleResponse(response, null);
+        Mockito.verify(callback).handleResponse(response, null);
+        Mockito.verify(span, Mockito.never()).end();
+
+        wrapped.completed();
+        Mockito.verify(callback).completed();
+        Mockito.verify(span).setAttribute(HttpSpan.HTTP_RESPONSE_STATUS_CODE, 200L);
+        Mockito.verify(span).end();
+        Assertions.assertEquals(1, metrics.getMetrics(route).getRequests());
+        Assertions.assertEquals(0, metrics.getMetrics(route).getErrors());
+    }
+
+    @Test
+    public void testFailed() throws Exception {
+        final HttpRequest request = new BasicHttpRequest(Method.GET, host, "/");
+        final AsyncExecCallback wrapped = execute(request);
+
+        final Exception failure = new IllegalStateException("Oppsie");
+        wrapped.failed(failure);
+        Mockito.verify(callback).failed(failure);
+        Mockito.verify(span).recordException(failure);
+        Mockito.verify(span).end();
+        Assertions.assertEquals(1, metrics.getMetrics(route).getFailures());
+    }
+
+}
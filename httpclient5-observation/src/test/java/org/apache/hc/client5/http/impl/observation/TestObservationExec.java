@@ -0,0 +1,162 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.impl.observation;
+
+import java.io.IOException;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.cache.CacheResponseStatus;
+import org.apache.hc.client5.http.cache.HttpCacheContext;
+import org.apache.hc.client5.http.classic.ExecChain;
+import org.apache.hc.client5.http.classic.ExecRuntime;
+import org.apache.hc.client5.http.observation.HttpSpan;
+import org.apache.hc.client5.http.observation.HttpTracer;
+import org.apache.hc.client5.http.observation.TraceContext;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.ClassicHttpResponse;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.message.BasicClassicHttpRequest;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+public class TestObservationExec {
+
+    @Mock
+    private ExecRuntime execRuntime;
+    @Mock
+    private ExecChain execChain;
+    @Mock
+    private HttpTracer tracer;
+    @Mock
+    private HttpSpan span;
+
+    private HttpHost host;
+    private HttpRoute route;
+    private HttpClientContext context;
+    private DefaultHttpMetrics metrics;
+    private ObservationExec impl;
+
+    @BeforeEach
+    public void setup() {
+        MockitoAnnotations.openMocks(this);
+        host = new HttpHost("somehost", 80);
+        route = new HttpRoute(host);
+        context = HttpClientContext.create();
+        metrics = new DefaultHttpMetrics();
+        impl = new ObservationExec(tracer, metrics);
+        Mockito.when(span.isRecording()).thenReturn(true);
+    }
+
+    @Test
+    public void testSpanAndMetrics() throws Exception {
+        final TraceContext parent = TraceContext.newRoot(true);
+        final TraceContext child = parent.newChild();
+        TraceContext.set(context, parent);
+        Mockito.when(tracer.startSpan(Method.GET.name(), parent, context)).thenReturn(span);
+        Mockito.when(span.getTraceContext()).thenReturn(child);
+
+        final ClassicHttpRequest request = new BasicClassicHttpRequest(Method.GET, host, "/");
+        final ExecChain.Scope scope = new ExecChain.Scope("test", route, request, execRuntime, context);
+        Mockito.when(execChain.proceed(request, scope)).thenAnswer(invocation -> {
+            context.setAttribute(HttpCacheContext.CACHE_RESPONSE_STATUS, CacheResponseStatus.CACHE_MISS);
+            return new BasicClassicHttpResponse(503);
+        });
+
+        final ClassicHttpResponse response = impl.execute(request, scope, execChain);
+        Assertions.assertEquals(503, response.getCode());
+        Assertions.assertEquals(child.getTraceParent(), request.getFirstHeader(TraceContext.TRACEPARENT).getValue());
+
+        Mockito.verify(span).setAttribute(HttpSpan.HTTP_REQUEST_METHOD, "GET");
+        Mockito.verify(span).setAttribute(HttpSpan.SERVER_ADDRESS, "somehost");
+        Mockito.verify(span).setAttribute(HttpSpan.SERVER_PORT, 80L);
+        Mockito.verify(span).setAttribute(HttpSpan.HTTP_RESPONSE_STATUS_CODE, 503L);
+        Mockito.verify(span).setAttribute(HttpSpan.HTTP_CACHE_STATUS, "CACHE_MISS");
+        Mockito.verify(span).end();
+
+        final DefaultHttpMetrics.Metrics routeMetrics = metrics.getMetrics(route);
+        Assertions.assertNotNull(routeMetrics);
+        Assertions.assertEquals(1, routeMetrics.getRequests());
+        Assertions.assertEquals(1, routeMetrics.getServerErrors());
+        Assertions.assertEquals(0, routeMetrics.getFailures());
+        Assertions.assertEquals(1, routeMetrics.getCacheStatusCount("CACHE_MISS"));
+        Assertions.assertEquals(1, routeMetrics.getDuration().getCount());
+        Assertions.assertEquals(1, metrics.getTotals().getRequests());
+    }
+
+    @Test
+    public void testCacheStatusAttributeName() {
+        Assertions.assertEquals(HttpCacheContext.CACHE_RESPONSE_STATUS, ObservationSupport.CACHE_RESPONSE_STATUS);
+    }
+
+    @Test
+    public void testParentPropagatedWithoutSpan() throws Exception {
+        final TraceContext parent = TraceContext.parse(
+                "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01", "congo=t61rcWkgMzE");
+        TraceContext.set(context, parent);
+        impl = new ObservationExec(null, metrics);
+
+        final ClassicHttpRequest request = new BasicClassicHttpRequest(Method.GET, host, "/");
+        final ExecChain.Scope scope = new ExecChain.Scope("test", route, request, execRuntime, context);
+        Mockito.when(execChain.proceed(request, scope)).thenReturn(new BasicClassicHttpResponse(200));
+
+        impl.execute(request, scope, execChain);
+
+        Assertions.assertEquals(parent.getTraceParent(), request.getFirstHeader(TraceContext.TRACEPARENT).getValue());
+        Assertions.assertEquals("congo=t61rcWkgMzE", request.getFirstHeader(TraceContext.TRACESTATE).getValue());
+        Assertions.assertEquals(0, metrics.getMetrics(route).getErrors());
+    }
+
+    @Test
+    public void testFailure() throws Exception {
+        Mockito.when(tracer.startSpan(ArgumentMatchers.eq("POST"), ArgumentMatchers.isNull(), ArgumentMatchers.same(context)))
+                .thenReturn(span);
+
+        final ClassicHttpRequest request = new BasicClassicHttpRequest(Method.POST, host, "/");
+        final ExecChain.Scope scope = new ExecChain.Scope("test", route, request, execRuntime, context);
+        final IOException failure = new IOException("Oppsie");
+        Mockito.when(execChain.proceed(request, scope)).thenThrow(failure);
+
+        Assertions.assertThrows(IOException.class, () -> impl.execute(request, scope, execChain));
+        Assertions.assertNull(request.getFirstHeader(TraceContext.TRACEPARENT));
+
+        Mockito.verify(span).setAttribute(HttpSpan.ERROR_TYPE, IOException.class.getName());
+        Mockito.verify(span).recordException(failure);
+        Mockito.verify(span).end();
+        Assertions.assertEquals(1, metrics.getMetrics(route).getFailures());
+        Assertions.assertEquals(1, metrics.getTotals().getErrors());
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.observation;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestTraceContext {
+
+    @Test
+    public void testParse() {
+        final TraceContext traceContext = TraceContext.parse(
+                "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01", "congo=t61rcWkgMzE");
+        Assertions.assertNotNull(traceContext);
+        Assertions.assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", traceContext.getTraceId());
+        Assertions.assertEquals("00f067aa0ba902b7", traceContext.getSpanId());
+        Assertions.assertTrue(traceContext.isSampled());
+        Assertions.assertEquals("congo=t61rcWkgMzE", traceContext.getTraceState());
+        Assertions.assertEquals("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01", traceContext.getTraceParent());
+    }
+
+    @Test
+    public void testParseInvalid() {
+        Assertions.assertNull(TraceContext.parse(null, null));
+        Assertions.assertNull(TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7", null));
+        Assertions.assertNull(TraceContext.parse("ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01", null));
+        Assertions.assertNull(TraceContext.parse("00-00000000000000000000000000000000-00f067aa0ba902b7-01", null));
+        Assertions.assertNull(TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01", null));
+        Assertions.assertNull(TraceContext.parse("00-4BF92F3577B34DA6A3CE929D0E0E4736-00f067aa0ba902b7-01", null));
+        Assertions.assertNull(TraceContext.parse("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-extra", null));
+    }
+
+    @Test
+    public void testParseFutureVersion() {
+        final TraceContext traceContext = TraceContext.parse(
+                "01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00-extra", "");
+        Assertions.assertNotNull(traceContext);
+        Assertions.assertFalse(traceContext.isSampled());
+        Assertions.assertNull(traceContext.getTraceState());
+        Assertions.assertEquals("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00", traceContext.getTraceParent());
+    }
+
+    @Test
+    public void testNewChild() {
+        final TraceContext root = TraceContext.newRoot(true);
+        final TraceContext child = root.newChild();
+        Assertions.assertEquals(root.getTraceId(), child.getTraceId());
+        Assertions.assertNotEquals(root.getSpanId(), child.getSpanId());
+        Assertions.assertTrue(child.isSampled());
+        Assertions.assertEquals(child.getTraceParent(), TraceContext.parse(child.getTraceParent(), null).getTraceParent());
+    }
+
+}
@@ -28,9 +28,12 @@
 
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
@@ -38,6 +41,7 @@
 import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
 import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
 import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
 import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
@@ -88,6 +92,50 @@ public void testSequentialGetRequests() throws Exception {
         }
     }
 
+    @Test
+    public void testBatchGetRequests() throws Exception {
+        final H2TestServer server = startServer();
+        server.register("/random/*", AsyncRandomHandler::new);
+        final HttpHost target = targetHost();
+        final T client = startClient();
+        final List<SimpleHttpRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            requests.add(SimpleRequestBuilder.get()
+                    .setHttpHost(target)
+                    .setPath("/random/" + (1024 + i))
+                    .build());
+        }
+        final Future<List<SimpleHttpResponse>> future = client.executeBatch(requests, 5, null);
+        final List<SimpleHttpResponse> responses = future.get();
+        assertThat(responses.size(), CoreMatchers.equalTo(20));
+        for (int i = 0; i < responses.size(); i++) {
+            final SimpleHttpResponse response = responses.get(i);
+            assertThat(response.getCode(), CoreMatchers.equalTo(200));
+            assertThat(response.getBodyText().length(), CoreMatchers.equalTo(1024 + i));
+        }
+    }
+
+    @Test
+    public void testComposedAsyncGetRequests() throws Exception {
+        final H2TestServer server = startServer();
+        server.register("/random/*", AsyncRandomHandler::new);
+        final HttpHost target = targetHost();
+        final T client = startClient();
+        final CompletableFuture<SimpleHttpResponse> future = client.executeAsync(
+                SimpleRequestBuilder.get()
+                        .setHttpHost(target)
+                        .setPath("/random/1024")
+                        .build())
+                .thenCompose(response -> client.executeAsync(
+                        SimpleRequestBuilder.get()
+                                .setHttpHost(target)
+                                .setPath("/random/" + response.getBodyText().length() * 2)
+                                .build()));
+        final SimpleHttpResponse response = future.get();
+        assertThat(response.getCode(), CoreMatchers.equalTo(200));
+        assertThat(response.getBodyText().length(), CoreMatchers.equalTo(2048));
+    }
+
     @Test
     public void testSequentialHeadRequests() throws Exception {
         final H2TestServer server = startServer();
@@ -93,6 +93,26 @@ public Http1RequestReExecutionTls() throws Exception {
 
     }
 
+    @Nested
+    @DisplayName("Request hedging (HTTP/1.1)")
+    public class Http1RequestHedging extends TestHttp1RequestHedging {
+
+        public Http1RequestHedging() throws Exception {
+            super(URIScheme.HTTP);
+        }
+
+    }
+
+    @Nested
+    @DisplayName("Request hedging (HTTP/1.1, TLS)")
+    public class Http1RequestHedgingTls extends TestHttp1RequestHedging {
+
+        public Http1RequestHedgingTls() throws Exception {
+            super(URIScheme.HTTPS);
+        }
+
+    }
+
     @Nested
     @DisplayName("HTTP protocol policy (HTTP/1.1)")
     public class Http1ProtocolPolicy extends TestHttpAsyncProtocolPolicy {
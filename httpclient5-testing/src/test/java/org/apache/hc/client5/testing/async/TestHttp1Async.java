@@ -28,7 +28,15 @@
 
 import static org.hamcrest.MatcherAssert.assertThat;
 
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
 import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
@@ -40,13 +48,27 @@
 import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
 import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
 import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.nio.IODispatcherLoad;
+import org.apache.hc.client5.http.nio.IODispatcherSelector;
+import org.apache.hc.core5.http.EntityDetails;
 import org.apache.hc.core5.http.HeaderElements;
+import org.apache.hc.core5.http.HttpException;
 import org.apache.hc.core5.http.HttpHeaders;
 import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Message;
 import org.apache.hc.core5.http.URIScheme;
 import org.apache.hc.core5.http.config.Http1Config;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.DiscardingEntityConsumer;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.reactor.IOReactorConfig;
 import org.apache.hc.core5.testing.nio.H2TestServer;
+import org.apache.hc.core5.util.Timeout;
 import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
@@ -223,4 +245,145 @@ public void run() {
         }
     }
 
+    /**
+     * Request handler that never responds.
+     */
+    static class StallingHandler implements AsyncServerRequestHandler<Message<HttpRequest, Void>> {
+
+        final CountDownLatch requestReceived = new CountDownLatch(1);
+
+        @Override
+        public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(
+                final HttpRequest request,
+                final EntityDetails entityDetails,
+                final HttpContext context) throws HttpException {
+            return new BasicRequestConsumer<>(entityDetails != null ? new DiscardingEntityConsumer<>() : null);
+        }
+
+        @Override
+        public void handle(
+                final Message<HttpRequest, Void> requestObject,
+                final ResponseTrigger responseTrigger,
+                final HttpContext context) throws HttpException, IOException {
+            requestReceived.countDown();
+        }
+
+    }
+
+    private static void awaitNoLeasedConnections(final PoolingAsyncClientConnectionManager connManager) throws Exception {
+        final long deadline = System.currentTimeMillis() + TIMEOUT.toMilliseconds();
+        while (connManager.getTotalStats().getLeased() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertThat(connManager.getTotalStats().getLeased(), CoreMatchers.equalTo(0));
+    }
+
+    @Test
+    public void testExecuteAsyncDeadline() throws Exception {
+        final H2TestServer server = startServer();
+        server.register("/random/*", AsyncRandomHandler::new);
+        server.register("/stall", new StallingHandler());
+        final HttpHost target = targetHost();
+
+        final CloseableHttpAsyncClient client = startClient();
+        final PoolingAsyncClientConnectionManager connManager = connManager();
+        connManager.setDefaultMaxPerRoute(1);
+        connManager.setMaxTotal(1);
+
+        final CompletableFuture<SimpleHttpResponse> future = client.executeAsync(
+                SimpleRequestBuilder.get()
+                        .setHttpHost(target)
+                        .setPath("/stall")
+                        .build(),
+                null,
+                Timeout.ofMilliseconds(500));
+        final ExecutionException ex = Assertions.assertThrows(ExecutionException.class, () ->
+                future.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+        assertThat(ex.getCause(), CoreMatchers.instanceOf(TimeoutException.class));
+        awaitNoLeasedConnections(connManager);
+
+        final SimpleHttpResponse response = client.executeAsync(
+                SimpleRequestBuilder.get()
+                        .setHttpHost(target)
+                        .setPath("/random/1000")
+                        .build(),
+                null,
+                TIMEOUT).get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+        assertThat(response.getCode(), CoreMatchers.equalTo(200));
+    }
+
+    @Test
+    public void testExecuteAsyncCancellation() throws Exception {
+        final H2TestServer server = startServer();
+        server.register("/random/*", AsyncRandomHandler::new);
+        final StallingHandler stallingHandler = new StallingHandler();
+        server.register("/stall", stallingHandler);
+        final HttpHost target = targetHost();
+
+        final CloseableHttpAsyncClient client = startClient();
+        final PoolingAsyncClientConnectionManager connManager = connManager();
+        connManager.setDefaultMaxPerRoute(1);
+        connManager.setMaxTotal(1);
+
+        final CompletableFuture<SimpleHttpResponse> future = client.executeAsync(
+                SimpleRequestBuilder.get()
+                        .setHttpHost(target)
+                        .setPath("/stall")
+                        .build());
+        final CompletableFuture<Integer> composed = future.thenApply(SimpleHttpResponse::getCode);
+        assertThat(stallingHandler.requestReceived.await(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()), CoreMatchers.equalTo(true));
+        assertThat(future.cancel(true), CoreMatchers.equalTo(true));
+        Assertions.assertThrows(CancellationException.class, () ->
+                future.get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit()));
+        assertThat(composed.isCompletedExceptionally(), CoreMatchers.equalTo(true));
+        awaitNoLeasedConnections(connManager);
+
+        final SimpleHttpResponse response = client.executeAsync(
+                SimpleRequestBuilder.get()
+                        .setHttpHost(target)
+                        .setPath("/random/1000")
+                        .build()).get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+        assertThat(response.getCode(), CoreMatchers.equalTo(200));
+    }
+
+    @Test
+    public void testLeastLoadedIODispatcherSelection() throws Exception {
+        final H2TestServer server = startServer();
+        server.register("/random/*", AsyncRandomHandler::new);
+        final HttpHost target = targetHost();
+
+        final CloseableHttpAsyncClient client = startClient(builder -> builder
+                .setIOReactorConfig(IOReactorConfig.custom()
+                        .setSoTimeout(TIMEOUT)
+                        .setIoThreadCount(2)
+                        .build())
+                .setIODispatcherSelector(IODispatcherSelector.LEAST_LOADED));
+        final PoolingAsyncClientConnectionManager connManager = connManager();
+        connManager.setDefaultMaxPerRoute(2);
+
+        final Queue<Future<SimpleHttpResponse>> queue = new LinkedList<>();
+        for (int i = 0; i < 4; i++) {
+            queue.add(client.execute(
+                    SimpleRequestBuilder.get()
+                            .setHttpHost(target)
+                            .setPath("/random/2048")
+                            .build(), null));
+        }
+        while (!queue.isEmpty()) {
+            final SimpleHttpResponse response = queue.remove().get(TIMEOUT.getDuration(), TIMEOUT.getTimeUnit());
+            assertThat(response.getCode(), CoreMatchers.equalTo(200));
+        }
+
+        final List<? extends IODispatcherLoad> loads = client.getIODispatcherLoads();
+        assertThat(loads.size(), CoreMatchers.equalTo(2));
+        int sessions = 0;
+        long inputEvents = 0;
+        for (final IODispatcherLoad load : loads) {
+            sessions += load.getSessions();
+            inputEvents += load.getInputEvents();
+        }
+        assertThat(sessions > 0, CoreMatchers.equalTo(true));
+        assertThat(inputEvents > 0, CoreMatchers.equalTo(true));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,202 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.testing.async;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+
+import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.HttpRequestHedgingStrategy;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.URIScheme;
+import org.apache.hc.core5.http.config.Http1Config;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.DiscardingEntityConsumer;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.nio.support.BasicResponseProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.testing.nio.H2TestServer;
+import org.apache.hc.core5.util.TimeValue;
+import org.hamcrest.CoreMatchers;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public abstract class TestHttp1RequestHedging extends AbstractIntegrationTestBase {
+
+    private final ScheduledExecutorService scheduler;
+    private final AtomicInteger requestCount;
+
+    public TestHttp1RequestHedging(final URIScheme scheme) {
+        super(scheme);
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.requestCount = new AtomicInteger();
+    }
+
+    @AfterEach
+    public void shutdownScheduler() {
+        scheduler.shutdownNow();
+    }
+
+    /**
+     * Starts a server that responds to the first request after the given delay
+     * and to all subsequent requests immediately.
+     */
+    protected H2TestServer startServer(final long firstResponseDelayMillis) throws Exception {
+        final H2TestServer server = startServer(Http1Config.DEFAULT, null, null);
+        server.register("*", new AsyncServerRequestHandler<Message<HttpRequest, Void>>() {
+
+            @Override
+            public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(
+                    final HttpRequest request,
+                    final EntityDetails entityDetails,
+                    final HttpContext context) throws HttpException {
+                return new BasicRequestConsumer<>(entityDetails != null ? new DiscardingEntityConsumer<>() : null);
+            }
+
+            @Override
+            public void handle(
+                    final Message<HttpRequest, Void> requestObject,
+                    final ResponseTrigger responseTrigger,
+                    final HttpContext context) throws HttpException, IOException {
+                final long delay = requestCount.incrementAndGet() == 1 ? firstResponseDelayMillis : 0;
+                scheduler.schedule(() -> {
+                    try {
+                        responseTrigger.submitResponse(new BasicResponseProducer(HttpStatus.SC_OK, "OK"), context);
+                    } catch (final HttpException | IOException ignore) {
+                    }
+                }, delay, TimeUnit.MILLISECONDS);
+            }
+
+        });
+        return server;
+    }
+
+    static class FixedDelayHedgingStrategy implements HttpRequestHedgingStrategy {
+
+        final AtomicInteger responseCount = new AtomicInteger();
+
+        @Override
+        public TimeValue getHedgeDelay(final HttpRequest request, final HttpRoute route, final HttpContext context) {
+            return TimeValue.ofMilliseconds(200);
+        }
+
+        @Override
+        public void responseReceived(final HttpRoute route, final TimeValue latency) {
+            responseCount.incrementAndGet();
+        }
+
+    }
+
+    @Test
+    public void testHedgedRequestWins() throws Exception {
+        startServer(5000);
+        final HttpHost target = targetHost();
+        final FixedDelayHedgingStrategy hedgingStrategy = new FixedDelayHedgingStrategy();
+        final CloseableHttpAsyncClient client = startClient(builder -> builder
+                .setHedgingStrategy(hedgingStrategy));
+
+        final HttpClientContext context = HttpClientContext.create();
+        final long start = System.nanoTime();
+        final Future<SimpleHttpResponse> future = client.execute(
+                SimpleRequestBuilder.get()
+                        .setHttpHost(target)
+                        .setPath("/")
+                        .build(), context, null);
+        final SimpleHttpResponse response = future.get();
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertThat(response.getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+        assertThat(elapsedMillis < 4000, CoreMatchers.equalTo(true));
+        assertThat(requestCount.get(), CoreMatchers.equalTo(2));
+        assertThat(hedgingStrategy.responseCount.get(), CoreMatchers.equalTo(1));
+        // The state of the hedged request is visible through the context of the initial one
+        assertThat(context.getResponse(), CoreMatchers.notNullValue());
+        assertThat(context.getResponse().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+
+        final Future<SimpleHttpResponse> future2 = client.execute(
+                SimpleRequestBuilder.get()
+                        .setHttpHost(target)
+                        .setPath("/")
+                        .build(), null);
+        assertThat(future2.get().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+    }
+
+    @Test
+    public void testNoHedgingOnFastResponse() throws Exception {
+        startServer(0);
+        final HttpHost target = targetHost();
+        final FixedDelayHedgingStrategy hedgingStrategy = new FixedDelayHedgingStrategy();
+        final CloseableHttpAsyncClient client = startClient(builder -> builder
+                .setHedgingStrategy(hedgingStrategy));
+
+        for (int i = 0; i < 3; i++) {
+            final Future<SimpleHttpResponse> future = client.execute(
+                    SimpleRequestBuilder.get()
+                            .setHttpHost(target)
+                            .setPath("/")
+                            .build(), null);
+            assertThat(future.get().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+        }
+        Thread.sleep(500);
+        assertThat(requestCount.get(), CoreMatchers.equalTo(3));
+        assertThat(hedgingStrategy.responseCount.get(), CoreMatchers.equalTo(3));
+    }
+
+    @Test
+    public void testPostNotHedged() throws Exception {
+        startServer(1000);
+        final HttpHost target = targetHost();
+        final FixedDelayHedgingStrategy hedgingStrategy = new FixedDelayHedgingStrategy();
+        final CloseableHttpAsyncClient client = startClient(builder -> builder
+                .setHedgingStrategy(hedgingStrategy));
+
+        final Future<SimpleHttpResponse> future = client.execute(
+                SimpleRequestBuilder.post()
+                        .setHttpHost(target)
+                        .setPath("/")
+                        .setBody("stuff", null)
+                        .build(), null);
+        assertThat(future.get().getCode(), CoreMatchers.equalTo(HttpStatus.SC_OK));
+        assertThat(requestCount.get(), CoreMatchers.equalTo(1));
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.testing.benchmark;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.client5.http.cache.CacheResponseStatus;
+import org.apache.hc.client5.http.cache.HttpCacheContext;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.cache.CachingHttpAsyncClients;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHeaders;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.config.Http1Config;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.BasicAsyncEntityProducer;
+import org.apache.hc.core5.http.nio.entity.DiscardingEntityConsumer;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.nio.support.BasicResponseProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.testing.nio.H2TestServer;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Measures the end to end latency of fresh cache hits served by the async caching
+ * client from in-memory cache storage, from {@code execute} to the completion of
+ * the response future.
+ * <p>
+ * The measured time covers the complete client pipeline including route planning,
+ * context setup and the execution chain elements preceding the caching element.
+ * Fresh hits are answered by the caching element, so no connection is leased.
+ * </p>
+ * <p>
+ * Arguments: {@code [hits [warmup-hits]]}. Defaults to 1000000 hits and 200000
+ * warm-up hits.
+ * </p>
+ */
+public class AsyncCachingClientHitBenchmark {
+
+    public static void main(final String[] args) throws Exception {
+        final int hits = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        final int warmupHits = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        final byte[] content = new byte[128];
+        final H2TestServer server = new H2TestServer(IOReactorConfig.DEFAULT, null, null, null);
+        server.register("*", new AsyncServerRequestHandler<Message<HttpRequest, Void>>() {
+
+            @Override
+            public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(
+                    final HttpRequest request,
+                    final EntityDetails entityDetails,
+                    final HttpContext context) throws HttpException {
+                return new BasicRequestConsumer<>(entityDetails != null ? new DiscardingEntityConsumer<>() : null);
+            }
+
+            @Override
+            public void handle(
+                    final Message<HttpRequest, Void> requestObject,
+                    final ResponseTrigger responseTrigger,
+                    final HttpContext context) throws HttpException, IOException {
+                final BasicHttpResponse response = new BasicHttpResponse(HttpStatus.SC_OK);
+                response.addHeader(HttpHeaders.CACHE_CONTROL, "max-age=3600");
+                responseTrigger.submitResponse(new BasicResponseProducer(response,
+                        new BasicAsyncEntityProducer(content, ContentType.APPLICATION_OCTET_STREAM)), context);
+            }
+
+        });
+        final InetSocketAddress address = server.start(Http1Config.DEFAULT);
+
+        try (final CloseableHttpAsyncClient client = CachingHttpAsyncClients.custom().build()) {
+            client.start();
+            final SimpleHttpRequest request = SimpleRequestBuilder.get()
+                    .setUri("http://localhost:" + address.getPort() + "/stuff")
+                    .build();
+            final CacheResponseStatus status = execute(client, request);
+            if (status != CacheResponseStatus.CACHE_MISS) {
+                throw new IllegalStateException("Unexpected cache response status: " + status);
+            }
+
+            System.out.println("Hits: " + hits + "; warm-up hits: " + warmupHits);
+            run(client, request, warmupHits);
+            final long elapsedNanos = run(client, request, hits);
+            System.out.println("Elapsed:           " + TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + " ms");
+            System.out.printf("Latency per hit:   %.2f us%n", elapsedNanos / 1000.0 / hits);
+            System.out.println("Throughput:        " + (hits * 1_000_000_000L / Math.max(1, elapsedNanos)) + " hits/s");
+        } finally {
+            server.shutdown(TimeValue.ofSeconds(5));
+        }
+    }
+
+    static CacheResponseStatus execute(
+            final CloseableHttpAsyncClient client, final SimpleHttpRequest request) throws Exception {
+        final HttpCacheContext context = HttpCacheContext.create();
+        final SimpleHttpResponse response = client.execute(request, context, null).get();
+        if (response.getCode() != HttpStatus.SC_OK) {
+            throw new IllegalStateException("Unexpected response status: " + response.getCode());
+        }
+        return context.getCacheResponseStatus();
+    }
+
+    static long run(
+            final CloseableHttpAsyncClient client, final SimpleHttpRequest request, final int hits) throws Exception {
+        final long start = System.nanoTime();
+        for (int i = 0; i < hits; i++) {
+            final CacheResponseStatus status = execute(client, request);
+            if (status != CacheResponseStatus.CACHE_HIT) {
+                throw new IllegalStateException("Unexpected cache response status: " + status);
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+}
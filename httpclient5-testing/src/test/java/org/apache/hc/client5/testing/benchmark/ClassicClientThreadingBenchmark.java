@@ -0,0 +1,178 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.testing.benchmark;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.VirtualThreadSupport;
+import org.apache.hc.client5.http.impl.classic.FutureRequestExecutionService;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.io.HttpClientConnectionManager;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.Message;
+import org.apache.hc.core5.http.config.Http1Config;
+import org.apache.hc.core5.http.io.HttpClientResponseHandler;
+import org.apache.hc.core5.http.nio.AsyncRequestConsumer;
+import org.apache.hc.core5.http.nio.AsyncServerRequestHandler;
+import org.apache.hc.core5.http.nio.entity.DiscardingEntityConsumer;
+import org.apache.hc.core5.http.nio.support.BasicRequestConsumer;
+import org.apache.hc.core5.http.nio.support.BasicResponseProducer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.testing.nio.H2TestServer;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Compares execution of a large number of concurrent blocking requests by the classic
+ * client running on a fixed pool of platform threads and on virtual threads.
+ * <p>
+ * The benchmark starts a local non-blocking server that responds to every request
+ * after a fixed delay, so that request execution time is dominated by threads
+ * blocked on socket I/O.
+ * </p>
+ * <p>
+ * Arguments: {@code [requests [delay-millis [platform-threads]]]}. Defaults to 10000
+ * requests, 100 ms delay and 200 platform threads. Virtual thread runs require Java 21
+ * or newer. Please note the benchmark opens as many connections as there are concurrent
+ * requests and may require the open file limit to be raised.
+ * </p>
+ */
+public class ClassicClientThreadingBenchmark {
+
+    public static void main(final String[] args) throws Exception {
+        final int requests = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        final long delayMillis = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        final int platformThreads = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+
+        final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
+        final H2TestServer server = new H2TestServer(IOReactorConfig.custom()
+                .setSoReuseAddress(true)
+                .setBacklogSize(requests)
+                .build(), null, null, null);
+        server.register("*", new AsyncServerRequestHandler<Message<HttpRequest, Void>>() {
+
+            @Override
+            public AsyncRequestConsumer<Message<HttpRequest, Void>> prepare(
+                    final HttpRequest request,
+                    final EntityDetails entityDetails,
+                    final HttpContext context) throws HttpException {
+                return new BasicRequestConsumer<>(entityDetails != null ? new DiscardingEntityConsumer<>() : null);
+            }
+
+            @Override
+            public void handle(
+                    final Message<HttpRequest, Void> requestObject,
+                    final ResponseTrigger responseTrigger,
+                    final HttpContext context) throws HttpException, IOException {
+                scheduler.schedule(() -> {
+                    try {
+                        responseTrigger.submitResponse(new BasicResponseProducer(HttpStatus.SC_OK, "OK"), context);
+                    } catch (final HttpException | IOException ignore) {
+                    }
+                }, delayMillis, TimeUnit.MILLISECONDS);
+            }
+
+        });
+        final InetSocketAddress address = server.start(Http1Config.DEFAULT);
+        final String uri = "http://localhost:" + address.getPort() + "/";
+
+        try {
+            System.out.println("Requests: " + requests + "; server delay: " + delayMillis + " ms");
+            run("platform (" + platformThreads + " threads)", requests, uri, builder ->
+                    new FutureRequestExecutionService(builder.build(), Executors.newFixedThreadPool(platformThreads)));
+            if (VirtualThreadSupport.isSupported()) {
+                run("virtual", requests, uri, HttpClientBuilder::buildFutureRequestExecutionService);
+            } else {
+                System.out.println("Virtual threads are not supported by this runtime (Java 21 or newer required)");
+            }
+        } finally {
+            server.shutdown(TimeValue.ofSeconds(5));
+            scheduler.shutdownNow();
+        }
+    }
+
+    interface ServiceFactory {
+
+        FutureRequestExecutionService create(HttpClientBuilder builder) throws Exception;
+
+    }
+
+    static void run(
+            final String name,
+            final int requests,
+            final String uri,
+            final ServiceFactory serviceFactory) throws Exception {
+        final HttpClientConnectionManager connManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(requests)
+                .setMaxConnPerRoute(requests)
+                .build();
+        final HttpClientBuilder builder = HttpClientBuilder.create()
+                .setConnectionManager(connManager);
+        final HttpClientResponseHandler<Integer> handler = response -> response.getCode();
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        threadMXBean.resetPeakThreadCount();
+        final AtomicInteger failures = new AtomicInteger();
+        try (final FutureRequestExecutionService service = serviceFactory.create(builder)) {
+            final long start = System.nanoTime();
+            final List<Future<Integer>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                futures.add(service.execute(new HttpGet(uri), null, handler));
+            }
+            for (final Future<Integer> future : futures) {
+                try {
+                    if (future.get() != HttpStatus.SC_OK) {
+                        failures.incrementAndGet();
+                    }
+                } catch (final Exception ex) {
+                    failures.incrementAndGet();
+                }
+            }
+            final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            System.out.println("--- " + name + " ---");
+            System.out.println("Elapsed:           " + elapsedMillis + " ms");
+            System.out.println("Throughput:        " + (requests * 1000L / Math.max(1, elapsedMillis)) + " req/s");
+            System.out.println("Failures:          " + failures.get());
+            System.out.println("Peak thread count: " + threadMXBean.getPeakThreadCount());
+        }
+    }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http;
+
+/**
+ * Listener of connection pool events of the pooling connection managers.
+ * Unlike {@link org.apache.hc.core5.pool.ConnPoolControl#getStats(Object) pool stats}
+ * that need to be polled, events are pushed as they occur, which makes it
+ * possible to tell time spent waiting on the pool from time spent
+ * connecting to the server.
+ * <p>
+ * Implementations are called on the request execution path and I/O dispatch
+ * threads and must be thread safe, cheap and must not block. All methods
+ * have no-op default implementations. Durations are in nanoseconds.
+ * </p>
+ *
+ * @since 5.3
+ */
+public interface ConnPoolListener {
+
+    /**
+     * Listener that ignores all events.
+     */
+    ConnPoolListener NOOP = new ConnPoolListener() {
+    };
+
+    /**
+     * Called when a connection lease has been requested.
+     */
+    default void onLeaseRequested(final HttpRoute route) {
+    }
+
+    /**
+     * Called when a connection lease has been granted.
+     *
+     * @param waitNanos time spent waiting for the lease.
+     * @param connected {@code true} if a persistent connection is being re-used,
+     *                  {@code false} if a new connection needs to be established.
+     */
+    default void onLeaseGranted(final HttpRoute route, final long waitNanos, final boolean connected) {
+    }
+
+    /**
+     * Called when a connection lease request has timed out.
+     */
+    default void onLeaseTimeout(final HttpRoute route, final long waitNanos) {
+    }
+
+    /**
+     * Called when a connection lease request has failed or has been cancelled
+     * for any other reason than a timeout.
+     */
+    default void onLeaseFailed(final HttpRoute route, final long waitNanos) {
+    }
+
+    /**
+     * Called when a new connection is about to be established.
+     */
+    default void onConnectStarted(final HttpRoute route) {
+    }
+
+    /**
+     * Called when a new connection has been established.
+     *
+     * @param connectNanos time spent establishing the connection including
+     *                     any TLS handshake performed as a part of it.
+     */
+    default void onConnectCompleted(final HttpRoute route, final long connectNanos) {
+    }
+
+    /**
+     * Called when a connection could not be established.
+     */
+    default void onConnectFailed(final HttpRoute route, final long connectNanos, final Exception cause) {
+    }
+
+    /**
+     * Called when a TLS handshake has completed.
+     */
+    default void onTlsHandshakeCompleted(final HttpRoute route, final long handshakeNanos) {
+    }
+
+    /**
+     * Called when a leased connection has been released back to the pool.
+     *
+     * @param reusable {@code true} if the connection has been kept alive for re-use,
+     *                 {@code false} if it has been closed.
+     */
+    default void onRelease(final HttpRoute route, final boolean reusable) {
+    }
+
+    /**
+     * Called when idle or expired connections are evicted from the pool.
+     */
+    default void onEviction(final HttpRoute route, final int count) {
+    }
+
+}
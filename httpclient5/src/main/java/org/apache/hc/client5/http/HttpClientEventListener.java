@@ -0,0 +1,164 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http;
+
+import java.net.InetAddress;
+import java.net.URI;
+
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+/**
+ * Listener of request execution lifecycle events of the classic and the async
+ * clients. Each event carries the execution context of the request and a
+ * {@link System#nanoTime()} timestamp taken at the moment the event occurred, which makes
+ * it possible to break down the total execution time into DNS resolution, connect,
+ * TLS handshake, time to first byte and response body transfer.
+ * <p>
+ * The listener can be configured at the client level or on a per request basis with
+ * {@link org.apache.hc.client5.http.protocol.HttpClientContext#setEventListener(HttpClientEventListener)}.
+ * Events are not generated at all when no listener is configured.
+ * </p>
+ * <p>
+ * Implementations are called on the request execution path and I/O dispatch threads
+ * and must be thread safe, cheap and must not block. All methods have no-op default
+ * implementations.
+ * </p>
+ *
+ * @since 5.3
+ */
+public interface HttpClientEventListener {
+
+    /**
+     * Called when the execution of a request has started.
+     */
+    default void onCallStart(final HttpContext context, final long nanoTime, final HttpRequest request) {
+    }
+
+    /**
+     * Called when the execution of a request has completed. With the classic client
+     * this happens as soon as the response has been handed over to the caller and its body
+     * may not have been consumed yet; {@link #onResponseEnd(HttpContext, long)} signals the
+     * end of the response body.
+     */
+    default void onCallEnd(final HttpContext context, final long nanoTime) {
+    }
+
+    /**
+     * Called when the execution of a request has failed.
+     */
+    default void onCallFailed(final HttpContext context, final long nanoTime, final Exception cause) {
+    }
+
+    /**
+     * Called before a host name is resolved.
+     */
+    default void onDnsStart(final HttpContext context, final long nanoTime, final String hostName) {
+    }
+
+    /**
+     * Called after a host name has been resolved.
+     */
+    default void onDnsEnd(final HttpContext context, final long nanoTime, final String hostName, final InetAddress[] addresses) {
+    }
+
+    /**
+     * Called before a connection to the given host is established. Host name resolution
+     * and, for {@code https} hosts, the TLS handshake take place between this event and
+     * {@link #onConnectEnd(HttpContext, long, HttpHost)} or
+     * {@link #onConnectFailed(HttpContext, long, HttpHost, Exception)}.
+     */
+    default void onConnectStart(final HttpContext context, final long nanoTime, final HttpHost host) {
+    }
+
+    /**
+     * Called after a connection to the given host has been established.
+     */
+    default void onConnectEnd(final HttpContext context, final long nanoTime, final HttpHost host) {
+    }
+
+    /**
+     * Called when a connection to the given host could not be established.
+     */
+    default void onConnectFailed(final HttpContext context, final long nanoTime, final HttpHost host, final Exception cause) {
+    }
+
+    /**
+     * Called before a TLS handshake with the given host is started.
+     */
+    default void onTlsHandshakeStart(final HttpContext context, final long nanoTime, final String hostName) {
+    }
+
+    /**
+     * Called after a TLS handshake with the given host has completed.
+     */
+    default void onTlsHandshakeEnd(final HttpContext context, final long nanoTime, final String hostName) {
+    }
+
+    /**
+     * Called before a request message is sent over a connection. Called once per message
+     * exchange, including exchanges caused by redirects, authentication and retries.
+     */
+    default void onRequestStart(final HttpContext context, final long nanoTime, final HttpRequest request) {
+    }
+
+    /**
+     * Called after a request message body has been fully sent. Not called for requests
+     * without a body.
+     */
+    default void onRequestBodyEnd(final HttpContext context, final long nanoTime, final HttpRequest request) {
+    }
+
+    /**
+     * Called when a response message head has been received.
+     */
+    default void onResponseStart(final HttpContext context, final long nanoTime, final HttpResponse response) {
+    }
+
+    /**
+     * Called when a response message has been received in its entirety.
+     */
+    default void onResponseEnd(final HttpContext context, final long nanoTime) {
+    }
+
+    /**
+     * Called when a request is about to be redirected to the given location.
+     */
+    default void onRedirect(final HttpContext context, final long nanoTime, final HttpRequest request, final URI location) {
+    }
+
+    /**
+     * Called when a request is about to be retried.
+     *
+     * @param execCount the number of times the request has been executed so far.
+     */
+    default void onRetry(final HttpContext context, final long nanoTime, final HttpRequest request, final int execCount) {
+    }
+
+}
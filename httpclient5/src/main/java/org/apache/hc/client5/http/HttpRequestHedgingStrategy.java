@@ -0,0 +1,71 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Strategy interface that controls whether an additional copy of a request
+ * should be sent if the response to the initial one takes too long to arrive.
+ * Whichever copy receives a response first is used and the other one gets
+ * cancelled.
+ * <p>
+ * Hedging should be applied to idempotent requests only.
+ * </p>
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public interface HttpRequestHedgingStrategy {
+
+    /**
+     * Determines the delay after which an additional copy of the request
+     * should be sent.
+     *
+     * @param request the request to be executed.
+     * @param route the route of the request.
+     * @param context the context for the request execution.
+     *
+     * @return the delay or {@code null} if the request must not be hedged.
+     */
+    TimeValue getHedgeDelay(HttpRequest request, HttpRoute route, HttpContext context);
+
+    /**
+     * Notifies the strategy of the time it took to receive a response head
+     * for a request to the given route.
+     *
+     * @param route the route of the request.
+     * @param latency the time elapsed between the start of the request
+     *                execution and the arrival of the response head.
+     */
+    void responseReceived(HttpRoute route, TimeValue latency);
+
+}
@@ -0,0 +1,61 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * Retry budget that limits the number of retries relative to the number of
+ * requests executed across all requests to the same route. Unlike
+ * {@link HttpRequestRetryStrategy}, which decides on each request individually,
+ * a retry budget prevents retries from multiplying load on an upstream that is
+ * already failing.
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public interface RetryBudget {
+
+    /**
+     * Records the initial execution of a request to the given route.
+     *
+     * @param route the route of the request.
+     */
+    void deposit(HttpRoute route);
+
+    /**
+     * Attempts to withdraw from the budget of the given route in order to
+     * re-execute a request or to send an additional copy of it.
+     *
+     * @param route the route of the request.
+     * @return {@code true} if the budget allows the request to be re-executed,
+     *         {@code false} otherwise.
+     */
+    boolean withdraw(HttpRoute route);
+
+}
@@ -62,13 +62,14 @@ public class RequestConfig implements Cloneable {
     private final TimeValue connectionKeepAlive;
     private final boolean contentCompressionEnabled;
     private final boolean hardCancellationEnabled;
+    private final Timeout executionTimeout;
 
     /**
      * Intended for CDI compatibility
     */
     protected RequestConfig() {
         this(false, null, null, false, false, 0, false, null, null,
-                DEFAULT_CONNECTION_REQUEST_TIMEOUT, null, null, DEFAULT_CONN_KEEP_ALIVE, false, false);
+                DEFAULT_CONNECTION_REQUEST_TIMEOUT, null, null, DEFAULT_CONN_KEEP_ALIVE, false, false, null);
     }
 
     RequestConfig(
@@ -86,7 +87,8 @@ protected RequestConfig() {
             final Timeout responseTimeout,
             final TimeValue connectionKeepAlive,
             final boolean contentCompressionEnabled,
-            final boolean hardCancellationEnabled) {
+            final boolean hardCancellationEnabled,
+            final Timeout executionTimeout) {
         super();
         this.expectContinueEnabled = expectContinueEnabled;
         this.proxy = proxy;
@@ -103,6 +105,7 @@ protected RequestConfig() {
         this.connectionKeepAlive = connectionKeepAlive;
         this.contentCompressionEnabled = contentCompressionEnabled;
         this.hardCancellationEnabled = hardCancellationEnabled;
+        this.executionTimeout = executionTimeout;
     }
 
     /**
@@ -217,6 +220,15 @@ public boolean isHardCancellationEnabled() {
         return hardCancellationEnabled;
     }
 
+    /**
+     * @see Builder#setExecutionTimeout(Timeout)
+     *
+     * @since 5.3
+     */
+    public Timeout getExecutionTimeout() {
+        return executionTimeout;
+    }
+
     @Override
     protected RequestConfig clone() throws CloneNotSupportedException {
         return (RequestConfig) super.clone();
@@ -241,6 +253,7 @@ public String toString() {
         builder.append(", connectionKeepAlive=").append(connectionKeepAlive);
         builder.append(", contentCompressionEnabled=").append(contentCompressionEnabled);
         builder.append(", hardCancellationEnabled=").append(hardCancellationEnabled);
+        builder.append(", executionTimeout=").append(executionTimeout);
         builder.append("]");
         return builder.toString();
     }
@@ -265,7 +278,8 @@ public static RequestConfig.Builder copy(final RequestConfig config) {
             .setResponseTimeout(config.getResponseTimeout())
             .setConnectionKeepAlive(config.getConnectionKeepAlive())
             .setContentCompressionEnabled(config.isContentCompressionEnabled())
-            .setHardCancellationEnabled(config.isHardCancellationEnabled());
+            .setHardCancellationEnabled(config.isHardCancellationEnabled())
+            .setExecutionTimeout(config.getExecutionTimeout());
     }
 
     public static class Builder {
@@ -285,6 +299,7 @@ public static class Builder {
         private TimeValue connectionKeepAlive;
         private boolean contentCompressionEnabled;
         private boolean hardCancellationEnabled;
+        private Timeout executionTimeout;
 
         Builder() {
             super();
@@ -570,6 +585,36 @@ public Builder setHardCancellationEnabled(final boolean hardCancellationEnabled)
             return this;
         }
 
+        /**
+         * Determines the total time allowed for the execution of a request
+         * including all re-executions and the delays between them. Requests
+         * are not re-executed if the re-execution is not expected to complete
+         * before the timeout expires. Please note the timeout does not abort
+         * a request execution that is already in progress.
+         * <p>
+         * A timeout value of zero is interpreted as an infinite timeout.
+         * </p>
+         * <p>
+         * Default: {@code null}
+         * </p>
+         *
+         * @since 5.3
+         */
+        public Builder setExecutionTimeout(final Timeout executionTimeout) {
+            this.executionTimeout = executionTimeout;
+            return this;
+        }
+
+        /**
+         * @see #setExecutionTimeout(Timeout)
+         *
+         * @since 5.3
+         */
+        public Builder setExecutionTimeout(final long executionTimeout, final TimeUnit timeUnit) {
+            this.executionTimeout = Timeout.of(executionTimeout, timeUnit);
+            return this;
+        }
+
         public RequestConfig build() {
             return new RequestConfig(
                     expectContinueEnabled,
@@ -586,7 +631,8 @@ public RequestConfig build() {
                     responseTimeout,
                     connectionKeepAlive != null ? connectionKeepAlive : DEFAULT_CONN_KEEP_ALIVE,
                     contentCompressionEnabled,
-                    hardCancellationEnabled);
+                    hardCancellationEnabled,
+                    executionTimeout);
         }
 
     }
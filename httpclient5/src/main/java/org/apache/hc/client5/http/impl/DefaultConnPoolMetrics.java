@@ -0,0 +1,277 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hc.client5.http.ConnPoolListener;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * Default {@link ConnPoolListener} that accumulates connection pool metrics per route
+ * and in total. Counters are kept in {@link LongAdder}s and durations in
+ * {@link LatencyHistogram}s, so recording never blocks.
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class DefaultConnPoolMetrics implements ConnPoolListener {
+
+    /**
+     * Connection pool metrics of a route or of all routes.
+     */
+    public static final class Metrics {
+
+        private final LongAdder leaseRequests;
+        private final LongAdder leasesGranted;
+        private final LongAdder leasesReused;
+        private final LongAdder leaseTimeouts;
+        private final LongAdder leaseFailures;
+        private final LongAdder connects;
+        private final LongAdder connectFailures;
+        private final LongAdder releasesReusable;
+        private final LongAdder releasesClosed;
+        private final LongAdder evictions;
+        private final LatencyHistogram leaseWait;
+        private final LatencyHistogram connectTime;
+        private final LatencyHistogram tlsHandshakeTime;
+
+        Metrics() {
+            this.leaseRequests = new LongAdder();
+            this.leasesGranted = new LongAdder();
+            this.leasesReused = new LongAdder();
+            this.leaseTimeouts = new LongAdder();
+            this.leaseFailures = new LongAdder();
+            this.connects = new LongAdder();
+            this.connectFailures = new LongAdder();
+            this.releasesReusable = new LongAdder();
+            this.releasesClosed = new LongAdder();
+            this.evictions = new LongAdder();
+            this.leaseWait = new LatencyHistogram();
+            this.connectTime = new LatencyHistogram();
+            this.tlsHandshakeTime = new LatencyHistogram();
+        }
+
+        public long getLeaseRequests() {
+            return leaseRequests.sum();
+        }
+
+        public long getLeasesGranted() {
+            return leasesGranted.sum();
+        }
+
+        /**
+         * Returns the number of granted leases that re-used a persistent connection.
+         */
+        public long getLeasesReused() {
+            return leasesReused.sum();
+        }
+
+        public long getLeaseTimeouts() {
+            return leaseTimeouts.sum();
+        }
+
+        public long getLeaseFailures() {
+            return leaseFailures.sum();
+        }
+
+        public long getConnects() {
+            return connects.sum();
+        }
+
+        public long getConnectFailures() {
+            return connectFailures.sum();
+        }
+
+        public long getReleasesReusable() {
+            return releasesReusable.sum();
+        }
+
+        public long getReleasesClosed() {
+            return releasesClosed.sum();
+        }
+
+        public long getEvictions() {
+            return evictions.sum();
+        }
+
+        /**
+         * Returns the histogram of time spent waiting for a connection lease (nanoseconds).
+         */
+        public LatencyHistogram getLeaseWait() {
+            return leaseWait;
+        }
+
+        /**
+         * Returns the histogram of time spent establishing connections (nanoseconds).
+         */
+        public LatencyHistogram getConnectTime() {
+            return connectTime;
+        }
+
+        /**
+         * Returns the histogram of TLS handshake times (nanoseconds).
+         */
+        public LatencyHistogram getTlsHandshakeTime() {
+            return tlsHandshakeTime;
+        }
+
+        @Override
+        public String toString() {
+            return "[lease requests: " + getLeaseRequests() +
+                    "; granted: " + getLeasesGranted() +
+                    "; reused: " + getLeasesReused() +
+                    "; timeouts: " + getLeaseTimeouts() +
+                    "; failures: " + getLeaseFailures() +
+                    "; connects: " + getConnects() +
+                    "; connect failures: " + getConnectFailures() +
+                    "; released reusable: " + getReleasesReusable() +
+                    "; released closed: " + getReleasesClosed() +
+                    "; evictions: " + getEvictions() +
+                    "; lease wait: " + leaseWait +
+                    "; connect time: " + connectTime +
+                    "; TLS handshake time: " + tlsHandshakeTime + "]";
+        }
+
+    }
+
+    private final Metrics totals;
+    private final Map<HttpRoute, Metrics> routeMetrics;
+
+    public DefaultConnPoolMetrics() {
+        this.totals = new Metrics();
+        this.routeMetrics = new ConcurrentHashMap<>();
+    }
+
+    private Metrics metrics(final HttpRoute route) {
+        final Metrics metrics = routeMetrics.get(route);
+        return metrics != null ? metrics : routeMetrics.computeIfAbsent(route, r -> new Metrics());
+    }
+
+    @Override
+    public void onLeaseRequested(final HttpRoute route) {
+        totals.leaseRequests.increment();
+        metrics(route).leaseRequests.increment();
+    }
+
+    @Override
+    public void onLeaseGranted(final HttpRoute route, final long waitNanos, final boolean connected) {
+        final Metrics metrics = metrics(route);
+        totals.leasesGranted.increment();
+        metrics.leasesGranted.increment();
+        if (connected) {
+            totals.leasesReused.increment();
+            metrics.leasesReused.increment();
+        }
+        totals.leaseWait.record(waitNanos);
+        metrics.leaseWait.record(waitNanos);
+    }
+
+    @Override
+    public void onLeaseTimeout(final HttpRoute route, final long waitNanos) {
+        final Metrics metrics = metrics(route);
+        totals.leaseTimeouts.increment();
+        metrics.leaseTimeouts.increment();
+        totals.leaseWait.record(waitNanos);
+        metrics.leaseWait.record(waitNanos);
+    }
+
+    @Override
+    public void onLeaseFailed(final HttpRoute route, final long waitNanos) {
+        totals.leaseFailures.increment();
+        metrics(route).leaseFailures.increment();
+    }
+
+    @Override
+    public void onConnectCompleted(final HttpRoute route, final long connectNanos) {
+        final Metrics metrics = metrics(route);
+        totals.connects.increment();
+        metrics.connects.increment();
+        totals.connectTime.record(connectNanos);
+        metrics.connectTime.record(connectNanos);
+    }
+
+    @Override
+    public void onConnectFailed(final HttpRoute route, final long connectNanos, final Exception cause) {
+        totals.connectFailures.increment();
+        metrics(route).connectFailures.increment();
+    }
+
+    @Override
+    public void onTlsHandshakeCompleted(final HttpRoute route, final long handshakeNanos) {
+        totals.tlsHandshakeTime.record(handshakeNanos);
+        metrics(route).tlsHandshakeTime.record(handshakeNanos);
+    }
+
+    @Override
+    public void onRelease(final HttpRoute route, final boolean reusable) {
+        if (reusable) {
+            totals.releasesReusable.increment();
+            metrics(route).releasesReusable.increment();
+        } else {
+            totals.releasesClosed.increment();
+            metrics(route).releasesClosed.increment();
+        }
+    }
+
+    @Override
+    public void onEviction(final HttpRoute route, final int count) {
+        totals.evictions.add(count);
+        metrics(route).evictions.add(count);
+    }
+
+    /**
+     * Returns metrics of all routes combined.
+     */
+    public Metrics getTotals() {
+        return totals;
+    }
+
+    /**
+     * Returns metrics of the given route or {@code null} if no events have been
+     * recorded for the route.
+     */
+    public Metrics getMetrics(final HttpRoute route) {
+        return routeMetrics.get(route);
+    }
+
+    public Set<HttpRoute> getRoutes() {
+        return Collections.unmodifiableSet(routeMetrics.keySet());
+    }
+
+    @Override
+    public String toString() {
+        return totals.toString();
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.client5.http.HttpRequestHedgingStrategy;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.Method;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+
+/**
+ * Default implementation of the {@link HttpRequestHedgingStrategy} interface.
+ * <p>
+ * Idempotent requests are hedged after a delay equal to a percentile
+ * (95th by default) of the most recent response latencies observed for
+ * the same route. Requests are not hedged until enough latency samples
+ * have been collected for the route.
+ * </p>
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class DefaultHttpRequestHedgingStrategy implements HttpRequestHedgingStrategy {
+
+    private static final int WINDOW_SIZE = 256;
+    private static final int RECOMPUTE_INTERVAL = 16;
+
+    private final double percentile;
+    private final int minSamples;
+    private final TimeValue minDelay;
+    private final ConcurrentMap<HttpRoute, LatencyWindow> windows;
+
+    /**
+     * @param percentile the latency percentile used as the hedge delay, between 0 and 1.
+     * @param minSamples the number of latency samples per route required for hedging to kick in.
+     * @param minDelay the minimum hedge delay.
+     */
+    public DefaultHttpRequestHedgingStrategy(final double percentile, final int minSamples, final TimeValue minDelay) {
+        Args.check(percentile > 0 && percentile <= 1, "Percentile must be between 0 and 1");
+        Args.check(minSamples > 0 && minSamples <= WINDOW_SIZE, "Min samples must be between 1 and " + WINDOW_SIZE);
+        this.percentile = percentile;
+        this.minSamples = minSamples;
+        this.minDelay = minDelay != null ? minDelay : TimeValue.ZERO_MILLISECONDS;
+        this.windows = new ConcurrentHashMap<>();
+    }
+
+    public DefaultHttpRequestHedgingStrategy() {
+        this(0.95, 20, TimeValue.ofMilliseconds(5));
+    }
+
+    @Override
+    public TimeValue getHedgeDelay(final HttpRequest request, final HttpRoute route, final HttpContext context) {
+        if (!handleAsIdempotent(request)) {
+            return null;
+        }
+        final LatencyWindow window = windows.get(route);
+        if (window == null) {
+            return null;
+        }
+        final long delayNanos = window.getPercentile();
+        if (delayNanos < 0) {
+            return null;
+        }
+        final TimeValue delay = TimeValue.of(delayNanos, TimeUnit.NANOSECONDS);
+        return delay.compareTo(minDelay) < 0 ? minDelay : delay;
+    }
+
+    @Override
+    public void responseReceived(final HttpRoute route, final TimeValue latency) {
+        if (route == null || latency == null) {
+            return;
+        }
+        windows.computeIfAbsent(route, r -> new LatencyWindow()).add(latency.toNanoseconds());
+    }
+
+    protected boolean handleAsIdempotent(final HttpRequest request) {
+        return Method.isIdempotent(request.getMethod());
+    }
+
+    final class LatencyWindow {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final long[] samples = new long[WINDOW_SIZE];
+        private int count;
+        private int next;
+        private int sinceRecompute;
+        private volatile long cached = -1;
+
+        void add(final long sample) {
+            lock.lock();
+            try {
+                samples[next] = sample;
+                next = (next + 1) % samples.length;
+                if (count < samples.length) {
+                    count++;
+                }
+                if (count >= minSamples && (cached < 0 || ++sinceRecompute >= RECOMPUTE_INTERVAL)) {
+                    final long[] sorted = Arrays.copyOf(samples, count);
+                    Arrays.sort(sorted);
+                    final int index = (int) Math.ceil(percentile * count) - 1;
+                    cached = sorted[Math.max(0, Math.min(count - 1, index))];
+                    sinceRecompute = 0;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long getPercentile() {
+            return cached;
+        }
+
+    }
+
+}
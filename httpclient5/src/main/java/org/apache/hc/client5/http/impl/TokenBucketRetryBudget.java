@@ -0,0 +1,119 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.RetryBudget;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.util.Args;
+
+/**
+ * {@link RetryBudget} implementation backed by a token bucket per route.
+ * Every initial request execution deposits a fraction of a token equal to
+ * the retry ratio into the bucket up to the maximum number of tokens;
+ * every retry withdraws one whole token. Buckets start full so that
+ * sporadic failures can be retried right away, while sustained failures
+ * can be retried at the configured ratio only.
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class TokenBucketRetryBudget implements RetryBudget {
+
+    private static final long SCALE = 1000;
+
+    private final long depositAmount;
+    private final long capacity;
+    private final ConcurrentMap<HttpRoute, AtomicLong> buckets;
+
+    /**
+     * @param retryRatio ratio of retries to requests, for instance {@code 0.1}
+     *                   to allow one retry per ten requests.
+     * @param maxTokens the maximum number of retries that can be accumulated
+     *                  per route.
+     */
+    public TokenBucketRetryBudget(final double retryRatio, final int maxTokens) {
+        Args.check(retryRatio >= 0, "Retry ratio may not be negative");
+        Args.positive(maxTokens, "Max tokens");
+        this.depositAmount = Math.round(retryRatio * SCALE);
+        this.capacity = maxTokens * SCALE;
+        this.buckets = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Creates budget allowing one retry per ten requests with up to ten
+     * accumulated retries per route.
+     */
+    public TokenBucketRetryBudget() {
+        this(0.1, 10);
+    }
+
+    private AtomicLong getBucket(final HttpRoute route) {
+        return buckets.computeIfAbsent(route, r -> new AtomicLong(capacity));
+    }
+
+    @Override
+    public void deposit(final HttpRoute route) {
+        if (depositAmount == 0) {
+            return;
+        }
+        getBucket(route).accumulateAndGet(depositAmount, (current, amount) -> Math.min(capacity, current + amount));
+    }
+
+    @Override
+    public boolean withdraw(final HttpRoute route) {
+        final AtomicLong bucket = getBucket(route);
+        for (;;) {
+            final long current = bucket.get();
+            if (current < SCALE) {
+                return false;
+            }
+            if (bucket.compareAndSet(current, current - SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the number of retries currently available for the given route.
+     */
+    public int getAvailableRetries(final HttpRoute route) {
+        final AtomicLong bucket = buckets.get(route);
+        return (int) ((bucket != null ? bucket.get() : capacity) / SCALE);
+    }
+
+    @Override
+    public String toString() {
+        return "TokenBucketRetryBudget [ratio=" + (double) depositAmount / SCALE + ", maxTokens=" + capacity / SCALE + "]";
+    }
+
+}
@@ -0,0 +1,408 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.impl;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.Internal;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.DefaultThreadFactory;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.io.ModalCloseable;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Low overhead alternative to the {@code org.apache.hc.client5.http.wire} logger.
+ * <p>
+ * Instead of formatting every byte as it passes through the connection, raw data
+ * is copied into a fixed size per connection {@link WireCaptureBuffer ring buffer}.
+ * The content of the buffer gets written out asynchronously to a capture file
+ * in {@code pcap} format when the connection is closed or upon explicit
+ * {@link #dump(String) request}. Captures files use link type {@code USER0}
+ * (147) with each packet prefixed by a single direction byte ({@code 0} for
+ * incoming, {@code 1} for outgoing data).
+ * </p>
+ * <p>
+ * Only a {@link Builder#setSampleRate(double) sample} of connections gets captured
+ * by default. Capture can be switched on and off at runtime for individual
+ * connections by their id or for all connections to a particular endpoint.
+ * </p>
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class WireCapture implements ModalCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(WireCapture.class);
+
+    private static final int LINKTYPE_USER0 = 147;
+
+    private final Path directory;
+    private final int bufferSize;
+    private final double sampleRate;
+    private final ThreadPoolExecutor writer;
+    private final Map<String, WireCaptureBuffer> bufferMap;
+    private final Set<String> connectionIds;
+    private final Set<String> endpoints;
+    private final AtomicLong droppedDumps;
+
+    WireCapture(
+            final Path directory,
+            final int bufferSize,
+            final double sampleRate,
+            final int maxPendingDumps,
+            final ThreadFactory threadFactory) {
+        this.directory = directory;
+        this.bufferSize = bufferSize;
+        this.sampleRate = sampleRate;
+        this.droppedDumps = new AtomicLong();
+        this.writer = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(maxPendingDumps),
+                threadFactory,
+                (r, executor) -> droppedDumps.incrementAndGet());
+        this.bufferMap = new ConcurrentHashMap<>();
+        this.connectionIds = ConcurrentHashMap.newKeySet();
+        this.endpoints = ConcurrentHashMap.newKeySet();
+    }
+
+    static String endpointKey(final String hostname, final int port) {
+        return hostname.toLowerCase(Locale.ROOT) + ":" + port;
+    }
+
+    private boolean matches(final SocketAddress address) {
+        if (endpoints.isEmpty() || !(address instanceof InetSocketAddress)) {
+            return false;
+        }
+        final InetSocketAddress socketAddress = (InetSocketAddress) address;
+        if (endpoints.contains(endpointKey(socketAddress.getHostString(), socketAddress.getPort()))) {
+            return true;
+        }
+        final InetAddress inetAddress = socketAddress.getAddress();
+        return inetAddress != null
+                && endpoints.contains(endpointKey(inetAddress.getHostAddress(), socketAddress.getPort()));
+    }
+
+    void resolve(final WireCaptureBuffer buffer) {
+        final SocketAddress remoteAddress = buffer.getRemoteAddress();
+        if (remoteAddress != null) {
+            buffer.setResolved();
+            if (matches(remoteAddress)) {
+                buffer.setActive(true);
+            }
+        }
+    }
+
+    /**
+     * Creates a capture buffer for a newly opened connection or returns the existing
+     * one if a connection with the same id has already been registered.
+     *
+     * @param id the connection id.
+     * @param remoteAddressSupplier supplier of the remote address of the connection,
+     *                              which may not yet be known at the time of registration.
+     */
+    @Internal
+    public WireCaptureBuffer register(final String id, final Supplier<SocketAddress> remoteAddressSupplier) {
+        Args.notNull(id, "Connection id");
+        return bufferMap.computeIfAbsent(id, k -> {
+            final boolean sampled = sampleRate > 0.0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+            return new WireCaptureBuffer(
+                    this, k, remoteAddressSupplier, bufferSize, sampled || connectionIds.contains(k));
+        });
+    }
+
+    /**
+     * Releases the capture buffer of a closed connection scheduling its content
+     * to be written out if capture is active for that connection.
+     */
+    @Internal
+    public void release(final WireCaptureBuffer buffer) {
+        if (buffer == null) {
+            return;
+        }
+        final boolean active = buffer.isActive();
+        if (buffer.markReleased()) {
+            bufferMap.remove(buffer.getId(), buffer);
+            connectionIds.remove(buffer.getId());
+            if (active) {
+                schedule(buffer);
+            }
+        }
+    }
+
+    /**
+     * Enables capture for the connection with the given id.
+     */
+    public void enable(final String connectionId) {
+        Args.notNull(connectionId, "Connection id");
+        connectionIds.add(connectionId);
+        final WireCaptureBuffer buffer = bufferMap.get(connectionId);
+        if (buffer != null) {
+            buffer.setActive(true);
+        }
+    }
+
+    /**
+     * Disables capture for the connection with the given id.
+     */
+    public void disable(final String connectionId) {
+        Args.notNull(connectionId, "Connection id");
+        connectionIds.remove(connectionId);
+        final WireCaptureBuffer buffer = bufferMap.get(connectionId);
+        if (buffer != null) {
+            buffer.setActive(false);
+        }
+    }
+
+    /**
+     * Enables capture for all current and future connections to the given endpoint.
+     */
+    public void enable(final NamedEndpoint endpoint) {
+        Args.notNull(endpoint, "Endpoint");
+        endpoints.add(endpointKey(endpoint.getHostName(), endpoint.getPort()));
+        for (final WireCaptureBuffer buffer : bufferMap.values()) {
+            if (matches(buffer.getRemoteAddress())) {
+                buffer.setActive(true);
+            }
+        }
+    }
+
+    /**
+     * Disables capture for all current and future connections to the given endpoint
+     * except those explicitly enabled by their id.
+     */
+    public void disable(final NamedEndpoint endpoint) {
+        Args.notNull(endpoint, "Endpoint");
+        final String key = endpointKey(endpoint.getHostName(), endpoint.getPort());
+        for (final WireCaptureBuffer buffer : bufferMap.values()) {
+            if (matches(buffer.getRemoteAddress()) && !connectionIds.contains(buffer.getId())) {
+                buffer.setActive(false);
+            }
+        }
+        endpoints.remove(key);
+    }
+
+    /**
+     * Schedules the data captured so far for the connection with the given id
+     * to be written out.
+     *
+     * @return {@code true} if the connection is known and its capture is active.
+     */
+    public boolean dump(final String connectionId) {
+        Args.notNull(connectionId, "Connection id");
+        final WireCaptureBuffer buffer = bufferMap.get(connectionId);
+        if (buffer != null && buffer.isActive()) {
+            schedule(buffer);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of capture dumps discarded due to the write queue being full.
+     */
+    public long getDroppedDumpCount() {
+        return droppedDumps.get();
+    }
+
+    private void schedule(final WireCaptureBuffer buffer) {
+        if (buffer.isEmpty() || writer.isShutdown()) {
+            return;
+        }
+        final String id = buffer.getId();
+        final byte[] records = buffer.snapshot();
+        writer.execute(() -> {
+            final Path file = directory.resolve(id.replaceAll("[^A-Za-z0-9._-]", "_")
+                    + "-" + System.currentTimeMillis() + ".pcap");
+            try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                writePcap(records, out);
+            } catch (final IOException ex) {
+                LOG.warn("{} Failure writing wire capture to {}: {}", id, file, ex.getMessage());
+            }
+        });
+    }
+
+    private static void writeIntLE(final OutputStream out, final int n) throws IOException {
+        out.write(n);
+        out.write(n >>> 8);
+        out.write(n >>> 16);
+        out.write(n >>> 24);
+    }
+
+    private static int readInt(final byte[] b, final int off) {
+        return ((b[off] & 0xff) << 24) | ((b[off + 1] & 0xff) << 16) | ((b[off + 2] & 0xff) << 8) | (b[off + 3] & 0xff);
+    }
+
+    private static long readLong(final byte[] b, final int off) {
+        return ((long) readInt(b, off) << 32) | (readInt(b, off + 4) & 0xffffffffL);
+    }
+
+    static void writePcap(final byte[] records, final OutputStream out) throws IOException {
+        writeIntLE(out, 0xa1b2c3d4);
+        out.write(2);
+        out.write(0);
+        out.write(4);
+        out.write(0);
+        writeIntLE(out, 0);
+        writeIntLE(out, 0);
+        writeIntLE(out, 0x7fffffff);
+        writeIntLE(out, LINKTYPE_USER0);
+        int pos = 0;
+        while (pos + WireCaptureBuffer.HEADER_SIZE <= records.length) {
+            final byte direction = records[pos];
+            final long timestamp = readLong(records, pos + 1);
+            final int originalLen = readInt(records, pos + 9);
+            final int capturedLen = readInt(records, pos + 13);
+            pos += WireCaptureBuffer.HEADER_SIZE;
+            writeIntLE(out, (int) (timestamp / 1000));
+            writeIntLE(out, (int) (timestamp % 1000) * 1000);
+            writeIntLE(out, capturedLen + 1);
+            writeIntLE(out, originalLen + 1);
+            out.write(direction);
+            out.write(records, pos, capturedLen);
+            pos += capturedLen;
+        }
+    }
+
+    @Override
+    public void close(final CloseMode closeMode) {
+        if (closeMode == CloseMode.IMMEDIATE) {
+            writer.shutdownNow();
+        } else {
+            writer.shutdown();
+        }
+    }
+
+    @Override
+    public void close() {
+        close(CloseMode.GRACEFUL);
+    }
+
+    /**
+     * Blocks until all pending capture dumps have been written out or the timeout expires.
+     */
+    public void awaitTermination(final TimeValue waitTime) throws InterruptedException {
+        Args.notNull(waitTime, "Wait time");
+        writer.awaitTermination(waitTime.getDuration(), waitTime.getTimeUnit());
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link WireCapture}.
+     */
+    public static final class Builder {
+
+        private Path directory;
+        private int bufferSize;
+        private double sampleRate;
+        private int maxPendingDumps;
+        private ThreadFactory threadFactory;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the directory capture files get written to. Defaults to the current
+         * working directory.
+         */
+        public Builder setDirectory(final Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        /**
+         * Sets the size in bytes of the per connection ring buffer. Defaults to 64 KiB.
+         */
+        public Builder setBufferSize(final int bufferSize) {
+            Args.check(bufferSize > WireCaptureBuffer.HEADER_SIZE, "Buffer size is too small");
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Sets the fraction of new connections captured without being explicitly
+         * enabled. Defaults to {@code 0}.
+         */
+        public Builder setSampleRate(final double sampleRate) {
+            Args.check(sampleRate >= 0.0 && sampleRate <= 1.0, "Sample rate must be between 0 and 1");
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of capture dumps queued for writing. Dumps in excess
+         * of this number are dropped. Defaults to 16.
+         */
+        public Builder setMaxPendingDumps(final int maxPendingDumps) {
+            this.maxPendingDumps = Args.positive(maxPendingDumps, "Max pending dumps");
+            return this;
+        }
+
+        public Builder setThreadFactory(final ThreadFactory threadFactory) {
+            this.threadFactory = threadFactory;
+            return this;
+        }
+
+        public WireCapture build() {
+            return new WireCapture(
+                    directory != null ? directory : Paths.get("."),
+                    bufferSize > 0 ? bufferSize : 64 * 1024,
+                    sampleRate,
+                    maxPendingDumps > 0 ? maxPendingDumps : 16,
+                    threadFactory != null ? threadFactory : new DefaultThreadFactory("wire-capture", true));
+        }
+
+    }
+
+}
@@ -0,0 +1,279 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.impl;
+
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.Internal;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * Fixed size ring buffer of raw bytes exchanged over a single connection.
+ * <p>
+ * Data is kept as a sequence of records, each consisting of a direction flag,
+ * a time stamp, the original and the captured length followed by the captured
+ * bytes. Once the buffer is full the oldest records get discarded. No formatting
+ * of any kind takes place on the I/O path.
+ * </p>
+ *
+ * @see WireCapture
+ * @since 5.3
+ */
+@Internal
+@Contract(threading = ThreadingBehavior.SAFE)
+public final class WireCaptureBuffer {
+
+    static final int HEADER_SIZE = 17;
+
+    static final byte INPUT = 0;
+    static final byte OUTPUT = 1;
+
+    private final WireCapture owner;
+    private final String id;
+    private final Supplier<SocketAddress> remoteAddressSupplier;
+    private final int capacity;
+    private final ReentrantLock lock;
+
+    private volatile boolean active;
+    private volatile boolean resolved;
+    private volatile boolean released;
+
+    private byte[] ring;
+    private int head;
+    private int size;
+
+    WireCaptureBuffer(
+            final WireCapture owner,
+            final String id,
+            final Supplier<SocketAddress> remoteAddressSupplier,
+            final int capacity,
+            final boolean active) {
+        this.owner = owner;
+        this.id = id;
+        this.remoteAddressSupplier = remoteAddressSupplier;
+        this.capacity = capacity;
+        this.lock = new ReentrantLock();
+        this.active = active;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    SocketAddress getRemoteAddress() {
+        return remoteAddressSupplier != null ? remoteAddressSupplier.get() : null;
+    }
+
+    boolean isResolved() {
+        return resolved;
+    }
+
+    void setResolved() {
+        this.resolved = true;
+    }
+
+    void setActive(final boolean active) {
+        this.active = active;
+    }
+
+    boolean markReleased() {
+        lock.lock();
+        try {
+            if (released) {
+                return false;
+            }
+            released = true;
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Determines whether or not data exchanged over the connection is being captured.
+     */
+    public boolean isActive() {
+        if (!resolved && !active) {
+            owner.resolve(this);
+        }
+        return active && !released;
+    }
+
+    public void input(final byte[] b, final int off, final int len) {
+        append(INPUT, b, off, len);
+    }
+
+    public void output(final byte[] b, final int off, final int len) {
+        append(OUTPUT, b, off, len);
+    }
+
+    public void input(final ByteBuffer b) {
+        append(INPUT, b);
+    }
+
+    public void output(final ByteBuffer b) {
+        append(OUTPUT, b);
+    }
+
+    private void put(final int index, final byte b) {
+        ring[index % ring.length] = b;
+    }
+
+    private byte get(final int index) {
+        return ring[index % ring.length];
+    }
+
+    private void putInt(final int index, final int n) {
+        put(index, (byte) (n >>> 24));
+        put(index + 1, (byte) (n >>> 16));
+        put(index + 2, (byte) (n >>> 8));
+        put(index + 3, (byte) n);
+    }
+
+    private int getInt(final int index) {
+        return ((get(index) & 0xff) << 24)
+                | ((get(index + 1) & 0xff) << 16)
+                | ((get(index + 2) & 0xff) << 8)
+                | (get(index + 3) & 0xff);
+    }
+
+    private void putLong(final int index, final long n) {
+        putInt(index, (int) (n >>> 32));
+        putInt(index + 4, (int) n);
+    }
+
+    /**
+     * Reserves space for a record of the given data length, discarding the oldest
+     * records if necessary, writes the record header and returns the ring position
+     * of the record data.
+     */
+    private int reserve(final byte direction, final int originalLen, final int capturedLen) {
+        if (ring == null) {
+            ring = new byte[capacity];
+        }
+        final int recordLen = HEADER_SIZE + capturedLen;
+        while (size + recordLen > ring.length) {
+            final int discarded = HEADER_SIZE + getInt(head + 13);
+            head = (head + discarded) % ring.length;
+            size -= discarded;
+        }
+        final int pos = (head + size) % ring.length;
+        put(pos, direction);
+        putLong(pos + 1, System.currentTimeMillis());
+        putInt(pos + 9, originalLen);
+        putInt(pos + 13, capturedLen);
+        size += recordLen;
+        return (pos + HEADER_SIZE) % ring.length;
+    }
+
+    private void append(final byte direction, final byte[] b, final int off, final int len) {
+        if (len <= 0) {
+            return;
+        }
+        final int capturedLen = Math.min(len, capacity - HEADER_SIZE);
+        final int srcOff = off + len - capturedLen;
+        lock.lock();
+        try {
+            if (released) {
+                return;
+            }
+            final int pos = reserve(direction, len, capturedLen);
+            final int chunk = Math.min(capturedLen, ring.length - pos);
+            System.arraycopy(b, srcOff, ring, pos, chunk);
+            if (chunk < capturedLen) {
+                System.arraycopy(b, srcOff + chunk, ring, 0, capturedLen - chunk);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void append(final byte direction, final ByteBuffer b) {
+        final int len = b.remaining();
+        if (len <= 0) {
+            return;
+        }
+        final int capturedLen = Math.min(len, capacity - HEADER_SIZE);
+        final ByteBuffer src = b.duplicate();
+        src.position(src.position() + len - capturedLen);
+        lock.lock();
+        try {
+            if (released) {
+                return;
+            }
+            final int pos = reserve(direction, len, capturedLen);
+            final int chunk = Math.min(capturedLen, ring.length - pos);
+            src.get(ring, pos, chunk);
+            if (chunk < capturedLen) {
+                src.get(ring, 0, capturedLen - chunk);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    boolean isEmpty() {
+        lock.lock();
+        try {
+            return size == 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns a copy of the buffered records in the order they have been captured.
+     */
+    byte[] snapshot() {
+        lock.lock();
+        try {
+            final byte[] copy = new byte[size];
+            if (size == 0) {
+                return copy;
+            }
+            final int chunk = Math.min(size, ring.length - head);
+            System.arraycopy(ring, head, copy, 0, chunk);
+            if (chunk < size) {
+                System.arraycopy(ring, 0, copy, chunk, size - chunk);
+            }
+            return copy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+
+}
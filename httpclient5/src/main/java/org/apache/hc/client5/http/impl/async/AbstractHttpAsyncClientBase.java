@@ -26,16 +26,20 @@
  */
 package org.apache.hc.client5.http.impl.async;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.apache.hc.client5.http.nio.IODispatcherLoad;
 import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.nio.AsyncPushConsumer;
 import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.reactor.ConnectionInitiator;
 import org.apache.hc.core5.reactor.DefaultConnectingIOReactor;
+import org.apache.hc.core5.reactor.IOReactorService;
 import org.apache.hc.core5.reactor.IOReactorStatus;
 import org.apache.hc.core5.util.TimeValue;
 import org.slf4j.Logger;
@@ -48,7 +52,8 @@ enum Status { READY, RUNNING, TERMINATED }
     private static final Logger LOG = LoggerFactory.getLogger(AbstractHttpAsyncClientBase.class);
 
     private final AsyncPushConsumerRegistry pushConsumerRegistry;
-    private final DefaultConnectingIOReactor ioReactor;
+    private final IOReactorService ioReactor;
+    private final ConnectionInitiator connectionInitiator;
     private final ExecutorService executorService;
     private final AtomicReference<Status> status;
 
@@ -56,8 +61,17 @@ enum Status { READY, RUNNING, TERMINATED }
             final DefaultConnectingIOReactor ioReactor,
             final AsyncPushConsumerRegistry pushConsumerRegistry,
             final ThreadFactory threadFactory) {
+        this(ioReactor, ioReactor, pushConsumerRegistry, threadFactory);
+    }
+
+    AbstractHttpAsyncClientBase(
+            final IOReactorService ioReactor,
+            final ConnectionInitiator connectionInitiator,
+            final AsyncPushConsumerRegistry pushConsumerRegistry,
+            final ThreadFactory threadFactory) {
         super();
         this.ioReactor = ioReactor;
+        this.connectionInitiator = connectionInitiator;
         this.pushConsumerRegistry = pushConsumerRegistry;
         this.executorService = Executors.newSingleThreadExecutor(threadFactory);
         this.status = new AtomicReference<>(Status.READY);
@@ -80,7 +94,12 @@ boolean isRunning() {
     }
 
     ConnectionInitiator getConnectionInitiator() {
-        return ioReactor;
+        return connectionInitiator;
+    }
+
+    @Override
+    public List<? extends IODispatcherLoad> getIODispatcherLoads() {
+        return ioReactor instanceof IOReactorGroup ? ((IOReactorGroup) ioReactor).getDispatcherLoads() : Collections.emptyList();
     }
 
     @Override
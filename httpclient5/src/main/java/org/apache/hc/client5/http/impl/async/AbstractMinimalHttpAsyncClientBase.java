@@ -26,12 +26,15 @@
  */
 package org.apache.hc.client5.http.impl.async;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 
 import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.concurrent.Cancellable;
 import org.apache.hc.core5.concurrent.ComplexFuture;
+import org.apache.hc.core5.concurrent.DefaultThreadFactory;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.nio.AsyncClientExchangeHandler;
@@ -41,15 +44,32 @@
 import org.apache.hc.core5.http.nio.HandlerFactory;
 import org.apache.hc.core5.http.nio.support.BasicClientExchangeHandler;
 import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.reactor.DefaultConnectingIOReactor;
+import org.apache.hc.core5.util.Timeout;
 
 abstract class AbstractMinimalHttpAsyncClientBase extends AbstractHttpAsyncClientBase {
 
+    private final static ThreadFactory DEADLINE_THREAD_FACTORY = new DefaultThreadFactory("Deadline-scheduler", true);
+
+    private final ScheduledExecutorService deadlineExecutorService;
+
     AbstractMinimalHttpAsyncClientBase(
             final DefaultConnectingIOReactor ioReactor,
             final AsyncPushConsumerRegistry pushConsumerRegistry,
             final ThreadFactory threadFactory) {
         super(ioReactor, pushConsumerRegistry, threadFactory);
+        this.deadlineExecutorService = DeadlineScheduler.createExecutor(DEADLINE_THREAD_FACTORY);
+    }
+
+    @Override
+    void internalClose(final CloseMode closeMode) {
+        deadlineExecutorService.shutdownNow();
+    }
+
+    @Override
+    protected void scheduleDeadline(final CompletableFuture<?> future, final Timeout deadline) {
+        DeadlineScheduler.schedule(deadlineExecutorService, future, deadline);
     }
 
     @Override
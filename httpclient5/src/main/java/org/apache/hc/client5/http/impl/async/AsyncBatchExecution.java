@@ -0,0 +1,184 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.impl.async;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+
+/**
+ * Executes a batch of requests keeping at most a fixed number of them in flight
+ * and completes a single future with the responses in request order. The batch
+ * fails with the first request failure; requests still in flight are then cancelled
+ * and no further requests are submitted.
+ */
+final class AsyncBatchExecution {
+
+    interface RequestExecutor {
+
+        /**
+         * Submits the request for execution.
+         *
+         * @return the future of the response or {@code null} if the request cannot
+         * be cancelled individually.
+         */
+        Future<SimpleHttpResponse> execute(SimpleHttpRequest request, FutureCallback<SimpleHttpResponse> callback);
+
+    }
+
+    private final List<SimpleHttpRequest> requests;
+    private final int maxInFlight;
+    private final RequestExecutor requestExecutor;
+    private final SimpleHttpResponse[] responses;
+    private final AtomicReferenceArray<Future<SimpleHttpResponse>> inFlight;
+    private final AtomicInteger nextIndex;
+    private final AtomicInteger remaining;
+    private final BasicFuture<List<SimpleHttpResponse>> resultFuture;
+
+    AsyncBatchExecution(
+            final List<SimpleHttpRequest> requests,
+            final int maxInFlight,
+            final RequestExecutor requestExecutor,
+            final FutureCallback<List<SimpleHttpResponse>> callback) {
+        this.requests = requests;
+        this.maxInFlight = maxInFlight;
+        this.requestExecutor = requestExecutor;
+        this.responses = new SimpleHttpResponse[requests.size()];
+        this.inFlight = new AtomicReferenceArray<>(requests.size());
+        this.nextIndex = new AtomicInteger();
+        this.remaining = new AtomicInteger(requests.size());
+        this.resultFuture = new BasicFuture<List<SimpleHttpResponse>>(callback) {
+
+            @Override
+            public boolean cancel(final boolean mayInterruptIfRunning) {
+                final boolean cancelled = super.cancel(mayInterruptIfRunning);
+                if (cancelled) {
+                    cancelInFlight();
+                }
+                return cancelled;
+            }
+
+        };
+    }
+
+    Future<List<SimpleHttpResponse>> getFuture() {
+        return resultFuture;
+    }
+
+    boolean isDone() {
+        return resultFuture.isDone();
+    }
+
+    boolean isFailed() {
+        return resultFuture.isDone() && remaining.get() > 0;
+    }
+
+    void start() {
+        if (requests.isEmpty()) {
+            resultFuture.completed(Collections.emptyList());
+            return;
+        }
+        final int initial = Math.min(maxInFlight, requests.size());
+        for (int i = 0; i < initial; i++) {
+            submitNext();
+        }
+    }
+
+    private void submitNext() {
+        if (resultFuture.isDone()) {
+            return;
+        }
+        final int index = nextIndex.getAndIncrement();
+        if (index >= requests.size()) {
+            return;
+        }
+        final Future<SimpleHttpResponse> future;
+        try {
+            future = requestExecutor.execute(requests.get(index), new FutureCallback<SimpleHttpResponse>() {
+
+                @Override
+                public void completed(final SimpleHttpResponse response) {
+                    inFlight.set(index, null);
+                    responses[index] = response;
+                    if (remaining.decrementAndGet() == 0) {
+                        resultFuture.completed(Collections.unmodifiableList(Arrays.asList(responses)));
+                    } else {
+                        submitNext();
+                    }
+                }
+
+                @Override
+                public void failed(final Exception ex) {
+                    inFlight.set(index, null);
+                    fail(ex);
+                }
+
+                @Override
+                public void cancelled() {
+                    inFlight.set(index, null);
+                    fail(new CancellationException("Request execution cancelled"));
+                }
+
+            });
+        } catch (final RuntimeException ex) {
+            fail(ex);
+            return;
+        }
+        if (future != null && !future.isDone()) {
+            inFlight.set(index, future);
+            if (resultFuture.isDone()) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private void fail(final Exception cause) {
+        if (resultFuture.failed(cause)) {
+            cancelInFlight();
+        }
+    }
+
+    private void cancelInFlight() {
+        for (int i = 0; i < inFlight.length(); i++) {
+            final Future<SimpleHttpResponse> future = inFlight.getAndSet(i, null);
+            if (future != null) {
+                future.cancel(true);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,441 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.client5.http.HttpRequestHedgingStrategy;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.RetryBudget;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecChainHandler;
+import org.apache.hc.client5.http.async.AsyncExecRuntime;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.ExecSupport;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.Internal;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.ComplexCancellable;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.ProtocolVersion;
+import org.apache.hc.core5.http.nio.AsyncDataConsumer;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.entity.DiscardingEntityConsumer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.http.support.BasicRequestBuilder;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Request executor in the asynchronous request execution chain that is
+ * responsible for sending an additional copy of a request enclosing no
+ * content if the response to the initial one does not arrive within the
+ * delay given by the {@link HttpRequestHedgingStrategy}. The copy is executed
+ * with its own execution runtime and connection. Whichever copy receives
+ * a response head first is passed on, the other one gets cancelled and its
+ * connection discarded.
+ * <p>
+ * The copy is executed with a context of its own that falls back on the context
+ * of the initial request for attributes it does not set itself. If the copy wins,
+ * the attributes it has set, such as the route, the response, the cookie origin
+ * or the auth exchange state, get copied to the context of the initial request.
+ * </p>
+ * <p>
+ * If a {@link RetryBudget} is given, additional copies are sent only as long
+ * as the budget allows.
+ * </p>
+ * <p>
+ * Use {@link ChainElement#HEDGE} as name when referring to this handler.
+ * </p>
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.STATELESS)
+@Internal
+public final class AsyncHedgingExec implements AsyncExecChainHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AsyncHedgingExec.class);
+
+    private static final int NONE = 0;
+    private static final int PRIMARY = 1;
+    private static final int HEDGE = 2;
+
+    private final HttpRequestHedgingStrategy hedgingStrategy;
+    private final RetryBudget retryBudget;
+
+    public AsyncHedgingExec(final HttpRequestHedgingStrategy hedgingStrategy, final RetryBudget retryBudget) {
+        this.hedgingStrategy = Args.notNull(hedgingStrategy, "Hedging strategy");
+        this.retryBudget = retryBudget;
+    }
+
+    public AsyncHedgingExec(final HttpRequestHedgingStrategy hedgingStrategy) {
+        this(hedgingStrategy, null);
+    }
+
+    @Override
+    public void execute(
+            final HttpRequest request,
+            final AsyncEntityProducer entityProducer,
+            final AsyncExecChain.Scope scope,
+            final AsyncExecChain chain,
+            final AsyncExecCallback asyncExecCallback) throws HttpException, IOException {
+        final HttpRoute route = scope.route;
+        final TimeValue delay = entityProducer == null
+                ? hedgingStrategy.getHedgeDelay(request, route, scope.clientContext) : null;
+        if (delay == null) {
+            final long startNanos = System.nanoTime();
+            chain.proceed(request, entityProducer, scope, new AsyncExecCallback() {
+
+                @Override
+                public AsyncDataConsumer handleResponse(
+                        final HttpResponse response,
+                        final EntityDetails entityDetails) throws HttpException, IOException {
+                    hedgingStrategy.responseReceived(route, elapsed(startNanos));
+                    return asyncExecCallback.handleResponse(response, entityDetails);
+                }
+
+                @Override
+                public void handleInformationResponse(final HttpResponse response) throws HttpException, IOException {
+                    asyncExecCallback.handleInformationResponse(response);
+                }
+
+                @Override
+                public void completed() {
+                    asyncExecCallback.completed();
+                }
+
+                @Override
+                public void failed(final Exception cause) {
+                    asyncExecCallback.failed(cause);
+                }
+
+            });
+            return;
+        }
+
+        final Exchange exchange = new Exchange();
+        final Attempt primary = new Attempt(PRIMARY, new AsyncExecChain.Scope(
+                scope.exchangeId,
+                route,
+                scope.originalRequest,
+                new ComplexCancellable(),
+                scope.clientContext,
+                scope.execRuntime,
+                scope.scheduler,
+                scope.execCount), null);
+        final AsyncExecRuntime hedgeRuntime = scope.execRuntime.fork();
+        final HedgeContext hedgeContext = new HedgeContext(scope.clientContext);
+        final Attempt hedge = new Attempt(HEDGE, new AsyncExecChain.Scope(
+                ExecSupport.getNextExchangeId(),
+                route,
+                scope.originalRequest,
+                new ComplexCancellable(),
+                HttpClientContext.adapt(hedgeContext),
+                hedgeRuntime,
+                scope.scheduler,
+                scope.execCount), hedgeContext);
+        scope.cancellableDependency.setDependency(() -> {
+            final boolean cancelled = primary.cancel();
+            return hedge.cancel() || cancelled;
+        });
+
+        primary.startNanos = System.nanoTime();
+        chain.proceed(request, null, primary.scope,
+                new HedgingCallback(exchange, primary, hedge, asyncExecCallback));
+        scope.scheduler.scheduleExecution(
+                BasicRequestBuilder.copy(request).build(),
+                null,
+                hedge.scope,
+                (r, e, s, c) -> {
+                    if (!exchange.startHedge(route)) {
+                        return;
+                    }
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("{} no response in {}; sending hedged request {}", scope.exchangeId, delay, s.exchangeId);
+                    }
+                    hedge.startNanos = System.nanoTime();
+                    chain.proceed(r, e, s, c);
+                },
+                new HedgingCallback(exchange, hedge, primary, asyncExecCallback),
+                delay);
+    }
+
+    private static TimeValue elapsed(final long startNanos) {
+        return TimeValue.of(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Context of the hedged request. Attributes set by the hedged request are kept
+     * apart from those of the initial request.
+     */
+    static final class HedgeContext implements HttpContext {
+
+        private final HttpContext parentContext;
+        private final Map<String, Object> map;
+        private volatile ProtocolVersion version;
+
+        HedgeContext(final HttpContext parentContext) {
+            this.parentContext = parentContext;
+            this.map = new ConcurrentHashMap<>();
+        }
+
+        @Override
+        public ProtocolVersion getProtocolVersion() {
+            return version != null ? version : parentContext.getProtocolVersion();
+        }
+
+        @Override
+        public void setProtocolVersion(final ProtocolVersion version) {
+            this.version = version;
+        }
+
+        @Override
+        public Object getAttribute(final String id) {
+            Args.notNull(id, "Id");
+            final Object obj = map.get(id);
+            return obj != null ? obj : parentContext.getAttribute(id);
+        }
+
+        @Override
+        public Object setAttribute(final String id, final Object obj) {
+            Args.notNull(id, "Id");
+            return obj != null ? map.put(id, obj) : map.remove(id);
+        }
+
+        @Override
+        public Object removeAttribute(final String id) {
+            Args.notNull(id, "Id");
+            return map.remove(id);
+        }
+
+        /**
+         * Copies the attributes set by the hedged request to the parent context.
+         */
+        void copyToParent() {
+            for (final Map.Entry<String, Object> entry : map.entrySet()) {
+                parentContext.setAttribute(entry.getKey(), entry.getValue());
+            }
+            if (version != null) {
+                parentContext.setProtocolVersion(version);
+            }
+        }
+
+    }
+
+    static final class Attempt {
+
+        final int id;
+        final AsyncExecChain.Scope scope;
+        final HedgeContext hedgeContext;
+        volatile long startNanos;
+
+        Attempt(final int id, final AsyncExecChain.Scope scope, final HedgeContext hedgeContext) {
+            this.id = id;
+            this.scope = scope;
+            this.hedgeContext = hedgeContext;
+        }
+
+        /**
+         * Makes the state of this attempt visible through the context of the initial request.
+         */
+        void propagateContext() {
+            if (hedgeContext != null) {
+                hedgeContext.copyToParent();
+            }
+        }
+
+        boolean cancel() {
+            return ((ComplexCancellable) scope.cancellableDependency).cancel();
+        }
+
+        void discard() {
+            scope.execRuntime.discardEndpoint();
+        }
+
+    }
+
+    final class Exchange {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private int winner;
+        private boolean hedgeStarted;
+        private boolean primaryFailed;
+        private boolean hedgeFailed;
+
+        boolean startHedge(final HttpRoute route) {
+            lock.lock();
+            try {
+                if (winner != NONE || primaryFailed) {
+                    return false;
+                }
+                if (retryBudget != null && !retryBudget.withdraw(route)) {
+                    return false;
+                }
+                hedgeStarted = true;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Returns {@code true} if the given attempt has received the first response.
+         */
+        boolean respond(final Attempt attempt) {
+            lock.lock();
+            try {
+                if (winner == NONE) {
+                    winner = attempt.id;
+                }
+                return winner == attempt.id;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isWinner(final Attempt attempt) {
+            lock.lock();
+            try {
+                return winner == attempt.id;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Returns {@code true} if the failure of the given attempt is final
+         * and must be propagated.
+         */
+        boolean fail(final Attempt attempt) {
+            lock.lock();
+            try {
+                if (winner != NONE) {
+                    return winner == attempt.id;
+                }
+                if (attempt.id == PRIMARY) {
+                    primaryFailed = true;
+                    if (hedgeStarted && !hedgeFailed) {
+                        return false;
+                    }
+                } else {
+                    hedgeFailed = true;
+                    if (!primaryFailed) {
+                        return false;
+                    }
+                }
+                winner = attempt.id;
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+    }
+
+    final class HedgingCallback implements AsyncExecCallback {
+
+        private final Exchange exchange;
+        private final Attempt attempt;
+        private final Attempt other;
+        private final AsyncExecCallback asyncExecCallback;
+
+        HedgingCallback(
+                final Exchange exchange,
+                final Attempt attempt,
+                final Attempt other,
+                final AsyncExecCallback asyncExecCallback) {
+            this.exchange = exchange;
+            this.attempt = attempt;
+            this.other = other;
+            this.asyncExecCallback = asyncExecCallback;
+        }
+
+        @Override
+        public AsyncDataConsumer handleResponse(
+                final HttpResponse response,
+                final EntityDetails entityDetails) throws HttpException, IOException {
+            if (exchange.respond(attempt)) {
+                hedgingStrategy.responseReceived(attempt.scope.route, elapsed(attempt.startNanos));
+                if (other.cancel() && LOG.isDebugEnabled()) {
+                    LOG.debug("{} response received first; cancelling {}", attempt.scope.exchangeId, other.scope.exchangeId);
+                }
+                attempt.propagateContext();
+                return asyncExecCallback.handleResponse(response, entityDetails);
+            }
+            attempt.cancel();
+            return entityDetails != null ? new DiscardingEntityConsumer<>() : null;
+        }
+
+        @Override
+        public void handleInformationResponse(final HttpResponse response) throws HttpException, IOException {
+            if (exchange.isWinner(attempt)) {
+                asyncExecCallback.handleInformationResponse(response);
+            }
+        }
+
+        @Override
+        public void completed() {
+            if (exchange.isWinner(attempt)) {
+                if (attempt.id == HEDGE) {
+                    attempt.scope.execRuntime.releaseEndpoint();
+                }
+                asyncExecCallback.completed();
+            } else {
+                attempt.discard();
+            }
+        }
+
+        @Override
+        public void failed(final Exception cause) {
+            if (exchange.fail(attempt)) {
+                if (attempt.id == HEDGE) {
+                    attempt.discard();
+                }
+                attempt.propagateContext();
+                asyncExecCallback.failed(cause);
+            } else {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("{} hedged request failed: {}", attempt.scope.exchangeId, cause.getMessage());
+                }
+                attempt.discard();
+            }
+        }
+
+    }
+
+}
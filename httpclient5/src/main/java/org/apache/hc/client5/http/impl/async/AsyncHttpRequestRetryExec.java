@@ -28,8 +28,10 @@
 
 import java.io.IOException;
 
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.HttpRequestRetryStrategy;
 import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.RetryBudget;
 import org.apache.hc.client5.http.async.AsyncExecCallback;
 import org.apache.hc.client5.http.async.AsyncExecChain;
 import org.apache.hc.client5.http.async.AsyncExecChainHandler;
@@ -48,6 +50,7 @@
 import org.apache.hc.core5.http.support.BasicRequestBuilder;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -78,6 +81,15 @@
  * each individual retry. Elapsed time will measure each individual http request,
  * without the delay imposed by the retry handler.
  * </p>
+ * <p>
+ * If a {@link RetryBudget} is given, requests are re-executed only as long as
+ * the budget of the route allows, regardless of the decision of the retry strategy.
+ * </p>
+ * <p>
+ * Requests are not re-executed if the re-execution is not expected to complete
+ * within the {@link org.apache.hc.client5.http.config.RequestConfig#getExecutionTimeout()
+ * execution timeout}, assuming it takes as long as the preceding execution.
+ * </p>
  *
  * @since 5.0
  */
@@ -88,19 +100,61 @@ public final class AsyncHttpRequestRetryExec implements AsyncExecChainHandler {
     private static final Logger LOG = LoggerFactory.getLogger(AsyncHttpRequestRetryExec.class);
 
     private final HttpRequestRetryStrategy retryStrategy;
+    private final RetryBudget retryBudget;
 
-    public AsyncHttpRequestRetryExec(final HttpRequestRetryStrategy retryStrategy) {
+    /**
+     * @since 5.3
+     */
+    public AsyncHttpRequestRetryExec(final HttpRequestRetryStrategy retryStrategy, final RetryBudget retryBudget) {
         Args.notNull(retryStrategy, "retryStrategy");
         this.retryStrategy = retryStrategy;
+        this.retryBudget = retryBudget;
+    }
+
+    public AsyncHttpRequestRetryExec(final HttpRequestRetryStrategy retryStrategy) {
+        this(retryStrategy, null);
+    }
+
+    private boolean withdrawRetry(final String exchangeId, final HttpRoute route) {
+        if (retryBudget == null || retryBudget.withdraw(route)) {
+            return true;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} retry budget of {} exhausted", exchangeId, route);
+        }
+        return false;
     }
 
     private static class State {
 
+        final long startNanos = System.nanoTime();
+        volatile long attemptStartNanos;
         volatile boolean retrying;
         volatile TimeValue delay;
 
     }
 
+    private boolean isWithinDeadline(
+            final String exchangeId,
+            final HttpClientContext context,
+            final State state,
+            final TimeValue delay) {
+        final Timeout executionTimeout = context.getRequestConfig().getExecutionTimeout();
+        if (!TimeValue.isPositive(executionTimeout)) {
+            return true;
+        }
+        final long now = System.nanoTime();
+        final long delayNanos = TimeValue.isPositive(delay) ? delay.toNanoseconds() : 0;
+        final long expectedNanos = now - state.startNanos + delayNanos + (now - state.attemptStartNanos);
+        if (expectedNanos <= executionTimeout.toNanoseconds()) {
+            return true;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} cannot retry within execution timeout of {}", exchangeId, executionTimeout);
+        }
+        return false;
+    }
+
     private void internalExecute(
             final State state,
             final HttpRequest request,
@@ -110,6 +164,8 @@ private void internalExecute(
             final AsyncExecCallback asyncExecCallback) throws HttpException, IOException {
 
         final String exchangeId = scope.exchangeId;
+        state.attemptStartNanos = System.nanoTime();
+        state.retrying = false;
 
         chain.proceed(BasicRequestBuilder.copy(request).build(), entityProducer, scope, new AsyncExecCallback() {
 
@@ -127,6 +183,10 @@ public AsyncDataConsumer handleResponse(
                 state.retrying = retryStrategy.retryRequest(response, scope.execCount.get(), clientContext);
                 if (state.retrying) {
                     state.delay = retryStrategy.getRetryInterval(response, scope.execCount.get(), clientContext);
+                    state.retrying = isWithinDeadline(exchangeId, clientContext, state, state.delay)
+                            && withdrawRetry(exchangeId, scope.route);
+                }
+                if (state.retrying) {
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("{} retrying request in {}", exchangeId, state.delay);
                     }
@@ -144,7 +204,11 @@ public void handleInformationResponse(final HttpResponse response) throws HttpEx
             @Override
             public void completed() {
                 if (state.retrying) {
-                    scope.execCount.incrementAndGet();
+                    final int execCount = scope.execCount.incrementAndGet();
+                    final HttpClientEventListener eventListener = scope.clientContext.getEventListener();
+                    if (eventListener != null) {
+                        eventListener.onRetry(scope.clientContext, System.nanoTime(), request, execCount - 1);
+                    }
                     if (entityProducer != null) {
                        entityProducer.releaseResources();
                     }
@@ -152,7 +216,7 @@ public void completed() {
                             request,
                             entityProducer,
                             scope,
-                            (r, e, s, c) -> execute(r, e, s, chain, c),
+                            (r, e, s, c) -> internalExecute(state, r, e, s, chain, c),
                             asyncExecCallback,
                             state.delay);
                 } else {
@@ -170,28 +234,36 @@ public void failed(final Exception cause) {
                             LOG.debug("{} cannot retry non-repeatable request", exchangeId);
                         }
                     } else if (retryStrategy.retryRequest(request, (IOException) cause, scope.execCount.get(), clientContext)) {
-                        if (LOG.isDebugEnabled()) {
-                            LOG.debug("{} {}", exchangeId, cause.getMessage(), cause);
-                        }
-                        if (LOG.isInfoEnabled()) {
-                            LOG.info("Recoverable I/O exception ({}) caught when processing request to {}",
-                                    cause.getClass().getName(), route);
+                        final TimeValue delay = retryStrategy.getRetryInterval(
+                                request, (IOException) cause, scope.execCount.get(), clientContext);
+                        if (isWithinDeadline(exchangeId, clientContext, state, delay) && withdrawRetry(exchangeId, route)) {
+                            if (LOG.isDebugEnabled()) {
+                                LOG.debug("{} {}", exchangeId, cause.getMessage(), cause);
+                            }
+                            if (LOG.isInfoEnabled()) {
+                                LOG.info("Recoverable I/O exception ({}) caught when processing request to {}",
+                                        cause.getClass().getName(), route);
+                            }
+                            scope.execRuntime.discardEndpoint();
+                            if (entityProducer != null) {
+                                entityProducer.releaseResources();
+                            }
+                            state.retrying = true;
+                            state.delay = delay;
+                            final int execCount = scope.execCount.incrementAndGet();
+                            final HttpClientEventListener eventListener = clientContext.getEventListener();
+                            if (eventListener != null) {
+                                eventListener.onRetry(clientContext, System.nanoTime(), request, execCount - 1);
+                            }
+                            scope.scheduler.scheduleExecution(
+                                    request,
+                                    entityProducer,
+                                    scope,
+                                    (r, e, s, c) -> internalExecute(state, r, e, s, chain, c),
+                                    asyncExecCallback,
+                                    delay);
+                            return;
                         }
-                        scope.execRuntime.discardEndpoint();
-                        if (entityProducer != null) {
-                            entityProducer.releaseResources();
-                        }
-                        state.retrying = true;
-                        final int execCount = scope.execCount.incrementAndGet();
-                        state.delay = retryStrategy.getRetryInterval(request, (IOException) cause, execCount - 1, clientContext);
-                        scope.scheduler.scheduleExecution(
-                                request,
-                                entityProducer,
-                                scope,
-                                (r, e, s, c) -> execute(r, e, s, chain, c),
-                                asyncExecCallback,
-                                state.delay);
-                        return;
                     }
                 }
                 asyncExecCallback.failed(cause);
@@ -208,8 +280,10 @@ public void execute(
             final AsyncExecChain.Scope scope,
             final AsyncExecChain chain,
             final AsyncExecCallback asyncExecCallback) throws HttpException, IOException {
+        if (retryBudget != null) {
+            retryBudget.deposit(scope.route);
+        }
         final State state = new State();
-        state.retrying = false;
         internalExecute(state, request, entityProducer, scope, chain, asyncExecCallback);
     }
 
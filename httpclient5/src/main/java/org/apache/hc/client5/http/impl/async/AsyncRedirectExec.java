@@ -31,6 +31,7 @@
 import java.util.Objects;
 
 import org.apache.hc.client5.http.CircularRedirectException;
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.RedirectException;
 import org.apache.hc.client5.http.async.AsyncExecCallback;
@@ -203,6 +204,10 @@ public AsyncDataConsumer handleResponse(
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("{} redirecting to '{}' via {}", exchangeId, state.redirectURI, currentRoute);
                     }
+                    final HttpClientEventListener eventListener = clientContext.getEventListener();
+                    if (eventListener != null) {
+                        eventListener.onRedirect(clientContext, System.nanoTime(), request, state.redirectURI);
+                    }
                     return null;
                 }
                 return asyncExecCallback.handleResponse(response, entityDetails);
@@ -26,16 +26,25 @@
  */
 package org.apache.hc.client5.http.impl.async;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 
 import org.apache.hc.client5.http.async.HttpAsyncClient;
 import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
 import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
 import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
 import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
+import org.apache.hc.client5.http.nio.IODispatcherLoad;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.DefaultThreadFactory;
 import org.apache.hc.core5.concurrent.FutureCallback;
 import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.HttpHost;
@@ -48,6 +57,7 @@
 import org.apache.hc.core5.reactor.IOReactorStatus;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 
 /**
  * Base implementation of {@link HttpAsyncClient} that also implements {@link ModalCloseable}.
@@ -57,6 +67,10 @@
 @Contract(threading = ThreadingBehavior.STATELESS)
 public abstract class CloseableHttpAsyncClient implements HttpAsyncClient, ModalCloseable {
 
+    private final static ThreadFactory DEADLINE_THREAD_FACTORY = new DefaultThreadFactory("Deadline-scheduler", true);
+
+    private volatile ScheduledExecutorService deadlineExecutorService;
+
     public abstract void start();
 
     public abstract IOReactorStatus getStatus();
@@ -130,10 +144,205 @@ public final Future<SimpleHttpResponse> execute(
         return execute(request, HttpClientContext.create(), callback);
     }
 
+    /**
+     * Executes the request and returns the result as a {@link CompletableFuture}.
+     * <p>
+     * Completing the returned future before the message exchange has completed, be it
+     * by cancelling it, by completing it exceptionally or by expiry of the deadline,
+     * aborts the exchange: a pending connection lease or connect is cancelled and a request
+     * already in flight is cancelled with its connection discarded, unless hard cancellation
+     * has been disabled in the request config. Note that stages derived from the returned
+     * future do not propagate their own cancellation back to it.
+     * </p>
+     *
+     * @param <T> the result type of request execution.
+     * @param requestProducer request producer.
+     * @param responseConsumer response consumer.
+     * @param context HTTP context or {@code null}.
+     * @param deadline maximum time the message exchange may take or {@code null} if unlimited.
+     *                 Once it expires the returned future completes exceptionally with
+     *                 a {@link java.util.concurrent.TimeoutException}.
+     * @return the future of the request execution result.
+     * @since 5.3
+     */
+    public final <T> CompletableFuture<T> executeAsync(
+            final AsyncRequestProducer requestProducer,
+            final AsyncResponseConsumer<T> responseConsumer,
+            final HttpContext context,
+            final Timeout deadline) {
+        final CompletableFuture<T> completableFuture = new CompletableFuture<>();
+        if (TimeValue.isPositive(deadline)) {
+            scheduleDeadline(completableFuture, deadline);
+        }
+        final Future<T> future = execute(
+                requestProducer,
+                responseConsumer,
+                context != null ? context : HttpClientContext.create(),
+                new FutureCallback<T>() {
+
+            @Override
+            public void completed(final T result) {
+                completableFuture.complete(result);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                completableFuture.completeExceptionally(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                completableFuture.cancel(false);
+            }
+
+        });
+        completableFuture.whenComplete((result, ex) -> {
+            // Cancelling a completed exchange future would still cancel its dependencies
+            if (!future.isDone()) {
+                future.cancel(true);
+            }
+        });
+        return completableFuture;
+    }
+
+    /**
+     * Completes the future exceptionally with a {@link java.util.concurrent.TimeoutException}
+     * unless it completes before the deadline expires.
+     * <p>
+     * This default implementation tracks deadlines on a daemon thread of this client that
+     * is created on first use and terminates once no deadline has been pending for a while,
+     * so that it does not outlive the client. Clients that own a scheduler shut down along
+     * with them can override this method in order to track deadlines there.
+     * </p>
+     *
+     * @param future the future to complete on expiry of the deadline.
+     * @param deadline the deadline.
+     * @since 5.3
+     */
+    protected void scheduleDeadline(final CompletableFuture<?> future, final Timeout deadline) {
+        ScheduledExecutorService executorService = deadlineExecutorService;
+        if (executorService == null) {
+            synchronized (this) {
+                executorService = deadlineExecutorService;
+                if (executorService == null) {
+                    executorService = DeadlineScheduler.createIdleExpiringExecutor(DEADLINE_THREAD_FACTORY);
+                    deadlineExecutorService = executorService;
+                }
+            }
+        }
+        DeadlineScheduler.schedule(executorService, future, deadline);
+    }
+
+    /**
+     * Executes the request without a deadline and returns the result as a {@link CompletableFuture}.
+     *
+     * @see #executeAsync(AsyncRequestProducer, AsyncResponseConsumer, HttpContext, Timeout)
+     * @since 5.3
+     */
+    public final <T> CompletableFuture<T> executeAsync(
+            final AsyncRequestProducer requestProducer,
+            final AsyncResponseConsumer<T> responseConsumer,
+            final HttpContext context) {
+        return executeAsync(requestProducer, responseConsumer, context, null);
+    }
+
+    /**
+     * Executes the simple request and returns the response as a {@link CompletableFuture}.
+     *
+     * @see #executeAsync(AsyncRequestProducer, AsyncResponseConsumer, HttpContext, Timeout)
+     * @since 5.3
+     */
+    public final CompletableFuture<SimpleHttpResponse> executeAsync(
+            final SimpleHttpRequest request,
+            final HttpContext context,
+            final Timeout deadline) {
+        Args.notNull(request, "Request");
+        return executeAsync(SimpleRequestProducer.create(request), SimpleResponseConsumer.create(), context, deadline);
+    }
+
+    /**
+     * Executes the simple request with a new {@link HttpClientContext} and without a deadline
+     * and returns the response as a {@link CompletableFuture}.
+     *
+     * @see #executeAsync(AsyncRequestProducer, AsyncResponseConsumer, HttpContext, Timeout)
+     * @since 5.3
+     */
+    public final CompletableFuture<SimpleHttpResponse> executeAsync(final SimpleHttpRequest request) {
+        return executeAsync(request, HttpClientContext.create(), null);
+    }
+
+    /**
+     * Executes a batch of requests keeping at most {@code maxInFlight} of them in flight
+     * at a time. Each request is executed with its own {@link HttpClientContext}.
+     * <p>
+     * The returned future completes with the responses in the order of the requests
+     * once all of them have been received. The batch fails with the first failed
+     * request, in which case requests still in flight are cancelled. Cancelling the
+     * returned future cancels all requests still in flight.
+     * </p>
+     * <p>
+     * This implementation relies on the client's connection management to spread
+     * requests over connections. With a pooling connection manager each request in
+     * flight leases a connection of its own, so requests in excess of the per route
+     * limit, 5 connections by default, wait for a connection to be released. This
+     * applies to HTTP/2 as well, unless message multiplexing is enabled with
+     * {@link org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder#setMessageMultiplexing(boolean)}.
+     * Even then, a connection only gets shared once it has been established and HTTP/2
+     * has been negotiated, so the first requests of a batch to a route may still lease
+     * connections of their own. Minimal clients instead execute the requests
+     * of each target host over a single connection, pipelined over HTTP/1.1 or
+     * multiplexed over HTTP/2.
+     * </p>
+     *
+     * @param requests the requests to execute.
+     * @param maxInFlight the maximum number of requests of the batch in flight at a time.
+     * @param callback the callback of the batch or {@code null}.
+     * @return the future of the batch responses.
+     * @since 5.3
+     */
+    public Future<List<SimpleHttpResponse>> executeBatch(
+            final Collection<SimpleHttpRequest> requests,
+            final int maxInFlight,
+            final FutureCallback<List<SimpleHttpResponse>> callback) {
+        Args.notNull(requests, "Requests");
+        Args.positive(maxInFlight, "Max requests in flight");
+        final AsyncBatchExecution batch = new AsyncBatchExecution(
+                new ArrayList<>(requests),
+                maxInFlight,
+                (request, requestCallback) -> execute(request, HttpClientContext.create(), requestCallback),
+                callback);
+        batch.start();
+        return batch.getFuture();
+    }
+
+    /**
+     * Executes a batch of requests without limiting the number of requests in flight
+     * other than by the client's connection management.
+     *
+     * @see #executeBatch(Collection, int, FutureCallback)
+     * @since 5.3
+     */
+    public final Future<List<SimpleHttpResponse>> executeBatch(
+            final Collection<SimpleHttpRequest> requests,
+            final FutureCallback<List<SimpleHttpResponse>> callback) {
+        return executeBatch(requests, Integer.MAX_VALUE, callback);
+    }
+
     public abstract void register(String hostname, String uriPattern, Supplier<AsyncPushConsumer> supplier);
 
     public final void register(final String uriPattern, final Supplier<AsyncPushConsumer> supplier) {
         register(null, uriPattern, supplier);
     }
 
+    /**
+     * Returns the current load of the client's I/O dispatchers. The list is empty unless
+     * the client assigns connections to dispatchers with an
+     * {@link org.apache.hc.client5.http.nio.IODispatcherSelector}.
+     *
+     * @since 5.3
+     */
+    public List<? extends IODispatcherLoad> getIODispatcherLoads() {
+        return Collections.emptyList();
+    }
+
 }
@@ -0,0 +1,99 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Expires per-call deadlines of {@link CompletableFuture}s returned by
+ * {@link CloseableHttpAsyncClient} on a scheduler owned by the client.
+ */
+final class DeadlineScheduler {
+
+    private static final TimeValue IDLE_KEEP_ALIVE = TimeValue.ofMinutes(1);
+
+    private DeadlineScheduler() {
+    }
+
+    /**
+     * Creates a single thread scheduler that discards deadline tasks as soon as they
+     * are cancelled rather than retaining them until their delay elapses.
+     */
+    static ScheduledExecutorService createExecutor(final ThreadFactory threadFactory) {
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+        executor.setRemoveOnCancelPolicy(true);
+        return executor;
+    }
+
+    /**
+     * Creates a single thread scheduler like {@link #createExecutor(ThreadFactory)} whose
+     * thread terminates once no deadline has been pending for the keep-alive time, for use
+     * by clients that do not shut the scheduler down.
+     */
+    static ScheduledExecutorService createIdleExpiringExecutor(final ThreadFactory threadFactory) {
+        final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, threadFactory);
+        executor.setRemoveOnCancelPolicy(true);
+        executor.setKeepAliveTime(IDLE_KEEP_ALIVE.getDuration(), IDLE_KEEP_ALIVE.getTimeUnit());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Completes the future exceptionally with a {@link TimeoutException} unless it
+     * completes before the deadline expires. Once the scheduler has been shut down
+     * along with its client the deadline is not tracked, as the exchange can no longer
+     * make progress and gets terminated by the client shutdown.
+     */
+    static void schedule(
+            final ScheduledExecutorService executor,
+            final CompletableFuture<?> future,
+            final Timeout deadline) {
+        if (future.isDone()) {
+            return;
+        }
+        final ScheduledFuture<?> task;
+        try {
+            task = executor.schedule(
+                    () -> future.completeExceptionally(new TimeoutException("Deadline of " + deadline + " expired")),
+                    deadline.getDuration(),
+                    deadline.getTimeUnit());
+        } catch (final RejectedExecutionException ex) {
+            return;
+        }
+        future.whenComplete((result, ex) -> task.cancel(false));
+    }
+
+}
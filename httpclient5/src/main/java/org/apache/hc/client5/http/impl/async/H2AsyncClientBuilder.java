@@ -36,9 +36,11 @@
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.hc.client5.http.AuthenticationStrategy;
 import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.HttpRequestRetryStrategy;
 import org.apache.hc.client5.http.SchemePortResolver;
 import org.apache.hc.client5.http.async.AsyncExecChainHandler;
@@ -56,6 +58,7 @@
 import org.apache.hc.client5.http.impl.DefaultHttpRequestRetryStrategy;
 import org.apache.hc.client5.http.impl.DefaultRedirectStrategy;
 import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.WireCapture;
 import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
 import org.apache.hc.client5.http.impl.auth.BasicSchemeFactory;
 import org.apache.hc.client5.http.impl.auth.BearerSchemeFactory;
@@ -63,6 +66,7 @@
 import org.apache.hc.client5.http.impl.auth.SystemDefaultCredentialsProvider;
 import org.apache.hc.client5.http.impl.nio.MultihomeConnectionInitiator;
 import org.apache.hc.client5.http.impl.routing.DefaultRoutePlanner;
+import org.apache.hc.client5.http.nio.IODispatcherSelector;
 import org.apache.hc.client5.http.protocol.RedirectStrategy;
 import org.apache.hc.client5.http.protocol.RequestAddCookies;
 import org.apache.hc.client5.http.protocol.RequestDefaultHeaders;
@@ -96,9 +100,11 @@
 import org.apache.hc.core5.http2.protocol.H2RequestTargetHost;
 import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.reactor.Command;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
 import org.apache.hc.core5.reactor.DefaultConnectingIOReactor;
 import org.apache.hc.core5.reactor.IOEventHandlerFactory;
 import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.IOReactorService;
 import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.reactor.IOSessionListener;
 import org.apache.hc.core5.util.Args;
@@ -170,6 +176,7 @@ private ExecInterceptorEntry(
     }
 
     private IOReactorConfig ioReactorConfig;
+    private IODispatcherSelector ioDispatcherSelector;
     private IOSessionListener ioSessionListener;
     private H2Config h2Config;
     private CharCodingConfig charCodingConfig;
@@ -193,9 +200,12 @@ private ExecInterceptorEntry(
     private String userAgent;
     private Collection<? extends Header> defaultHeaders;
     private RequestConfig defaultRequestConfig;
+    private HttpClientEventListener eventListener;
     private Resolver<HttpHost, ConnectionConfig> connectionConfigResolver;
     private boolean evictIdleConnections;
     private TimeValue maxIdleTime;
+    private int maxConnectionsPerHost;
+    private int maxStreamsPerConnection;
 
     private boolean systemProperties;
     private boolean automaticRetriesDisabled;
@@ -214,6 +224,7 @@ private ExecInterceptorEntry(
     private Callback<Exception> ioReactorExceptionCallback;
 
     private Decorator<IOSession> ioSessionDecorator;
+    private WireCapture wireCapture;
 
     public static H2AsyncClientBuilder create() {
         return new H2AsyncClientBuilder();
@@ -239,6 +250,23 @@ public final H2AsyncClientBuilder setIOReactorConfig(final IOReactorConfig ioRea
         return this;
     }
 
+    /**
+     * Sets {@link IODispatcherSelector} used to assign new connections to I/O dispatchers.
+     * <p>
+     * By default connections are assigned to dispatchers round-robin. If a selector is set,
+     * each I/O dispatcher gets its own single-threaded I/O reactor, the load of
+     * the dispatchers is tracked and reported by
+     * {@link CloseableHttpAsyncClient#getIODispatcherLoads()}.
+     * </p>
+     *
+     * @see IODispatcherSelector#LEAST_LOADED
+     * @since 5.3
+     */
+    public final H2AsyncClientBuilder setIODispatcherSelector(final IODispatcherSelector ioDispatcherSelector) {
+        this.ioDispatcherSelector = ioDispatcherSelector;
+        return this;
+    }
+
     /**
      * Sets {@link IOSessionListener} listener.
      *
@@ -298,6 +326,18 @@ public final H2AsyncClientBuilder setIoSessionDecorator(final Decorator<IOSessio
         return this;
     }
 
+    /**
+     * Assigns {@link WireCapture} instance used to capture data exchanged over
+     * the client's I/O sessions. Ignored if a custom {@link IOSession}
+     * {@link Decorator} has been set.
+     *
+     * @since 5.3
+     */
+    public final H2AsyncClientBuilder setWireCapture(final WireCapture wireCapture) {
+        this.wireCapture = wireCapture;
+        return this;
+    }
+
     /**
      * Adds this protocol interceptor to the head of the protocol processing list.
      */
@@ -541,6 +581,18 @@ public final H2AsyncClientBuilder setDefaultRequestConfig(final RequestConfig co
         return this;
     }
 
+    /**
+     * Assigns {@link HttpClientEventListener} instance which will receive request
+     * execution lifecycle events if not explicitly set in the client execution
+     * context.
+     *
+     * @since 5.3
+     */
+    public final H2AsyncClientBuilder setEventListener(final HttpClientEventListener eventListener) {
+        this.eventListener = eventListener;
+        return this;
+    }
+
     /**
      * Assigns {@link Resolver} for {@link ConnectionConfig} on a per host basis.
      *
@@ -622,6 +674,33 @@ public final H2AsyncClientBuilder evictIdleConnections(final TimeValue maxIdleTi
         return this;
     }
 
+    /**
+     * Sets the maximum number of HTTP/2 connections per host. By default all streams
+     * to a host are multiplexed over a single connection. With more than one connection
+     * per host, new streams are placed on the least loaded connection and an additional
+     * connection is only opened once all open connections carry at least
+     * {@link #setMaxStreamsPerConnection(int) the maximum number of streams}.
+     * Connections that received a GOAWAY frame are drained and replaced.
+     *
+     * @since 5.3
+     */
+    public final H2AsyncClientBuilder setMaxConnectionsPerHost(final int maxConnectionsPerHost) {
+        this.maxConnectionsPerHost = maxConnectionsPerHost;
+        return this;
+    }
+
+    /**
+     * Sets the number of concurrent streams per connection at which an additional
+     * connection to the same host gets opened. Has no effect unless more than one
+     * connection per host is allowed.
+     *
+     * @since 5.3
+     */
+    public final H2AsyncClientBuilder setMaxStreamsPerConnection(final int maxStreamsPerConnection) {
+        this.maxStreamsPerConnection = maxStreamsPerConnection;
+        return this;
+    }
+
     /**
      * Request exec chain customization and extension.
      * <p>
@@ -766,19 +845,54 @@ public CloseableHttpAsyncClient build() {
         }
 
         final AsyncPushConsumerRegistry pushConsumerRegistry = new AsyncPushConsumerRegistry();
+        final int maxSessionsPerHost = maxConnectionsPerHost > 0 ? maxConnectionsPerHost : 1;
+        // The connection pool depends on the I/O reactor and gets created last
+        final AtomicReference<InternalH2ConnPool> connPoolRef = new AtomicReference<>();
         final IOEventHandlerFactory ioEventHandlerFactory = new H2AsyncClientProtocolStarter(
                 HttpProcessorBuilder.create().build(),
                 (request, context) -> pushConsumerRegistry.get(request),
                 h2Config != null ? h2Config : H2Config.DEFAULT,
-                charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT);
-        final DefaultConnectingIOReactor ioReactor = new DefaultConnectingIOReactor(
-                ioEventHandlerFactory,
-                ioReactorConfig != null ? ioReactorConfig : IOReactorConfig.DEFAULT,
-                threadFactory != null ? threadFactory : new DefaultThreadFactory("httpclient-dispatch", true),
-                ioSessionDecorator != null ? ioSessionDecorator : LoggingIOSessionDecorator.INSTANCE,
-                ioReactorExceptionCallback != null ? ioReactorExceptionCallback : LoggingExceptionCallback.INSTANCE,
-                ioSessionListener,
-                ioSession -> ioSession.enqueue(new ShutdownCommand(CloseMode.GRACEFUL), Command.Priority.IMMEDIATE));
+                charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT,
+                maxSessionsPerHost > 1 ? ioSession -> {
+                    final InternalH2ConnPool connPool = connPoolRef.get();
+                    if (connPool != null) {
+                        connPool.drainSession(ioSession);
+                    }
+                } : null);
+        final IOReactorConfig ioReactorConfigCopy = ioReactorConfig != null ? ioReactorConfig : IOReactorConfig.DEFAULT;
+        final ThreadFactory dispatchThreadFactory = threadFactory != null ? threadFactory : new DefaultThreadFactory("httpclient-dispatch", true);
+        final Decorator<IOSession> ioSessionDecoratorCopy = ioSessionDecorator != null ? ioSessionDecorator :
+                wireCapture != null ? new LoggingIOSessionDecorator(wireCapture) : LoggingIOSessionDecorator.INSTANCE;
+        final Callback<Exception> ioReactorExceptionCallbackCopy = ioReactorExceptionCallback != null ?
+                ioReactorExceptionCallback : LoggingExceptionCallback.INSTANCE;
+        final Callback<IOSession> sessionShutdownCallback = ioSession ->
+                ioSession.enqueue(new ShutdownCommand(CloseMode.GRACEFUL), Command.Priority.IMMEDIATE);
+        final IOReactorService ioReactor;
+        final ConnectionInitiator ioReactorConnectionInitiator;
+        if (ioDispatcherSelector != null) {
+            final IOReactorGroup ioReactorGroup = new IOReactorGroup(
+                    ioEventHandlerFactory,
+                    ioReactorConfigCopy,
+                    dispatchThreadFactory,
+                    ioSessionDecoratorCopy,
+                    ioReactorExceptionCallbackCopy,
+                    ioSessionListener,
+                    sessionShutdownCallback,
+                    ioDispatcherSelector);
+            ioReactor = ioReactorGroup;
+            ioReactorConnectionInitiator = ioReactorGroup;
+        } else {
+            final DefaultConnectingIOReactor defaultIOReactor = new DefaultConnectingIOReactor(
+                    ioEventHandlerFactory,
+                    ioReactorConfigCopy,
+                    dispatchThreadFactory,
+                    ioSessionDecoratorCopy,
+                    ioReactorExceptionCallbackCopy,
+                    ioSessionListener,
+                    sessionShutdownCallback);
+            ioReactor = defaultIOReactor;
+            ioReactorConnectionInitiator = defaultIOReactor;
+        }
 
         if (execInterceptors != null) {
             for (final ExecInterceptorEntry entry: execInterceptors) {
@@ -849,9 +963,12 @@ public CloseableHttpAsyncClient build() {
             }
         }
 
-        final MultihomeConnectionInitiator connectionInitiator = new MultihomeConnectionInitiator(ioReactor, dnsResolver);
-        final InternalH2ConnPool connPool = new InternalH2ConnPool(connectionInitiator, host -> null, tlsStrategyCopy);
+        final MultihomeConnectionInitiator connectionInitiator = new MultihomeConnectionInitiator(ioReactorConnectionInitiator, dnsResolver);
+        final InternalH2ConnPool connPool = new InternalH2ConnPool(connectionInitiator, host -> null, tlsStrategyCopy,
+                maxSessionsPerHost,
+                maxStreamsPerConnection > 0 ? maxStreamsPerConnection : InternalH2ConnPool.DEFAULT_MAX_STREAMS_PER_SESSION);
         connPool.setConnectionConfigResolver(connectionConfigResolver);
+        connPoolRef.set(connPool);
 
         List<Closeable> closeablesCopy = closeables != null ? new ArrayList<>(closeables) : null;
         if (closeablesCopy == null) {
@@ -867,6 +984,7 @@ public CloseableHttpAsyncClient build() {
 
         return new InternalH2AsyncClient(
                 ioReactor,
+                ioReactorConnectionInitiator,
                 execChain,
                 pushConsumerRegistry,
                 threadFactory != null ? threadFactory : new DefaultThreadFactory("httpclient-main", true),
@@ -877,6 +995,7 @@ public CloseableHttpAsyncClient build() {
                 cookieStoreCopy,
                 credentialsProviderCopy,
                 defaultRequestConfig,
+                eventListener,
                 closeablesCopy);
     }
 
@@ -30,6 +30,7 @@
 import java.io.IOException;
 import java.util.List;
 
+import org.apache.hc.core5.function.Callback;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpConnection;
 import org.apache.hc.core5.http.config.CharCodingConfig;
@@ -38,12 +39,14 @@
 import org.apache.hc.core5.http.protocol.HttpProcessor;
 import org.apache.hc.core5.http2.config.H2Config;
 import org.apache.hc.core5.http2.frame.FramePrinter;
+import org.apache.hc.core5.http2.frame.FrameType;
 import org.apache.hc.core5.http2.frame.RawFrame;
 import org.apache.hc.core5.http2.impl.nio.ClientH2PrefaceHandler;
 import org.apache.hc.core5.http2.impl.nio.ClientH2StreamMultiplexerFactory;
 import org.apache.hc.core5.http2.impl.nio.H2StreamListener;
 import org.apache.hc.core5.reactor.IOEventHandler;
 import org.apache.hc.core5.reactor.IOEventHandlerFactory;
+import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.reactor.ProtocolIOSession;
 import org.apache.hc.core5.util.Args;
 import org.slf4j.Logger;
@@ -60,16 +63,33 @@ class H2AsyncClientProtocolStarter implements IOEventHandlerFactory {
     private final HandlerFactory<AsyncPushConsumer> exchangeHandlerFactory;
     private final H2Config h2Config;
     private final CharCodingConfig charCodingConfig;
+    private final Callback<IOSession> goAwayCallback;
 
     H2AsyncClientProtocolStarter(
             final HttpProcessor httpProcessor,
             final HandlerFactory<AsyncPushConsumer> exchangeHandlerFactory,
             final H2Config h2Config,
-            final CharCodingConfig charCodingConfig) {
+            final CharCodingConfig charCodingConfig,
+            final Callback<IOSession> goAwayCallback) {
         this.httpProcessor = Args.notNull(httpProcessor, "HTTP processor");
         this.exchangeHandlerFactory = exchangeHandlerFactory;
         this.h2Config = h2Config != null ? h2Config : H2Config.DEFAULT;
         this.charCodingConfig = charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT;
+        this.goAwayCallback = goAwayCallback;
+    }
+
+    H2AsyncClientProtocolStarter(
+            final HttpProcessor httpProcessor,
+            final HandlerFactory<AsyncPushConsumer> exchangeHandlerFactory,
+            final H2Config h2Config,
+            final CharCodingConfig charCodingConfig) {
+        this(httpProcessor, exchangeHandlerFactory, h2Config, charCodingConfig, null);
+    }
+
+    private void onFrameInput(final ProtocolIOSession ioSession, final RawFrame frame) {
+        if (goAwayCallback != null && frame.getType() == FrameType.GOAWAY.getValue()) {
+            goAwayCallback.execute(ioSession);
+        }
     }
 
     @Override
@@ -130,6 +150,7 @@ public void onHeaderOutput(final HttpConnection connection, final int streamId,
 
                         @Override
                         public void onFrameInput(final HttpConnection connection, final int streamId, final RawFrame frame) {
+                            H2AsyncClientProtocolStarter.this.onFrameInput(ioSession, frame);
                             if (FRAME_LOG.isDebugEnabled()) {
                                 logFrameInfo(id + " <<", frame);
                             }
@@ -170,7 +191,34 @@ public void onOutputFlowControl(final HttpConnection connection, final int strea
                 exchangeHandlerFactory,
                 h2Config,
                 charCodingConfig,
-                null);
+                goAwayCallback != null ? new H2StreamListener() {
+
+                    @Override
+                    public void onHeaderInput(final HttpConnection connection, final int streamId, final List<? extends Header> headers) {
+                    }
+
+                    @Override
+                    public void onHeaderOutput(final HttpConnection connection, final int streamId, final List<? extends Header> headers) {
+                    }
+
+                    @Override
+                    public void onFrameInput(final HttpConnection connection, final int streamId, final RawFrame frame) {
+                        H2AsyncClientProtocolStarter.this.onFrameInput(ioSession, frame);
+                    }
+
+                    @Override
+                    public void onFrameOutput(final HttpConnection connection, final int streamId, final RawFrame frame) {
+                    }
+
+                    @Override
+                    public void onInputFlowControl(final HttpConnection connection, final int streamId, final int delta, final int actualSize) {
+                    }
+
+                    @Override
+                    public void onOutputFlowControl(final HttpConnection connection, final int streamId, final int delta, final int actualSize) {
+                    }
+
+                } : null);
         return new ClientH2PrefaceHandler(ioSession, http2StreamHandlerFactory, false);
    }
 
@@ -39,7 +39,11 @@
 
 import org.apache.hc.client5.http.AuthenticationStrategy;
 import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.HttpClientEventListener;
+import org.apache.hc.client5.http.HttpRequestHedgingStrategy;
 import org.apache.hc.client5.http.HttpRequestRetryStrategy;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.RetryBudget;
 import org.apache.hc.client5.http.SchemePortResolver;
 import org.apache.hc.client5.http.UserTokenHandler;
 import org.apache.hc.client5.http.async.AsyncExecChainHandler;
@@ -62,16 +66,20 @@
 import org.apache.hc.client5.http.impl.DefaultUserTokenHandler;
 import org.apache.hc.client5.http.impl.IdleConnectionEvictor;
 import org.apache.hc.client5.http.impl.NoopUserTokenHandler;
+import org.apache.hc.client5.http.impl.WireCapture;
 import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
 import org.apache.hc.client5.http.impl.auth.BasicSchemeFactory;
 import org.apache.hc.client5.http.impl.auth.BearerSchemeFactory;
 import org.apache.hc.client5.http.impl.auth.DigestSchemeFactory;
 import org.apache.hc.client5.http.impl.auth.SystemDefaultCredentialsProvider;
+import org.apache.hc.client5.http.impl.nio.H2PingScheduler;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
 import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
 import org.apache.hc.client5.http.impl.routing.DefaultProxyRoutePlanner;
 import org.apache.hc.client5.http.impl.routing.DefaultRoutePlanner;
 import org.apache.hc.client5.http.impl.routing.SystemDefaultRoutePlanner;
 import org.apache.hc.client5.http.nio.AsyncClientConnectionManager;
+import org.apache.hc.client5.http.nio.IODispatcherSelector;
 import org.apache.hc.client5.http.protocol.RedirectStrategy;
 import org.apache.hc.client5.http.protocol.RequestAddCookies;
 import org.apache.hc.client5.http.protocol.RequestDefaultHeaders;
@@ -106,13 +114,16 @@
 import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.pool.ConnPoolControl;
 import org.apache.hc.core5.reactor.Command;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
 import org.apache.hc.core5.reactor.DefaultConnectingIOReactor;
 import org.apache.hc.core5.reactor.IOEventHandlerFactory;
 import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.IOReactorService;
 import org.apache.hc.core5.reactor.IOSession;
 import org.apache.hc.core5.reactor.IOSessionListener;
 import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.apache.hc.core5.util.VersionInfo;
 
 /**
@@ -206,6 +217,7 @@ private ExecInterceptorEntry(
     private AsyncClientConnectionManager connManager;
     private boolean connManagerShared;
     private IOReactorConfig ioReactorConfig;
+    private IODispatcherSelector ioDispatcherSelector;
     private IOSessionListener ioSessionListener;
     private Callback<Exception> ioReactorExceptionCallback;
     private Http1Config h1Config;
@@ -217,6 +229,7 @@ private ExecInterceptorEntry(
     private AuthenticationStrategy targetAuthStrategy;
     private AuthenticationStrategy proxyAuthStrategy;
     private Decorator<IOSession> ioSessionDecorator;
+    private WireCapture wireCapture;
 
     private LinkedList<RequestInterceptorEntry> requestInterceptors;
     private LinkedList<ResponseInterceptorEntry> responseInterceptors;
@@ -225,6 +238,8 @@ private ExecInterceptorEntry(
     private HttpRoutePlanner routePlanner;
     private RedirectStrategy redirectStrategy;
     private HttpRequestRetryStrategy retryStrategy;
+    private RetryBudget retryBudget;
+    private HttpRequestHedgingStrategy hedgingStrategy;
 
     private ConnectionReuseStrategy reuseStrategy;
 
@@ -237,9 +252,12 @@ private ExecInterceptorEntry(
     private HttpHost proxy;
     private Collection<? extends Header> defaultHeaders;
     private RequestConfig defaultRequestConfig;
+    private HttpClientEventListener eventListener;
     private boolean evictExpiredConnections;
     private boolean evictIdleConnections;
     private TimeValue maxIdleTime;
+    private TimeValue pingInterval;
+    private Timeout pingTimeout;
 
     private boolean systemProperties;
     private boolean automaticRetriesDisabled;
@@ -321,6 +339,23 @@ public final HttpAsyncClientBuilder setIOReactorConfig(final IOReactorConfig ioR
         return this;
     }
 
+    /**
+     * Sets {@link IODispatcherSelector} used to assign new connections to I/O dispatchers.
+     * <p>
+     * By default connections are assigned to dispatchers round-robin. If a selector is set,
+     * each I/O dispatcher gets its own single-threaded I/O reactor, the load of
+     * the dispatchers is tracked and reported by
+     * {@link CloseableHttpAsyncClient#getIODispatcherLoads()}.
+     * </p>
+     *
+     * @see IODispatcherSelector#LEAST_LOADED
+     * @since 5.3
+     */
+    public final HttpAsyncClientBuilder setIODispatcherSelector(final IODispatcherSelector ioDispatcherSelector) {
+        this.ioDispatcherSelector = ioDispatcherSelector;
+        return this;
+    }
+
     /**
      * Sets {@link IOSessionListener} listener.
      *
@@ -409,6 +444,18 @@ public final HttpAsyncClientBuilder setIoSessionDecorator(final Decorator<IOSess
         return this;
     }
 
+    /**
+     * Assigns {@link WireCapture} instance used to capture data exchanged over
+     * the client's I/O sessions. Ignored if a custom {@link IOSession}
+     * {@link Decorator} has been set.
+     *
+     * @since 5.3
+     */
+    public final HttpAsyncClientBuilder setWireCapture(final WireCapture wireCapture) {
+        this.wireCapture = wireCapture;
+        return this;
+    }
+
     /**
      * Adds this protocol interceptor to the head of the protocol processing list.
      */
@@ -535,6 +582,33 @@ public final HttpAsyncClientBuilder setRetryStrategy(final HttpRequestRetryStrat
         return this;
     }
 
+    /**
+     * Assigns {@link RetryBudget} instance that limits the number of retries
+     * relative to the number of requests per route.
+     * <p>
+     * Please note this value has no effect if automatic retries are disabled
+     * with the {@link #disableAutomaticRetries()} method.
+     * </p>
+     *
+     * @since 5.3
+     */
+    public final HttpAsyncClientBuilder setRetryBudget(final RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+        return this;
+    }
+
+    /**
+     * Assigns {@link HttpRequestHedgingStrategy} instance. Hedging is disabled
+     * by default. Hedged requests also draw from the {@link RetryBudget}, if
+     * one is set.
+     *
+     * @since 5.3
+     */
+    public final HttpAsyncClientBuilder setHedgingStrategy(final HttpRequestHedgingStrategy hedgingStrategy) {
+        this.hedgingStrategy = hedgingStrategy;
+        return this;
+    }
+
     /**
      * Assigns {@link RedirectStrategy} instance.
      * <p>
@@ -661,6 +735,18 @@ public final HttpAsyncClientBuilder setDefaultRequestConfig(final RequestConfig
         return this;
     }
 
+    /**
+     * Assigns {@link HttpClientEventListener} instance which will receive request
+     * execution lifecycle events if not explicitly set in the client execution
+     * context.
+     *
+     * @since 5.3
+     */
+    public final HttpAsyncClientBuilder setEventListener(final HttpClientEventListener eventListener) {
+        this.eventListener = eventListener;
+        return this;
+    }
+
     /**
      * Use system properties when creating and configuring default
      * implementations.
@@ -751,6 +837,33 @@ public final HttpAsyncClientBuilder evictIdleConnections(final TimeValue maxIdle
         return this;
     }
 
+    /**
+     * Makes this instance of HttpClient periodically send keep-alive PINGs over idle and
+     * active HTTP/2 connections using a background thread. Connections whose peer fails
+     * to acknowledge a PING within the given timeout are closed before they can be leased.
+     * Acknowledged PINGs update the round-trip time estimate of the connection route.
+     * <p>
+     * One MUST explicitly close HttpClient with {@link CloseableHttpAsyncClient#close()}
+     * in order to stop and release the background thread.
+     * <p>
+     * Please note this method has no effect if the instance of HttpClient is configured to
+     * use a shared connection manager or a connection manager other than
+     * {@link PoolingAsyncClientConnectionManager}.
+     *
+     * @see PoolingAsyncClientConnectionManager#pingConnections(Timeout)
+     * @see PoolingAsyncClientConnectionManager#getRoundTripTime(HttpRoute)
+     *
+     * @param pingInterval the time between PING rounds.
+     * @param pingTimeout maximum time to wait for a PING acknowledgement.
+     *
+     * @since 5.3
+     */
+    public final HttpAsyncClientBuilder pingH2Connections(final TimeValue pingInterval, final Timeout pingTimeout) {
+        this.pingInterval = pingInterval;
+        this.pingTimeout = pingTimeout;
+        return this;
+    }
+
     /**
      * Request exec chain customization and extension.
      * <p>
@@ -882,6 +995,12 @@ public CloseableHttpAsyncClient build() {
                         authCachingDisabled),
                 ChainElement.PROTOCOL.name());
 
+        if (hedgingStrategy != null) {
+            execChainDefinition.addFirst(
+                    new AsyncHedgingExec(hedgingStrategy, retryBudget),
+                    ChainElement.HEDGE.name());
+        }
+
         // Add request retry executor, if not disabled
         if (!automaticRetriesDisabled) {
             HttpRequestRetryStrategy retryStrategyCopy = this.retryStrategy;
@@ -889,7 +1008,7 @@ public CloseableHttpAsyncClient build() {
                 retryStrategyCopy = DefaultHttpRequestRetryStrategy.INSTANCE;
             }
             execChainDefinition.addFirst(
-                    new AsyncHttpRequestRetryExec(retryStrategyCopy),
+                    new AsyncHttpRequestRetryExec(retryStrategyCopy, retryBudget),
                     ChainElement.RETRY.name());
         }
 
@@ -935,6 +1054,12 @@ public CloseableHttpAsyncClient build() {
                     connectionEvictor.start();
                 }
             }
+            if (TimeValue.isPositive(pingInterval) && connManagerCopy instanceof PoolingAsyncClientConnectionManager) {
+                final H2PingScheduler pingScheduler = new H2PingScheduler(
+                        (PoolingAsyncClientConnectionManager) connManagerCopy, pingInterval, pingTimeout);
+                closeablesCopy.add(pingScheduler::shutdown);
+                pingScheduler.start();
+            }
             closeablesCopy.add(connManagerCopy);
         }
         ConnectionReuseStrategy reuseStrategyCopy = this.reuseStrategy;
@@ -958,14 +1083,40 @@ public CloseableHttpAsyncClient build() {
                 h1Config != null ? h1Config : Http1Config.DEFAULT,
                 charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT,
                 reuseStrategyCopy);
-        final DefaultConnectingIOReactor ioReactor = new DefaultConnectingIOReactor(
-                ioEventHandlerFactory,
-                ioReactorConfig != null ? ioReactorConfig : IOReactorConfig.DEFAULT,
-                threadFactory != null ? threadFactory : new DefaultThreadFactory("httpclient-dispatch", true),
-                ioSessionDecorator != null ? ioSessionDecorator : LoggingIOSessionDecorator.INSTANCE,
-                ioReactorExceptionCallback != null ? ioReactorExceptionCallback : LoggingExceptionCallback.INSTANCE,
-                ioSessionListener,
-                ioSession -> ioSession.enqueue(new ShutdownCommand(CloseMode.GRACEFUL), Command.Priority.IMMEDIATE));
+        final IOReactorConfig ioReactorConfigCopy = ioReactorConfig != null ? ioReactorConfig : IOReactorConfig.DEFAULT;
+        final ThreadFactory dispatchThreadFactory = threadFactory != null ? threadFactory : new DefaultThreadFactory("httpclient-dispatch", true);
+        final Decorator<IOSession> ioSessionDecoratorCopy = ioSessionDecorator != null ? ioSessionDecorator :
+                wireCapture != null ? new LoggingIOSessionDecorator(wireCapture) : LoggingIOSessionDecorator.INSTANCE;
+        final Callback<Exception> ioReactorExceptionCallbackCopy = ioReactorExceptionCallback != null ?
+                ioReactorExceptionCallback : LoggingExceptionCallback.INSTANCE;
+        final Callback<IOSession> sessionShutdownCallback = ioSession ->
+                ioSession.enqueue(new ShutdownCommand(CloseMode.GRACEFUL), Command.Priority.IMMEDIATE);
+        final IOReactorService ioReactor;
+        final ConnectionInitiator ioReactorConnectionInitiator;
+        if (ioDispatcherSelector != null) {
+            final IOReactorGroup ioReactorGroup = new IOReactorGroup(
+                    ioEventHandlerFactory,
+                    ioReactorConfigCopy,
+                    dispatchThreadFactory,
+                    ioSessionDecoratorCopy,
+                    ioReactorExceptionCallbackCopy,
+                    ioSessionListener,
+                    sessionShutdownCallback,
+                    ioDispatcherSelector);
+            ioReactor = ioReactorGroup;
+            ioReactorConnectionInitiator = ioReactorGroup;
+        } else {
+            final DefaultConnectingIOReactor defaultIOReactor = new DefaultConnectingIOReactor(
+                    ioEventHandlerFactory,
+                    ioReactorConfigCopy,
+                    dispatchThreadFactory,
+                    ioSessionDecoratorCopy,
+                    ioReactorExceptionCallbackCopy,
+                    ioSessionListener,
+                    sessionShutdownCallback);
+            ioReactor = defaultIOReactor;
+            ioReactorConnectionInitiator = defaultIOReactor;
+        }
 
         if (execInterceptors != null) {
             for (final ExecInterceptorEntry entry: execInterceptors) {
@@ -1029,6 +1180,7 @@ public CloseableHttpAsyncClient build() {
 
         return new InternalHttpAsyncClient(
                 ioReactor,
+                ioReactorConnectionInitiator,
                 execChain,
                 pushConsumerRegistry,
                 threadFactory != null ? threadFactory : new DefaultThreadFactory("httpclient-main", true),
@@ -1040,6 +1192,7 @@ public CloseableHttpAsyncClient build() {
                 cookieStoreCopy,
                 credentialsProviderCopy,
                 defaultRequestConfig,
+                eventListener,
                 closeablesCopy);
     }
 
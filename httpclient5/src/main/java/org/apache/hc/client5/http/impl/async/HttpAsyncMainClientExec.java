@@ -34,6 +34,7 @@
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.UserTokenHandler;
 import org.apache.hc.client5.http.async.AsyncExecCallback;
@@ -108,6 +109,7 @@ public void execute(
             LOG.debug("{} executing {}", exchangeId, new RequestLine(request));
         }
 
+        final HttpClientEventListener eventListener = clientContext.getEventListener();
         final AtomicInteger messageCountDown = new AtomicInteger(2);
         final AsyncClientExchangeHandler internalExchangeHandler = new AsyncClientExchangeHandler() {
 
@@ -147,6 +149,9 @@ public void produceRequest(
                 clientContext.setAttribute(HttpCoreContext.HTTP_REQUEST, request);
                 httpProcessor.process(request, entityProducer, clientContext);
 
+                if (eventListener != null) {
+                    eventListener.onRequestStart(clientContext, System.nanoTime(), request);
+                }
                 channel.sendRequest(request, entityProducer, context);
                 if (entityProducer == null) {
                     messageCountDown.decrementAndGet();
@@ -175,6 +180,9 @@ public int write(final ByteBuffer src) throws IOException {
                     @Override
                     public void endStream(final List<? extends Header> trailers) throws IOException {
                         channel.endStream(trailers);
+                        if (eventListener != null) {
+                            eventListener.onRequestBodyEnd(clientContext, System.nanoTime(), request);
+                        }
                         if (messageCountDown.decrementAndGet() <= 0) {
                             asyncExecCallback.completed();
                         }
@@ -183,6 +191,9 @@ public void endStream(final List<? extends Header> trailers) throws IOException
                     @Override
                     public void endStream() throws IOException {
                         channel.endStream();
+                        if (eventListener != null) {
+                            eventListener.onRequestBodyEnd(clientContext, System.nanoTime(), request);
+                        }
                         if (messageCountDown.decrementAndGet() <= 0) {
                             asyncExecCallback.completed();
                         }
@@ -204,6 +215,9 @@ public void consumeResponse(
                     final EntityDetails entityDetails,
                     final HttpContext context) throws HttpException, IOException {
 
+                if (eventListener != null) {
+                    eventListener.onResponseStart(clientContext, System.nanoTime(), response);
+                }
                 clientContext.setAttribute(HttpCoreContext.HTTP_RESPONSE, response);
                 httpProcessor.process(response, entityDetails, clientContext);
 
@@ -219,6 +233,9 @@ public void consumeResponse(
                 }
                 execRuntime.markConnectionReusable(userToken, keepAliveDuration);
                 if (entityDetails == null) {
+                    if (eventListener != null) {
+                        eventListener.onResponseEnd(clientContext, System.nanoTime());
+                    }
                     execRuntime.validateConnection();
                     if (messageCountDown.decrementAndGet() <= 0) {
                         asyncExecCallback.completed();
@@ -246,6 +263,9 @@ public void consume(final ByteBuffer src) throws IOException {
 
             @Override
             public void streamEnd(final List<? extends Header> trailers) throws HttpException, IOException {
+                if (eventListener != null) {
+                    eventListener.onResponseEnd(clientContext, System.nanoTime());
+                }
                 final AsyncDataConsumer entityConsumer = entityConsumerRef.getAndSet(null);
                 if (entityConsumer != null) {
                     entityConsumer.streamEnd(trailers);
@@ -0,0 +1,329 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.impl.async;
+
+import java.net.SocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.hc.client5.http.nio.IODispatcherLoad;
+import org.apache.hc.client5.http.nio.IODispatcherSelector;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.function.Callback;
+import org.apache.hc.core5.function.Decorator;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.net.NamedEndpoint;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.reactor.DefaultConnectingIOReactor;
+import org.apache.hc.core5.reactor.IOEventHandlerFactory;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.IOReactorService;
+import org.apache.hc.core5.reactor.IOReactorStatus;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.reactor.IOSessionListener;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.Asserts;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Group of single-threaded connecting I/O reactors, one per I/O dispatcher, that assigns
+ * new connections to dispatchers using a pluggable {@link IODispatcherSelector} instead of
+ * the round-robin assignment of {@link DefaultConnectingIOReactor}. The load of each
+ * dispatcher is tracked with an {@link IOSessionListener}.
+ */
+final class IOReactorGroup implements IOReactorService, ConnectionInitiator {
+
+    static final class Dispatcher implements IODispatcherLoad, IOSessionListener {
+
+        private final int id;
+        private final IOSessionListener sessionListener;
+        private final Map<String, IOSession> sessions;
+        private final AtomicInteger pendingConnects;
+        private final LongAdder inputEvents;
+        private final LongAdder outputEvents;
+
+        Dispatcher(final int id, final IOSessionListener sessionListener) {
+            this.id = id;
+            this.sessionListener = sessionListener;
+            this.sessions = new ConcurrentHashMap<>();
+            this.pendingConnects = new AtomicInteger();
+            this.inputEvents = new LongAdder();
+            this.outputEvents = new LongAdder();
+        }
+
+        @Override
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public int getSessions() {
+            // Sessions closed immediately from outside the dispatcher may never be
+            // reported as disconnected
+            int count = 0;
+            for (final Iterator<IOSession> it = sessions.values().iterator(); it.hasNext(); ) {
+                if (it.next().isOpen()) {
+                    count++;
+                } else {
+                    it.remove();
+                }
+            }
+            return count;
+        }
+
+        @Override
+        public int getPendingConnects() {
+            return pendingConnects.get();
+        }
+
+        @Override
+        public long getInputEvents() {
+            return inputEvents.sum();
+        }
+
+        @Override
+        public long getOutputEvents() {
+            return outputEvents.sum();
+        }
+
+        @Override
+        public void connected(final IOSession session) {
+            if (sessionListener != null) {
+                sessionListener.connected(session);
+            }
+        }
+
+        @Override
+        public void startTls(final IOSession session) {
+            if (sessionListener != null) {
+                sessionListener.startTls(session);
+            }
+        }
+
+        @Override
+        public void inputReady(final IOSession session) {
+            inputEvents.increment();
+            if (sessionListener != null) {
+                sessionListener.inputReady(session);
+            }
+        }
+
+        @Override
+        public void outputReady(final IOSession session) {
+            outputEvents.increment();
+            if (sessionListener != null) {
+                sessionListener.outputReady(session);
+            }
+        }
+
+        @Override
+        public void timeout(final IOSession session) {
+            if (sessionListener != null) {
+                sessionListener.timeout(session);
+            }
+        }
+
+        @Override
+        public void exception(final IOSession session, final Exception ex) {
+            if (sessionListener != null) {
+                sessionListener.exception(session, ex);
+            }
+        }
+
+        @Override
+        public void disconnected(final IOSession session) {
+            sessions.remove(session.getId());
+            if (sessionListener != null) {
+                sessionListener.disconnected(session);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "[id: " + id +
+                    "; sessions: " + getSessions() +
+                    "; pending connects: " + getPendingConnects() +
+                    "; input events: " + getInputEvents() +
+                    "; output events: " + getOutputEvents() + "]";
+        }
+
+    }
+
+    private final List<Dispatcher> dispatchers;
+    private final List<DefaultConnectingIOReactor> ioReactors;
+    private final IODispatcherSelector dispatcherSelector;
+
+    IOReactorGroup(
+            final IOEventHandlerFactory eventHandlerFactory,
+            final IOReactorConfig ioReactorConfig,
+            final ThreadFactory threadFactory,
+            final Decorator<IOSession> ioSessionDecorator,
+            final Callback<Exception> exceptionCallback,
+            final IOSessionListener sessionListener,
+            final Callback<IOSession> sessionShutdownCallback,
+            final IODispatcherSelector dispatcherSelector) {
+        Args.notNull(ioReactorConfig, "I/O reactor config");
+        final int ioThreadCount = ioReactorConfig.getIoThreadCount();
+        final IOReactorConfig dispatcherConfig = IOReactorConfig.copy(ioReactorConfig).setIoThreadCount(1).build();
+        final List<Dispatcher> dispatcherList = new ArrayList<>(ioThreadCount);
+        final List<DefaultConnectingIOReactor> ioReactorList = new ArrayList<>(ioThreadCount);
+        for (int i = 0; i < ioThreadCount; i++) {
+            final Dispatcher dispatcher = new Dispatcher(i, sessionListener);
+            dispatcherList.add(dispatcher);
+            ioReactorList.add(new DefaultConnectingIOReactor(
+                    eventHandlerFactory,
+                    dispatcherConfig,
+                    threadFactory,
+                    ioSessionDecorator,
+                    exceptionCallback,
+                    dispatcher,
+                    sessionShutdownCallback));
+        }
+        this.dispatchers = Collections.unmodifiableList(dispatcherList);
+        this.ioReactors = ioReactorList;
+        this.dispatcherSelector = Args.notNull(dispatcherSelector, "I/O dispatcher selector");
+    }
+
+    List<? extends IODispatcherLoad> getDispatcherLoads() {
+        return dispatchers;
+    }
+
+    @Override
+    public Future<IOSession> connect(
+            final NamedEndpoint remoteEndpoint,
+            final SocketAddress remoteAddress,
+            final SocketAddress localAddress,
+            final Timeout timeout,
+            final Object attachment,
+            final FutureCallback<IOSession> callback) {
+        final int i = dispatcherSelector.select(dispatchers);
+        Asserts.check(i >= 0 && i < dispatchers.size(), "Invalid I/O dispatcher index: %s", i);
+        final Dispatcher dispatcher = dispatchers.get(i);
+        dispatcher.pendingConnects.incrementAndGet();
+        return ioReactors.get(i).connect(remoteEndpoint, remoteAddress, localAddress, timeout, attachment,
+                new FutureCallback<IOSession>() {
+
+                    @Override
+                    public void completed(final IOSession session) {
+                        dispatcher.pendingConnects.decrementAndGet();
+                        // sessions are counted from connect completion because the listener
+                        // reports #connected once more upon TLS session start
+                        dispatcher.sessions.put(session.getId(), session);
+                        if (callback != null) {
+                            callback.completed(session);
+                        }
+                    }
+
+                    @Override
+                    public void failed(final Exception ex) {
+                        dispatcher.pendingConnects.decrementAndGet();
+                        if (callback != null) {
+                            callback.failed(ex);
+                        }
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        dispatcher.pendingConnects.decrementAndGet();
+                        if (callback != null) {
+                            callback.cancelled();
+                        }
+                    }
+
+                });
+    }
+
+    @Override
+    public void start() {
+        for (final DefaultConnectingIOReactor ioReactor : ioReactors) {
+            ioReactor.start();
+        }
+    }
+
+    @Override
+    public IOReactorStatus getStatus() {
+        // the group is only as far along as its least advanced member
+        IOReactorStatus status = IOReactorStatus.SHUT_DOWN;
+        for (final DefaultConnectingIOReactor ioReactor : ioReactors) {
+            final IOReactorStatus current = ioReactor.getStatus();
+            if (current.compareTo(status) < 0) {
+                status = current;
+            }
+        }
+        return status;
+    }
+
+    @Override
+    public void initiateShutdown() {
+        for (final DefaultConnectingIOReactor ioReactor : ioReactors) {
+            ioReactor.initiateShutdown();
+        }
+    }
+
+    @Override
+    public void awaitShutdown(final TimeValue waitTime) throws InterruptedException {
+        final long now = System.currentTimeMillis();
+        final long waitMillis = waitTime.toMilliseconds();
+        final long deadline = waitMillis < Long.MAX_VALUE - now ? now + waitMillis : Long.MAX_VALUE;
+        for (final DefaultConnectingIOReactor ioReactor : ioReactors) {
+            final long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                break;
+            }
+            ioReactor.awaitShutdown(TimeValue.of(remaining, TimeUnit.MILLISECONDS));
+        }
+    }
+
+    @Override
+    public void close(final CloseMode closeMode) {
+        for (final DefaultConnectingIOReactor ioReactor : ioReactors) {
+            ioReactor.close(closeMode);
+        }
+    }
+
+    @Override
+    public void close() {
+        close(CloseMode.GRACEFUL);
+    }
+
+    @Override
+    public String toString() {
+        return "IOReactorGroup " + dispatchers;
+    }
+
+}
@@ -31,14 +31,15 @@
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.async.AsyncExecCallback;
 import org.apache.hc.client5.http.async.AsyncExecChain;
@@ -74,8 +75,10 @@
 import org.apache.hc.core5.http.support.BasicRequestBuilder;
 import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.io.ModalCloseable;
-import org.apache.hc.core5.reactor.DefaultConnectingIOReactor;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.reactor.IOReactorService;
 import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -90,12 +93,14 @@ abstract class InternalAbstractHttpAsyncClient extends AbstractHttpAsyncClientBa
     private final CookieStore cookieStore;
     private final CredentialsProvider credentialsProvider;
     private final RequestConfig defaultConfig;
+    private final HttpClientEventListener eventListener;
     private final ConcurrentLinkedQueue<Closeable> closeables;
     private final ScheduledExecutorService scheduledExecutorService;
     private final AsyncExecChain.Scheduler scheduler;
 
     InternalAbstractHttpAsyncClient(
-            final DefaultConnectingIOReactor ioReactor,
+            final IOReactorService ioReactor,
+            final ConnectionInitiator connectionInitiator,
             final AsyncPushConsumerRegistry pushConsumerRegistry,
             final ThreadFactory threadFactory,
             final AsyncExecChainElement execChain,
@@ -104,16 +109,18 @@ abstract class InternalAbstractHttpAsyncClient extends AbstractHttpAsyncClientBa
             final CookieStore cookieStore,
             final CredentialsProvider credentialsProvider,
             final RequestConfig defaultConfig,
+            final HttpClientEventListener eventListener,
             final List<Closeable> closeables) {
-        super(ioReactor, pushConsumerRegistry, threadFactory);
+        super(ioReactor, connectionInitiator, pushConsumerRegistry, threadFactory);
         this.execChain = execChain;
         this.cookieSpecRegistry = cookieSpecRegistry;
         this.authSchemeRegistry = authSchemeRegistry;
         this.cookieStore = cookieStore;
         this.credentialsProvider = credentialsProvider;
         this.defaultConfig = defaultConfig;
+        this.eventListener = eventListener;
         this.closeables = closeables != null ? new ConcurrentLinkedQueue<>(closeables) : null;
-        this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(SCHEDULER_THREAD_FACTORY);
+        this.scheduledExecutorService = DeadlineScheduler.createExecutor(SCHEDULER_THREAD_FACTORY);
         this.scheduler = new AsyncExecChain.Scheduler() {
 
             @Override
@@ -164,6 +171,11 @@ void internalClose(final CloseMode closeMode) {
         }
     }
 
+    @Override
+    protected void scheduleDeadline(final CompletableFuture<?> future, final Timeout deadline) {
+        DeadlineScheduler.schedule(scheduledExecutorService, future, deadline);
+    }
+
     private void setupContext(final HttpClientContext context) {
         if (context.getAttribute(HttpClientContext.AUTHSCHEME_REGISTRY) == null) {
             context.setAttribute(HttpClientContext.AUTHSCHEME_REGISTRY, authSchemeRegistry);
@@ -180,6 +192,9 @@ private void setupContext(final HttpClientContext context) {
         if (context.getAttribute(HttpClientContext.REQUEST_CONFIG) == null) {
             context.setAttribute(HttpClientContext.REQUEST_CONFIG, defaultConfig);
         }
+        if (eventListener != null && context.getAttribute(HttpClientContext.EVENT_LISTENER) == null) {
+            context.setAttribute(HttpClientContext.EVENT_LISTENER, eventListener);
+        }
     }
 
     abstract AsyncExecRuntime createAsyncExecRuntime(HandlerFactory<AsyncPushConsumer> pushHandlerFactory);
@@ -221,6 +236,10 @@ protected <T> Future<T> doExecute(
                     LOG.debug("{} preparing request execution", exchangeId);
                 }
                 final AsyncExecRuntime execRuntime = createAsyncExecRuntime(pushHandlerFactory);
+                final HttpClientEventListener listener = clientContext.getEventListener();
+                if (listener != null) {
+                    listener.onCallStart(clientContext, System.nanoTime(), request);
+                }
 
                 final AsyncExecChain.Scope scope = new AsyncExecChain.Scope(exchangeId, route, request, future,
                         clientContext, execRuntime, scheduler, new AtomicInteger(1));
@@ -329,6 +348,9 @@ public void completed() {
                                 if (LOG.isDebugEnabled()) {
                                     LOG.debug("{} message exchange successfully completed", exchangeId);
                                 }
+                                if (listener != null) {
+                                    listener.onCallEnd(clientContext, System.nanoTime());
+                                }
                                 try {
                                     execRuntime.releaseEndpoint();
                                 } finally {
@@ -342,6 +364,9 @@ public void failed(final Exception cause) {
                                 if (LOG.isDebugEnabled()) {
                                     LOG.debug("{} request failed: {}", exchangeId, cause.getMessage());
                                 }
+                                if (listener != null) {
+                                    listener.onCallFailed(clientContext, System.nanoTime(), cause);
+                                }
                                 try {
                                     execRuntime.discardEndpoint();
                                     responseConsumer.failed(cause);
@@ -30,6 +30,7 @@
 import java.util.List;
 import java.util.concurrent.ThreadFactory;
 
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.async.AsyncExecRuntime;
 import org.apache.hc.client5.http.auth.AuthSchemeFactory;
@@ -47,7 +48,8 @@
 import org.apache.hc.core5.http.config.Lookup;
 import org.apache.hc.core5.http.nio.AsyncPushConsumer;
 import org.apache.hc.core5.http.nio.HandlerFactory;
-import org.apache.hc.core5.reactor.DefaultConnectingIOReactor;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.reactor.IOReactorService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -70,7 +72,8 @@ public final class InternalH2AsyncClient extends InternalAbstractHttpAsyncClient
     private final InternalH2ConnPool connPool;
 
     InternalH2AsyncClient(
-            final DefaultConnectingIOReactor ioReactor,
+            final IOReactorService ioReactor,
+            final ConnectionInitiator connectionInitiator,
             final AsyncExecChainElement execChain,
             final AsyncPushConsumerRegistry pushConsumerRegistry,
             final ThreadFactory threadFactory,
@@ -81,9 +84,10 @@ public final class InternalH2AsyncClient extends InternalAbstractHttpAsyncClient
             final CookieStore cookieStore,
             final CredentialsProvider credentialsProvider,
             final RequestConfig defaultConfig,
+            final HttpClientEventListener eventListener,
             final List<Closeable> closeables) {
-        super(ioReactor, pushConsumerRegistry, threadFactory, execChain,
-                cookieSpecRegistry, authSchemeRegistry, cookieStore, credentialsProvider, defaultConfig, closeables);
+        super(ioReactor, connectionInitiator, pushConsumerRegistry, threadFactory, execChain,
+                cookieSpecRegistry, authSchemeRegistry, cookieStore, credentialsProvider, defaultConfig, eventListener, closeables);
         this.connPool = connPool;
         this.routePlanner = routePlanner;
     }
@@ -28,6 +28,7 @@
 package org.apache.hc.client5.http.impl.async;
 
 import java.io.InterruptedIOException;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.hc.client5.http.HttpRoute;
@@ -97,7 +98,7 @@ public Cancellable acquireEndpoint(
 
                         @Override
                         public void completed(final IOSession ioSession) {
-                            sessionRef.set(new Endpoint(target, ioSession));
+                            assignEndpoint(new Endpoint(target, ioSession));
                             reusable = true;
                             if (log.isDebugEnabled()) {
                                 log.debug("{} acquired endpoint", id);
@@ -121,7 +122,15 @@ public void cancelled() {
         return Operations.nonCancellable();
     }
 
+    private void assignEndpoint(final Endpoint endpoint) {
+        final Endpoint previous = sessionRef.getAndSet(endpoint);
+        if (previous != null) {
+            connPool.releaseSession(previous.target, previous.session);
+        }
+    }
+
     private void closeEndpoint(final Endpoint endpoint) {
+        connPool.releaseSession(endpoint.target, endpoint.session);
         endpoint.session.close(CloseMode.GRACEFUL);
         if (log.isDebugEnabled()) {
             log.debug("{} endpoint closed", ConnPoolSupport.getId(endpoint));
@@ -131,8 +140,12 @@ private void closeEndpoint(final Endpoint endpoint) {
     @Override
     public void releaseEndpoint() {
         final Endpoint endpoint = sessionRef.getAndSet(null);
-        if (endpoint != null && !reusable) {
-            closeEndpoint(endpoint);
+        if (endpoint != null) {
+            if (reusable) {
+                connPool.releaseSession(endpoint.target, endpoint.session);
+            } else {
+                closeEndpoint(endpoint);
+            }
         }
     }
 
@@ -193,7 +206,7 @@ public Cancellable connectEndpoint(
 
             @Override
             public void completed(final IOSession ioSession) {
-                sessionRef.set(new Endpoint(target, ioSession));
+                assignEndpoint(new Endpoint(target, ioSession));
                 reusable = true;
                 if (log.isDebugEnabled()) {
                     log.debug("{} endpoint connected", ConnPoolSupport.getId(endpoint));
@@ -245,17 +258,17 @@ public Cancellable execute(
             final RequestConfig requestConfig = context.getRequestConfig();
             @SuppressWarnings("deprecation")
             final Timeout connectTimeout = requestConfig.getConnectTimeout();
-            connPool.getSession(target, connectTimeout, new FutureCallback<IOSession>() {
+            final Future<IOSession> sessionFuture = connPool.getSession(target, connectTimeout, new FutureCallback<IOSession>() {
 
                 @Override
                 public void completed(final IOSession ioSession) {
-                    sessionRef.set(new Endpoint(target, ioSession));
+                    assignEndpoint(new Endpoint(target, ioSession));
                     reusable = true;
                     if (log.isDebugEnabled()) {
                         log.debug("{} start execution {}", ConnPoolSupport.getId(endpoint), id);
                     }
                     context.setProtocolVersion(HttpVersion.HTTP_2);
-                    session.enqueue(
+                    ioSession.enqueue(
                             new RequestExecutionCommand(exchangeHandler, pushHandlerFactory, complexCancellable, context),
                             Command.Priority.NORMAL);
                 }
@@ -271,6 +284,12 @@ public void cancelled() {
                 }
 
             });
+            return () -> {
+                // Cancels the session request if still pending or else the stream
+                // once the request execution command has been processed
+                sessionFuture.cancel(true);
+                return complexCancellable.cancel();
+            };
         }
         return complexCancellable;
     }
@@ -27,7 +27,11 @@
 package org.apache.hc.client5.http.impl.async;
 
 import java.net.InetSocketAddress;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Future;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.core5.concurrent.CallbackContribution;
@@ -40,29 +44,60 @@
 import org.apache.hc.core5.io.ModalCloseable;
 import org.apache.hc.core5.reactor.ConnectionInitiator;
 import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.util.Args;
 import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
 
+/**
+ * HTTP/2 session pool. By default the pool maintains a single session per host.
+ * If configured with more than one session per host, new streams are placed on
+ * the least loaded session and an additional session is only opened once all
+ * open sessions carry {@code maxStreamsPerSession} or more streams. Sessions
+ * that received a GOAWAY frame are drained: they are not given new streams and
+ * get replaced once closed.
+ */
 class InternalH2ConnPool implements ModalCloseable {
 
-    private final H2ConnPool connPool;
+    static final int DEFAULT_MAX_STREAMS_PER_SESSION = 100;
+
+    private final H2ConnPool[] connPools;
+    private final int maxStreamsPerSession;
+    private final ConcurrentHashMap<HttpHost, HostSessions> hostSessionsMap;
 
     private volatile Resolver<HttpHost, ConnectionConfig> connectionConfigResolver;
 
     InternalH2ConnPool(final ConnectionInitiator connectionInitiator,
                        final Resolver<HttpHost, InetSocketAddress> addressResolver,
                        final TlsStrategy tlsStrategy) {
-        this.connPool = new H2ConnPool(connectionInitiator, addressResolver, tlsStrategy);
+        this(connectionInitiator, addressResolver, tlsStrategy, 1, DEFAULT_MAX_STREAMS_PER_SESSION);
+    }
+
+    InternalH2ConnPool(final ConnectionInitiator connectionInitiator,
+                       final Resolver<HttpHost, InetSocketAddress> addressResolver,
+                       final TlsStrategy tlsStrategy,
+                       final int maxSessionsPerHost,
+                       final int maxStreamsPerSession) {
+        Args.positive(maxSessionsPerHost, "Max sessions per host");
+        this.connPools = new H2ConnPool[maxSessionsPerHost];
+        for (int i = 0; i < maxSessionsPerHost; i++) {
+            this.connPools[i] = new H2ConnPool(connectionInitiator, addressResolver, tlsStrategy);
+        }
+        this.maxStreamsPerSession = Args.positive(maxStreamsPerSession, "Max streams per session");
+        this.hostSessionsMap = new ConcurrentHashMap<>();
     }
 
     @Override
     public void close(final CloseMode closeMode) {
-        connPool.close(closeMode);
+        for (final H2ConnPool connPool : connPools) {
+            connPool.close(closeMode);
+        }
     }
 
     @Override
     public void close() {
-        connPool.close();
+        for (final H2ConnPool connPool : connPools) {
+            connPool.close();
+        }
     }
 
     private ConnectionConfig resolveConnectionConfig(final HttpHost httpHost) {
@@ -76,6 +111,40 @@ public Future<IOSession> getSession(
             final Timeout connectTimeout,
             final FutureCallback<IOSession> callback) {
         final ConnectionConfig connectionConfig = resolveConnectionConfig(endpoint);
+        if (connPools.length == 1) {
+            return getSession(connPools[0], endpoint, connectTimeout, connectionConfig, callback);
+        }
+        final HostSessions hostSessions = hostSessionsMap.computeIfAbsent(endpoint, h -> new HostSessions(connPools.length));
+        final int slot = hostSessions.allocate(maxStreamsPerSession);
+        return getSession(connPools[slot], endpoint, connectTimeout, connectionConfig, new FutureCallback<IOSession>() {
+
+            @Override
+            public void completed(final IOSession ioSession) {
+                hostSessions.assign(slot, ioSession);
+                callback.completed(ioSession);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                hostSessions.deallocate(slot);
+                callback.failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                hostSessions.deallocate(slot);
+                callback.cancelled();
+            }
+
+        });
+    }
+
+    private Future<IOSession> getSession(
+            final H2ConnPool connPool,
+            final HttpHost endpoint,
+            final Timeout connectTimeout,
+            final ConnectionConfig connectionConfig,
+            final FutureCallback<IOSession> callback) {
         return connPool.getSession(
                 endpoint,
                 connectTimeout != null ? connectTimeout : connectionConfig.getConnectTimeout(),
@@ -93,12 +162,196 @@ public void completed(final IOSession ioSession) {
                 });
     }
 
+    /**
+     * Signals that a stream obtained with {@link #getSession(HttpHost, Timeout, FutureCallback)}
+     * is no longer in flight.
+     */
+    public void releaseSession(final HttpHost endpoint, final IOSession ioSession) {
+        if (connPools.length == 1) {
+            return;
+        }
+        final HostSessions hostSessions = hostSessionsMap.get(endpoint);
+        if (hostSessions != null) {
+            hostSessions.release(ioSession);
+        }
+    }
+
+    /**
+     * Marks the session as draining following receipt of a GOAWAY frame.
+     */
+    public void drainSession(final IOSession ioSession) {
+        if (connPools.length == 1) {
+            return;
+        }
+        for (final HostSessions hostSessions : hostSessionsMap.values()) {
+            if (hostSessions.drain(ioSession)) {
+                return;
+            }
+        }
+    }
+
+    int getStreamCount(final HttpHost endpoint) {
+        final HostSessions hostSessions = hostSessionsMap.get(endpoint);
+        return hostSessions != null ? hostSessions.getStreamCount() : 0;
+    }
+
     public void closeIdle(final TimeValue idleTime) {
-        connPool.closeIdle(idleTime);
+        for (final H2ConnPool connPool : connPools) {
+            connPool.closeIdle(idleTime);
+        }
     }
 
     public void setConnectionConfigResolver(final Resolver<HttpHost, ConnectionConfig> connectionConfigResolver) {
         this.connectionConfigResolver = connectionConfigResolver;
     }
 
+    static final class HostSessions {
+
+        private final ReentrantLock lock;
+        private final IOSession[] sessions;
+        private final int[] pendingStreams;
+        private final int[] activeStreams;
+        private final boolean[] draining;
+        private final Map<IOSession, Integer> retiredStreams;
+
+        HostSessions(final int size) {
+            this.lock = new ReentrantLock();
+            this.sessions = new IOSession[size];
+            this.pendingStreams = new int[size];
+            this.activeStreams = new int[size];
+            this.draining = new boolean[size];
+            this.retiredStreams = new IdentityHashMap<>();
+        }
+
+        private int load(final int i) {
+            return pendingStreams[i] + activeStreams[i];
+        }
+
+        private boolean isActive(final int i) {
+            final IOSession session = sessions[i];
+            if (draining[i]) {
+                if (session != null && session.isOpen()) {
+                    return false;
+                }
+                // The draining session is gone; the slot can be reused
+                draining[i] = false;
+            }
+            return pendingStreams[i] > 0 || session != null && session.isOpen();
+        }
+
+        int allocate(final int maxStreamsPerSession) {
+            lock.lock();
+            try {
+                int slot = -1;
+                for (int i = 0; i < sessions.length; i++) {
+                    if (isActive(i) && (slot == -1 || load(i) < load(slot))) {
+                        slot = i;
+                    }
+                }
+                if (slot == -1 || load(slot) >= maxStreamsPerSession) {
+                    for (int i = 0; i < sessions.length; i++) {
+                        if (!draining[i] && !isActive(i)) {
+                            slot = i;
+                            break;
+                        }
+                    }
+                }
+                if (slot == -1) {
+                    // All sessions are draining
+                    slot = 0;
+                    for (int i = 1; i < sessions.length; i++) {
+                        if (load(i) < load(slot)) {
+                            slot = i;
+                        }
+                    }
+                }
+                pendingStreams[slot]++;
+                return slot;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void assign(final int slot, final IOSession ioSession) {
+            lock.lock();
+            try {
+                pendingStreams[slot]--;
+                final IOSession previous = sessions[slot];
+                if (previous != ioSession) {
+                    if (previous != null && activeStreams[slot] > 0) {
+                        retiredStreams.put(previous, activeStreams[slot]);
+                    }
+                    sessions[slot] = ioSession;
+                    activeStreams[slot] = 0;
+                    draining[slot] = false;
+                }
+                activeStreams[slot]++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void deallocate(final int slot) {
+            lock.lock();
+            try {
+                pendingStreams[slot]--;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void release(final IOSession ioSession) {
+            lock.lock();
+            try {
+                for (int i = 0; i < sessions.length; i++) {
+                    if (sessions[i] == ioSession) {
+                        if (activeStreams[i] > 0) {
+                            activeStreams[i]--;
+                        }
+                        return;
+                    }
+                }
+                final Integer count = retiredStreams.get(ioSession);
+                if (count != null) {
+                    if (count > 1) {
+                        retiredStreams.put(ioSession, count - 1);
+                    } else {
+                        retiredStreams.remove(ioSession);
+                    }
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean drain(final IOSession ioSession) {
+            lock.lock();
+            try {
+                for (int i = 0; i < sessions.length; i++) {
+                    if (sessions[i] == ioSession) {
+                        draining[i] = true;
+                        return true;
+                    }
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int getStreamCount() {
+            lock.lock();
+            try {
+                int total = 0;
+                for (int i = 0; i < sessions.length; i++) {
+                    total += load(i);
+                }
+                return total;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+    }
+
 }
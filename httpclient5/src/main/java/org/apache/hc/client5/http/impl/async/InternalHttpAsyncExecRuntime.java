@@ -53,6 +53,11 @@
 
 class InternalHttpAsyncExecRuntime implements AsyncExecRuntime {
 
+    /**
+     * Execution states of an exchange submitted before its endpoint has been connected.
+     */
+    private enum ExecutionState { CONNECTING, EXECUTING, CANCELLED }
+
     private final Logger log;
     private final AsyncClientConnectionManager manager;
     private final ConnectionInitiator connectionInitiator;
@@ -279,10 +284,15 @@ public Cancellable execute(
                 };
             }
         } else {
-            connectEndpoint(context, new FutureCallback<AsyncExecRuntime>() {
+            final AtomicReference<ExecutionState> state = new AtomicReference<>(ExecutionState.CONNECTING);
+            final Cancellable connectCancellable = connectEndpoint(context, new FutureCallback<AsyncExecRuntime>() {
 
                 @Override
                 public void completed(final AsyncExecRuntime runtime) {
+                    if (!state.compareAndSet(ExecutionState.CONNECTING, ExecutionState.EXECUTING)) {
+                        exchangeHandler.failed(new InterruptedIOException());
+                        return;
+                    }
                     if (log.isDebugEnabled()) {
                         log.debug("{} start execution {}", ConnPoolSupport.getId(endpoint), id);
                     }
@@ -304,6 +314,18 @@ public void cancelled() {
                 }
 
             });
+            final boolean hardCancellationEnabled = context.getRequestConfig().isHardCancellationEnabled();
+            return () -> {
+                if (state.compareAndSet(ExecutionState.CONNECTING, ExecutionState.CANCELLED)) {
+                    connectCancellable.cancel();
+                    return true;
+                }
+                if (state.get() == ExecutionState.EXECUTING && hardCancellationEnabled) {
+                    exchangeHandler.cancel();
+                    return true;
+                }
+                return false;
+            };
         }
         return Operations.nonCancellable();
     }
@@ -34,6 +34,8 @@
 import java.nio.channels.SelectionKey;
 import java.util.concurrent.locks.Lock;
 
+import org.apache.hc.client5.http.impl.WireCapture;
+import org.apache.hc.client5.http.impl.WireCaptureBuffer;
 import org.apache.hc.core5.http.Chars;
 import org.apache.hc.core5.io.CloseMode;
 import org.apache.hc.core5.reactor.Command;
@@ -48,12 +50,26 @@ class LoggingIOSession implements IOSession {
     private final Logger log;
     private final Logger wireLog;
     private final IOSession session;
+    private final WireCapture wireCapture;
+    private final WireCaptureBuffer capture;
 
-    public LoggingIOSession(final IOSession session, final Logger log, final Logger wireLog) {
+    public LoggingIOSession(final IOSession session, final Logger log, final Logger wireLog, final WireCapture wireCapture) {
         super();
         this.session = session;
         this.log = log;
         this.wireLog = wireLog;
+        this.wireCapture = wireCapture;
+        this.capture = wireCapture != null ? wireCapture.register(session.getId(), session::getRemoteAddress) : null;
+    }
+
+    public LoggingIOSession(final IOSession session, final Logger log, final Logger wireLog) {
+        this(session, log, wireLog, null);
+    }
+
+    private void releaseCapture() {
+        if (wireCapture != null) {
+            wireCapture.release(capture);
+        }
     }
 
     @Override
@@ -158,6 +174,7 @@ public void close() {
             log.debug("{} Close", session);
         }
         session.close();
+        releaseCapture();
     }
 
     @Override
@@ -171,6 +188,7 @@ public void close(final CloseMode closeMode) {
             log.debug("{} Close {}", session, closeMode);
         }
         session.close(closeMode);
+        releaseCapture();
     }
 
     @Override
@@ -235,6 +253,9 @@ public void inputReady(final IOSession protocolSession, final ByteBuffer src) th
                     final ByteBuffer b = src.duplicate();
                     logData(b, "<< ");
                 }
+                if (src != null && capture != null && capture.isActive()) {
+                    capture.input(src);
+                }
                 handler.inputReady(protocolSession, src);
             }
 
@@ -256,6 +277,7 @@ public void exception(final IOSession protocolSession, final Exception cause) {
             @Override
             public void disconnected(final IOSession protocolSession) {
                 handler.disconnected(protocolSession);
+                releaseCapture();
             }
 
         });
@@ -311,6 +333,13 @@ public int read(final ByteBuffer dst) throws IOException {
             b.position(p - bytesRead);
             logData(b, "<< ");
         }
+        if (bytesRead > 0 && capture != null && capture.isActive()) {
+            final ByteBuffer b = dst.duplicate();
+            final int p = b.position();
+            b.limit(p);
+            b.position(p - bytesRead);
+            capture.input(b);
+        }
         return bytesRead;
     }
 
@@ -327,6 +356,13 @@ public int write(final ByteBuffer src) throws IOException {
             b.position(p - byteWritten);
             logData(b, ">> ");
         }
+        if (byteWritten > 0 && capture != null && capture.isActive()) {
+            final ByteBuffer b = src.duplicate();
+            final int p = b.position();
+            b.limit(p);
+            b.position(p - byteWritten);
+            capture.output(b);
+        }
         return byteWritten;
     }
 
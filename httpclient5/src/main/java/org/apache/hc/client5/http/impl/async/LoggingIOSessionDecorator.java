@@ -27,6 +27,7 @@
 
 package org.apache.hc.client5.http.impl.async;
 
+import org.apache.hc.client5.http.impl.WireCapture;
 import org.apache.hc.core5.function.Decorator;
 import org.apache.hc.core5.reactor.IOSession;
 import org.slf4j.Logger;
@@ -34,18 +35,21 @@
 
 final class LoggingIOSessionDecorator implements Decorator<IOSession> {
 
-    public final static LoggingIOSessionDecorator INSTANCE = new LoggingIOSessionDecorator();
+    public final static LoggingIOSessionDecorator INSTANCE = new LoggingIOSessionDecorator(null);
 
     private static final Logger WIRE_LOG = LoggerFactory.getLogger("org.apache.hc.client5.http.wire");
 
-    private LoggingIOSessionDecorator() {
+    private final WireCapture wireCapture;
+
+    LoggingIOSessionDecorator(final WireCapture wireCapture) {
+        this.wireCapture = wireCapture;
     }
 
     @Override
     public IOSession decorate(final IOSession ioSession) {
         final Logger sessionLog = LoggerFactory.getLogger(ioSession.getClass());
-        if (sessionLog.isDebugEnabled() || WIRE_LOG.isDebugEnabled()) {
-            return new LoggingIOSession(ioSession, sessionLog, WIRE_LOG);
+        if (sessionLog.isDebugEnabled() || WIRE_LOG.isDebugEnabled() || wireCapture != null) {
+            return new LoggingIOSession(ioSession, sessionLog, WIRE_LOG, wireCapture);
         } else {
             return ioSession;
         }
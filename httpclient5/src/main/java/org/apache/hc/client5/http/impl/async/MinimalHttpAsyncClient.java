@@ -28,7 +28,11 @@
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.Future;
 import java.util.concurrent.ThreadFactory;
@@ -37,6 +41,10 @@
 
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.SchemePortResolver;
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestProducer;
+import org.apache.hc.client5.http.async.methods.SimpleResponseConsumer;
 import org.apache.hc.client5.http.config.Configurable;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.config.TlsConfig;
@@ -61,6 +69,7 @@
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.HttpResponse;
 import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.ProtocolException;
 import org.apache.hc.core5.http.nio.AsyncClientEndpoint;
 import org.apache.hc.core5.http.nio.AsyncClientExchangeHandler;
 import org.apache.hc.core5.http.nio.AsyncPushConsumer;
@@ -430,6 +439,223 @@ public void cancelled() {
         return cancellable;
     }
 
+    /**
+     * Executes a batch of requests over one endpoint per target host. Requests to the same
+     * host are pipelined over HTTP/1.1 or multiplexed over HTTP/2. The endpoints are
+     * released for re-use once the batch completes or discarded if it fails.
+     *
+     * @since 5.3
+     */
+    @Override
+    public Future<List<SimpleHttpResponse>> executeBatch(
+            final Collection<SimpleHttpRequest> requests,
+            final int maxInFlight,
+            final FutureCallback<List<SimpleHttpResponse>> callback) {
+        Args.notNull(requests, "Requests");
+        Args.positive(maxInFlight, "Max requests in flight");
+        final BatchEndpoints batchEndpoints = new BatchEndpoints();
+        final AsyncBatchExecution batch = new AsyncBatchExecution(
+                new ArrayList<>(requests),
+                maxInFlight,
+                batchEndpoints::execute,
+                new FutureCallback<List<SimpleHttpResponse>>() {
+
+                    @Override
+                    public void completed(final List<SimpleHttpResponse> result) {
+                        batchEndpoints.release(true);
+                        if (callback != null) {
+                            callback.completed(result);
+                        }
+                    }
+
+                    @Override
+                    public void failed(final Exception ex) {
+                        batchEndpoints.release(false);
+                        if (callback != null) {
+                            callback.failed(ex);
+                        }
+                    }
+
+                    @Override
+                    public void cancelled() {
+                        batchEndpoints.release(false);
+                        if (callback != null) {
+                            callback.cancelled();
+                        }
+                    }
+
+                });
+        batch.start();
+        return batch.getFuture();
+    }
+
+    /**
+     * Endpoints leased by a request batch, one per target host.
+     */
+    private class BatchEndpoints {
+
+        private final Map<HttpHost, BatchEndpoint> endpointMap;
+        private boolean released;
+
+        BatchEndpoints() {
+            this.endpointMap = new HashMap<>();
+        }
+
+        Future<SimpleHttpResponse> execute(
+                final SimpleHttpRequest request,
+                final FutureCallback<SimpleHttpResponse> callback) {
+            final HttpHost host;
+            try {
+                host = RoutingSupport.determineHost(request);
+                if (host == null) {
+                    throw new ProtocolException("Target host is not specified");
+                }
+            } catch (final HttpException ex) {
+                callback.failed(ex);
+                return null;
+            }
+            final BatchEndpoint batchEndpoint;
+            final boolean leaseRequired;
+            synchronized (this) {
+                if (released) {
+                    batchEndpoint = null;
+                    leaseRequired = false;
+                } else {
+                    final BatchEndpoint existing = endpointMap.get(host);
+                    leaseRequired = existing == null;
+                    batchEndpoint = leaseRequired ? new BatchEndpoint() : existing;
+                    if (leaseRequired) {
+                        endpointMap.put(host, batchEndpoint);
+                    }
+                }
+            }
+            if (batchEndpoint == null) {
+                callback.cancelled();
+                return null;
+            }
+            if (leaseRequired) {
+                batchEndpoint.leaseFuture = lease(host, batchEndpoint);
+            }
+            return batchEndpoint.execute(request, callback);
+        }
+
+        void release(final boolean reuse) {
+            final List<BatchEndpoint> batchEndpoints;
+            synchronized (this) {
+                released = true;
+                batchEndpoints = new ArrayList<>(endpointMap.values());
+            }
+            for (final BatchEndpoint batchEndpoint : batchEndpoints) {
+                batchEndpoint.release(reuse);
+            }
+        }
+
+    }
+
+    /**
+     * Endpoint shared by the requests of a batch to the same target host. Requests
+     * submitted while the endpoint is being leased are queued.
+     */
+    private static class BatchEndpoint implements FutureCallback<AsyncClientEndpoint> {
+
+        private final List<Runnable> pending;
+        private volatile Future<AsyncClientEndpoint> leaseFuture;
+        private AsyncClientEndpoint endpoint;
+        private Exception failure;
+        private boolean released;
+
+        BatchEndpoint() {
+            this.pending = new ArrayList<>();
+        }
+
+        Future<SimpleHttpResponse> execute(
+                final SimpleHttpRequest request,
+                final FutureCallback<SimpleHttpResponse> callback) {
+            final AsyncClientEndpoint current;
+            final Exception currentFailure;
+            synchronized (this) {
+                if (endpoint == null && failure == null) {
+                    pending.add(() -> execute(request, callback));
+                    return null;
+                }
+                current = endpoint;
+                currentFailure = failure;
+            }
+            if (currentFailure != null) {
+                callback.failed(currentFailure);
+                return null;
+            }
+            return current.execute(
+                    SimpleRequestProducer.create(request),
+                    SimpleResponseConsumer.create(),
+                    HttpClientContext.create(),
+                    callback);
+        }
+
+        @Override
+        public void completed(final AsyncClientEndpoint result) {
+            final List<Runnable> queued;
+            synchronized (this) {
+                if (released) {
+                    queued = null;
+                } else {
+                    endpoint = result;
+                    queued = new ArrayList<>(pending);
+                    pending.clear();
+                }
+            }
+            if (queued == null) {
+                result.releaseAndReuse();
+                return;
+            }
+            for (final Runnable runnable : queued) {
+                runnable.run();
+            }
+        }
+
+        @Override
+        public void failed(final Exception ex) {
+            final List<Runnable> queued;
+            synchronized (this) {
+                failure = ex;
+                queued = new ArrayList<>(pending);
+                pending.clear();
+            }
+            for (final Runnable runnable : queued) {
+                runnable.run();
+            }
+        }
+
+        @Override
+        public void cancelled() {
+            failed(new CancellationException("Connection lease cancelled"));
+        }
+
+        void release(final boolean reuse) {
+            final AsyncClientEndpoint current;
+            synchronized (this) {
+                if (released) {
+                    return;
+                }
+                released = true;
+                current = endpoint;
+            }
+            if (current != null) {
+                if (reuse) {
+                    current.releaseAndReuse();
+                } else {
+                    current.releaseAndDiscard();
+                }
+            } else {
+                final Future<AsyncClientEndpoint> future = leaseFuture;
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+
+    }
+
     private class InternalAsyncClientEndpoint extends AsyncClientEndpoint {
 
         private final AsyncConnectionEndpoint connectionEndpoint;
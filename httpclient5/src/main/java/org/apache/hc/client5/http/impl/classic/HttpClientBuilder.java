@@ -37,10 +37,14 @@
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.hc.client5.http.AuthenticationStrategy;
 import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.HttpRequestRetryStrategy;
+import org.apache.hc.client5.http.RetryBudget;
 import org.apache.hc.client5.http.SchemePortResolver;
 import org.apache.hc.client5.http.UserTokenHandler;
 import org.apache.hc.client5.http.auth.AuthSchemeFactory;
@@ -65,6 +69,7 @@
 import org.apache.hc.client5.http.impl.DefaultUserTokenHandler;
 import org.apache.hc.client5.http.impl.IdleConnectionEvictor;
 import org.apache.hc.client5.http.impl.NoopUserTokenHandler;
+import org.apache.hc.client5.http.impl.VirtualThreadSupport;
 import org.apache.hc.client5.http.impl.auth.BasicCredentialsProvider;
 import org.apache.hc.client5.http.impl.auth.BasicSchemeFactory;
 import org.apache.hc.client5.http.impl.auth.BearerSchemeFactory;
@@ -83,6 +88,7 @@
 import org.apache.hc.client5.http.protocol.ResponseProcessCookies;
 import org.apache.hc.client5.http.routing.HttpRoutePlanner;
 import org.apache.hc.core5.annotation.Internal;
+import org.apache.hc.core5.concurrent.DefaultThreadFactory;
 import org.apache.hc.core5.http.ConnectionReuseStrategy;
 import org.apache.hc.core5.http.Header;
 import org.apache.hc.core5.http.HttpHost;
@@ -200,6 +206,7 @@ private ExecInterceptorEntry(
     private LinkedList<ExecInterceptorEntry> execInterceptors;
 
     private HttpRequestRetryStrategy retryStrategy;
+    private RetryBudget retryBudget;
     private HttpRoutePlanner routePlanner;
     private RedirectStrategy redirectStrategy;
     private ConnectionBackoffStrategy connectionBackoffStrategy;
@@ -213,6 +220,7 @@ private ExecInterceptorEntry(
     private HttpHost proxy;
     private Collection<? extends Header> defaultHeaders;
     private RequestConfig defaultRequestConfig;
+    private HttpClientEventListener eventListener;
     private boolean evictExpiredConnections;
     private boolean evictIdleConnections;
     private TimeValue maxIdleTime;
@@ -507,6 +515,21 @@ public final HttpClientBuilder setRetryStrategy(final HttpRequestRetryStrategy r
         return this;
     }
 
+    /**
+     * Assigns {@link RetryBudget} instance that limits the number of retries
+     * relative to the number of requests per route.
+     * <p>
+     * Please note this value has no effect if automatic retries are disabled
+     * with the {@link #disableAutomaticRetries()} method.
+     * </p>
+     *
+     * @since 5.3
+     */
+    public final HttpClientBuilder setRetryBudget(final RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+        return this;
+    }
+
     /**
      * Disables automatic request recovery and re-execution.
      */
@@ -637,6 +660,18 @@ public final HttpClientBuilder setDefaultRequestConfig(final RequestConfig confi
         return this;
     }
 
+    /**
+     * Assigns {@link HttpClientEventListener} instance which will receive request
+     * execution lifecycle events if not explicitly set in the client execution
+     * context.
+     *
+     * @since 5.3
+     */
+    public final HttpClientBuilder setEventListener(final HttpClientEventListener eventListener) {
+        this.eventListener = eventListener;
+        return this;
+    }
+
     /**
      * Use system properties when creating and configuring default
      * implementations.
@@ -869,7 +904,7 @@ public CloseableHttpClient build() {
                 retryStrategyCopy = DefaultHttpRequestRetryStrategy.INSTANCE;
             }
             execChainDefinition.addFirst(
-                    new HttpRequestRetryExec(retryStrategyCopy),
+                    new HttpRequestRetryExec(retryStrategyCopy, retryBudget),
                     ChainElement.RETRY.name());
         }
 
@@ -1017,7 +1052,33 @@ public CloseableHttpClient build() {
                 defaultCookieStore,
                 defaultCredentialsProvider,
                 defaultRequestConfig != null ? defaultRequestConfig : RequestConfig.DEFAULT,
+                eventListener,
                 closeablesCopy);
     }
 
+    /**
+     * Builds a {@link FutureRequestExecutionService} that executes requests with a new
+     * {@link CloseableHttpClient} instance built by this builder, running each request
+     * on its own virtual thread.
+     * <p>
+     * Virtual threads require Java 21 or newer. On older runtimes requests get executed
+     * by a cached pool of platform threads.
+     * </p>
+     * <p>
+     * The number of requests executed concurrently is not limited by the executor but
+     * by the connection manager. Requests in excess of its per route and total limits,
+     * which are 5 and 25 connections by default, wait for a connection to be released.
+     * Set a connection manager with limits matching the expected concurrency to make full
+     * use of virtual threads.
+     * </p>
+     *
+     * @since 5.3
+     */
+    public FutureRequestExecutionService buildFutureRequestExecutionService() {
+        final ExecutorService executorService = VirtualThreadSupport.isSupported()
+                ? VirtualThreadSupport.newVirtualThreadPerTaskExecutor()
+                : Executors.newCachedThreadPool(new DefaultThreadFactory("httpclient-exec", true));
+        return new FutureRequestExecutionService(build(), executorService);
+    }
+
 }
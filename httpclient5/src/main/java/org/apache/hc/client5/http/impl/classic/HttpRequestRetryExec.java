@@ -28,9 +28,12 @@
 
 import java.io.IOException;
 import java.io.InterruptedIOException;
+import java.util.concurrent.CountDownLatch;
 
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.HttpRequestRetryStrategy;
 import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.RetryBudget;
 import org.apache.hc.client5.http.classic.ExecChain;
 import org.apache.hc.client5.http.classic.ExecChain.Scope;
 import org.apache.hc.client5.http.classic.ExecChainHandler;
@@ -40,6 +43,7 @@
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.Internal;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.CancellableDependency;
 import org.apache.hc.core5.http.ClassicHttpRequest;
 import org.apache.hc.core5.http.ClassicHttpResponse;
 import org.apache.hc.core5.http.HttpEntity;
@@ -78,6 +82,16 @@
  * each individual retry. Elapsed time will measure each individual http request,
  * without the delay imposed by the retry handler.
  * </p>
+ * <p>
+ * If a {@link RetryBudget} is given, requests are re-executed only as long as
+ * the budget of the route allows, regardless of the decision of the retry strategy.
+ * </p>
+ * <p>
+ * Requests are not re-executed if the re-execution is not expected to complete
+ * within the {@link RequestConfig#getExecutionTimeout() execution timeout}, assuming
+ * it takes as long as the preceding execution. Waiting between executions ends
+ * immediately if the request is cancelled.
+ * </p>
  *
  * @since 5.0
  */
@@ -88,11 +102,81 @@ public class HttpRequestRetryExec implements ExecChainHandler {
     private static final Logger LOG = LoggerFactory.getLogger(HttpRequestRetryExec.class);
 
     private final HttpRequestRetryStrategy retryStrategy;
+    private final RetryBudget retryBudget;
 
+    /**
+     * @since 5.3
+     */
     public HttpRequestRetryExec(
-            final HttpRequestRetryStrategy retryStrategy) {
+            final HttpRequestRetryStrategy retryStrategy,
+            final RetryBudget retryBudget) {
          Args.notNull(retryStrategy, "retryStrategy");
          this.retryStrategy = retryStrategy;
+         this.retryBudget = retryBudget;
+    }
+
+    public HttpRequestRetryExec(
+            final HttpRequestRetryStrategy retryStrategy) {
+         this(retryStrategy, null);
+    }
+
+    private boolean isWithinDeadline(
+            final String exchangeId,
+            final HttpClientContext context,
+            final long startNanos,
+            final long attemptNanos,
+            final TimeValue nextInterval) {
+        final Timeout executionTimeout = context.getRequestConfig().getExecutionTimeout();
+        if (!TimeValue.isPositive(executionTimeout)) {
+            return true;
+        }
+        final long intervalNanos = TimeValue.isPositive(nextInterval) ? nextInterval.toNanoseconds() : 0;
+        final long expectedNanos = System.nanoTime() - startNanos + intervalNanos + attemptNanos;
+        if (expectedNanos <= executionTimeout.toNanoseconds()) {
+            return true;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} cannot retry within execution timeout of {}", exchangeId, executionTimeout);
+        }
+        return false;
+    }
+
+    private void awaitRetry(
+            final String exchangeId,
+            final Scope scope,
+            final TimeValue nextInterval) throws IOException {
+        if (!TimeValue.isPositive(nextInterval)) {
+            return;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} wait for {}", exchangeId, nextInterval);
+        }
+        final CountDownLatch latch = new CountDownLatch(1);
+        if (scope.originalRequest instanceof CancellableDependency) {
+            ((CancellableDependency) scope.originalRequest).setDependency(() -> {
+                latch.countDown();
+                return true;
+            });
+        }
+        try {
+            latch.await(nextInterval.getDuration(), nextInterval.getTimeUnit());
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        if (scope.execRuntime.isExecutionAborted()) {
+            throw new RequestFailedException("Request aborted");
+        }
+    }
+
+    private boolean withdrawRetry(final String exchangeId, final HttpRoute route) {
+        if (retryBudget == null || retryBudget.withdraw(route)) {
+            return true;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} retry budget of {} exhausted", exchangeId, route);
+        }
+        return false;
     }
 
     @Override
@@ -106,8 +190,13 @@ public ClassicHttpResponse execute(
         final HttpRoute route = scope.route;
         final HttpClientContext context = scope.clientContext;
         ClassicHttpRequest currentRequest = request;
+        if (retryBudget != null) {
+            retryBudget.deposit(route);
+        }
+        final long startNanos = System.nanoTime();
 
         for (int execCount = 1;; execCount++) {
+            final long attemptStartNanos = System.nanoTime();
             final ClassicHttpResponse response;
             try {
                  response = chain.proceed(currentRequest, scope);
@@ -122,7 +211,14 @@ public ClassicHttpResponse execute(
                     }
                     throw ex;
                 }
-                if (retryStrategy.retryRequest(request, ex, execCount, context)) {
+                TimeValue nextInterval = null;
+                boolean retry = retryStrategy.retryRequest(request, ex, execCount, context);
+                if (retry) {
+                    nextInterval = retryStrategy.getRetryInterval(request, ex, execCount, context);
+                    retry = isWithinDeadline(exchangeId, context, startNanos, System.nanoTime() - attemptStartNanos, nextInterval)
+                            && withdrawRetry(exchangeId, route);
+                }
+                if (retry) {
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("{} {}", exchangeId, ex.getMessage(), ex);
                     }
@@ -130,18 +226,11 @@ public ClassicHttpResponse execute(
                         LOG.info("Recoverable I/O exception ({}) caught when processing request to {}",
                                 ex.getClass().getName(), route);
                     }
-                    final TimeValue nextInterval = retryStrategy.getRetryInterval(request, ex, execCount, context);
-                    if (TimeValue.isPositive(nextInterval)) {
-                        try {
-                            if (LOG.isDebugEnabled()) {
-                                LOG.debug("{} wait for {}", exchangeId, nextInterval);
-                            }
-                            nextInterval.sleep();
-                        } catch (final InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                            throw new InterruptedIOException();
-                        }
+                    final HttpClientEventListener eventListener = context.getEventListener();
+                    if (eventListener != null) {
+                        eventListener.onRetry(context, System.nanoTime(), request, execCount);
                     }
+                    awaitRetry(exchangeId, scope, nextInterval);
                     currentRequest = ClassicRequestBuilder.copy(scope.originalRequest).build();
                     continue;
                 } else {
@@ -173,18 +262,16 @@ public ClassicHttpResponse execute(
                             return response;
                         }
                     }
+                    if (!isWithinDeadline(exchangeId, context, startNanos, System.nanoTime() - attemptStartNanos, nextInterval)
+                            || !withdrawRetry(exchangeId, route)) {
+                        return response;
+                    }
                     response.close();
-                    if (TimeValue.isPositive(nextInterval)) {
-                        try {
-                            if (LOG.isDebugEnabled()) {
-                                LOG.debug("{} wait for {}", exchangeId, nextInterval);
-                            }
-                            nextInterval.sleep();
-                        } catch (final InterruptedException e) {
-                            Thread.currentThread().interrupt();
-                            throw new InterruptedIOException();
-                        }
+                    final HttpClientEventListener eventListener = context.getEventListener();
+                    if (eventListener != null) {
+                        eventListener.onRetry(context, System.nanoTime(), request, execCount);
                     }
+                    awaitRetry(exchangeId, scope, nextInterval);
                     currentRequest = ClassicRequestBuilder.copy(scope.originalRequest).build();
                 } else {
                     return response;
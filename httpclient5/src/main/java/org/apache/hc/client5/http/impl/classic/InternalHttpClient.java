@@ -33,6 +33,7 @@
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.hc.client5.http.ClientProtocolException;
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.auth.AuthSchemeFactory;
 import org.apache.hc.client5.http.auth.CredentialsProvider;
@@ -90,6 +91,7 @@ class InternalHttpClient extends CloseableHttpClient implements Configurable {
     private final CookieStore cookieStore;
     private final CredentialsProvider credentialsProvider;
     private final RequestConfig defaultConfig;
+    private final HttpClientEventListener eventListener;
     private final ConcurrentLinkedQueue<Closeable> closeables;
 
     public InternalHttpClient(
@@ -102,6 +104,7 @@ public InternalHttpClient(
             final CookieStore cookieStore,
             final CredentialsProvider credentialsProvider,
             final RequestConfig defaultConfig,
+            final HttpClientEventListener eventListener,
             final List<Closeable> closeables) {
         super();
         this.connManager = Args.notNull(connManager, "Connection manager");
@@ -113,6 +116,7 @@ public InternalHttpClient(
         this.cookieStore = cookieStore;
         this.credentialsProvider = credentialsProvider;
         this.defaultConfig = defaultConfig;
+        this.eventListener = eventListener;
         this.closeables = closeables != null ?  new ConcurrentLinkedQueue<>(closeables) : null;
     }
 
@@ -136,6 +140,9 @@ private void setupContext(final HttpClientContext context) {
         if (context.getAttribute(HttpClientContext.REQUEST_CONFIG) == null) {
             context.setAttribute(HttpClientContext.REQUEST_CONFIG, this.defaultConfig);
         }
+        if (this.eventListener != null && context.getAttribute(HttpClientContext.EVENT_LISTENER) == null) {
+            context.setAttribute(HttpClientContext.EVENT_LISTENER, this.eventListener);
+        }
     }
 
     @Override
@@ -167,8 +174,20 @@ protected CloseableHttpResponse doExecute(
             final ExecRuntime execRuntime = new InternalExecRuntime(LOG, connManager, requestExecutor,
                     request instanceof CancellableDependency ? (CancellableDependency) request : null);
             final ExecChain.Scope scope = new ExecChain.Scope(exchangeId, route, request, execRuntime, localcontext);
-            final ClassicHttpResponse response = this.execChain.execute(ClassicRequestBuilder.copy(request).build(), scope);
-            return CloseableHttpResponse.adapt(response);
+            final HttpClientEventListener listener = localcontext.getEventListener();
+            if (listener == null) {
+                final ClassicHttpResponse response = this.execChain.execute(ClassicRequestBuilder.copy(request).build(), scope);
+                return CloseableHttpResponse.adapt(response);
+            }
+            listener.onCallStart(localcontext, System.nanoTime(), request);
+            try {
+                final ClassicHttpResponse response = this.execChain.execute(ClassicRequestBuilder.copy(request).build(), scope);
+                listener.onCallEnd(localcontext, System.nanoTime());
+                return CloseableHttpResponse.adapt(response);
+            } catch (final IOException | HttpException | RuntimeException ex) {
+                listener.onCallFailed(localcontext, System.nanoTime(), ex);
+                throw ex;
+            }
         } catch (final HttpException httpException) {
             throw new ClientProtocolException(httpException.getMessage(), httpException);
         }
@@ -31,6 +31,7 @@
 import java.io.InterruptedIOException;
 
 import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.UserTokenHandler;
 import org.apache.hc.client5.http.classic.ExecChain;
@@ -113,7 +114,23 @@ public ClassicHttpResponse execute(
 
             httpProcessor.process(request, request.getEntity(), context);
 
-            final ClassicHttpResponse response = execRuntime.execute(exchangeId, request, context);
+            final HttpClientEventListener eventListener = context.getEventListener();
+            final ClassicHttpResponse response;
+            if (eventListener != null) {
+                final HttpEntity requestEntity = request.getEntity();
+                if (requestEntity != null) {
+                    request.setEntity(new RequestEntityEventProxy(requestEntity, request, eventListener, context));
+                }
+                eventListener.onRequestStart(context, System.nanoTime(), request);
+                try {
+                    response = execRuntime.execute(exchangeId, request, context);
+                } finally {
+                    request.setEntity(requestEntity);
+                }
+                eventListener.onResponseStart(context, System.nanoTime(), response);
+            } else {
+                response = execRuntime.execute(exchangeId, request, context);
+            }
 
             context.setAttribute(HttpCoreContext.HTTP_RESPONSE, response);
             httpProcessor.process(response, response.getEntity(), context);
@@ -144,6 +161,9 @@ public ClassicHttpResponse execute(
             // check for entity, release connection if possible
             final HttpEntity entity = response.getEntity();
             if (entity == null || !entity.isStreaming()) {
+                if (eventListener != null) {
+                    eventListener.onResponseEnd(context, System.nanoTime());
+                }
                 // connection not needed and (assumed to be) in re-usable state
                 execRuntime.releaseEndpoint();
                 return new CloseableHttpResponse(response, null);
@@ -193,7 +193,7 @@ public ClassicHttpResponse execute(
 
                 if (Method.TRACE.isSame(request.getMethod())) {
                     // Do not perform authentication for TRACE request
-                    ResponseEntityProxy.enhance(response, execRuntime);
+                    ResponseEntityProxy.enhance(response, execRuntime, context);
                     return response;
                 }
                 final HttpEntity requestEntity = request.getEntity();
@@ -201,7 +201,7 @@ public ClassicHttpResponse execute(
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("{} Cannot retry non-repeatable request", exchangeId);
                     }
-                    ResponseEntityProxy.enhance(response, execRuntime);
+                    ResponseEntityProxy.enhance(response, execRuntime, context);
                     return response;
                 }
                 if (needAuthentication(
@@ -240,7 +240,7 @@ public ClassicHttpResponse execute(
                         request.addHeader(it.next());
                     }
                 } else {
-                    ResponseEntityProxy.enhance(response, execRuntime);
+                    ResponseEntityProxy.enhance(response, execRuntime, context);
                     return response;
                 }
             }
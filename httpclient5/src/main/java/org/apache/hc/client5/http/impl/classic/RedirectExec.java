@@ -32,6 +32,7 @@
 import java.util.Objects;
 
 import org.apache.hc.client5.http.CircularRedirectException;
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.RedirectException;
 import org.apache.hc.client5.http.auth.AuthExchange;
@@ -201,6 +202,10 @@ public ClassicHttpResponse execute(
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("{} redirecting to '{}' via {}", exchangeId, redirectUri, currentRoute);
                     }
+                    final HttpClientEventListener eventListener = context.getEventListener();
+                    if (eventListener != null) {
+                        eventListener.onRedirect(context, System.nanoTime(), currentRequest, redirectUri);
+                    }
                     currentRequest = redirectBuilder.build();
                     RequestEntityProxy.enhance(currentRequest);
 
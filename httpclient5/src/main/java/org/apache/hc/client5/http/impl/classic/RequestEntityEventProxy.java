@@ -0,0 +1,65 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.classic;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.apache.hc.client5.http.HttpClientEventListener;
+import org.apache.hc.core5.http.ClassicHttpRequest;
+import org.apache.hc.core5.http.HttpEntity;
+import org.apache.hc.core5.http.io.entity.HttpEntityWrapper;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+/**
+ * Request entity wrapper that notifies {@link HttpClientEventListener} once
+ * the entity has been written out.
+ */
+class RequestEntityEventProxy extends HttpEntityWrapper {
+
+    private final ClassicHttpRequest request;
+    private final HttpClientEventListener eventListener;
+    private final HttpContext context;
+
+    RequestEntityEventProxy(
+            final HttpEntity entity,
+            final ClassicHttpRequest request,
+            final HttpClientEventListener eventListener,
+            final HttpContext context) {
+        super(entity);
+        this.request = request;
+        this.eventListener = eventListener;
+        this.context = context;
+    }
+
+    @Override
+    public void writeTo(final OutputStream outStream) throws IOException {
+        super.writeTo(outStream);
+        eventListener.onRequestBodyEnd(context, System.nanoTime(), request);
+    }
+
+}
@@ -34,7 +34,9 @@
 import java.util.Arrays;
 import java.util.List;
 
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.classic.ExecRuntime;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.function.Supplier;
 import org.apache.hc.core5.http.ClassicHttpResponse;
 import org.apache.hc.core5.http.Header;
@@ -47,17 +49,40 @@
 class ResponseEntityProxy extends HttpEntityWrapper implements EofSensorWatcher {
 
     private final ExecRuntime execRuntime;
+    private final HttpClientEventListener eventListener;
+    private final HttpClientContext context;
 
     public static void enhance(final ClassicHttpResponse response, final ExecRuntime execRuntime) {
+        enhance(response, execRuntime, null);
+    }
+
+    public static void enhance(final ClassicHttpResponse response, final ExecRuntime execRuntime, final HttpClientContext context) {
         final HttpEntity entity = response.getEntity();
         if (entity != null && entity.isStreaming() && execRuntime != null) {
-            response.setEntity(new ResponseEntityProxy(entity, execRuntime));
+            final HttpClientEventListener eventListener = context != null ? context.getEventListener() : null;
+            response.setEntity(new ResponseEntityProxy(entity, execRuntime, eventListener, context));
         }
     }
 
     ResponseEntityProxy(final HttpEntity entity, final ExecRuntime execRuntime) {
+        this(entity, execRuntime, null, null);
+    }
+
+    ResponseEntityProxy(
+            final HttpEntity entity,
+            final ExecRuntime execRuntime,
+            final HttpClientEventListener eventListener,
+            final HttpClientContext context) {
         super(entity);
         this.execRuntime = execRuntime;
+        this.eventListener = eventListener;
+        this.context = context;
+    }
+
+    private void fireResponseEnd() {
+        if (eventListener != null) {
+            eventListener.onResponseEnd(context, System.nanoTime());
+        }
     }
 
     private void cleanup() throws IOException {
@@ -95,6 +120,7 @@ public InputStream getContent() throws IOException {
     public void writeTo(final OutputStream outStream) throws IOException {
         try {
             super.writeTo(outStream != null ? outStream : NullOutputStream.INSTANCE);
+            fireResponseEnd();
             releaseConnection();
         } catch (final IOException | RuntimeException ex) {
             discardConnection();
@@ -112,6 +138,7 @@ public boolean eofDetected(final InputStream wrapped) throws IOException {
             if (wrapped != null) {
                 wrapped.close();
             }
+            fireResponseEnd();
             releaseConnection();
         } catch (final IOException | RuntimeException ex) {
             discardConnection();
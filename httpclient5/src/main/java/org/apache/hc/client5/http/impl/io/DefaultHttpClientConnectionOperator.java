@@ -36,6 +36,7 @@
 
 import org.apache.hc.client5.http.ConnectExceptionSupport;
 import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.SchemePortResolver;
 import org.apache.hc.client5.http.SystemDefaultDnsResolver;
 import org.apache.hc.client5.http.UnsupportedSchemeException;
@@ -132,6 +133,10 @@ public void connect(
         if (sf == null) {
             throw new UnsupportedSchemeException(host.getSchemeName() + " protocol is not supported");
         }
+        final HttpClientEventListener eventListener = HttpClientContext.adapt(context).getEventListener();
+        if (eventListener != null) {
+            eventListener.onConnectStart(context, System.nanoTime(), host);
+        }
         final InetAddress[] remoteAddresses;
         if (host.getAddress() != null) {
             remoteAddresses = new InetAddress[] { host.getAddress() };
@@ -139,9 +144,15 @@ public void connect(
             if (LOG.isDebugEnabled()) {
                 LOG.debug("{} resolving remote address", host.getHostName());
             }
+            if (eventListener != null) {
+                eventListener.onDnsStart(context, System.nanoTime(), host.getHostName());
+            }
 
             remoteAddresses = this.dnsResolver.resolve(host.getHostName());
 
+            if (eventListener != null) {
+                eventListener.onDnsEnd(context, System.nanoTime(), host.getHostName(), remoteAddresses);
+            }
             if (LOG.isDebugEnabled()) {
                 LOG.debug("{} resolved to {}", host.getHostName(), Arrays.asList(remoteAddresses));
             }
@@ -188,6 +199,9 @@ public void connect(
                     LOG.debug("{}:{} connected {}->{} as {}",
                             host.getHostName(), host.getPort(), localAddress, remoteAddress, ConnPoolSupport.getId(conn));
                 }
+                if (eventListener != null) {
+                    eventListener.onConnectEnd(context, System.nanoTime(), host);
+                }
                 return;
             } catch (final IOException ex) {
                 if (last) {
@@ -195,7 +209,11 @@ public void connect(
                         LOG.debug("{}:{} connection to {} failed ({}); terminating operation",
                                 host.getHostName(), host.getPort(), remoteAddress, ex.getClass());
                     }
-                    throw ConnectExceptionSupport.enhance(ex, host, remoteAddresses);
+                    final IOException cause = ConnectExceptionSupport.enhance(ex, host, remoteAddresses);
+                    if (eventListener != null) {
+                        eventListener.onConnectFailed(context, System.nanoTime(), host, cause);
+                    }
+                    throw cause;
                 } else {
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("{}:{} connection to {} failed ({}); retrying connection to the next address",
@@ -37,6 +37,8 @@
 import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocket;
 
+import org.apache.hc.client5.http.impl.WireCapture;
+import org.apache.hc.client5.http.impl.WireCaptureBuffer;
 import org.apache.hc.client5.http.io.ManagedHttpClientConnection;
 import org.apache.hc.core5.http.ClassicHttpRequest;
 import org.apache.hc.core5.http.ClassicHttpResponse;
@@ -65,8 +67,10 @@
 
     private final String id;
     private final AtomicBoolean closed;
+    private final WireCapture wireCapture;
 
     private Timeout socketTimeout;
+    private volatile WireCaptureBuffer wireCaptureBuffer;
 
     public DefaultManagedHttpClientConnection(
             final String id,
@@ -77,7 +81,8 @@ public DefaultManagedHttpClientConnection(
             final ContentLengthStrategy outgoingContentStrategy,
             final ResponseOutOfOrderStrategy responseOutOfOrderStrategy,
             final HttpMessageWriterFactory<ClassicHttpRequest> requestWriterFactory,
-            final HttpMessageParserFactory<ClassicHttpResponse> responseParserFactory) {
+            final HttpMessageParserFactory<ClassicHttpResponse> responseParserFactory,
+            final WireCapture wireCapture) {
         super(
                 h1Config,
                 charDecoder,
@@ -89,6 +94,30 @@ public DefaultManagedHttpClientConnection(
                 responseParserFactory);
         this.id = id;
         this.closed = new AtomicBoolean();
+        this.wireCapture = wireCapture;
+    }
+
+    public DefaultManagedHttpClientConnection(
+            final String id,
+            final CharsetDecoder charDecoder,
+            final CharsetEncoder charEncoder,
+            final Http1Config h1Config,
+            final ContentLengthStrategy incomingContentStrategy,
+            final ContentLengthStrategy outgoingContentStrategy,
+            final ResponseOutOfOrderStrategy responseOutOfOrderStrategy,
+            final HttpMessageWriterFactory<ClassicHttpRequest> requestWriterFactory,
+            final HttpMessageParserFactory<ClassicHttpResponse> responseParserFactory) {
+        this(
+                id,
+                charDecoder,
+                charEncoder,
+                h1Config,
+                incomingContentStrategy,
+                outgoingContentStrategy,
+                responseOutOfOrderStrategy,
+                requestWriterFactory,
+                responseParserFactory,
+                null);
     }
 
     public DefaultManagedHttpClientConnection(
@@ -155,7 +184,11 @@ public void close() throws IOException {
             if (LOG.isDebugEnabled()) {
                 LOG.debug("{} Close connection", this.id);
             }
-            super.close();
+            try {
+                super.close();
+            } finally {
+                releaseWireCapture();
+            }
         }
     }
 
@@ -175,12 +208,30 @@ public void close(final CloseMode closeMode) {
                 LOG.debug("{} close connection {}", this.id, closeMode);
             }
             super.close(closeMode);
+            releaseWireCapture();
+        }
+    }
+
+    private void releaseWireCapture() {
+        if (wireCapture != null) {
+            wireCapture.release(wireCaptureBuffer);
         }
     }
 
     @Override
     public void bind(final Socket socket) throws IOException {
-        super.bind(WIRE_LOG.isDebugEnabled() ? new LoggingSocketHolder(socket, this.id, WIRE_LOG) : new SocketHolder(socket));
+        final SocketHolder socketHolder;
+        if (WIRE_LOG.isDebugEnabled()) {
+            socketHolder = new LoggingSocketHolder(socket, this.id, WIRE_LOG);
+        } else if (wireCapture != null) {
+            if (wireCaptureBuffer == null) {
+                wireCaptureBuffer = wireCapture.register(this.id, socket::getRemoteSocketAddress);
+            }
+            socketHolder = new WireCaptureSocketHolder(socket, wireCaptureBuffer);
+        } else {
+            socketHolder = new SocketHolder(socket);
+        }
+        super.bind(socketHolder);
         socketTimeout = Timeout.ofMilliseconds(socket.getSoTimeout());
     }
 
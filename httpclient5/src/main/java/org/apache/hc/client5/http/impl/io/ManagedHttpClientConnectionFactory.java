@@ -35,6 +35,7 @@
 import java.nio.charset.CodingErrorAction;
 import java.util.concurrent.atomic.AtomicLong;
 
+import org.apache.hc.client5.http.impl.WireCapture;
 import org.apache.hc.client5.http.io.ManagedHttpClientConnection;
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
@@ -69,6 +70,7 @@ public class ManagedHttpClientConnectionFactory implements HttpConnectionFactory
     private final ContentLengthStrategy incomingContentStrategy;
     private final ContentLengthStrategy outgoingContentStrategy;
     private final ResponseOutOfOrderStrategy responseOutOfOrderStrategy;
+    private final WireCapture wireCapture;
 
     private ManagedHttpClientConnectionFactory(
             final Http1Config h1Config,
@@ -77,7 +79,8 @@ private ManagedHttpClientConnectionFactory(
             final HttpMessageParserFactory<ClassicHttpResponse> responseParserFactory,
             final ContentLengthStrategy incomingContentStrategy,
             final ContentLengthStrategy outgoingContentStrategy,
-            final ResponseOutOfOrderStrategy responseOutOfOrderStrategy) {
+            final ResponseOutOfOrderStrategy responseOutOfOrderStrategy,
+            final WireCapture wireCapture) {
         this.h1Config = h1Config != null ? h1Config : Http1Config.DEFAULT;
         this.charCodingConfig = charCodingConfig != null ? charCodingConfig : CharCodingConfig.DEFAULT;
         this.requestWriterFactory = requestWriterFactory != null ? requestWriterFactory :
@@ -90,6 +93,7 @@ private ManagedHttpClientConnectionFactory(
                 DefaultContentLengthStrategy.INSTANCE;
         this.responseOutOfOrderStrategy = responseOutOfOrderStrategy != null ? responseOutOfOrderStrategy :
                 NoResponseOutOfOrderStrategy.INSTANCE;
+        this.wireCapture = wireCapture;
     }
 
     public ManagedHttpClientConnectionFactory(
@@ -106,6 +110,7 @@ public ManagedHttpClientConnectionFactory(
                 responseParserFactory,
                 incomingContentStrategy,
                 outgoingContentStrategy,
+                null,
                 null);
     }
 
@@ -155,7 +160,8 @@ public ManagedHttpClientConnection createConnection(final Socket socket) throws
                 outgoingContentStrategy,
                 responseOutOfOrderStrategy,
                 requestWriterFactory,
-                responseParserFactory);
+                responseParserFactory,
+                wireCapture);
         if (socket != null) {
             conn.bind(socket);
         }
@@ -185,6 +191,7 @@ public static final class Builder {
         private ResponseOutOfOrderStrategy responseOutOfOrderStrategy;
         private HttpMessageWriterFactory<ClassicHttpRequest> requestWriterFactory;
         private HttpMessageParserFactory<ClassicHttpResponse> responseParserFactory;
+        private WireCapture wireCapture;
 
         private Builder() {}
 
@@ -225,6 +232,17 @@ public Builder responseParserFactory(
             return this;
         }
 
+        /**
+         * Assigns {@link WireCapture} instance used to capture data exchanged
+         * over connections created by the factory.
+         *
+         * @since 5.3
+         */
+        public Builder wireCapture(final WireCapture wireCapture) {
+            this.wireCapture = wireCapture;
+            return this;
+        }
+
         public ManagedHttpClientConnectionFactory build() {
             return new ManagedHttpClientConnectionFactory(
                     http1Config,
@@ -233,7 +251,8 @@ public ManagedHttpClientConnectionFactory build() {
                     responseParserFactory,
                     incomingContentLengthStrategy,
                     outgoingContentLengthStrategy,
-                    responseOutOfOrderStrategy);
+                    responseOutOfOrderStrategy,
+                    wireCapture);
         }
     }
 }
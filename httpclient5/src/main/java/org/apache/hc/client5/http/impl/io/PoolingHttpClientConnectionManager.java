@@ -33,7 +33,9 @@
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 
+import org.apache.hc.client5.http.ConnPoolListener;
 import org.apache.hc.client5.http.DnsResolver;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.SchemePortResolver;
@@ -118,6 +120,7 @@
     private volatile Resolver<HttpRoute, SocketConfig> socketConfigResolver;
     private volatile Resolver<HttpRoute, ConnectionConfig> connectionConfigResolver;
     private volatile Resolver<HttpHost, TlsConfig> tlsConfigResolver;
+    private volatile ConnPoolListener connPoolListener;
 
     public PoolingHttpClientConnectionManager() {
         this(RegistryBuilder.<ConnectionSocketFactory>create()
@@ -195,6 +198,12 @@ protected PoolingHttpClientConnectionManager(
                         poolReusePolicy,
                         null) {
 
+                    @Override
+                    public void closeIdle(final TimeValue idleTime) {
+                        final long deadline = idleDeadline(idleTime);
+                        enumAvailable(e -> closeIfIdle(e, deadline));
+                    }
+
                     @Override
                     public void closeExpired() {
                         enumAvailable(e -> closeIfExpired(e));
@@ -209,6 +218,12 @@ public void closeExpired() {
                         poolReusePolicy,
                         null) {
 
+                    @Override
+                    public void closeIdle(final TimeValue idleTime) {
+                        final long deadline = idleDeadline(idleTime);
+                        enumAvailable(e -> closeIfIdle(e, deadline));
+                    }
+
                     @Override
                     public void closeExpired() {
                         enumAvailable(e -> closeIfExpired(e));
@@ -221,6 +236,7 @@ public void closeExpired() {
         }
         this.connFactory = connFactory != null ? connFactory : ManagedHttpClientConnectionFactory.INSTANCE;
         this.closed = new AtomicBoolean(false);
+        this.connPoolListener = ConnPoolListener.NOOP;
     }
 
     @Internal
@@ -233,6 +249,7 @@ protected PoolingHttpClientConnectionManager(
         this.pool = Args.notNull(pool, "Connection pool");
         this.connFactory = connFactory != null ? connFactory : ManagedHttpClientConnectionFactory.INSTANCE;
         this.closed = new AtomicBoolean(false);
+        this.connPoolListener = ConnPoolListener.NOOP;
     }
 
     @Override
@@ -295,13 +312,27 @@ public LeaseRequest lease(
         if (LOG.isDebugEnabled()) {
             LOG.debug("{} endpoint lease request ({}) {}", id, requestTimeout, ConnPoolSupport.formatStats(route, state, pool));
         }
+        final ConnPoolListener listener = connPoolListener;
+        listener.onLeaseRequested(route);
+        final long leaseStart = System.nanoTime();
         final Future<PoolEntry<HttpRoute, ManagedHttpClientConnection>> leaseFuture = this.pool.lease(route, state, requestTimeout, null);
         return new LeaseRequest() {
 
+            private final ReentrantLock lock = new ReentrantLock();
             private volatile ConnectionEndpoint endpoint;
 
             @Override
-            public synchronized ConnectionEndpoint get(
+            public ConnectionEndpoint get(
+                    final Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
+                lock.lock();
+                try {
+                    return doGet(timeout);
+                } finally {
+                    lock.unlock();
+                }
+            }
+
+            private ConnectionEndpoint doGet(
                     final Timeout timeout) throws InterruptedException, ExecutionException, TimeoutException {
                 Args.notNull(timeout, "Operation timeout");
                 if (this.endpoint != null) {
@@ -312,8 +343,20 @@ public synchronized ConnectionEndpoint get(
                     poolEntry = leaseFuture.get(timeout.getDuration(), timeout.getTimeUnit());
                 } catch (final TimeoutException ex) {
                     leaseFuture.cancel(true);
+                    listener.onLeaseTimeout(route, System.nanoTime() - leaseStart);
+                    throw ex;
+                } catch (final ExecutionException ex) {
+                    if (ex.getCause() instanceof TimeoutException) {
+                        listener.onLeaseTimeout(route, System.nanoTime() - leaseStart);
+                    } else {
+                        listener.onLeaseFailed(route, System.nanoTime() - leaseStart);
+                    }
+                    throw ex;
+                } catch (final InterruptedException | RuntimeException ex) {
+                    listener.onLeaseFailed(route, System.nanoTime() - leaseStart);
                     throw ex;
                 }
+                final long leaseWait = System.nanoTime() - leaseStart;
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("{} endpoint leased {}", id, ConnPoolSupport.formatStats(route, state, pool));
                 }
@@ -356,6 +399,7 @@ public synchronized ConnectionEndpoint get(
                         poolEntry.assignConnection(connFactory.createConnection(null));
                     }
                     this.endpoint = new InternalConnectionEndpoint(poolEntry);
+                    listener.onLeaseGranted(route, leaseWait, conn != null);
                     if (LOG.isDebugEnabled()) {
                         LOG.debug("{} acquired {}", id, ConnPoolSupport.getId(endpoint));
                     }
@@ -365,6 +409,7 @@ public synchronized ConnectionEndpoint get(
                         LOG.debug("{} endpoint lease failed", id);
                     }
                     pool.release(poolEntry, false);
+                    listener.onLeaseFailed(route, leaseWait);
                     throw new ExecutionException(ex.getMessage(), ex);
                 }
             }
@@ -417,6 +462,7 @@ public void release(final ConnectionEndpoint endpoint, final Object state, final
             throw ex;
         } finally {
             this.pool.release(entry, reusable);
+            connPoolListener.onRelease(entry.getRoute(), reusable);
             if (LOG.isDebugEnabled()) {
                 LOG.debug("{} connection released {}", ConnPoolSupport.getId(endpoint), ConnPoolSupport.formatStats(entry.getRoute(), entry.getState(), pool));
             }
@@ -444,14 +490,23 @@ public void connect(final ConnectionEndpoint endpoint, final TimeValue timeout,
             LOG.debug("{} connecting endpoint to {} ({})", ConnPoolSupport.getId(endpoint), host, connectTimeout);
         }
         final ManagedHttpClientConnection conn = poolEntry.getConnection();
-        this.connectionOperator.connect(
-                conn,
-                host,
-                route.getLocalSocketAddress(),
-                connectTimeout,
-                socketConfig,
-                tlsConfig,
-                context);
+        final ConnPoolListener listener = connPoolListener;
+        listener.onConnectStarted(route);
+        final long connectStart = System.nanoTime();
+        try {
+            this.connectionOperator.connect(
+                    conn,
+                    host,
+                    route.getLocalSocketAddress(),
+                    connectTimeout,
+                    socketConfig,
+                    tlsConfig,
+                    context);
+        } catch (final IOException | RuntimeException ex) {
+            listener.onConnectFailed(route, System.nanoTime() - connectStart, ex);
+            throw ex;
+        }
+        listener.onConnectCompleted(route, System.nanoTime() - connectStart);
         if (LOG.isDebugEnabled()) {
             LOG.debug("{} connected {}", ConnPoolSupport.getId(endpoint), ConnPoolSupport.getId(conn));
         }
@@ -469,7 +524,9 @@ public void upgrade(final ConnectionEndpoint endpoint, final HttpContext context
         final HttpRoute route = poolEntry.getRoute();
         final HttpHost host = route.getProxyHost() != null ? route.getProxyHost() : route.getTargetHost();
         final TlsConfig tlsConfig = resolveTlsConfig(host);
+        final long upgradeStart = System.nanoTime();
         this.connectionOperator.upgrade(poolEntry.getConnection(), route.getTargetHost(), tlsConfig, context);
+        connPoolListener.onTlsHandshakeCompleted(route, System.nanoTime() - upgradeStart);
     }
 
     @Override
@@ -584,19 +641,45 @@ public void setTlsConfigResolver(final Resolver<HttpHost, TlsConfig> tlsConfigRe
         this.tlsConfigResolver = tlsConfigResolver;
     }
 
+    /**
+     * Sets {@link ConnPoolListener} to be notified of connection pool events.
+     *
+     * @since 5.3
+     */
+    public void setConnPoolListener(final ConnPoolListener connPoolListener) {
+        this.connPoolListener = connPoolListener != null ? connPoolListener : ConnPoolListener.NOOP;
+    }
+
+    static long idleDeadline(final TimeValue idleTime) {
+        return System.currentTimeMillis() - (TimeValue.isPositive(idleTime) ? idleTime.toMilliseconds() : 0);
+    }
+
+    void closeIfIdle(final PoolEntry<HttpRoute, ManagedHttpClientConnection> entry, final long deadline) {
+        if (entry.getUpdated() <= deadline) {
+            evict(entry);
+        }
+    }
+
     void closeIfExpired(final PoolEntry<HttpRoute, ManagedHttpClientConnection> entry) {
         final long now = System.currentTimeMillis();
         if (entry.getExpiryDeadline().isBefore(now)) {
-            entry.discardConnection(CloseMode.GRACEFUL);
+            evict(entry);
         } else {
             final ConnectionConfig connectionConfig = resolveConnectionConfig(entry.getRoute());
             final TimeValue timeToLive = connectionConfig.getTimeToLive();
             if (timeToLive != null && Deadline.calculate(entry.getCreated(), timeToLive).isBefore(now)) {
-                entry.discardConnection(CloseMode.GRACEFUL);
+                evict(entry);
             }
         }
     }
 
+    private void evict(final PoolEntry<HttpRoute, ManagedHttpClientConnection> entry) {
+        if (entry.hasConnection()) {
+            entry.discardConnection(CloseMode.GRACEFUL);
+            connPoolListener.onEviction(entry.getRoute(), 1);
+        }
+    }
+
     /**
      * @deprecated Use custom {@link #setConnectionConfigResolver(Resolver)}
      */
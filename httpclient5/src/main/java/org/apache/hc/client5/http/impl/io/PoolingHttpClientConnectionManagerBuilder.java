@@ -27,6 +27,7 @@
 
 package org.apache.hc.client5.http.impl.io;
 
+import org.apache.hc.client5.http.ConnPoolListener;
 import org.apache.hc.client5.http.DnsResolver;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.SchemePortResolver;
@@ -84,6 +85,7 @@ public class PoolingHttpClientConnectionManagerBuilder {
     private Resolver<HttpRoute, SocketConfig> socketConfigResolver;
     private Resolver<HttpRoute, ConnectionConfig> connectionConfigResolver;
     private Resolver<HttpHost, TlsConfig> tlsConfigResolver;
+    private ConnPoolListener connPoolListener;
 
     private boolean systemProperties;
 
@@ -225,6 +227,16 @@ public final PoolingHttpClientConnectionManagerBuilder setTlsConfigResolver(
         return this;
     }
 
+    /**
+     * Assigns {@link ConnPoolListener} to be notified of connection pool events.
+     *
+     * @since 5.3
+     */
+    public final PoolingHttpClientConnectionManagerBuilder setConnPoolListener(final ConnPoolListener connPoolListener) {
+        this.connPoolListener = connPoolListener;
+        return this;
+    }
+
     /**
      * Sets maximum time to live for persistent connections
      *
@@ -279,6 +291,7 @@ public PoolingHttpClientConnectionManager build() {
         poolingmgr.setSocketConfigResolver(socketConfigResolver);
         poolingmgr.setConnectionConfigResolver(connectionConfigResolver);
         poolingmgr.setTlsConfigResolver(tlsConfigResolver);
+        poolingmgr.setConnPoolListener(connPoolListener);
         if (maxConnTotal > 0) {
             poolingmgr.setMaxTotal(maxConnTotal);
         }
@@ -0,0 +1,135 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.impl.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+import org.apache.hc.client5.http.impl.WireCaptureBuffer;
+import org.apache.hc.core5.http.impl.io.SocketHolder;
+
+class WireCaptureSocketHolder extends SocketHolder {
+
+    private final WireCaptureBuffer capture;
+
+    public WireCaptureSocketHolder(final Socket socket, final WireCaptureBuffer capture) {
+        super(socket);
+        this.capture = capture;
+    }
+
+    @Override
+    protected InputStream getInputStream(final Socket socket) throws IOException {
+        return new CapturingInputStream(super.getInputStream(socket), capture);
+    }
+
+    @Override
+    protected OutputStream getOutputStream(final Socket socket) throws IOException {
+        return new CapturingOutputStream(super.getOutputStream(socket), capture);
+    }
+
+    static class CapturingInputStream extends InputStream {
+
+        private final InputStream in;
+        private final WireCaptureBuffer capture;
+
+        CapturingInputStream(final InputStream in, final WireCaptureBuffer capture) {
+            this.in = in;
+            this.capture = capture;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final int b = in.read();
+            if (b != -1 && capture.isActive()) {
+                capture.input(new byte[] {(byte) b}, 0, 1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int bytesRead = in.read(b, off, len);
+            if (bytesRead > 0 && capture.isActive()) {
+                capture.input(b, off, bytesRead);
+            }
+            return bytesRead;
+        }
+
+        @Override
+        public int available() throws IOException {
+            return in.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+
+    }
+
+    static class CapturingOutputStream extends OutputStream {
+
+        private final OutputStream out;
+        private final WireCaptureBuffer capture;
+
+        CapturingOutputStream(final OutputStream out, final WireCaptureBuffer capture) {
+            this.out = out;
+            this.capture = capture;
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            if (capture.isActive()) {
+                capture.output(new byte[] {(byte) b}, 0, 1);
+            }
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            if (capture.isActive()) {
+                capture.output(b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+
+    }
+
+}
@@ -33,11 +33,13 @@
 import java.util.concurrent.Future;
 
 import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.SchemePortResolver;
 import org.apache.hc.client5.http.config.TlsConfig;
 import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
 import org.apache.hc.client5.http.nio.AsyncClientConnectionOperator;
 import org.apache.hc.client5.http.nio.ManagedAsyncClientConnection;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.client5.http.routing.RoutingSupport;
 import org.apache.hc.core5.concurrent.CallbackContribution;
 import org.apache.hc.core5.concurrent.ComplexFuture;
@@ -97,6 +99,10 @@ public Future<ManagedAsyncClientConnection> connect(
         final InetAddress remoteAddress = host.getAddress();
         final TlsStrategy tlsStrategy = tlsStrategyLookup != null ? tlsStrategyLookup.lookup(host.getSchemeName()) : null;
         final TlsConfig tlsConfig = attachment instanceof TlsConfig ? (TlsConfig) attachment : TlsConfig.DEFAULT;
+        final HttpClientEventListener eventListener = context != null ? HttpClientContext.adapt(context).getEventListener() : null;
+        if (eventListener != null) {
+            eventListener.onConnectStart(context, System.nanoTime(), host);
+        }
         final Future<IOSession> sessionFuture = sessionRequester.connect(
                 connectionInitiator,
                 remoteEndpoint,
@@ -104,6 +110,7 @@ public Future<ManagedAsyncClientConnection> connect(
                 localAddress,
                 connectTimeout,
                 tlsConfig.getHttpVersionPolicy(),
+                context,
                 new FutureCallback<IOSession>() {
 
                     @Override
@@ -113,6 +120,10 @@ public void completed(final IOSession session) {
                             try {
                                 final Timeout socketTimeout = connection.getSocketTimeout();
                                 final Timeout handshakeTimeout = tlsConfig.getHandshakeTimeout();
+                                final long handshakeStart = System.nanoTime();
+                                if (eventListener != null) {
+                                    eventListener.onTlsHandshakeStart(context, handshakeStart, host.getHostName());
+                                }
                                 tlsStrategy.upgrade(
                                         connection,
                                         host,
@@ -122,6 +133,12 @@ public void completed(final IOSession session) {
 
                                             @Override
                                             public void completed(final TransportSecurityLayer transportSecurityLayer) {
+                                                final long handshakeEnd = System.nanoTime();
+                                                connection.setTlsHandshakeNanos(handshakeEnd - handshakeStart);
+                                                if (eventListener != null) {
+                                                    eventListener.onTlsHandshakeEnd(context, handshakeEnd, host.getHostName());
+                                                    eventListener.onConnectEnd(context, handshakeEnd, host);
+                                                }
                                                 connection.setSocketTimeout(socketTimeout);
                                                 future.completed(connection);
                                             }
@@ -131,12 +148,18 @@ public void completed(final TransportSecurityLayer transportSecurityLayer) {
                                 future.failed(ex);
                             }
                         } else {
+                            if (eventListener != null) {
+                                eventListener.onConnectEnd(context, System.nanoTime(), host);
+                            }
                             future.completed(connection);
                         }
                     }
 
                     @Override
                     public void failed(final Exception ex) {
+                        if (eventListener != null) {
+                            eventListener.onConnectFailed(context, System.nanoTime(), host, ex);
+                        }
                         future.failed(ex);
                     }
 
@@ -176,6 +199,10 @@ public void upgrade(
             final FutureCallback<ManagedAsyncClientConnection> callback) {
         final TlsStrategy tlsStrategy = tlsStrategyLookup != null ? tlsStrategyLookup.lookup(host.getSchemeName()) : null;
         if (tlsStrategy != null) {
+            final HttpClientEventListener eventListener = context != null ? HttpClientContext.adapt(context).getEventListener() : null;
+            if (eventListener != null) {
+                eventListener.onTlsHandshakeStart(context, System.nanoTime(), host.getHostName());
+            }
             tlsStrategy.upgrade(
                     connection,
                     host,
@@ -185,6 +212,9 @@ public void upgrade(
 
                         @Override
                         public void completed(final TransportSecurityLayer transportSecurityLayer) {
+                            if (eventListener != null) {
+                                eventListener.onTlsHandshakeEnd(context, System.nanoTime(), host.getHostName());
+                            }
                             if (callback != null) {
                                 callback.completed(connection);
                             }
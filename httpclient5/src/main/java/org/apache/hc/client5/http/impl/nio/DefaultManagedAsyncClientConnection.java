@@ -64,6 +64,7 @@ final class DefaultManagedAsyncClientConnection implements ManagedAsyncClientCon
     private final IOSession ioSession;
     private final Timeout socketTimeout;
     private final AtomicBoolean closed;
+    private volatile long tlsHandshakeNanos;
 
     public DefaultManagedAsyncClientConnection(final IOSession ioSession) {
         this.ioSession = ioSession;
@@ -212,4 +213,16 @@ public void switchProtocol(final String protocolId,
         }
     }
 
+    /**
+     * Returns time spent on the TLS handshake performed as a part of the connection
+     * establishment or {@code 0} if none has been performed.
+     */
+    long getTlsHandshakeNanos() {
+        return tlsHandshakeNanos;
+    }
+
+    void setTlsHandshakeNanos(final long tlsHandshakeNanos) {
+        this.tlsHandshakeNanos = tlsHandshakeNanos;
+    }
+
 }
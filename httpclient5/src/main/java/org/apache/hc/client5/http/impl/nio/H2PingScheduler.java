@@ -0,0 +1,99 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.nio;
+
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.concurrent.DefaultThreadFactory;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * This class maintains a background thread that periodically sends keep-alive PINGs
+ * over idle and active HTTP/2 connections of a {@link PoolingAsyncClientConnectionManager}
+ * in order to detect dead peers early and to measure connection round-trip times.
+ *
+ * @see PoolingAsyncClientConnectionManager#pingConnections(Timeout)
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE_CONDITIONAL)
+public final class H2PingScheduler {
+
+    private final Thread thread;
+
+    /**
+     * @param connectionManager the connection manager.
+     * @param threadFactory the thread factory.
+     * @param interval the time between PING rounds.
+     * @param pingTimeout maximum time to wait for a PING acknowledgement before
+     *  the connection is closed. Defaults to the PING interval.
+     */
+    public H2PingScheduler(final PoolingAsyncClientConnectionManager connectionManager, final ThreadFactory threadFactory,
+                           final TimeValue interval, final Timeout pingTimeout) {
+        Args.notNull(connectionManager, "Connection manager");
+        Args.check(TimeValue.isPositive(interval), "PING interval must be positive");
+        final ThreadFactory localThreadFactory = threadFactory != null ? threadFactory : new DefaultThreadFactory("h2-ping-scheduler", true);
+        final Timeout localPingTimeout = pingTimeout != null ? pingTimeout : Timeout.of(interval.getDuration(), interval.getTimeUnit());
+        this.thread = localThreadFactory.newThread(() -> {
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    interval.sleep();
+                    connectionManager.pingConnections(localPingTimeout);
+                }
+            } catch (final InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (final Exception ex) {
+            }
+
+        });
+    }
+
+    public H2PingScheduler(final PoolingAsyncClientConnectionManager connectionManager,
+                           final TimeValue interval, final Timeout pingTimeout) {
+        this(connectionManager, null, interval, pingTimeout);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public void shutdown() {
+        thread.interrupt();
+    }
+
+    public boolean isRunning() {
+        return thread.isAlive();
+    }
+
+    public void awaitTermination(final Timeout timeout) throws InterruptedException {
+        thread.join(timeout != null ? timeout.toMilliseconds() : Long.MAX_VALUE);
+    }
+
+}
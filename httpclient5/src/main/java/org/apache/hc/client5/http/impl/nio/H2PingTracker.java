@@ -0,0 +1,182 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.nio;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.ConnPoolSupport;
+import org.apache.hc.client5.http.nio.ManagedAsyncClientConnection;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http.ProtocolVersion;
+import org.apache.hc.core5.http2.nio.command.PingCommand;
+import org.apache.hc.core5.http2.nio.support.BasicPingHandler;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolEntry;
+import org.apache.hc.core5.reactor.Command;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends keep-alive PINGs over HTTP/2 connections, closes connections whose peer
+ * fails to acknowledge a PING in time and maintains a smoothed round-trip time
+ * estimate per connection.
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+final class H2PingTracker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(H2PingTracker.class);
+
+    static final class State {
+
+        private final HttpRoute route;
+        private final AtomicLong pingSent;
+        private final AtomicLong smoothedRtt;
+
+        State(final HttpRoute route) {
+            this.route = route;
+            this.pingSent = new AtomicLong();
+            this.smoothedRtt = new AtomicLong(-1);
+        }
+
+        void update(final long rttNanos) {
+            for (;;) {
+                final long current = smoothedRtt.get();
+                // Same gain as the TCP smoothed RTT estimator (RFC 6298)
+                final long next = current < 0 ? rttNanos : current + (rttNanos - current) / 8;
+                if (smoothedRtt.compareAndSet(current, next)) {
+                    return;
+                }
+            }
+        }
+
+        long getSmoothedRtt() {
+            return smoothedRtt.get();
+        }
+
+    }
+
+    private final Map<ManagedAsyncClientConnection, State> states;
+
+    H2PingTracker() {
+        this.states = new ConcurrentHashMap<>();
+    }
+
+    static boolean isMultiplexing(final ManagedAsyncClientConnection connection) {
+        final ProtocolVersion protocolVersion = connection.getProtocolVersion();
+        return protocolVersion != null && protocolVersion.greaterEquals(HttpVersion.HTTP_2_0);
+    }
+
+    private State getState(final ManagedAsyncClientConnection connection, final HttpRoute route) {
+        return states.computeIfAbsent(connection, c -> new State(route));
+    }
+
+    /**
+     * Sends a PING over the connection of the pool entry unless a previous one is
+     * still outstanding. The connection gets closed if the previous PING has not been
+     * acknowledged within the given timeout.
+     */
+    void ping(final PoolEntry<HttpRoute, ManagedAsyncClientConnection> poolEntry, final Timeout pingTimeout) {
+        final ManagedAsyncClientConnection connection = poolEntry.getConnection();
+        if (connection == null || !isMultiplexing(connection)) {
+            return;
+        }
+        if (!connection.isOpen()) {
+            states.remove(connection);
+            return;
+        }
+        final State state = getState(connection, poolEntry.getRoute());
+        final long now = System.nanoTime();
+        final long outstanding = state.pingSent.get();
+        if (outstanding != 0) {
+            if (TimeValue.isPositive(pingTimeout) && now - outstanding > pingTimeout.toNanoseconds()) {
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("{} PING not acknowledged within {}; closing connection", ConnPoolSupport.getId(connection), pingTimeout);
+                }
+                states.remove(connection);
+                connection.close(CloseMode.IMMEDIATE);
+            }
+            return;
+        }
+        if (state.pingSent.compareAndSet(0, now)) {
+            connection.submitCommand(new PingCommand(new BasicPingHandler(result -> {
+                state.pingSent.set(0);
+                if (result != null && result) {
+                    state.update(System.nanoTime() - now);
+                } else {
+                    states.remove(connection);
+                }
+            })), Command.Priority.IMMEDIATE);
+        }
+    }
+
+    /**
+     * Records a round-trip time sample obtained by other means such as
+     * a connection validation PING.
+     */
+    void record(final ManagedAsyncClientConnection connection, final HttpRoute route, final long rttNanos) {
+        getState(connection, route).update(rttNanos);
+    }
+
+    void purge() {
+        states.keySet().removeIf(connection -> !connection.isOpen());
+    }
+
+    TimeValue getRoundTripTime(final ManagedAsyncClientConnection connection) {
+        final State state = states.get(connection);
+        final long rtt = state != null ? state.getSmoothedRtt() : -1;
+        return rtt >= 0 ? TimeValue.of(rtt, TimeUnit.NANOSECONDS) : null;
+    }
+
+    /**
+     * Returns the mean smoothed round-trip time of open connections of the route
+     * or {@code null} if not known.
+     */
+    TimeValue getRoundTripTime(final HttpRoute route) {
+        long total = 0;
+        int count = 0;
+        for (final Map.Entry<ManagedAsyncClientConnection, State> entry : states.entrySet()) {
+            final State state = entry.getValue();
+            final long rtt = state.getSmoothedRtt();
+            if (rtt >= 0 && route.equals(state.route) && entry.getKey().isOpen()) {
+                total += rtt;
+                count++;
+            }
+        }
+        return count > 0 ? TimeValue.of(total / count, TimeUnit.NANOSECONDS) : null;
+    }
+
+}
@@ -38,9 +38,12 @@
 
 import org.apache.hc.client5.http.ConnectExceptionSupport;
 import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.concurrent.ComplexFuture;
 import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.protocol.HttpContext;
 import org.apache.hc.core5.net.NamedEndpoint;
 import org.apache.hc.core5.reactor.ConnectionInitiator;
 import org.apache.hc.core5.reactor.IOSession;
@@ -65,6 +68,18 @@ public Future<IOSession> connect(
             final Timeout connectTimeout,
             final Object attachment,
             final FutureCallback<IOSession> callback) {
+        return connect(connectionInitiator, remoteEndpoint, remoteAddress, localAddress, connectTimeout, attachment, null, callback);
+    }
+
+    public Future<IOSession> connect(
+            final ConnectionInitiator connectionInitiator,
+            final NamedEndpoint remoteEndpoint,
+            final SocketAddress remoteAddress,
+            final SocketAddress localAddress,
+            final Timeout connectTimeout,
+            final Object attachment,
+            final HttpContext context,
+            final FutureCallback<IOSession> callback) {
 
         final ComplexFuture<IOSession> future = new ComplexFuture<>(callback);
         if (remoteAddress != null) {
@@ -108,6 +123,10 @@ public void cancelled() {
             LOG.debug("{} resolving remote address", remoteEndpoint.getHostName());
         }
 
+        final HttpClientEventListener eventListener = context != null ? HttpClientContext.adapt(context).getEventListener() : null;
+        if (eventListener != null) {
+            eventListener.onDnsStart(context, System.nanoTime(), remoteEndpoint.getHostName());
+        }
         final InetAddress[] remoteAddresses;
         try {
             remoteAddresses = dnsResolver.resolve(remoteEndpoint.getHostName());
@@ -115,6 +134,9 @@ public void cancelled() {
             future.failed(ex);
             return future;
         }
+        if (eventListener != null) {
+            eventListener.onDnsEnd(context, System.nanoTime(), remoteEndpoint.getHostName(), remoteAddresses);
+        }
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("{} resolved to {}", remoteEndpoint.getHostName(), Arrays.asList(remoteAddresses));
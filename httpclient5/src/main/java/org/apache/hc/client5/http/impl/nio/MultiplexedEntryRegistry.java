@@ -0,0 +1,179 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.nio;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.nio.ManagedAsyncClientConnection;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.pool.PoolEntry;
+
+/**
+ * Keeps track of pool entries with multiplexing (HTTP/2) connections that can be
+ * shared by several concurrent leases. A registered entry remains leased from
+ * the underlying pool as long as it has at least one stream in flight.
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+final class MultiplexedEntryRegistry {
+
+    static final class Entry {
+
+        private final PoolEntry<HttpRoute, ManagedAsyncClientConnection> poolEntry;
+        private final Object state;
+        private int streams;
+
+        Entry(final PoolEntry<HttpRoute, ManagedAsyncClientConnection> poolEntry, final Object state) {
+            this.poolEntry = poolEntry;
+            this.state = state;
+            this.streams = 1;
+        }
+
+        PoolEntry<HttpRoute, ManagedAsyncClientConnection> getPoolEntry() {
+            return poolEntry;
+        }
+
+        Object getState() {
+            return state;
+        }
+
+        boolean isUsable() {
+            final ManagedAsyncClientConnection connection = poolEntry.getConnection();
+            return connection != null && connection.isOpen();
+        }
+
+    }
+
+    private final ReentrantLock lock;
+    private final Map<HttpRoute, List<Entry>> routeToEntries;
+
+    MultiplexedEntryRegistry() {
+        this.lock = new ReentrantLock();
+        this.routeToEntries = new HashMap<>();
+    }
+
+    /**
+     * Allocates a stream on the least loaded open connection of the given route
+     * and state that has fewer than {@code maxStreams} streams in flight.
+     *
+     * @return the shared entry or {@code null} if all connections are saturated.
+     */
+    Entry acquire(final HttpRoute route, final Object state, final int maxStreams) {
+        lock.lock();
+        try {
+            final List<Entry> entries = routeToEntries.get(route);
+            if (entries == null) {
+                return null;
+            }
+            Entry candidate = null;
+            for (final Entry entry : entries) {
+                if (entry.streams < maxStreams
+                        && Objects.equals(entry.state, state)
+                        && entry.isUsable()
+                        && (candidate == null || entry.streams < candidate.streams)) {
+                    candidate = entry;
+                }
+            }
+            if (candidate != null) {
+                candidate.streams++;
+            }
+            return candidate;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registers a leased pool entry as shared. The lease that registers the entry
+     * accounts for its first stream.
+     */
+    Entry register(final PoolEntry<HttpRoute, ManagedAsyncClientConnection> poolEntry, final Object state) {
+        final Entry entry = new Entry(poolEntry, state);
+        lock.lock();
+        try {
+            routeToEntries.computeIfAbsent(poolEntry.getRoute(), r -> new ArrayList<>()).add(entry);
+        } finally {
+            lock.unlock();
+        }
+        return entry;
+    }
+
+    /**
+     * Releases a stream of the shared entry.
+     *
+     * @return {@code true} if that was the last stream in flight, in which case
+     *   the entry is no longer shared and must be released back to the pool.
+     */
+    boolean release(final Entry entry) {
+        lock.lock();
+        try {
+            entry.streams--;
+            if (entry.streams > 0) {
+                return false;
+            }
+            final HttpRoute route = entry.poolEntry.getRoute();
+            final List<Entry> entries = routeToEntries.get(route);
+            if (entries != null) {
+                entries.remove(entry);
+                if (entries.isEmpty()) {
+                    routeToEntries.remove(route);
+                }
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getStreams(final Entry entry) {
+        lock.lock();
+        try {
+            return entry.streams;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int getConnectionCount(final HttpRoute route) {
+        lock.lock();
+        try {
+            final List<Entry> entries = routeToEntries.get(route);
+            return entries != null ? entries.size() : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+}
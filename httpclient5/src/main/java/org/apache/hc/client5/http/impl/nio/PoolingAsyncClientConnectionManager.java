@@ -36,6 +36,7 @@
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.apache.hc.client5.http.ConnPoolListener;
 import org.apache.hc.client5.http.DnsResolver;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.SchemePortResolver;
@@ -56,6 +57,7 @@
 import org.apache.hc.core5.concurrent.CallbackContribution;
 import org.apache.hc.core5.concurrent.ComplexFuture;
 import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.function.Callback;
 import org.apache.hc.core5.function.Resolver;
 import org.apache.hc.core5.http.HttpHost;
 import org.apache.hc.core5.http.HttpVersion;
@@ -109,6 +111,11 @@
  * Total time to live (TTL) set at construction time defines maximum life span
  * of persistent connections regardless of their expiration setting. No persistent
  * connection will be re-used past its TTL value.
+ * <p>
+ * If message multiplexing is enabled, an HTTP/2 connection can be shared by several
+ * concurrent leases, up to the configured number of concurrent streams per
+ * connection. A new connection to the same route is only opened when all
+ * multiplexing connections are saturated.
  *
  * @since 5.0
  */
@@ -120,12 +127,22 @@ public class PoolingAsyncClientConnectionManager implements AsyncClientConnectio
     public static final int DEFAULT_MAX_TOTAL_CONNECTIONS = 25;
     public static final int DEFAULT_MAX_CONNECTIONS_PER_ROUTE = 5;
 
+    /**
+     * @since 5.3
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_STREAMS = 100;
+
     private final ManagedConnPool<HttpRoute, ManagedAsyncClientConnection> pool;
     private final AsyncClientConnectionOperator connectionOperator;
     private final AtomicBoolean closed;
+    private final MultiplexedEntryRegistry multiplexedEntries = new MultiplexedEntryRegistry();
+    private final H2PingTracker pingTracker = new H2PingTracker();
 
     private volatile Resolver<HttpRoute, ConnectionConfig> connectionConfigResolver;
     private volatile Resolver<HttpHost, TlsConfig> tlsConfigResolver;
+    private volatile boolean messageMultiplexing;
+    private volatile int maxConcurrentStreams = DEFAULT_MAX_CONCURRENT_STREAMS;
+    private volatile ConnPoolListener connPoolListener = ConnPoolListener.NOOP;
 
     public PoolingAsyncClientConnectionManager() {
         this(RegistryBuilder.<TlsStrategy>create()
@@ -179,6 +196,12 @@ protected PoolingAsyncClientConnectionManager(
                         poolReusePolicy,
                         null) {
 
+                    @Override
+                    public void closeIdle(final TimeValue idleTime) {
+                        final long deadline = idleDeadline(idleTime);
+                        enumAvailable(e -> closeIfIdle(e, deadline));
+                    }
+
                     @Override
                     public void closeExpired() {
                         enumAvailable(e -> closeIfExpired(e));
@@ -193,6 +216,12 @@ public void closeExpired() {
                         poolReusePolicy,
                         null) {
 
+                    @Override
+                    public void closeIdle(final TimeValue idleTime) {
+                        final long deadline = idleDeadline(idleTime);
+                        enumAvailable(e -> closeIfIdle(e, deadline));
+                    }
+
                     @Override
                     public void closeExpired() {
                         enumAvailable(e -> closeIfExpired(e));
@@ -263,6 +292,23 @@ public Future<AsyncConnectionEndpoint> lease(
         if (LOG.isDebugEnabled()) {
             LOG.debug("{} endpoint lease request ({}) {}", id, requestTimeout, ConnPoolSupport.formatStats(route, state, pool));
         }
+        final ConnPoolListener listener = connPoolListener;
+        listener.onLeaseRequested(route);
+        final long leaseStart = System.nanoTime();
+        if (messageMultiplexing) {
+            final MultiplexedEntryRegistry.Entry multiplexedEntry = multiplexedEntries.acquire(route, state, maxConcurrentStreams);
+            if (multiplexedEntry != null) {
+                listener.onLeaseGranted(route, System.nanoTime() - leaseStart, true);
+                final InternalConnectionEndpoint endpoint = new InternalConnectionEndpoint(this, multiplexedEntry);
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("{} acquired {} sharing connection {}", id, ConnPoolSupport.getId(endpoint),
+                            ConnPoolSupport.getId(multiplexedEntry.getPoolEntry().getConnection()));
+                }
+                final BasicFuture<AsyncConnectionEndpoint> resultFuture = new BasicFuture<>(callback);
+                resultFuture.completed(endpoint);
+                return resultFuture;
+            }
+        }
         return new Future<AsyncConnectionEndpoint>() {
 
             final ConnectionConfig connectionConfig = resolveConnectionConfig(route);
@@ -292,8 +338,11 @@ public void completed(final PoolEntry<HttpRoute, ManagedAsyncClientConnection> p
                                             || Deadline.calculate(poolEntry.getUpdated(), timeValue).isExpired()) {
                                         final ProtocolVersion protocolVersion = connection.getProtocolVersion();
                                         if (protocolVersion != null && protocolVersion.greaterEquals(HttpVersion.HTTP_2_0)) {
+                                            final long pingSent = System.nanoTime();
                                             connection.submitCommand(new PingCommand(new BasicPingHandler(result -> {
-                                                if (result == null || !result)  {
+                                                if (result != null && result) {
+                                                    pingTracker.record(connection, route, System.nanoTime() - pingSent);
+                                                } else {
                                                     if (LOG.isDebugEnabled()) {
                                                         LOG.debug("{} connection {} is stale", id, ConnPoolSupport.getId(connection));
                                                     }
@@ -321,7 +370,9 @@ void leaseCompleted(final PoolEntry<HttpRoute, ManagedAsyncClientConnection> poo
                             if (LOG.isDebugEnabled()) {
                                 LOG.debug("{} endpoint leased {}", id, ConnPoolSupport.formatStats(route, state, pool));
                             }
-                            final AsyncConnectionEndpoint endpoint = new InternalConnectionEndpoint(poolEntry);
+                            final InternalConnectionEndpoint endpoint = new InternalConnectionEndpoint(
+                                    PoolingAsyncClientConnectionManager.this, poolEntry, state);
+                            listener.onLeaseGranted(route, System.nanoTime() - leaseStart, connection != null);
                             if (LOG.isDebugEnabled()) {
                                 LOG.debug("{} acquired {}", id, ConnPoolSupport.getId(endpoint));
                             }
@@ -333,6 +384,11 @@ public void failed(final Exception ex) {
                             if (LOG.isDebugEnabled()) {
                                 LOG.debug("{} endpoint lease failed", id);
                             }
+                            if (ex instanceof TimeoutException) {
+                                listener.onLeaseTimeout(route, System.nanoTime() - leaseStart);
+                            } else {
+                                listener.onLeaseFailed(route, System.nanoTime() - leaseStart);
+                            }
                             resultFuture.failed(ex);
                         }
 
@@ -341,6 +397,7 @@ public void cancelled() {
                             if (LOG.isDebugEnabled()) {
                                 LOG.debug("{} endpoint lease cancelled", id);
                             }
+                            listener.onLeaseFailed(route, System.nanoTime() - leaseStart);
                             resultFuture.cancel();
                         }
 
@@ -379,10 +436,19 @@ public boolean isCancelled() {
     public void release(final AsyncConnectionEndpoint endpoint, final Object state, final TimeValue keepAlive) {
         Args.notNull(endpoint, "Managed endpoint");
         Args.notNull(keepAlive, "Keep-alive time");
-        final PoolEntry<HttpRoute, ManagedAsyncClientConnection> entry = cast(endpoint).detach();
+        final InternalConnectionEndpoint internalEndpoint = cast(endpoint);
+        final MultiplexedEntryRegistry.Entry multiplexedEntry = internalEndpoint.getMultiplexedEntry();
+        final PoolEntry<HttpRoute, ManagedAsyncClientConnection> entry = internalEndpoint.detach();
         if (entry == null) {
             return;
         }
+        if (multiplexedEntry != null && !multiplexedEntries.release(multiplexedEntry)) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("{} releasing shared endpoint; connection {} remains in use", ConnPoolSupport.getId(endpoint),
+                        ConnPoolSupport.getId(entry.getConnection()));
+            }
+            return;
+        }
         if (LOG.isDebugEnabled()) {
             LOG.debug("{} releasing endpoint", ConnPoolSupport.getId(endpoint));
         }
@@ -408,6 +474,7 @@ public void release(final AsyncConnectionEndpoint endpoint, final Object state,
             throw ex;
         } finally {
             pool.release(entry, reusable);
+            connPoolListener.onRelease(entry.getRoute(), reusable);
             if (LOG.isDebugEnabled()) {
                 LOG.debug("{} connection released {}", ConnPoolSupport.getId(endpoint), ConnPoolSupport.formatStats(entry.getRoute(), entry.getState(), pool));
             }
@@ -446,6 +513,9 @@ public Future<AsyncConnectionEndpoint> connect(
         if (LOG.isDebugEnabled()) {
             LOG.debug("{} connecting endpoint to {} ({})", ConnPoolSupport.getId(endpoint), host, connectTimeout);
         }
+        final ConnPoolListener listener = connPoolListener;
+        listener.onConnectStarted(route);
+        final long connectStart = System.nanoTime();
         final Future<ManagedAsyncClientConnection> connectFuture = connectionOperator.connect(
                 connectionInitiator,
                 host,
@@ -459,6 +529,13 @@ public Future<AsyncConnectionEndpoint> connect(
 
                     @Override
                     public void completed(final ManagedAsyncClientConnection connection) {
+                        listener.onConnectCompleted(route, System.nanoTime() - connectStart);
+                        if (connection instanceof DefaultManagedAsyncClientConnection) {
+                            final long handshakeNanos = ((DefaultManagedAsyncClientConnection) connection).getTlsHandshakeNanos();
+                            if (handshakeNanos > 0) {
+                                listener.onTlsHandshakeCompleted(route, handshakeNanos);
+                            }
+                        }
                         try {
                             if (LOG.isDebugEnabled()) {
                                 LOG.debug("{} connected {}", ConnPoolSupport.getId(endpoint), ConnPoolSupport.getId(connection));
@@ -476,6 +553,7 @@ public void completed(final ManagedAsyncClientConnection connection) {
 
                     @Override
                     public void failed(final Exception ex) {
+                        listener.onConnectFailed(route, System.nanoTime() - connectStart, ex);
                         resultFuture.failed(ex);
                     }
 
@@ -500,6 +578,7 @@ public void upgrade(
         final HttpRoute route = poolEntry.getRoute();
         final HttpHost host = route.getProxyHost() != null ? route.getProxyHost() : route.getTargetHost();
         final TlsConfig tlsConfig = resolveTlsConfig(host, attachment);
+        final long upgradeStart = System.nanoTime();
         connectionOperator.upgrade(
                 poolEntry.getConnection(),
                 route.getTargetHost(),
@@ -509,6 +588,7 @@ public void upgrade(
 
                     @Override
                     public void completed(final ManagedAsyncClientConnection connection) {
+                        connPoolListener.onTlsHandshakeCompleted(route, System.nanoTime() - upgradeStart);
                         if (LOG.isDebugEnabled()) {
                             LOG.debug("{} upgraded {}", ConnPoolSupport.getId(internalEndpoint), ConnPoolSupport.getId(connection));
                         }
@@ -629,19 +709,151 @@ public void setTlsConfigResolver(final Resolver<HttpHost, TlsConfig> tlsConfigRe
         this.tlsConfigResolver = tlsConfigResolver;
     }
 
+    /**
+     * Enables or disables sharing of multiplexing (HTTP/2) connections by
+     * concurrent leases.
+     *
+     * @since 5.3
+     */
+    public void setMessageMultiplexing(final boolean messageMultiplexing) {
+        this.messageMultiplexing = messageMultiplexing;
+    }
+
+    /**
+     * @since 5.3
+     */
+    public boolean isMessageMultiplexing() {
+        return messageMultiplexing;
+    }
+
+    /**
+     * Sets the maximum number of concurrent streams (in-flight leases) a single
+     * multiplexing connection can carry when message multiplexing is enabled.
+     * The HTTP/2 protocol handler additionally holds back streams in excess of
+     * the {@code SETTINGS_MAX_CONCURRENT_STREAMS} limit announced by the peer.
+     *
+     * @since 5.3
+     */
+    public void setMaxConcurrentStreams(final int maxConcurrentStreams) {
+        this.maxConcurrentStreams = Args.positive(maxConcurrentStreams, "Max concurrent streams");
+    }
+
+    /**
+     * @since 5.3
+     */
+    public int getMaxConcurrentStreams() {
+        return maxConcurrentStreams;
+    }
+
+    /**
+     * Returns the number of multiplexing connections to the given route
+     * currently shared by concurrent leases.
+     *
+     * @since 5.3
+     */
+    public int getMultiplexedConnectionCount(final HttpRoute route) {
+        return multiplexedEntries.getConnectionCount(route);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void enumEntries(final Callback<PoolEntry<HttpRoute, ManagedAsyncClientConnection>> callback) {
+        if (pool instanceof StrictConnPool) {
+            final StrictConnPool<HttpRoute, ManagedAsyncClientConnection> strictPool =
+                    (StrictConnPool<HttpRoute, ManagedAsyncClientConnection>) pool;
+            strictPool.enumAvailable(callback);
+            strictPool.enumLeased(callback);
+        } else if (pool instanceof LaxConnPool) {
+            final LaxConnPool<HttpRoute, ManagedAsyncClientConnection> laxPool =
+                    (LaxConnPool<HttpRoute, ManagedAsyncClientConnection>) pool;
+            laxPool.enumAvailable(callback);
+            laxPool.enumLeased(callback);
+        }
+    }
+
+    /**
+     * Sends a keep-alive PING over all idle and leased HTTP/2 connections. Connections
+     * whose previous PING has not been acknowledged within the given timeout are
+     * closed, so that they get evicted before being leased. Acknowledged PINGs update
+     * the {@link #getRoundTripTime(HttpRoute) round-trip time estimate} of the route.
+     *
+     * @param pingTimeout maximum time to wait for a PING acknowledgement.
+     *
+     * @since 5.3
+     */
+    public void pingConnections(final Timeout pingTimeout) {
+        pingTracker.purge();
+        enumEntries(entry -> pingTracker.ping(entry, pingTimeout));
+    }
+
+    /**
+     * Returns the smoothed round-trip time of HTTP/2 connections of the given route
+     * measured with PINGs or {@code null} if no measurement is available.
+     *
+     * @since 5.3
+     */
+    public TimeValue getRoundTripTime(final HttpRoute route) {
+        return pingTracker.getRoundTripTime(route);
+    }
+
+    /**
+     * Sets {@link ConnPoolListener} to be notified of connection pool events.
+     *
+     * @since 5.3
+     */
+    public void setConnPoolListener(final ConnPoolListener connPoolListener) {
+        this.connPoolListener = connPoolListener != null ? connPoolListener : ConnPoolListener.NOOP;
+    }
+
+    MultiplexedEntryRegistry.Entry share(
+            final PoolEntry<HttpRoute, ManagedAsyncClientConnection> poolEntry, final Object state) {
+        if (!messageMultiplexing) {
+            return null;
+        }
+        final ManagedAsyncClientConnection connection = poolEntry.getConnection();
+        if (connection == null || !connection.isOpen()) {
+            return null;
+        }
+        final ProtocolVersion protocolVersion = connection.getProtocolVersion();
+        if (protocolVersion == null || !protocolVersion.greaterEquals(HttpVersion.HTTP_2_0)) {
+            return null;
+        }
+        return multiplexedEntries.register(poolEntry, state);
+    }
+
+    boolean isShared(final MultiplexedEntryRegistry.Entry multiplexedEntry) {
+        return multiplexedEntries.getStreams(multiplexedEntry) > 1;
+    }
+
+    static long idleDeadline(final TimeValue idleTime) {
+        return System.currentTimeMillis() - (TimeValue.isPositive(idleTime) ? idleTime.toMilliseconds() : 0);
+    }
+
+    void closeIfIdle(final PoolEntry<HttpRoute, ManagedAsyncClientConnection> entry, final long deadline) {
+        if (entry.getUpdated() <= deadline) {
+            evict(entry);
+        }
+    }
+
     void closeIfExpired(final PoolEntry<HttpRoute, ManagedAsyncClientConnection > entry) {
         final long now = System.currentTimeMillis();
         if (entry.getExpiryDeadline().isBefore(now)) {
-            entry.discardConnection(CloseMode.GRACEFUL);
+            evict(entry);
         } else {
             final ConnectionConfig connectionConfig = resolveConnectionConfig(entry.getRoute());
             final TimeValue timeToLive = connectionConfig.getTimeToLive();
             if (timeToLive != null && Deadline.calculate(entry.getCreated(), timeToLive).isBefore(now)) {
-                entry.discardConnection(CloseMode.GRACEFUL);
+                evict(entry);
             }
         }
     }
 
+    private void evict(final PoolEntry<HttpRoute, ManagedAsyncClientConnection> entry) {
+        if (entry.hasConnection()) {
+            entry.discardConnection(CloseMode.GRACEFUL);
+            connPoolListener.onEviction(entry.getRoute(), 1);
+        }
+    }
+
     /**
      * @deprecated Use custom {@link #setConnectionConfigResolver(Resolver)}
      */
@@ -670,14 +882,33 @@ public void setValidateAfterInactivity(final TimeValue validateAfterInactivity)
 
     static class InternalConnectionEndpoint extends AsyncConnectionEndpoint implements Identifiable {
 
+        private final PoolingAsyncClientConnectionManager manager;
         private final AtomicReference<PoolEntry<HttpRoute, ManagedAsyncClientConnection>> poolEntryRef;
+        private final Object state;
         private final String id;
+        private volatile MultiplexedEntryRegistry.Entry multiplexedEntry;
 
-        InternalConnectionEndpoint(final PoolEntry<HttpRoute, ManagedAsyncClientConnection> poolEntry) {
+        InternalConnectionEndpoint(
+                final PoolingAsyncClientConnectionManager manager,
+                final PoolEntry<HttpRoute, ManagedAsyncClientConnection> poolEntry,
+                final Object state) {
+            this.manager = manager;
             this.poolEntryRef = new AtomicReference<>(poolEntry);
+            this.state = state;
             this.id = INCREMENTING_ID.getNextId();
         }
 
+        InternalConnectionEndpoint(
+                final PoolingAsyncClientConnectionManager manager,
+                final MultiplexedEntryRegistry.Entry multiplexedEntry) {
+            this(manager, multiplexedEntry.getPoolEntry(), multiplexedEntry.getState());
+            this.multiplexedEntry = multiplexedEntry;
+        }
+
+        MultiplexedEntryRegistry.Entry getMultiplexedEntry() {
+            return multiplexedEntry;
+        }
+
         @Override
         public String getId() {
             return id;
@@ -707,6 +938,14 @@ PoolEntry<HttpRoute, ManagedAsyncClientConnection> detach() {
         public void close(final CloseMode closeMode) {
             final PoolEntry<HttpRoute, ManagedAsyncClientConnection> poolEntry = poolEntryRef.get();
             if (poolEntry != null) {
+                final MultiplexedEntryRegistry.Entry shared = multiplexedEntry;
+                if (shared != null && manager.isShared(shared)) {
+                    // Other streams are still in flight over the connection
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("{} close {}; connection is shared", id, closeMode);
+                    }
+                    return;
+                }
                 if (LOG.isDebugEnabled()) {
                     LOG.debug("{} close {}", id, closeMode);
                 }
@@ -742,10 +981,16 @@ public void execute(
                 final AsyncClientExchangeHandler exchangeHandler,
                 final HandlerFactory<AsyncPushConsumer> pushHandlerFactory,
                 final HttpContext context) {
-            final ManagedAsyncClientConnection connection = getValidatedPoolEntry().getConnection();
+            final PoolEntry<HttpRoute, ManagedAsyncClientConnection> poolEntry = getValidatedPoolEntry();
+            final ManagedAsyncClientConnection connection = poolEntry.getConnection();
             if (LOG.isDebugEnabled()) {
                 LOG.debug("{} executing exchange {} over {}", id, exchangeId, ConnPoolSupport.getId(connection));
             }
+            if (multiplexedEntry == null) {
+                // The protocol version is known for certain once the connection
+                // is established, upgraded and used for the first time
+                multiplexedEntry = manager.share(poolEntry, state);
+            }
             context.setProtocolVersion(connection.getProtocolVersion());
             connection.submitCommand(
                     new RequestExecutionCommand(exchangeHandler, pushHandlerFactory, context),
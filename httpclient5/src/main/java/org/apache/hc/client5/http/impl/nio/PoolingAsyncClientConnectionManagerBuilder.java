@@ -27,6 +27,7 @@
 
 package org.apache.hc.client5.http.impl.nio;
 
+import org.apache.hc.client5.http.ConnPoolListener;
 import org.apache.hc.client5.http.DnsResolver;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.SchemePortResolver;
@@ -86,6 +87,10 @@ public class PoolingAsyncClientConnectionManagerBuilder {
     private Resolver<HttpRoute, ConnectionConfig> connectionConfigResolver;
     private Resolver<HttpHost, TlsConfig> tlsConfigResolver;
 
+    private boolean messageMultiplexing;
+    private int maxConcurrentStreams;
+    private ConnPoolListener connPoolListener;
+
     public static PoolingAsyncClientConnectionManagerBuilder create() {
         return new PoolingAsyncClientConnectionManagerBuilder();
     }
@@ -193,6 +198,37 @@ public final PoolingAsyncClientConnectionManagerBuilder setTlsConfigResolver(
         return this;
     }
 
+    /**
+     * Enables sharing of multiplexing (HTTP/2) connections by concurrent leases.
+     *
+     * @since 5.3
+     */
+    public final PoolingAsyncClientConnectionManagerBuilder setMessageMultiplexing(final boolean messageMultiplexing) {
+        this.messageMultiplexing = messageMultiplexing;
+        return this;
+    }
+
+    /**
+     * Sets the maximum number of concurrent streams a shared multiplexing
+     * connection can carry.
+     *
+     * @since 5.3
+     */
+    public final PoolingAsyncClientConnectionManagerBuilder setMaxConcurrentStreams(final int maxConcurrentStreams) {
+        this.maxConcurrentStreams = maxConcurrentStreams;
+        return this;
+    }
+
+    /**
+     * Assigns {@link ConnPoolListener} to be notified of connection pool events.
+     *
+     * @since 5.3
+     */
+    public final PoolingAsyncClientConnectionManagerBuilder setConnPoolListener(final ConnPoolListener connPoolListener) {
+        this.connPoolListener = connPoolListener;
+        return this;
+    }
+
     /**
      * Sets maximum time to live for persistent connections
      *
@@ -265,6 +301,11 @@ public PoolingAsyncClientConnectionManager build() {
         if (maxConnPerRoute > 0) {
             poolingmgr.setDefaultMaxPerRoute(maxConnPerRoute);
         }
+        poolingmgr.setMessageMultiplexing(messageMultiplexing);
+        if (maxConcurrentStreams > 0) {
+            poolingmgr.setMaxConcurrentStreams(maxConcurrentStreams);
+        }
+        poolingmgr.setConnPoolListener(connPoolListener);
         return poolingmgr;
     }
 
@@ -0,0 +1,543 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.impl.routing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.SchemePortResolver;
+import org.apache.hc.client5.http.impl.DefaultSchemePortResolver;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.routing.HttpRoutePlanner;
+import org.apache.hc.client5.http.routing.RoutingSupport;
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpResponseInterceptor;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.Args;
+import org.apache.hc.core5.util.TimeValue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link HttpRoutePlanner} implementation that spreads requests to a logical service
+ * across a set of equivalent origin endpoints.
+ * <p>
+ * For each request to a registered service the planner picks two endpoints at random
+ * and routes the request to the less loaded of the two (power of two choices).
+ * Load is estimated either from the number of requests in flight as reported by
+ * {@link ConnPoolControl#getStats(Object)} or from a peak-sensitive exponentially
+ * weighted moving average of response latency multiplied by the number of requests
+ * in flight. Endpoints that fail a number of times in a row are ejected for a period
+ * of time that grows with every consecutive ejection. Should all endpoints of a service
+ * be ejected, the planner disregards ejection and picks from all of them.
+ * </p>
+ * <p>
+ * The route to the selected endpoint is determined by the delegate route planner.
+ * Requests to targets that are not registered as a service are passed to the delegate
+ * unchanged. Please note the request authority is left intact, so endpoints receive
+ * the logical service name in the {@code Host} header.
+ * </p>
+ * <p>
+ * Latency and server errors are tracked by the {@link #responseInterceptor() response
+ * interceptor} that must be added to the client's protocol chain. I/O failures are not
+ * visible to protocol interceptors and should be reported with {@link #failed(HttpContext)},
+ * for instance from a custom retry strategy.
+ * </p>
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+public class LoadBalancingRoutePlanner implements HttpRoutePlanner {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadBalancingRoutePlanner.class);
+
+    /**
+     * Name of the context attribute holding the endpoint selected for the request.
+     */
+    public static final String SELECTION = "http.route-planner.lb-selection";
+
+    /**
+     * Load estimation policy.
+     */
+    public enum Policy {
+
+        /**
+         * Prefers the endpoint with fewer leased and pending connections.
+         */
+        LEAST_IN_FLIGHT,
+
+        /**
+         * Prefers the endpoint with the lower product of EWMA latency and requests
+         * in flight. Until a latency sample is available, the HTTP/2 connection
+         * round-trip time is used if the connection pool is a
+         * {@link PoolingAsyncClientConnectionManager} that pings its connections.
+         */
+        EWMA_LATENCY
+
+    }
+
+    private final HttpRoutePlanner delegate;
+    private final ConnPoolControl<HttpRoute> connPoolControl;
+    private final SchemePortResolver schemePortResolver;
+    private final Policy policy;
+    private final long decayNanos;
+    private final int maxConsecutiveFailures;
+    private final long baseEjectionNanos;
+    private final int maxEjectionMultiplier;
+    private final Map<HttpHost, List<Endpoint>> services;
+    private final HttpResponseInterceptor responseInterceptor;
+
+    LoadBalancingRoutePlanner(
+            final HttpRoutePlanner delegate,
+            final ConnPoolControl<HttpRoute> connPoolControl,
+            final SchemePortResolver schemePortResolver,
+            final Policy policy,
+            final TimeValue decayTime,
+            final int maxConsecutiveFailures,
+            final TimeValue baseEjectionTime,
+            final int maxEjectionMultiplier) {
+        this.schemePortResolver = schemePortResolver != null ? schemePortResolver : DefaultSchemePortResolver.INSTANCE;
+        this.delegate = delegate != null ? delegate : new DefaultRoutePlanner(this.schemePortResolver);
+        this.connPoolControl = connPoolControl;
+        this.policy = policy != null ? policy : Policy.LEAST_IN_FLIGHT;
+        this.decayNanos = decayTime != null ? decayTime.toNanoseconds() : TimeUnit.SECONDS.toNanos(10);
+        this.maxConsecutiveFailures = maxConsecutiveFailures > 0 ? maxConsecutiveFailures : 5;
+        this.baseEjectionNanos = baseEjectionTime != null ? baseEjectionTime.toNanoseconds() : TimeUnit.SECONDS.toNanos(30);
+        this.maxEjectionMultiplier = maxEjectionMultiplier > 0 ? maxEjectionMultiplier : 10;
+        this.services = new ConcurrentHashMap<>();
+        this.responseInterceptor = (response, entity, context) -> {
+            final Selection selection = getSelection(context);
+            if (selection != null) {
+                final long latency = System.nanoTime() - selection.startNanos;
+                if (response.getCode() >= HttpStatus.SC_SERVER_ERROR) {
+                    selection.endpoint.failure(System.nanoTime());
+                } else {
+                    selection.endpoint.success(latency, System.nanoTime());
+                }
+            }
+        };
+    }
+
+    /**
+     * Registers a logical service or replaces the endpoints of an existing one.
+     *
+     * @param service the logical service host requests are addressed to.
+     * @param endpoints the origin endpoints serving the service.
+     */
+    public void setEndpoints(final HttpHost service, final Collection<HttpHost> endpoints) {
+        Args.notNull(service, "Service");
+        Args.notEmpty(endpoints, "Endpoints");
+        final HttpHost key = RoutingSupport.normalize(service, schemePortResolver);
+        final List<Endpoint> current = services.get(key);
+        final List<Endpoint> list = new ArrayList<>(endpoints.size());
+        for (final HttpHost host : endpoints) {
+            final HttpHost normalized = RoutingSupport.normalize(Args.notNull(host, "Endpoint"), schemePortResolver);
+            Endpoint endpoint = null;
+            if (current != null) {
+                for (final Endpoint candidate : current) {
+                    if (candidate.host.equals(normalized)) {
+                        endpoint = candidate;
+                        break;
+                    }
+                }
+            }
+            list.add(endpoint != null ? endpoint : new Endpoint(normalized));
+        }
+        services.put(key, Collections.unmodifiableList(list));
+    }
+
+    /**
+     * Registers a logical service or replaces the endpoints of an existing one.
+     *
+     * @param service the logical service host requests are addressed to.
+     * @param endpoints the origin endpoints serving the service.
+     */
+    public void setEndpoints(final HttpHost service, final HttpHost... endpoints) {
+        setEndpoints(service, Arrays.asList(endpoints));
+    }
+
+    /**
+     * Unregisters the logical service. Subsequent requests to the service host
+     * are passed to the delegate route planner unchanged.
+     */
+    public void removeService(final HttpHost service) {
+        if (service != null) {
+            services.remove(RoutingSupport.normalize(service, schemePortResolver));
+        }
+    }
+
+    /**
+     * Returns the response interceptor that tracks latency and server errors
+     * of the selected endpoints.
+     */
+    public HttpResponseInterceptor responseInterceptor() {
+        return responseInterceptor;
+    }
+
+    /**
+     * Reports a failure to communicate with the endpoint selected for the request
+     * executed with the given context.
+     */
+    public void failed(final HttpContext context) {
+        final Selection selection = getSelection(context);
+        if (selection != null) {
+            selection.endpoint.failure(System.nanoTime());
+        }
+    }
+
+    /**
+     * Determines whether the given endpoint of the service is currently ejected.
+     */
+    public boolean isEjected(final HttpHost service, final HttpHost endpoint) {
+        final Endpoint state = lookup(service, endpoint);
+        return state != null && state.isEjected(System.nanoTime());
+    }
+
+    /**
+     * Returns the current latency estimate of the given endpoint of the service.
+     */
+    public TimeValue getLatencyEstimate(final HttpHost service, final HttpHost endpoint) {
+        final Endpoint state = lookup(service, endpoint);
+        return state != null ? TimeValue.of((long) state.getLatency(System.nanoTime()), TimeUnit.NANOSECONDS) : null;
+    }
+
+    private Endpoint lookup(final HttpHost service, final HttpHost endpoint) {
+        final List<Endpoint> endpoints = services.get(RoutingSupport.normalize(service, schemePortResolver));
+        if (endpoints != null) {
+            final HttpHost normalized = RoutingSupport.normalize(endpoint, schemePortResolver);
+            for (final Endpoint candidate : endpoints) {
+                if (candidate.host.equals(normalized)) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public HttpRoute determineRoute(final HttpHost target, final HttpContext context) throws HttpException {
+        final List<Endpoint> endpoints = target != null
+                ? services.get(RoutingSupport.normalize(target, schemePortResolver)) : null;
+        if (endpoints == null) {
+            if (context != null) {
+                context.removeAttribute(SELECTION);
+            }
+            return delegate.determineRoute(target, context);
+        }
+        final long now = System.nanoTime();
+        List<Endpoint> eligible = new ArrayList<>(endpoints.size());
+        for (final Endpoint endpoint : endpoints) {
+            if (!endpoint.isEjected(now)) {
+                eligible.add(endpoint);
+            }
+        }
+        if (eligible.isEmpty()) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug("All endpoints of {} are ejected; ignoring ejection", target);
+            }
+            eligible = endpoints;
+        }
+        final Endpoint selected;
+        final HttpRoute route;
+        final int n = eligible.size();
+        if (n == 1) {
+            selected = eligible.get(0);
+            route = delegate.determineRoute(selected.host, context);
+        } else {
+            final ThreadLocalRandom random = ThreadLocalRandom.current();
+            final int i = random.nextInt(n);
+            int j = random.nextInt(n - 1);
+            if (j >= i) {
+                j++;
+            }
+            final Endpoint endpoint1 = eligible.get(i);
+            final Endpoint endpoint2 = eligible.get(j);
+            final HttpRoute route1 = delegate.determineRoute(endpoint1.host, context);
+            final HttpRoute route2 = delegate.determineRoute(endpoint2.host, context);
+            if (load(endpoint1, route1, now) <= load(endpoint2, route2, now)) {
+                selected = endpoint1;
+                route = route1;
+            } else {
+                selected = endpoint2;
+                route = route2;
+            }
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("{} routed to {}", target, selected.host);
+        }
+        if (context != null) {
+            context.setAttribute(SELECTION, new Selection(selected, System.nanoTime()));
+        }
+        return route;
+    }
+
+    private double load(final Endpoint endpoint, final HttpRoute route, final long now) {
+        final int inFlight;
+        if (connPoolControl != null) {
+            final PoolStats stats = connPoolControl.getStats(route);
+            inFlight = stats.getLeased() + stats.getPending();
+        } else {
+            inFlight = 0;
+        }
+        if (policy == Policy.EWMA_LATENCY) {
+            double latency = endpoint.getLatency(now);
+            if (latency == 0 && connPoolControl instanceof PoolingAsyncClientConnectionManager) {
+                // No exchange with the endpoint completed yet; fall back to the
+                // connection round-trip time measured with HTTP/2 PINGs, if any
+                final TimeValue rtt = ((PoolingAsyncClientConnectionManager) connPoolControl).getRoundTripTime(route);
+                if (rtt != null) {
+                    latency = rtt.toNanoseconds();
+                }
+            }
+            return latency * (inFlight + 1);
+        }
+        return inFlight;
+    }
+
+    private static Selection getSelection(final HttpContext context) {
+        final Object attribute = context != null ? context.getAttribute(SELECTION) : null;
+        return attribute instanceof Selection ? (Selection) attribute : null;
+    }
+
+    @Override
+    public String toString() {
+        return "LoadBalancingRoutePlanner [policy=" + policy + ", services=" + services.keySet() + "]";
+    }
+
+    static final class Selection {
+
+        final Endpoint endpoint;
+        final long startNanos;
+
+        Selection(final Endpoint endpoint, final long startNanos) {
+            this.endpoint = endpoint;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public String toString() {
+            return endpoint.host.toString();
+        }
+
+    }
+
+    final class Endpoint {
+
+        final HttpHost host;
+        private final ReentrantLock lock;
+        private final AtomicInteger consecutiveFailures;
+        private volatile double latency;
+        private volatile long lastUpdate;
+        private volatile long ejectedUntil;
+        private int ejections;
+
+        Endpoint(final HttpHost host) {
+            this.host = host;
+            this.lock = new ReentrantLock();
+            this.consecutiveFailures = new AtomicInteger();
+        }
+
+        double getLatency(final long now) {
+            final double current = latency;
+            if (current == 0 || decayNanos <= 0) {
+                return current;
+            }
+            return current * Math.exp(-Math.max(0, now - lastUpdate) / (double) decayNanos);
+        }
+
+        boolean isEjected(final long now) {
+            final long deadline = ejectedUntil;
+            return deadline != 0 && deadline - now > 0;
+        }
+
+        void success(final long latencyNanos, final long now) {
+            consecutiveFailures.set(0);
+            lock.lock();
+            try {
+                ejections = 0;
+                ejectedUntil = 0;
+                final double current = getLatency(now);
+                // Peak EWMA: react to latency spikes immediately, decay slowly otherwise
+                if (latencyNanos > current || decayNanos <= 0) {
+                    latency = latencyNanos;
+                } else {
+                    final double w = Math.exp(-Math.max(0, now - lastUpdate) / (double) decayNanos);
+                    latency = current * w + latencyNanos * (1 - w);
+                }
+                lastUpdate = now;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void failure(final long now) {
+            if (consecutiveFailures.incrementAndGet() < maxConsecutiveFailures) {
+                return;
+            }
+            lock.lock();
+            try {
+                if (isEjected(now)) {
+                    return;
+                }
+                consecutiveFailures.set(0);
+                ejections = Math.min(ejections + 1, maxEjectionMultiplier);
+                ejectedUntil = now + baseEjectionNanos * ejections;
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug("Endpoint {} ejected for {} ms", host, TimeUnit.NANOSECONDS.toMillis(baseEjectionNanos * ejections));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return host.toString();
+        }
+
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builder for {@link LoadBalancingRoutePlanner}.
+     *
+     * @since 5.3
+     */
+    public static final class Builder {
+
+        private HttpRoutePlanner delegate;
+        private ConnPoolControl<HttpRoute> connPoolControl;
+        private SchemePortResolver schemePortResolver;
+        private Policy policy;
+        private TimeValue decayTime;
+        private int maxConsecutiveFailures;
+        private TimeValue baseEjectionTime;
+        private int maxEjectionMultiplier;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the route planner used to determine the route to the selected endpoint.
+         * Defaults to {@link DefaultRoutePlanner}.
+         */
+        public Builder setDelegate(final HttpRoutePlanner delegate) {
+            this.delegate = delegate;
+            return this;
+        }
+
+        /**
+         * Sets the connection pool used to obtain the number of requests in flight
+         * per route. It should be the pool of the client the planner is used with.
+         */
+        public Builder setConnPoolControl(final ConnPoolControl<HttpRoute> connPoolControl) {
+            this.connPoolControl = connPoolControl;
+            return this;
+        }
+
+        public Builder setSchemePortResolver(final SchemePortResolver schemePortResolver) {
+            this.schemePortResolver = schemePortResolver;
+            return this;
+        }
+
+        /**
+         * Sets the load estimation policy. Defaults to {@link Policy#LEAST_IN_FLIGHT}.
+         */
+        public Builder setPolicy(final Policy policy) {
+            this.policy = policy;
+            return this;
+        }
+
+        /**
+         * Sets the time constant of the latency moving average. Defaults to 10 seconds.
+         */
+        public Builder setDecayTime(final TimeValue decayTime) {
+            this.decayTime = decayTime;
+            return this;
+        }
+
+        /**
+         * Sets the number of consecutive failures or server errors after which
+         * an endpoint gets ejected. Defaults to 5.
+         */
+        public Builder setMaxConsecutiveFailures(final int maxConsecutiveFailures) {
+            this.maxConsecutiveFailures = maxConsecutiveFailures;
+            return this;
+        }
+
+        /**
+         * Sets the base ejection time. An endpoint is ejected for the base time
+         * multiplied by the number of consecutive ejections. Defaults to 30 seconds.
+         */
+        public Builder setBaseEjectionTime(final TimeValue baseEjectionTime) {
+            this.baseEjectionTime = baseEjectionTime;
+            return this;
+        }
+
+        /**
+         * Sets the maximum multiplier of the base ejection time. Defaults to 10.
+         */
+        public Builder setMaxEjectionMultiplier(final int maxEjectionMultiplier) {
+            this.maxEjectionMultiplier = maxEjectionMultiplier;
+            return this;
+        }
+
+        public LoadBalancingRoutePlanner build() {
+            return new LoadBalancingRoutePlanner(
+                    delegate,
+                    connPoolControl,
+                    schemePortResolver,
+                    policy,
+                    decayTime,
+                    maxConsecutiveFailures,
+                    baseEjectionTime,
+                    maxEjectionMultiplier);
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.nio;
+
+/**
+ * Load of an I/O dispatcher of an async client.
+ * <p>
+ * Values are sampled without locking and may be slightly stale.
+ * </p>
+ *
+ * @since 5.3
+ */
+public interface IODispatcherLoad {
+
+    /**
+     * Returns the index of the dispatcher.
+     */
+    int getId();
+
+    /**
+     * Returns the number of open sessions managed by the dispatcher.
+     */
+    int getSessions();
+
+    /**
+     * Returns the number of connection requests assigned to the dispatcher
+     * that have not completed yet.
+     */
+    int getPendingConnects();
+
+    /**
+     * Returns the total number of input events processed by the dispatcher.
+     */
+    long getInputEvents();
+
+    /**
+     * Returns the total number of output events processed by the dispatcher.
+     */
+    long getOutputEvents();
+
+}
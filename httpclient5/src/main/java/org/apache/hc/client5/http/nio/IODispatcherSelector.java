@@ -0,0 +1,74 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.nio;
+
+import java.util.List;
+
+import org.apache.hc.core5.annotation.Contract;
+import org.apache.hc.core5.annotation.ThreadingBehavior;
+
+/**
+ * Strategy that assigns new connections to I/O dispatchers of an async client.
+ *
+ * @since 5.3
+ */
+@Contract(threading = ThreadingBehavior.SAFE)
+@FunctionalInterface
+public interface IODispatcherSelector {
+
+    /**
+     * Selects the dispatcher with the fewest open sessions and pending connection
+     * requests. Ties are resolved in favor of the dispatcher that has processed
+     * fewer I/O events.
+     */
+    IODispatcherSelector LEAST_LOADED = dispatchers -> {
+        int selected = 0;
+        long minLoad = Long.MAX_VALUE;
+        long minEvents = Long.MAX_VALUE;
+        for (int i = 0; i < dispatchers.size(); i++) {
+            final IODispatcherLoad dispatcher = dispatchers.get(i);
+            final long load = (long) dispatcher.getSessions() + dispatcher.getPendingConnects();
+            final long events = dispatcher.getInputEvents() + dispatcher.getOutputEvents();
+            if (load < minLoad || load == minLoad && events < minEvents) {
+                selected = i;
+                minLoad = load;
+                minEvents = events;
+            }
+        }
+        return selected;
+    };
+
+    /**
+     * Selects the dispatcher a new connection is to be assigned to.
+     *
+     * @param dispatchers the current load of all dispatchers, never empty.
+     * @return the index of the selected dispatcher in the list.
+     */
+    int select(List<? extends IODispatcherLoad> dispatchers);
+
+}
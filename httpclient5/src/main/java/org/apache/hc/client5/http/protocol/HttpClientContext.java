@@ -30,6 +30,7 @@
 import java.util.HashMap;
 import java.util.Map;
 
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.RouteInfo;
 import org.apache.hc.client5.http.auth.AuthCache;
@@ -136,6 +137,14 @@ public class HttpClientContext extends HttpCoreContext {
      */
     public static final String EXCHANGE_ID = "http.exchange-id";
 
+    /**
+     * Attribute name of a {@link HttpClientEventListener} object that receives
+     * request execution lifecycle events.
+     *
+     * @since 5.3
+     */
+    public static final String EVENT_LISTENER = "http.event-listener";
+
     public static HttpClientContext adapt(final HttpContext context) {
         Args.notNull(context, "HTTP context");
         if (context instanceof HttpClientContext) {
@@ -296,4 +305,18 @@ public void setExchangeId(final String id) {
         setAttribute(EXCHANGE_ID, id);
     }
 
+    /**
+     * @since 5.3
+     */
+    public HttpClientEventListener getEventListener() {
+        return getAttribute(EVENT_LISTENER, HttpClientEventListener.class);
+    }
+
+    /**
+     * @since 5.3
+     */
+    public void setEventListener(final HttpClientEventListener eventListener) {
+        setAttribute(EVENT_LISTENER, eventListener);
+    }
+
 }
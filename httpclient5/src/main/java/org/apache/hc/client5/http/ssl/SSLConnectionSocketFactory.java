@@ -48,7 +48,9 @@
 import javax.net.ssl.SSLSession;
 import javax.net.ssl.SSLSocket;
 
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.client5.http.socket.LayeredConnectionSocketFactory;
 import org.apache.hc.core5.annotation.Contract;
 import org.apache.hc.core5.annotation.ThreadingBehavior;
@@ -342,8 +344,15 @@ private void executeHandshake(
             LOG.debug("Enabled cipher suites: {}", (Object) sslsock.getEnabledCipherSuites());
             LOG.debug("Starting handshake ({})", handshakeTimeout);
         }
+        final HttpClientEventListener eventListener = context != null ? HttpClientContext.adapt(context).getEventListener() : null;
+        if (eventListener != null) {
+            eventListener.onTlsHandshakeStart(context, System.nanoTime(), target);
+        }
         sslsock.startHandshake();
         verifyHostname(sslsock, target);
+        if (eventListener != null) {
+            eventListener.onTlsHandshakeEnd(context, System.nanoTime(), target);
+        }
     }
 
     private void verifyHostname(final SSLSocket sslsock, final String hostname) throws IOException {
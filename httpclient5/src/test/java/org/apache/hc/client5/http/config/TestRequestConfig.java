@@ -58,6 +58,7 @@ public void testDefaults() {
         Assertions.assertNull(config.getTargetPreferredAuthSchemes());
         Assertions.assertNull(config.getProxyPreferredAuthSchemes());
         Assertions.assertTrue(config.isContentCompressionEnabled());
+        Assertions.assertNull(config.getExecutionTimeout());
     }
 
     @Test
@@ -73,6 +74,7 @@ public void testBuildAndCopy() throws Exception {
                 .setTargetPreferredAuthSchemes(Collections.singletonList(StandardAuthScheme.BEARER))
                 .setProxyPreferredAuthSchemes(Collections.singletonList(StandardAuthScheme.DIGEST))
                 .setContentCompressionEnabled(false)
+                .setExecutionTimeout(Timeout.ofSeconds(10))
                 .build();
         final RequestConfig config = RequestConfig.copy(config0).build();
         Assertions.assertEquals(TimeValue.ofMilliseconds(44), config.getConnectionRequestTimeout());
@@ -85,6 +87,7 @@ public void testBuildAndCopy() throws Exception {
         Assertions.assertEquals(Collections.singletonList(StandardAuthScheme.BEARER), config.getTargetPreferredAuthSchemes());
         Assertions.assertEquals(Collections.singletonList(StandardAuthScheme.DIGEST), config.getProxyPreferredAuthSchemes());
         Assertions.assertFalse(config.isContentCompressionEnabled());
+        Assertions.assertEquals(Timeout.ofSeconds(10), config.getExecutionTimeout());
     }
 
 }
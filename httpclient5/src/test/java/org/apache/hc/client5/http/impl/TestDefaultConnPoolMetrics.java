@@ -0,0 +1,96 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestDefaultConnPoolMetrics {
+
+    @Test
+    public void testPerRouteAndTotalMetrics() {
+        final HttpRoute route1 = new HttpRoute(new HttpHost("somehost", 80));
+        final HttpRoute route2 = new HttpRoute(new HttpHost("otherhost", 80));
+        final DefaultConnPoolMetrics metrics = new DefaultConnPoolMetrics();
+
+        metrics.onLeaseRequested(route1);
+        metrics.onLeaseGranted(route1, 1000, false);
+        metrics.onConnectCompleted(route1, 5000);
+        metrics.onTlsHandshakeCompleted(route1, 3000);
+        metrics.onRelease(route1, true);
+        metrics.onLeaseRequested(route1);
+        metrics.onLeaseGranted(route1, 10, true);
+        metrics.onRelease(route1, false);
+
+        metrics.onLeaseRequested(route2);
+        metrics.onLeaseTimeout(route2, 2000);
+        metrics.onLeaseRequested(route2);
+        metrics.onLeaseFailed(route2, 20);
+        metrics.onConnectFailed(route2, 100, new Exception());
+        metrics.onEviction(route2, 3);
+
+        final DefaultConnPoolMetrics.Metrics metrics1 = metrics.getMetrics(route1);
+        Assertions.assertNotNull(metrics1);
+        Assertions.assertEquals(2, metrics1.getLeaseRequests());
+        Assertions.assertEquals(2, metrics1.getLeasesGranted());
+        Assertions.assertEquals(1, metrics1.getLeasesReused());
+        Assertions.assertEquals(1, metrics1.getConnects());
+        Assertions.assertEquals(1, metrics1.getReleasesReusable());
+        Assertions.assertEquals(1, metrics1.getReleasesClosed());
+        Assertions.assertEquals(2, metrics1.getLeaseWait().getCount());
+        Assertions.assertEquals(1, metrics1.getConnectTime().getCount());
+        Assertions.assertEquals(1, metrics1.getTlsHandshakeTime().getCount());
+
+        final DefaultConnPoolMetrics.Metrics metrics2 = metrics.getMetrics(route2);
+        Assertions.assertNotNull(metrics2);
+        Assertions.assertEquals(2, metrics2.getLeaseRequests());
+        Assertions.assertEquals(0, metrics2.getLeasesGranted());
+        Assertions.assertEquals(1, metrics2.getLeaseTimeouts());
+        Assertions.assertEquals(1, metrics2.getLeaseFailures());
+        Assertions.assertEquals(1, metrics2.getConnectFailures());
+        Assertions.assertEquals(3, metrics2.getEvictions());
+        Assertions.assertEquals(1, metrics2.getLeaseWait().getCount());
+
+        final DefaultConnPoolMetrics.Metrics totals = metrics.getTotals();
+        Assertions.assertEquals(4, totals.getLeaseRequests());
+        Assertions.assertEquals(2, totals.getLeasesGranted());
+        Assertions.assertEquals(1, totals.getLeaseTimeouts());
+        Assertions.assertEquals(3, totals.getEvictions());
+        Assertions.assertEquals(3, totals.getLeaseWait().getCount());
+        Assertions.assertEquals(2, metrics.getRoutes().size());
+    }
+
+    @Test
+    public void testUnknownRoute() {
+        final DefaultConnPoolMetrics metrics = new DefaultConnPoolMetrics();
+        Assertions.assertNull(metrics.getMetrics(new HttpRoute(new HttpHost("somehost", 80))));
+        Assertions.assertEquals(0, metrics.getTotals().getLeaseRequests());
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestDefaultHttpRequestHedgingStrategy {
+
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("somehost", 80));
+
+    @Test
+    public void testNoHedgingWithoutSamples() {
+        final DefaultHttpRequestHedgingStrategy hedgingStrategy = new DefaultHttpRequestHedgingStrategy(0.95, 10, null);
+        for (int i = 0; i < 9; i++) {
+            hedgingStrategy.responseReceived(ROUTE, TimeValue.ofMilliseconds(10));
+        }
+        Assertions.assertNull(hedgingStrategy.getHedgeDelay(new HttpGet("/"), ROUTE, null));
+        hedgingStrategy.responseReceived(ROUTE, TimeValue.ofMilliseconds(10));
+        Assertions.assertEquals(10, hedgingStrategy.getHedgeDelay(new HttpGet("/"), ROUTE, null).toMilliseconds());
+    }
+
+    @Test
+    public void testPercentileDelay() {
+        final DefaultHttpRequestHedgingStrategy hedgingStrategy = new DefaultHttpRequestHedgingStrategy(0.95, 20, null);
+        for (int i = 1; i <= 100; i++) {
+            hedgingStrategy.responseReceived(ROUTE, TimeValue.ofMilliseconds(i));
+        }
+        final TimeValue delay = hedgingStrategy.getHedgeDelay(new HttpGet("/"), ROUTE, null);
+        Assertions.assertNotNull(delay);
+        Assertions.assertTrue(delay.toMilliseconds() >= 90 && delay.toMilliseconds() <= 96, delay.toString());
+    }
+
+    @Test
+    public void testMinDelay() {
+        final DefaultHttpRequestHedgingStrategy hedgingStrategy = new DefaultHttpRequestHedgingStrategy(
+                0.95, 1, TimeValue.ofMilliseconds(50));
+        hedgingStrategy.responseReceived(ROUTE, TimeValue.ofMilliseconds(1));
+        Assertions.assertEquals(TimeValue.ofMilliseconds(50), hedgingStrategy.getHedgeDelay(new HttpGet("/"), ROUTE, null));
+    }
+
+    @Test
+    public void testNonIdempotentNotHedged() {
+        final DefaultHttpRequestHedgingStrategy hedgingStrategy = new DefaultHttpRequestHedgingStrategy(0.95, 1, null);
+        hedgingStrategy.responseReceived(ROUTE, TimeValue.ofMilliseconds(1));
+        Assertions.assertNull(hedgingStrategy.getHedgeDelay(new HttpPost("/"), ROUTE, null));
+    }
+
+}
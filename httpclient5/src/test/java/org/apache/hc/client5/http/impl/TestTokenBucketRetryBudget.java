@@ -0,0 +1,73 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestTokenBucketRetryBudget {
+
+    private static final HttpRoute ROUTE1 = new HttpRoute(new HttpHost("somehost", 80));
+    private static final HttpRoute ROUTE2 = new HttpRoute(new HttpHost("otherhost", 80));
+
+    @Test
+    public void testBucketInitiallyFull() {
+        final TokenBucketRetryBudget retryBudget = new TokenBucketRetryBudget(0.1, 3);
+        Assertions.assertEquals(3, retryBudget.getAvailableRetries(ROUTE1));
+        Assertions.assertTrue(retryBudget.withdraw(ROUTE1));
+        Assertions.assertTrue(retryBudget.withdraw(ROUTE1));
+        Assertions.assertTrue(retryBudget.withdraw(ROUTE1));
+        Assertions.assertFalse(retryBudget.withdraw(ROUTE1));
+        Assertions.assertTrue(retryBudget.withdraw(ROUTE2));
+    }
+
+    @Test
+    public void testRetriesRelativeToRequests() {
+        final TokenBucketRetryBudget retryBudget = new TokenBucketRetryBudget(0.25, 1);
+        Assertions.assertTrue(retryBudget.withdraw(ROUTE1));
+        Assertions.assertFalse(retryBudget.withdraw(ROUTE1));
+        for (int i = 0; i < 3; i++) {
+            retryBudget.deposit(ROUTE1);
+            Assertions.assertFalse(retryBudget.withdraw(ROUTE1));
+        }
+        retryBudget.deposit(ROUTE1);
+        Assertions.assertTrue(retryBudget.withdraw(ROUTE1));
+        Assertions.assertFalse(retryBudget.withdraw(ROUTE1));
+    }
+
+    @Test
+    public void testBucketCapped() {
+        final TokenBucketRetryBudget retryBudget = new TokenBucketRetryBudget(1.0, 2);
+        for (int i = 0; i < 10; i++) {
+            retryBudget.deposit(ROUTE1);
+        }
+        Assertions.assertEquals(2, retryBudget.getAvailableRetries(ROUTE1));
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+public class TestWireCapture {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    public void testCaptureInactiveByDefault() throws Exception {
+        final WireCapture wireCapture = WireCapture.builder().setDirectory(tempDir).build();
+        final WireCaptureBuffer buffer = wireCapture.register("conn-1",
+                () -> InetSocketAddress.createUnresolved("somehost", 80));
+        Assertions.assertFalse(buffer.isActive());
+        wireCapture.enable("conn-1");
+        Assertions.assertTrue(buffer.isActive());
+        wireCapture.disable("conn-1");
+        Assertions.assertFalse(buffer.isActive());
+        wireCapture.close();
+    }
+
+    @Test
+    public void testCaptureEnabledForEndpoint() throws Exception {
+        final WireCapture wireCapture = WireCapture.builder().setDirectory(tempDir).build();
+        wireCapture.enable(new HttpHost("SomeHost", 80));
+        final WireCaptureBuffer buffer1 = wireCapture.register("conn-1",
+                () -> InetSocketAddress.createUnresolved("somehost", 80));
+        final WireCaptureBuffer buffer2 = wireCapture.register("conn-2",
+                () -> InetSocketAddress.createUnresolved("somehost", 8080));
+        Assertions.assertTrue(buffer1.isActive());
+        Assertions.assertFalse(buffer2.isActive());
+        wireCapture.disable(new HttpHost("somehost", 80));
+        Assertions.assertFalse(buffer1.isActive());
+        wireCapture.close();
+    }
+
+    @Test
+    public void testCaptureEnabledOnceAddressKnown() throws Exception {
+        final WireCapture wireCapture = WireCapture.builder().setDirectory(tempDir).build();
+        wireCapture.enable(new HttpHost("somehost", 80));
+        final InetSocketAddress[] address = new InetSocketAddress[1];
+        final WireCaptureBuffer buffer = wireCapture.register("conn-1", () -> address[0]);
+        Assertions.assertFalse(buffer.isActive());
+        address[0] = InetSocketAddress.createUnresolved("somehost", 80);
+        Assertions.assertTrue(buffer.isActive());
+        wireCapture.close();
+    }
+
+    @Test
+    public void testRingBufferDiscardsOldestRecords() throws Exception {
+        final WireCapture wireCapture = WireCapture.builder().setDirectory(tempDir).setBufferSize(64).build();
+        final WireCaptureBuffer buffer = wireCapture.register("conn-1", null);
+        for (int i = 0; i < 10; i++) {
+            buffer.output(("request " + i).getBytes(StandardCharsets.US_ASCII), 0, 9);
+            buffer.input(ByteBuffer.wrap(("resp " + i).getBytes(StandardCharsets.US_ASCII)));
+        }
+        final byte[] records = buffer.snapshot();
+        Assertions.assertTrue(records.length <= 64);
+        // 26 + 23 bytes: the two most recent records
+        Assertions.assertEquals(49, records.length);
+        Assertions.assertEquals(WireCaptureBuffer.OUTPUT, records[0]);
+        Assertions.assertEquals("request 9", new String(records, WireCaptureBuffer.HEADER_SIZE, 9, StandardCharsets.US_ASCII));
+        Assertions.assertEquals(WireCaptureBuffer.INPUT, records[26]);
+        Assertions.assertEquals("resp 9", new String(records, 26 + WireCaptureBuffer.HEADER_SIZE, 6, StandardCharsets.US_ASCII));
+        wireCapture.close();
+    }
+
+    @Test
+    public void testOversizedChunkTruncated() throws Exception {
+        final WireCapture wireCapture = WireCapture.builder().setDirectory(tempDir).setBufferSize(32).build();
+        final WireCaptureBuffer buffer = wireCapture.register("conn-1", null);
+        buffer.output("0123456789abcdefghijklmnopqrstuvwxyz".getBytes(StandardCharsets.US_ASCII), 0, 36);
+        final byte[] records = buffer.snapshot();
+        Assertions.assertEquals(32, records.length);
+        Assertions.assertEquals("vwxyz", new String(records, WireCaptureBuffer.HEADER_SIZE + 10, 5, StandardCharsets.US_ASCII));
+        wireCapture.close();
+    }
+
+    @Test
+    public void testPcapOutput() throws Exception {
+        final WireCapture wireCapture = WireCapture.builder().setDirectory(tempDir).build();
+        final WireCaptureBuffer buffer = wireCapture.register("conn-1", null);
+        buffer.output("GET / HTTP/1.1\r\n\r\n".getBytes(StandardCharsets.US_ASCII), 0, 18);
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WireCapture.writePcap(buffer.snapshot(), out);
+        final byte[] pcap = out.toByteArray();
+        Assertions.assertEquals(24 + 16 + 1 + 18, pcap.length);
+        Assertions.assertEquals((byte) 0xd4, pcap[0]);
+        Assertions.assertEquals((byte) 147, pcap[20]);
+        Assertions.assertEquals(19, pcap[24 + 8]);
+        Assertions.assertEquals(WireCaptureBuffer.OUTPUT, pcap[40]);
+        wireCapture.close();
+    }
+
+    @Test
+    public void testActiveCaptureWrittenOnRelease() throws Exception {
+        final WireCapture wireCapture = WireCapture.builder().setDirectory(tempDir).build();
+        final WireCaptureBuffer buffer1 = wireCapture.register("conn-1", null);
+        final WireCaptureBuffer buffer2 = wireCapture.register("conn-2", null);
+        wireCapture.enable("conn-1");
+        buffer1.input("stuff".getBytes(StandardCharsets.US_ASCII), 0, 5);
+        buffer2.input("stuff".getBytes(StandardCharsets.US_ASCII), 0, 5);
+        wireCapture.release(buffer1);
+        wireCapture.release(buffer2);
+        Assertions.assertFalse(buffer1.isActive());
+        wireCapture.close();
+        wireCapture.awaitTermination(TimeValue.ofSeconds(5));
+        try (final Stream<Path> files = Files.list(tempDir)) {
+            final Path[] captures = files.toArray(Path[]::new);
+            Assertions.assertEquals(1, captures.length);
+            Assertions.assertTrue(captures[0].getFileName().toString().startsWith("conn-1-"));
+            Assertions.assertEquals(24 + 16 + 1 + 5, Files.size(captures[0]));
+        }
+    }
+
+}
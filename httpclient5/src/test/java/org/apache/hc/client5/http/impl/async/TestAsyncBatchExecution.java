@@ -0,0 +1,153 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpRequest;
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestAsyncBatchExecution {
+
+    /**
+     * Records submitted requests and completes them on demand.
+     */
+    static class RecordingExecutor implements AsyncBatchExecution.RequestExecutor {
+
+        final List<SimpleHttpRequest> requests = new ArrayList<>();
+        final List<BasicFuture<SimpleHttpResponse>> futures = new ArrayList<>();
+
+        @Override
+        public Future<SimpleHttpResponse> execute(
+                final SimpleHttpRequest request,
+                final FutureCallback<SimpleHttpResponse> callback) {
+            final BasicFuture<SimpleHttpResponse> future = new BasicFuture<>(callback);
+            requests.add(request);
+            futures.add(future);
+            return future;
+        }
+
+        void complete(final int index) {
+            final SimpleHttpResponse response = new SimpleHttpResponse(200);
+            response.setHeader("x-index", Integer.toString(index));
+            futures.get(index).completed(response);
+        }
+
+    }
+
+    static List<SimpleHttpRequest> createRequests(final int n) {
+        final List<SimpleHttpRequest> requests = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            requests.add(SimpleRequestBuilder.get("http://somehost/" + i).build());
+        }
+        return requests;
+    }
+
+    @Test
+    public void testResponsesInRequestOrder() throws Exception {
+        final RecordingExecutor executor = new RecordingExecutor();
+        final AsyncBatchExecution batch = new AsyncBatchExecution(createRequests(3), 10, executor, null);
+        batch.start();
+        Assertions.assertEquals(3, executor.requests.size());
+        executor.complete(2);
+        executor.complete(0);
+        Assertions.assertFalse(batch.isDone());
+        executor.complete(1);
+        Assertions.assertTrue(batch.isDone());
+        Assertions.assertFalse(batch.isFailed());
+        final List<SimpleHttpResponse> responses = batch.getFuture().get();
+        Assertions.assertEquals(3, responses.size());
+        for (int i = 0; i < responses.size(); i++) {
+            Assertions.assertEquals(Integer.toString(i), responses.get(i).getFirstHeader("x-index").getValue());
+        }
+    }
+
+    @Test
+    public void testMaxInFlight() throws Exception {
+        final RecordingExecutor executor = new RecordingExecutor();
+        final AsyncBatchExecution batch = new AsyncBatchExecution(createRequests(5), 2, executor, null);
+        batch.start();
+        Assertions.assertEquals(2, executor.requests.size());
+        executor.complete(1);
+        Assertions.assertEquals(3, executor.requests.size());
+        executor.complete(0);
+        executor.complete(2);
+        Assertions.assertEquals(5, executor.requests.size());
+        executor.complete(3);
+        executor.complete(4);
+        Assertions.assertEquals(5, batch.getFuture().get().size());
+    }
+
+    @Test
+    public void testEmptyBatch() throws Exception {
+        final RecordingExecutor executor = new RecordingExecutor();
+        final AsyncBatchExecution batch = new AsyncBatchExecution(Collections.emptyList(), 1, executor, null);
+        batch.start();
+        Assertions.assertTrue(batch.isDone());
+        Assertions.assertTrue(batch.getFuture().get().isEmpty());
+        Assertions.assertTrue(executor.requests.isEmpty());
+    }
+
+    @Test
+    public void testFailureCancelsRequestsInFlight() throws Exception {
+        final RecordingExecutor executor = new RecordingExecutor();
+        final AsyncBatchExecution batch = new AsyncBatchExecution(createRequests(4), 3, executor, null);
+        batch.start();
+        final Exception cause = new Exception("Boom");
+        executor.futures.get(1).failed(cause);
+        Assertions.assertTrue(batch.isFailed());
+        Assertions.assertTrue(executor.futures.get(0).isCancelled());
+        Assertions.assertTrue(executor.futures.get(2).isCancelled());
+        Assertions.assertEquals(3, executor.requests.size());
+        final ExecutionException ex = Assertions.assertThrows(ExecutionException.class, () -> batch.getFuture().get());
+        Assertions.assertSame(cause, ex.getCause());
+    }
+
+    @Test
+    public void testCancelBatch() throws Exception {
+        final RecordingExecutor executor = new RecordingExecutor();
+        final AsyncBatchExecution batch = new AsyncBatchExecution(createRequests(4), 2, executor, null);
+        batch.start();
+        executor.complete(0);
+        Assertions.assertTrue(batch.getFuture().cancel(true));
+        Assertions.assertTrue(executor.futures.get(1).isCancelled());
+        Assertions.assertTrue(executor.futures.get(2).isCancelled());
+        Assertions.assertEquals(3, executor.requests.size());
+        Assertions.assertThrows(CancellationException.class, () -> batch.getFuture().get());
+    }
+
+}
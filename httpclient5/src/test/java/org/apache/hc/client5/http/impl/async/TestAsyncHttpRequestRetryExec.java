@@ -0,0 +1,121 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.hc.client5.http.HttpRequestRetryStrategy;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.async.AsyncExecCallback;
+import org.apache.hc.client5.http.async.AsyncExecChain;
+import org.apache.hc.client5.http.async.AsyncExecRuntime;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.ComplexFuture;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpRequest;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class TestAsyncHttpRequestRetryExec {
+
+    @Test
+    public void testRetryIntervalComputedOncePerIOFailure() throws Exception {
+        final HttpRequestRetryStrategy retryStrategy = Mockito.mock(HttpRequestRetryStrategy.class);
+        Mockito.when(retryStrategy.retryRequest(
+                Mockito.any(HttpRequest.class),
+                Mockito.any(IOException.class),
+                Mockito.anyInt(),
+                Mockito.any())).thenReturn(Boolean.TRUE);
+        Mockito.when(retryStrategy.getRetryInterval(
+                Mockito.any(HttpRequest.class),
+                Mockito.any(IOException.class),
+                Mockito.anyInt(),
+                Mockito.any())).thenReturn(TimeValue.ofSeconds(1), TimeValue.ofSeconds(2));
+
+        final AsyncExecChain chain = Mockito.mock(AsyncExecChain.class);
+        Mockito.doAnswer(invocation -> {
+            final AsyncExecCallback callback = invocation.getArgument(3);
+            callback.failed(new IOException("Connection reset"));
+            return null;
+        }).when(chain).proceed(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
+
+        final AtomicReference<TimeValue> scheduledDelay = new AtomicReference<>();
+        final AsyncExecChain.Scheduler scheduler = new AsyncExecChain.Scheduler() {
+
+            @Override
+            public void scheduleExecution(
+                    final HttpRequest request,
+                    final AsyncEntityProducer entityProducer,
+                    final AsyncExecChain.Scope scope,
+                    final AsyncExecCallback asyncExecCallback,
+                    final TimeValue delay) {
+                scheduledDelay.set(delay);
+            }
+
+            @Override
+            public void scheduleExecution(
+                    final HttpRequest request,
+                    final AsyncEntityProducer entityProducer,
+                    final AsyncExecChain.Scope scope,
+                    final AsyncExecChain chain,
+                    final AsyncExecCallback asyncExecCallback,
+                    final TimeValue delay) {
+                scheduledDelay.set(delay);
+            }
+
+        };
+
+        final HttpRequest request = new BasicHttpRequest("GET", "/");
+        final AsyncExecChain.Scope scope = new AsyncExecChain.Scope(
+                "test",
+                new HttpRoute(new HttpHost("somehost", 80)),
+                request,
+                new ComplexFuture<>(null),
+                HttpClientContext.create(),
+                Mockito.mock(AsyncExecRuntime.class),
+                scheduler,
+                new AtomicInteger(1));
+
+        final AsyncHttpRequestRetryExec retryExec = new AsyncHttpRequestRetryExec(retryStrategy);
+        retryExec.execute(request, null, scope, chain, Mockito.mock(AsyncExecCallback.class));
+
+        Mockito.verify(retryStrategy, Mockito.times(1)).getRetryInterval(
+                Mockito.any(HttpRequest.class),
+                Mockito.any(IOException.class),
+                Mockito.anyInt(),
+                Mockito.any());
+        Assertions.assertEquals(TimeValue.ofSeconds(1), scheduledDelay.get());
+        Assertions.assertEquals(2, scope.execCount.get());
+    }
+
+}
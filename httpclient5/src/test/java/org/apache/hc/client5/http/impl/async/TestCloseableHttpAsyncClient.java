@@ -0,0 +1,134 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.hc.client5.http.async.methods.SimpleHttpResponse;
+import org.apache.hc.client5.http.async.methods.SimpleRequestBuilder;
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.function.Supplier;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.nio.AsyncPushConsumer;
+import org.apache.hc.core5.http.nio.AsyncRequestProducer;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.HandlerFactory;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOReactorStatus;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class TestCloseableHttpAsyncClient {
+
+    /**
+     * Client implementation that relies on the default deadline tracking and
+     * never completes its exchanges by itself.
+     */
+    static class PendingExchangeClient extends CloseableHttpAsyncClient {
+
+        volatile BasicFuture<?> exchange;
+
+        @Override
+        public void start() {
+        }
+
+        @Override
+        public IOReactorStatus getStatus() {
+            return IOReactorStatus.ACTIVE;
+        }
+
+        @Override
+        public void awaitShutdown(final TimeValue waitTime) {
+        }
+
+        @Override
+        public void initiateShutdown() {
+        }
+
+        @Override
+        protected <T> Future<T> doExecute(
+                final HttpHost target,
+                final AsyncRequestProducer requestProducer,
+                final AsyncResponseConsumer<T> responseConsumer,
+                final HandlerFactory<AsyncPushConsumer> pushHandlerFactory,
+                final HttpContext context,
+                final FutureCallback<T> callback) {
+            final BasicFuture<T> future = new BasicFuture<>(callback);
+            exchange = future;
+            return future;
+        }
+
+        @Override
+        public void register(final String hostname, final String uriPattern, final Supplier<AsyncPushConsumer> supplier) {
+        }
+
+        @Override
+        public void close(final CloseMode closeMode) {
+        }
+
+        @Override
+        public void close() {
+        }
+
+    }
+
+    @Test
+    public void testDefaultDeadlineExpiry() throws Exception {
+        final PendingExchangeClient client = new PendingExchangeClient();
+        final CompletableFuture<SimpleHttpResponse> future = client.executeAsync(
+                SimpleRequestBuilder.get("http://somehost/").build(),
+                null,
+                Timeout.ofMilliseconds(50));
+        final ExecutionException ex = Assertions.assertThrows(ExecutionException.class, () ->
+                future.get(1, TimeUnit.MINUTES));
+        Assertions.assertTrue(ex.getCause() instanceof TimeoutException);
+        Assertions.assertTrue(client.exchange.isCancelled());
+    }
+
+    @Test
+    public void testDefaultDeadlineNotExpired() throws Exception {
+        final PendingExchangeClient client = new PendingExchangeClient();
+        final CompletableFuture<SimpleHttpResponse> future = client.executeAsync(
+                SimpleRequestBuilder.get("http://somehost/").build(),
+                null,
+                Timeout.ofMinutes(1));
+        final SimpleHttpResponse response = new SimpleHttpResponse(200);
+        @SuppressWarnings("unchecked")
+        final BasicFuture<SimpleHttpResponse> exchange = (BasicFuture<SimpleHttpResponse>) client.exchange;
+        exchange.completed(response);
+        Assertions.assertSame(response, future.get(1, TimeUnit.MINUTES));
+    }
+
+}
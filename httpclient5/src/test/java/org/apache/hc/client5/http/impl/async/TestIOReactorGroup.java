@@ -0,0 +1,180 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+
+package org.apache.hc.client5.http.impl.async;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.nio.IODispatcherLoad;
+import org.apache.hc.client5.http.nio.IODispatcherSelector;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.reactor.IOEventHandler;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.reactor.IOReactorStatus;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TestIOReactorGroup {
+
+    private static final IOEventHandler NOOP_HANDLER = new IOEventHandler() {
+
+        @Override
+        public void connected(final IOSession session) {
+        }
+
+        @Override
+        public void inputReady(final IOSession session, final ByteBuffer src) {
+        }
+
+        @Override
+        public void outputReady(final IOSession session) {
+        }
+
+        @Override
+        public void timeout(final IOSession session, final Timeout timeout) {
+        }
+
+        @Override
+        public void exception(final IOSession session, final Exception cause) {
+        }
+
+        @Override
+        public void disconnected(final IOSession session) {
+        }
+
+    };
+
+    private ServerSocket serverSocket;
+    private IOReactorGroup ioReactorGroup;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        serverSocket = new ServerSocket(0);
+        ioReactorGroup = new IOReactorGroup(
+                (ioSession, attachment) -> NOOP_HANDLER,
+                IOReactorConfig.custom().setIoThreadCount(2).build(),
+                null,
+                null,
+                null,
+                null,
+                null,
+                IODispatcherSelector.LEAST_LOADED);
+        ioReactorGroup.start();
+    }
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        ioReactorGroup.close(CloseMode.IMMEDIATE);
+        serverSocket.close();
+    }
+
+    private IOSession connect() throws Exception {
+        final HttpHost host = new HttpHost("localhost", serverSocket.getLocalPort());
+        return ioReactorGroup.connect(
+                host,
+                new InetSocketAddress("localhost", serverSocket.getLocalPort()),
+                null,
+                Timeout.ofSeconds(5),
+                null,
+                null).get(5, TimeUnit.SECONDS);
+    }
+
+    private static void awaitSessions(final IODispatcherLoad load, final int expected) throws InterruptedException {
+        for (int i = 0; i < 50 && load.getSessions() != expected; i++) {
+            Thread.sleep(100);
+        }
+        Assertions.assertEquals(expected, load.getSessions());
+    }
+
+    @Test
+    public void testLeastLoadedAssignment() throws Exception {
+        final List<? extends IODispatcherLoad> loads = ioReactorGroup.getDispatcherLoads();
+        Assertions.assertEquals(2, loads.size());
+        Assertions.assertEquals(IOReactorStatus.ACTIVE, ioReactorGroup.getStatus());
+
+        final IOSession session1 = connect();
+        awaitSessions(loads.get(0), 1);
+        Assertions.assertEquals(0, loads.get(1).getSessions());
+
+        final IOSession session2 = connect();
+        awaitSessions(loads.get(1), 1);
+        Assertions.assertEquals(1, loads.get(0).getSessions());
+        Assertions.assertEquals(0, loads.get(0).getPendingConnects());
+        Assertions.assertEquals(0, loads.get(1).getPendingConnects());
+
+        session1.close(CloseMode.IMMEDIATE);
+        awaitSessions(loads.get(0), 0);
+
+        final IOSession session3 = connect();
+        awaitSessions(loads.get(0), 1);
+        Assertions.assertEquals(1, loads.get(1).getSessions());
+
+        session2.close(CloseMode.IMMEDIATE);
+        session3.close(CloseMode.IMMEDIATE);
+    }
+
+    @Test
+    public void testCustomSelector() throws Exception {
+        ioReactorGroup.close(CloseMode.IMMEDIATE);
+        ioReactorGroup = new IOReactorGroup(
+                (ioSession, attachment) -> NOOP_HANDLER,
+                IOReactorConfig.custom().setIoThreadCount(3).build(),
+                null,
+                null,
+                null,
+                null,
+                null,
+                dispatchers -> dispatchers.size() - 1);
+        ioReactorGroup.start();
+
+        final IOSession session1 = connect();
+        final IOSession session2 = connect();
+        final List<? extends IODispatcherLoad> loads = ioReactorGroup.getDispatcherLoads();
+        awaitSessions(loads.get(2), 2);
+        Assertions.assertEquals(0, loads.get(0).getSessions());
+        Assertions.assertEquals(0, loads.get(1).getSessions());
+
+        session1.close(CloseMode.IMMEDIATE);
+        session2.close(CloseMode.IMMEDIATE);
+
+        ioReactorGroup.initiateShutdown();
+        ioReactorGroup.awaitShutdown(TimeValue.ofSeconds(5));
+        ioReactorGroup.close(CloseMode.GRACEFUL);
+        Assertions.assertEquals(IOReactorStatus.SHUT_DOWN, ioReactorGroup.getStatus());
+    }
+
+}
@@ -0,0 +1,144 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.async;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.reactor.ConnectionInitiator;
+import org.apache.hc.core5.reactor.IOSession;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class TestInternalH2ConnPool {
+
+    private final HttpHost host = new HttpHost("http", "somehost", 80);
+
+    private ConnectionInitiator connectionInitiator;
+    private List<IOSession> sessions;
+
+    @BeforeEach
+    public void setup() {
+        sessions = new ArrayList<>();
+        connectionInitiator = Mockito.mock(ConnectionInitiator.class);
+        Mockito.when(connectionInitiator.connect(
+                ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any())).thenAnswer(invocation -> {
+                    final FutureCallback<IOSession> callback = invocation.getArgument(5);
+                    final IOSession ioSession = Mockito.mock(IOSession.class);
+                    Mockito.when(ioSession.isOpen()).thenReturn(true);
+                    sessions.add(ioSession);
+                    final BasicFuture<IOSession> future = new BasicFuture<>(callback);
+                    future.completed(ioSession);
+                    return future;
+                });
+    }
+
+    private IOSession getSession(final InternalH2ConnPool connPool) throws Exception {
+        final BasicFuture<IOSession> future = new BasicFuture<>(null);
+        connPool.getSession(host, Timeout.ofSeconds(1), new FutureCallback<IOSession>() {
+
+            @Override
+            public void completed(final IOSession ioSession) {
+                future.completed(ioSession);
+            }
+
+            @Override
+            public void failed(final Exception ex) {
+                future.failed(ex);
+            }
+
+            @Override
+            public void cancelled() {
+                future.cancel();
+            }
+
+        });
+        return future.get();
+    }
+
+    @Test
+    public void testSingleSessionPerHost() throws Exception {
+        final InternalH2ConnPool connPool = new InternalH2ConnPool(connectionInitiator, h -> null, null);
+        final IOSession session1 = getSession(connPool);
+        final IOSession session2 = getSession(connPool);
+        Assertions.assertSame(session1, session2);
+        Assertions.assertEquals(1, sessions.size());
+    }
+
+    @Test
+    public void testNewSessionOnlyWhenSaturated() throws Exception {
+        final InternalH2ConnPool connPool = new InternalH2ConnPool(connectionInitiator, h -> null, null, 3, 2);
+        final IOSession session1 = getSession(connPool);
+        Assertions.assertSame(session1, getSession(connPool));
+        Assertions.assertEquals(1, sessions.size());
+
+        final IOSession session2 = getSession(connPool);
+        Assertions.assertNotSame(session1, session2);
+        Assertions.assertEquals(2, sessions.size());
+        // The least loaded session gets the next stream
+        Assertions.assertSame(session2, getSession(connPool));
+        Assertions.assertEquals(4, connPool.getStreamCount(host));
+
+        connPool.releaseSession(host, session1);
+        Assertions.assertSame(session1, getSession(connPool));
+        Assertions.assertEquals(2, sessions.size());
+    }
+
+    @Test
+    public void testSaturatedSessionsShareWhenAtLimit() throws Exception {
+        final InternalH2ConnPool connPool = new InternalH2ConnPool(connectionInitiator, h -> null, null, 2, 1);
+        final IOSession session1 = getSession(connPool);
+        final IOSession session2 = getSession(connPool);
+        Assertions.assertNotSame(session1, session2);
+        getSession(connPool);
+        Assertions.assertEquals(2, sessions.size());
+        Assertions.assertEquals(3, connPool.getStreamCount(host));
+    }
+
+    @Test
+    public void testDrainingSessionReceivesNoNewStreams() throws Exception {
+        final InternalH2ConnPool connPool = new InternalH2ConnPool(connectionInitiator, h -> null, null, 2, 10);
+        final IOSession session1 = getSession(connPool);
+        connPool.drainSession(session1);
+
+        final IOSession session2 = getSession(connPool);
+        Assertions.assertNotSame(session1, session2);
+        Assertions.assertSame(session2, getSession(connPool));
+
+        connPool.releaseSession(host, session1);
+        Assertions.assertEquals(2, connPool.getStreamCount(host));
+    }
+
+}
@@ -27,12 +27,21 @@
 package org.apache.hc.client5.http.impl.classic;
 
 import java.io.IOException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.hc.client5.http.classic.ExecChain;
 import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.impl.VirtualThreadSupport;
 import org.apache.hc.core5.http.ClassicHttpRequest;
 import org.apache.hc.core5.http.ClassicHttpResponse;
 import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.HttpStatus;
+import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 public class TestHttpClientBuilder {
@@ -55,6 +64,29 @@ public void testAddInterceptorLastDoesNotThrow() throws IOException {
                 .close();
     }
 
+    @Test
+    public void testBuildFutureRequestExecutionService() throws Exception {
+        final AtomicReference<Thread> executingThread = new AtomicReference<>();
+        try (final FutureRequestExecutionService service = HttpClients.custom()
+                .addExecInterceptorFirst("capture-thread", (request, scope, chain) -> {
+                    executingThread.set(Thread.currentThread());
+                    return new BasicClassicHttpResponse(HttpStatus.SC_OK);
+                })
+                .buildFutureRequestExecutionService()) {
+            final FutureTask<Integer> task = service.execute(
+                    new HttpGet("http://somehost/"), null, HttpResponse::getCode);
+            Assertions.assertEquals(HttpStatus.SC_OK, task.get(5, TimeUnit.SECONDS));
+        }
+        final Thread thread = executingThread.get();
+        Assertions.assertNotNull(thread);
+        if (VirtualThreadSupport.isSupported()) {
+            Assertions.assertEquals(Boolean.TRUE, Thread.class.getMethod("isVirtual").invoke(thread));
+        } else {
+            Assertions.assertTrue(thread.getName().startsWith("httpclient-exec"));
+            Assertions.assertTrue(thread.isDaemon());
+        }
+    }
+
     enum NopExecChainHandler implements ExecChainHandler {
         INSTANCE;
 
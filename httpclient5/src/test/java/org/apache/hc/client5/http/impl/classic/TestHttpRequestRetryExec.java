@@ -29,6 +29,9 @@
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.hc.client5.http.HttpRequestRetryStrategy;
 import org.apache.hc.client5.http.HttpRoute;
@@ -38,6 +41,7 @@
 import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.entity.EntityBuilder;
+import org.apache.hc.client5.http.impl.TokenBucketRetryBudget;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.http.ClassicHttpRequest;
 import org.apache.hc.core5.http.ClassicHttpResponse;
@@ -62,8 +66,6 @@ public class TestHttpRequestRetryExec {
     private ExecChain chain;
     @Mock
     private ExecRuntime endpoint;
-    @Mock
-    private TimeValue nextInterval;
 
     private HttpRequestRetryExec retryExec;
     private HttpHost target;
@@ -105,6 +107,38 @@ public void testFundamentals1() throws Exception {
         Mockito.verify(response, Mockito.times(1)).close();
     }
 
+    @Test
+    public void testRetryBudgetExhausted() throws Exception {
+        final HttpRoute route = new HttpRoute(target);
+        final HttpGet request = new HttpGet("/test");
+        final HttpClientContext context = HttpClientContext.create();
+
+        final ClassicHttpResponse response = Mockito.mock(ClassicHttpResponse.class);
+
+        Mockito.when(chain.proceed(
+                Mockito.any(),
+                Mockito.any())).thenReturn(response);
+        Mockito.when(retryStrategy.retryRequest(
+                Mockito.any(),
+                Mockito.anyInt(),
+                Mockito.any())).thenReturn(Boolean.TRUE);
+        Mockito.when(retryStrategy.getRetryInterval(
+                Mockito.any(),
+                Mockito.anyInt(),
+                Mockito.any())).thenReturn(TimeValue.ZERO_MILLISECONDS);
+
+        final TokenBucketRetryBudget retryBudget = new TokenBucketRetryBudget(0.0, 2);
+        final HttpRequestRetryExec budgetRetryExec = new HttpRequestRetryExec(retryStrategy, retryBudget);
+        final ExecChain.Scope scope = new ExecChain.Scope("test", route, request, endpoint, context);
+        final ClassicHttpResponse finalResponse = budgetRetryExec.execute(request, scope, chain);
+
+        Assertions.assertSame(response, finalResponse);
+        Mockito.verify(chain, Mockito.times(3)).proceed(
+                Mockito.any(),
+                Mockito.same(scope));
+        Assertions.assertEquals(0, retryBudget.getAvailableRetries(route));
+    }
+
     @Test
     public void testRetrySleepOnIOException() throws Exception {
         final HttpRoute route = new HttpRoute(target);
@@ -125,17 +159,85 @@ public void testRetrySleepOnIOException() throws Exception {
                 Mockito.any(),
                 Mockito.any(),
                 Mockito.anyInt(),
-                Mockito.any())).thenReturn(nextInterval);
-        Mockito.when(nextInterval.getDuration()).thenReturn(100L);
-        Mockito.when(nextInterval.compareTo(Mockito.any())).thenReturn(-1);
+                Mockito.any())).thenReturn(TimeValue.ofMilliseconds(100));
 
         final ExecChain.Scope scope = new ExecChain.Scope("test", route, request, endpoint, context);
+        final long start = System.nanoTime();
         retryExec.execute(request, scope, chain);
 
         Mockito.verify(chain, Mockito.times(2)).proceed(
                 Mockito.any(),
                 Mockito.same(scope));
-        Mockito.verify(nextInterval, Mockito.times(1)).sleep();
+        Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 100);
+    }
+
+    @Test
+    public void testRetryWaitAbortedOnCancel() throws Exception {
+        final HttpRoute route = new HttpRoute(target);
+        final HttpGet request = new HttpGet("/test");
+        final HttpClientContext context = HttpClientContext.create();
+
+        Mockito.when(chain.proceed(
+                Mockito.same(request),
+                Mockito.any())).thenThrow(new IOException("Ka-boom"));
+        Mockito.when(retryStrategy.retryRequest(
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.anyInt(),
+                Mockito.any())).thenReturn(Boolean.TRUE);
+        Mockito.when(retryStrategy.getRetryInterval(
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.anyInt(),
+                Mockito.any())).thenReturn(TimeValue.ofMinutes(1));
+        Mockito.when(endpoint.isExecutionAborted()).thenAnswer(invocation -> request.isCancelled());
+
+        final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        try {
+            scheduler.schedule(request::cancel, 100, TimeUnit.MILLISECONDS);
+            final ExecChain.Scope scope = new ExecChain.Scope("test", route, request, endpoint, context);
+            final long start = System.nanoTime();
+            Assertions.assertThrows(RequestFailedException.class, () -> retryExec.execute(request, scope, chain));
+            Assertions.assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 10);
+            Mockito.verify(chain, Mockito.times(1)).proceed(
+                    Mockito.any(),
+                    Mockito.same(scope));
+        } finally {
+            scheduler.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testNoRetryBeyondExecutionTimeout() throws Exception {
+        final HttpRoute route = new HttpRoute(target);
+        final HttpGet request = new HttpGet("/test");
+        final HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.custom()
+                .setExecutionTimeout(Timeout.ofSeconds(1))
+                .build());
+
+        final ClassicHttpResponse response = Mockito.mock(ClassicHttpResponse.class);
+
+        Mockito.when(chain.proceed(
+                Mockito.any(),
+                Mockito.any())).thenReturn(response);
+        Mockito.when(retryStrategy.retryRequest(
+                Mockito.any(),
+                Mockito.anyInt(),
+                Mockito.any())).thenReturn(Boolean.TRUE);
+        Mockito.when(retryStrategy.getRetryInterval(
+                Mockito.any(),
+                Mockito.anyInt(),
+                Mockito.any())).thenReturn(TimeValue.ofMilliseconds(400));
+
+        final ExecChain.Scope scope = new ExecChain.Scope("test", route, request, endpoint, context);
+        final ClassicHttpResponse finalResponse = retryExec.execute(request, scope, chain);
+
+        Assertions.assertSame(response, finalResponse);
+        // 0 + 400 ms, 400 + 400 ms fit into 1 s; 800 + 400 ms do not
+        Mockito.verify(chain, Mockito.times(3)).proceed(
+                Mockito.any(),
+                Mockito.same(scope));
     }
 
     @Test
@@ -90,7 +90,7 @@ public void setup() throws Exception {
         MockitoAnnotations.openMocks(this);
         client = new InternalHttpClient(connManager, requestExecutor, new ExecChainElement(execChain, null), routePlanner,
                 cookieSpecRegistry, authSchemeRegistry, cookieStore, credentialsProvider,
-                defaultConfig, Arrays.asList(closeable1, closeable2));
+                defaultConfig, null, Arrays.asList(closeable1, closeable2));
 
     }
 
@@ -27,15 +27,18 @@
 package org.apache.hc.client5.http.impl.classic;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InterruptedIOException;
 
 import org.apache.hc.client5.http.ConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.UserTokenHandler;
 import org.apache.hc.client5.http.classic.ExecChain;
 import org.apache.hc.client5.http.classic.ExecRuntime;
 import org.apache.hc.client5.http.classic.methods.HttpGet;
+import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.client5.http.entity.EntityBuilder;
 import org.apache.hc.client5.http.impl.ConnectionShutdownException;
 import org.apache.hc.client5.http.io.HttpClientConnectionManager;
@@ -46,12 +49,14 @@
 import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.HttpException;
 import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.io.entity.StringEntity;
 import org.apache.hc.core5.http.message.BasicClassicHttpResponse;
 import org.apache.hc.core5.http.protocol.HttpProcessor;
 import org.apache.hc.core5.util.TimeValue;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -169,6 +174,38 @@ public void testExecRequestNonPersistentConnectionNoResponseEntity() throws Exce
         Assertions.assertTrue(finalResponse instanceof CloseableHttpResponse);
     }
 
+    @Test
+    public void testEventListener() throws Exception {
+        final HttpRoute route = new HttpRoute(target);
+        final ClassicHttpRequest request = new HttpPost("/test");
+        final HttpEntity requestEntity = new StringEntity("stuff");
+        request.setEntity(requestEntity);
+        final HttpClientContext context = HttpClientContext.create();
+        final HttpClientEventListener eventListener = Mockito.mock(HttpClientEventListener.class);
+        context.setEventListener(eventListener);
+
+        final ClassicHttpResponse response = new BasicClassicHttpResponse(200, "OK");
+        response.setEntity(new StringEntity("more stuff"));
+
+        Mockito.when(execRuntime.execute(
+                Mockito.anyString(),
+                Mockito.same(request),
+                Mockito.any())).thenAnswer(invocation -> {
+                    request.getEntity().writeTo(new ByteArrayOutputStream());
+                    return response;
+                });
+
+        final ExecChain.Scope scope = new ExecChain.Scope("test", route, request, execRuntime, context);
+        mainClientExec.execute(request, scope, null);
+
+        final InOrder inOrder = Mockito.inOrder(eventListener);
+        inOrder.verify(eventListener).onRequestStart(Mockito.same(context), Mockito.anyLong(), Mockito.same(request));
+        inOrder.verify(eventListener).onRequestBodyEnd(Mockito.same(context), Mockito.anyLong(), Mockito.same(request));
+        inOrder.verify(eventListener).onResponseStart(Mockito.same(context), Mockito.anyLong(), Mockito.same(response));
+        inOrder.verify(eventListener).onResponseEnd(Mockito.same(context), Mockito.anyLong());
+        Assertions.assertSame(requestEntity, request.getEntity());
+    }
+
     @Test
     public void testExecRequestPersistentConnection() throws Exception {
         final HttpRoute route = new HttpRoute(target);
@@ -36,11 +36,13 @@
 
 import org.apache.hc.client5.http.ConnectTimeoutException;
 import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.HttpClientEventListener;
 import org.apache.hc.client5.http.HttpHostConnectException;
 import org.apache.hc.client5.http.SchemePortResolver;
 import org.apache.hc.client5.http.UnsupportedSchemeException;
 import org.apache.hc.client5.http.config.TlsConfig;
 import org.apache.hc.client5.http.io.ManagedHttpClientConnection;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.client5.http.socket.ConnectionSocketFactory;
 import org.apache.hc.client5.http.socket.LayeredConnectionSocketFactory;
 import org.apache.hc.core5.http.HttpHost;
@@ -53,6 +55,7 @@
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
 
 @SuppressWarnings({"boxing","static-access"}) // test code
@@ -156,6 +159,44 @@ public void testConnectTimeout() throws Exception {
                         conn, host, null, TimeValue.ofMilliseconds(1000), SocketConfig.DEFAULT, context));
     }
 
+    @Test
+    public void testConnectEvents() throws Exception {
+        final HttpClientContext context = HttpClientContext.create();
+        final HttpClientEventListener eventListener = Mockito.mock(HttpClientEventListener.class);
+        context.setEventListener(eventListener);
+        final HttpHost host = new HttpHost("somehost");
+        final InetAddress[] addresses = { InetAddress.getByAddress(new byte[] {127, 0, 0, 1}) };
+
+        Mockito.when(dnsResolver.resolve("somehost")).thenReturn(addresses);
+        Mockito.when(socketFactoryRegistry.lookup("http")).thenReturn(plainSocketFactory);
+        Mockito.when(schemePortResolver.resolve(host)).thenReturn(80);
+        Mockito.when(plainSocketFactory.createSocket(Mockito.any(), Mockito.any())).thenReturn(socket);
+        Mockito.when(plainSocketFactory.connectSocket(
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any(),
+                Mockito.any()))
+                .thenReturn(socket)
+                .thenThrow(new ConnectException());
+
+        connectionOperator.connect(conn, host, null, TimeValue.ofMilliseconds(1000), SocketConfig.DEFAULT, context);
+
+        final InOrder inOrder = Mockito.inOrder(eventListener);
+        inOrder.verify(eventListener).onConnectStart(Mockito.same(context), Mockito.anyLong(), Mockito.eq(host));
+        inOrder.verify(eventListener).onDnsStart(Mockito.same(context), Mockito.anyLong(), Mockito.eq("somehost"));
+        inOrder.verify(eventListener).onDnsEnd(Mockito.same(context), Mockito.anyLong(), Mockito.eq("somehost"), Mockito.same(addresses));
+        inOrder.verify(eventListener).onConnectEnd(Mockito.same(context), Mockito.anyLong(), Mockito.eq(host));
+
+        Assertions.assertThrows(HttpHostConnectException.class, () ->
+                connectionOperator.connect(
+                        conn, host, null, TimeValue.ofMilliseconds(1000), SocketConfig.DEFAULT, context));
+        Mockito.verify(eventListener).onConnectFailed(
+                Mockito.same(context), Mockito.anyLong(), Mockito.eq(host), Mockito.any(HttpHostConnectException.class));
+    }
+
     @Test
     public void testConnectFailure() throws Exception {
         final HttpContext context = new BasicHttpContext();
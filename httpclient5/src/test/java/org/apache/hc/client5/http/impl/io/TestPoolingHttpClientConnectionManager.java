@@ -34,6 +34,7 @@
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import org.apache.hc.client5.http.ConnPoolListener;
 import org.apache.hc.client5.http.DnsResolver;
 import org.apache.hc.client5.http.HttpRoute;
 import org.apache.hc.client5.http.SchemePortResolver;
@@ -163,6 +164,42 @@ public void testLeaseFutureTimeout() throws Exception {
                 connRequest1.get(Timeout.ofSeconds(1)));
     }
 
+    @Test
+    public void testConnPoolListener() throws Exception {
+        final HttpHost target = new HttpHost("localhost", 80);
+        final HttpRoute route = new HttpRoute(target);
+        final ConnPoolListener listener = Mockito.mock(ConnPoolListener.class);
+        mgr.setConnPoolListener(listener);
+
+        final PoolEntry<HttpRoute, ManagedHttpClientConnection> entry = new PoolEntry<>(route, TimeValue.NEG_ONE_MILLISECOND);
+        entry.assignConnection(conn);
+
+        Mockito.when(conn.isOpen()).thenReturn(true);
+        Mockito.when(conn.isConsistent()).thenReturn(true);
+        Mockito.when(future.get(1, TimeUnit.SECONDS))
+                .thenReturn(entry)
+                .thenThrow(new TimeoutException());
+        Mockito.when(pool.lease(
+                Mockito.eq(route),
+                Mockito.eq(null),
+                Mockito.any(),
+                Mockito.eq(null)))
+                .thenReturn(future);
+
+        final ConnectionEndpoint endpoint1 = mgr.lease("some-id", route, null).get(Timeout.ofSeconds(1));
+        mgr.release(endpoint1, null, TimeValue.NEG_ONE_MILLISECOND);
+
+        final LeaseRequest connRequest2 = mgr.lease("some-id", route, null);
+        Assertions.assertThrows(TimeoutException.class, () ->
+                connRequest2.get(Timeout.ofSeconds(1)));
+
+        Mockito.verify(listener, Mockito.times(2)).onLeaseRequested(route);
+        Mockito.verify(listener).onLeaseGranted(Mockito.eq(route), Mockito.anyLong(), Mockito.eq(true));
+        Mockito.verify(listener).onRelease(route, true);
+        Mockito.verify(listener).onLeaseTimeout(Mockito.eq(route), Mockito.anyLong());
+        Mockito.verify(listener, Mockito.never()).onLeaseFailed(Mockito.any(), Mockito.anyLong());
+    }
+
     @Test
     public void testReleaseReusable() throws Exception {
         final HttpHost target = new HttpHost("localhost", 80);
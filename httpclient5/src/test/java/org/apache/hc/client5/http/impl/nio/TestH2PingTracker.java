@@ -0,0 +1,113 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.nio;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.nio.ManagedAsyncClientConnection;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http2.nio.AsyncPingHandler;
+import org.apache.hc.core5.http2.nio.command.PingCommand;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolEntry;
+import org.apache.hc.core5.reactor.Command;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+public class TestH2PingTracker {
+
+    private HttpRoute route;
+    private ManagedAsyncClientConnection connection;
+    private PoolEntry<HttpRoute, ManagedAsyncClientConnection> entry;
+    private H2PingTracker pingTracker;
+
+    @BeforeEach
+    public void setup() {
+        route = new HttpRoute(new HttpHost("https", "somehost", 443));
+        connection = Mockito.mock(ManagedAsyncClientConnection.class);
+        Mockito.when(connection.isOpen()).thenReturn(true);
+        Mockito.when(connection.getProtocolVersion()).thenReturn(HttpVersion.HTTP_2);
+        entry = new PoolEntry<>(route, TimeValue.NEG_ONE_MILLISECOND);
+        entry.assignConnection(connection);
+        pingTracker = new H2PingTracker();
+    }
+
+    private AsyncPingHandler capturePing() {
+        final ArgumentCaptor<Command> captor = ArgumentCaptor.forClass(Command.class);
+        Mockito.verify(connection).submitCommand(captor.capture(), ArgumentMatchers.eq(Command.Priority.IMMEDIATE));
+        return ((PingCommand) captor.getValue()).getHandler();
+    }
+
+    @Test
+    public void testAcknowledgedPingUpdatesRoundTripTime() throws Exception {
+        Assertions.assertNull(pingTracker.getRoundTripTime(route));
+
+        pingTracker.ping(entry, Timeout.ofSeconds(5));
+        final AsyncPingHandler handler = capturePing();
+        handler.consumeResponse(handler.getData());
+
+        Assertions.assertNotNull(pingTracker.getRoundTripTime(connection));
+        Assertions.assertNotNull(pingTracker.getRoundTripTime(route));
+        Assertions.assertNull(pingTracker.getRoundTripTime(new HttpRoute(new HttpHost("https", "otherhost", 443))));
+    }
+
+    @Test
+    public void testSmoothedRoundTripTime() {
+        pingTracker.record(connection, route, 800);
+        Assertions.assertEquals(800, pingTracker.getRoundTripTime(route).toNanoseconds());
+        pingTracker.record(connection, route, 1600);
+        Assertions.assertEquals(900, pingTracker.getRoundTripTime(route).toNanoseconds());
+    }
+
+    @Test
+    public void testUnacknowledgedPingClosesConnection() throws Exception {
+        pingTracker.ping(entry, Timeout.ofSeconds(5));
+        capturePing();
+        // PING still outstanding, no timeout yet
+        pingTracker.ping(entry, Timeout.ofSeconds(5));
+        Mockito.verify(connection, Mockito.never()).close(ArgumentMatchers.any());
+
+        Thread.sleep(20);
+        pingTracker.ping(entry, Timeout.ofMilliseconds(10));
+        Mockito.verify(connection).close(CloseMode.IMMEDIATE);
+        Mockito.verify(connection, Mockito.times(1)).submitCommand(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+    @Test
+    public void testHttp1ConnectionNotPinged() {
+        Mockito.when(connection.getProtocolVersion()).thenReturn(HttpVersion.HTTP_1_1);
+        pingTracker.ping(entry, Timeout.ofSeconds(5));
+        Mockito.verify(connection, Mockito.never()).submitCommand(ArgumentMatchers.any(), ArgumentMatchers.any());
+    }
+
+}
@@ -0,0 +1,197 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.nio;
+
+import java.util.concurrent.Future;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.nio.AsyncClientConnectionOperator;
+import org.apache.hc.client5.http.nio.AsyncConnectionEndpoint;
+import org.apache.hc.client5.http.nio.ManagedAsyncClientConnection;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.BasicFuture;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpVersion;
+import org.apache.hc.core5.http.nio.AsyncClientExchangeHandler;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.ManagedConnPool;
+import org.apache.hc.core5.pool.PoolEntry;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.MockitoAnnotations;
+
+/**
+ * {@link PoolingAsyncClientConnectionManager} tests.
+ */
+public class TestPoolingAsyncClientConnectionManager {
+
+    @Mock
+    private ManagedConnPool<HttpRoute, ManagedAsyncClientConnection> pool;
+    @Mock
+    private AsyncClientConnectionOperator connectionOperator;
+    @Mock
+    private AsyncClientExchangeHandler exchangeHandler;
+
+    private HttpRoute route;
+    private PoolingAsyncClientConnectionManager mgr;
+
+    @BeforeEach
+    public void setup() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        route = new HttpRoute(new HttpHost("https", "somehost", 443));
+        mgr = new PoolingAsyncClientConnectionManager(pool, connectionOperator);
+    }
+
+    private PoolEntry<HttpRoute, ManagedAsyncClientConnection> createEntry(final HttpVersion version) {
+        final ManagedAsyncClientConnection connection = Mockito.mock(ManagedAsyncClientConnection.class);
+        Mockito.when(connection.isOpen()).thenReturn(true);
+        Mockito.when(connection.getProtocolVersion()).thenReturn(version);
+        final PoolEntry<HttpRoute, ManagedAsyncClientConnection> entry = new PoolEntry<>(route, TimeValue.NEG_ONE_MILLISECOND);
+        entry.assignConnection(connection);
+        return entry;
+    }
+
+    @SafeVarargs
+    @SuppressWarnings("unchecked")
+    private final void poolLeases(final PoolEntry<HttpRoute, ManagedAsyncClientConnection>... entries) {
+        final int[] count = new int[1];
+        Mockito.when(pool.lease(ArgumentMatchers.eq(route), ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any()))
+                .thenAnswer(invocation -> {
+                    final FutureCallback<PoolEntry<HttpRoute, ManagedAsyncClientConnection>> callback = invocation.getArgument(3);
+                    final BasicFuture<PoolEntry<HttpRoute, ManagedAsyncClientConnection>> future = new BasicFuture<>(callback);
+                    future.completed(entries[count[0]++]);
+                    return future;
+                });
+    }
+
+    private AsyncConnectionEndpoint leaseAndExecute() throws Exception {
+        final Future<AsyncConnectionEndpoint> future = mgr.lease("id", route, null, Timeout.ofSeconds(1), null);
+        final AsyncConnectionEndpoint endpoint = future.get();
+        endpoint.execute("ex", exchangeHandler, HttpClientContext.create());
+        return endpoint;
+    }
+
+    @Test
+    public void testH2ConnectionSharedByConcurrentLeases() throws Exception {
+        final PoolEntry<HttpRoute, ManagedAsyncClientConnection> entry = createEntry(HttpVersion.HTTP_2);
+        poolLeases(entry);
+        mgr.setMessageMultiplexing(true);
+
+        final AsyncConnectionEndpoint endpoint1 = leaseAndExecute();
+        final AsyncConnectionEndpoint endpoint2 = leaseAndExecute();
+        final AsyncConnectionEndpoint endpoint3 = leaseAndExecute();
+
+        Mockito.verify(pool, Mockito.times(1)).lease(ArgumentMatchers.eq(route), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any());
+        Assertions.assertEquals(1, mgr.getMultiplexedConnectionCount(route));
+
+        mgr.release(endpoint2, null, TimeValue.NEG_ONE_MILLISECOND);
+        mgr.release(endpoint1, null, TimeValue.NEG_ONE_MILLISECOND);
+        Mockito.verify(pool, Mockito.never()).release(ArgumentMatchers.any(), ArgumentMatchers.anyBoolean());
+
+        mgr.release(endpoint3, null, TimeValue.NEG_ONE_MILLISECOND);
+        Mockito.verify(pool).release(entry, true);
+        Assertions.assertEquals(0, mgr.getMultiplexedConnectionCount(route));
+    }
+
+    @Test
+    public void testNewH2ConnectionWhenSaturated() throws Exception {
+        final PoolEntry<HttpRoute, ManagedAsyncClientConnection> entry1 = createEntry(HttpVersion.HTTP_2);
+        final PoolEntry<HttpRoute, ManagedAsyncClientConnection> entry2 = createEntry(HttpVersion.HTTP_2);
+        poolLeases(entry1, entry2);
+        mgr.setMessageMultiplexing(true);
+        mgr.setMaxConcurrentStreams(2);
+
+        leaseAndExecute();
+        leaseAndExecute();
+        leaseAndExecute();
+        leaseAndExecute();
+
+        Mockito.verify(pool, Mockito.times(2)).lease(ArgumentMatchers.eq(route), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any());
+        Assertions.assertEquals(2, mgr.getMultiplexedConnectionCount(route));
+    }
+
+    @Test
+    public void testHttp1ConnectionNotShared() throws Exception {
+        final PoolEntry<HttpRoute, ManagedAsyncClientConnection> entry1 = createEntry(HttpVersion.HTTP_1_1);
+        final PoolEntry<HttpRoute, ManagedAsyncClientConnection> entry2 = createEntry(HttpVersion.HTTP_1_1);
+        poolLeases(entry1, entry2);
+        mgr.setMessageMultiplexing(true);
+
+        final AsyncConnectionEndpoint endpoint1 = leaseAndExecute();
+        leaseAndExecute();
+
+        Mockito.verify(pool, Mockito.times(2)).lease(ArgumentMatchers.eq(route), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any());
+        mgr.release(endpoint1, null, TimeValue.NEG_ONE_MILLISECOND);
+        Mockito.verify(pool).release(entry1, true);
+    }
+
+    @Test
+    public void testH2ConnectionNotSharedByDefault() throws Exception {
+        final PoolEntry<HttpRoute, ManagedAsyncClientConnection> entry1 = createEntry(HttpVersion.HTTP_2);
+        final PoolEntry<HttpRoute, ManagedAsyncClientConnection> entry2 = createEntry(HttpVersion.HTTP_2);
+        poolLeases(entry1, entry2);
+
+        leaseAndExecute();
+        leaseAndExecute();
+
+        Mockito.verify(pool, Mockito.times(2)).lease(ArgumentMatchers.eq(route), ArgumentMatchers.any(),
+                ArgumentMatchers.any(), ArgumentMatchers.any());
+        Assertions.assertEquals(0, mgr.getMultiplexedConnectionCount(route));
+    }
+
+    @Test
+    public void testCloseSharedEndpointKeepsConnection() throws Exception {
+        final PoolEntry<HttpRoute, ManagedAsyncClientConnection> entry = createEntry(HttpVersion.HTTP_2);
+        final ManagedAsyncClientConnection connection = entry.getConnection();
+        poolLeases(entry);
+        mgr.setMessageMultiplexing(true);
+
+        final AsyncConnectionEndpoint endpoint1 = leaseAndExecute();
+        final AsyncConnectionEndpoint endpoint2 = leaseAndExecute();
+
+        endpoint2.close(CloseMode.IMMEDIATE);
+        mgr.release(endpoint2, null, TimeValue.ZERO_MILLISECONDS);
+        Mockito.verify(connection, Mockito.never()).close(ArgumentMatchers.any());
+        Assertions.assertTrue(entry.hasConnection());
+
+        endpoint1.close(CloseMode.IMMEDIATE);
+        mgr.release(endpoint1, null, TimeValue.ZERO_MILLISECONDS);
+        Mockito.verify(connection).close(CloseMode.IMMEDIATE);
+        Mockito.verify(pool).release(entry, false);
+    }
+
+}
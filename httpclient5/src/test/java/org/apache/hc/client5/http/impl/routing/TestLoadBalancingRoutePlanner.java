@@ -0,0 +1,177 @@
+/*
+ * ====================================================================
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ * ====================================================================
+ *
+ * This software consists of voluntary contributions made by many
+ * individuals on behalf of the Apache Software Foundation.  For more
+ * information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ *
+ */
+package org.apache.hc.client5.http.impl.routing;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.HttpResponseInterceptor;
+import org.apache.hc.core5.http.message.BasicHttpResponse;
+import org.apache.hc.core5.http.protocol.BasicHttpContext;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.pool.ConnPoolControl;
+import org.apache.hc.core5.pool.PoolStats;
+import org.apache.hc.core5.util.TimeValue;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+/**
+ * Tests for {@link LoadBalancingRoutePlanner}.
+ */
+public class TestLoadBalancingRoutePlanner {
+
+    private static final HttpHost SERVICE = new HttpHost("http", "service", 80);
+    private static final HttpHost HOST1 = new HttpHost("http", "host1", 80);
+    private static final HttpHost HOST2 = new HttpHost("http", "host2", 80);
+    private static final HttpHost HOST3 = new HttpHost("http", "host3", 80);
+
+    @Test
+    public void testUnknownTargetPassedToDelegate() throws Exception {
+        final LoadBalancingRoutePlanner routePlanner = LoadBalancingRoutePlanner.builder().build();
+        routePlanner.setEndpoints(SERVICE, HOST1, HOST2);
+        final HttpHost target = new HttpHost("http", "somehost", 80);
+        final HttpContext context = new BasicHttpContext();
+        final HttpRoute route = routePlanner.determineRoute(target, context);
+        Assertions.assertEquals(target, route.getTargetHost());
+        Assertions.assertNull(context.getAttribute(LoadBalancingRoutePlanner.SELECTION));
+    }
+
+    @Test
+    public void testRequestsSpreadAcrossEndpoints() throws Exception {
+        final LoadBalancingRoutePlanner routePlanner = LoadBalancingRoutePlanner.builder().build();
+        routePlanner.setEndpoints(new HttpHost("http", "Service"), HOST1, HOST2, HOST3);
+        final Set<HttpHost> hosts = new HashSet<>();
+        for (int i = 0; i < 200; i++) {
+            final HttpContext context = new BasicHttpContext();
+            hosts.add(routePlanner.determineRoute(SERVICE, context).getTargetHost());
+            Assertions.assertNotNull(context.getAttribute(LoadBalancingRoutePlanner.SELECTION));
+        }
+        Assertions.assertEquals(3, hosts.size());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testLeastInFlightPreferred() throws Exception {
+        final ConnPoolControl<HttpRoute> connPoolControl = Mockito.mock(ConnPoolControl.class);
+        Mockito.when(connPoolControl.getStats(ArgumentMatchers.any())).thenAnswer(invocation -> {
+            final HttpRoute route = invocation.getArgument(0);
+            return route.getTargetHost().equals(HOST1)
+                    ? new PoolStats(10, 5, 0, 20) : new PoolStats(1, 0, 0, 20);
+        });
+        final LoadBalancingRoutePlanner routePlanner = LoadBalancingRoutePlanner.builder()
+                .setConnPoolControl(connPoolControl)
+                .build();
+        routePlanner.setEndpoints(SERVICE, HOST1, HOST2);
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals(HOST2, routePlanner.determineRoute(SERVICE, new BasicHttpContext()).getTargetHost());
+        }
+    }
+
+    @Test
+    public void testLowerLatencyPreferred() throws Exception {
+        final LoadBalancingRoutePlanner routePlanner = LoadBalancingRoutePlanner.builder()
+                .setPolicy(LoadBalancingRoutePlanner.Policy.EWMA_LATENCY)
+                .setDecayTime(TimeValue.ofMinutes(10))
+                .build();
+        routePlanner.setEndpoints(SERVICE, HOST1, HOST2);
+        final HttpResponseInterceptor interceptor = routePlanner.responseInterceptor();
+        for (int i = 0; i < 50; i++) {
+            final HttpContext context = new BasicHttpContext();
+            final HttpRoute route = routePlanner.determineRoute(SERVICE, context);
+            if (route.getTargetHost().equals(HOST1)) {
+                Thread.sleep(2);
+            }
+            interceptor.process(new BasicHttpResponse(200), null, context);
+        }
+        Assertions.assertTrue(routePlanner.getLatencyEstimate(SERVICE, HOST1).compareTo(
+                routePlanner.getLatencyEstimate(SERVICE, HOST2)) > 0);
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals(HOST2, routePlanner.determineRoute(SERVICE, new BasicHttpContext()).getTargetHost());
+        }
+    }
+
+    @Test
+    public void testOutlierEjection() throws Exception {
+        final LoadBalancingRoutePlanner routePlanner = LoadBalancingRoutePlanner.builder()
+                .setMaxConsecutiveFailures(3)
+                .setBaseEjectionTime(TimeValue.ofMinutes(1))
+                .build();
+        routePlanner.setEndpoints(SERVICE, HOST1, HOST2);
+        int failures = 0;
+        while (failures < 3) {
+            final HttpContext context = new BasicHttpContext();
+            if (routePlanner.determineRoute(SERVICE, context).getTargetHost().equals(HOST1)) {
+                if (failures % 2 == 0) {
+                    routePlanner.failed(context);
+                } else {
+                    routePlanner.responseInterceptor().process(new BasicHttpResponse(503), null, context);
+                }
+                failures++;
+            }
+        }
+        Assertions.assertTrue(routePlanner.isEjected(SERVICE, HOST1));
+        Assertions.assertFalse(routePlanner.isEjected(SERVICE, HOST2));
+        for (int i = 0; i < 20; i++) {
+            Assertions.assertEquals(HOST2, routePlanner.determineRoute(SERVICE, new BasicHttpContext()).getTargetHost());
+        }
+    }
+
+    @Test
+    public void testAllEndpointsEjected() throws Exception {
+        final LoadBalancingRoutePlanner routePlanner = LoadBalancingRoutePlanner.builder()
+                .setMaxConsecutiveFailures(1)
+                .setBaseEjectionTime(TimeValue.ofMinutes(1))
+                .build();
+        routePlanner.setEndpoints(SERVICE, HOST1);
+        final HttpContext context = new BasicHttpContext();
+        routePlanner.determineRoute(SERVICE, context);
+        routePlanner.failed(context);
+        Assertions.assertTrue(routePlanner.isEjected(SERVICE, HOST1));
+        Assertions.assertEquals(HOST1, routePlanner.determineRoute(SERVICE, new BasicHttpContext()).getTargetHost());
+    }
+
+    @Test
+    public void testEndpointStateRetainedOnUpdate() throws Exception {
+        final LoadBalancingRoutePlanner routePlanner = LoadBalancingRoutePlanner.builder()
+                .setMaxConsecutiveFailures(1)
+                .setBaseEjectionTime(TimeValue.ofMinutes(1))
+                .build();
+        routePlanner.setEndpoints(SERVICE, HOST1);
+        final HttpContext context = new BasicHttpContext();
+        routePlanner.determineRoute(SERVICE, context);
+        routePlanner.failed(context);
+        routePlanner.setEndpoints(SERVICE, HOST1, HOST2);
+        Assertions.assertTrue(routePlanner.isEjected(SERVICE, HOST1));
+        routePlanner.removeService(SERVICE);
+        Assertions.assertEquals(SERVICE, routePlanner.determineRoute(SERVICE, new BasicHttpContext()).getTargetHost());
+    }
+
+}